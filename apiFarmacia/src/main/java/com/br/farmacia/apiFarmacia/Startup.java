@@ -2,10 +2,14 @@ package com.br.farmacia.apiFarmacia;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class Startup {
 	public static void main(String[] args) {
-		SpringApplication.run(Startup.class, args);
+		SpringApplication application = new SpringApplication(Startup.class);
+		// Guarda as etapas da inicializacao para o relatorio de tempos (InicializacaoConfig)
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 }
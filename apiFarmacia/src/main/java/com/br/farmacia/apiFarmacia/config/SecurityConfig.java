@@ -1,8 +1,15 @@
 package com.br.farmacia.apiFarmacia.config;
 
+import com.br.farmacia.apiFarmacia.service.EpocaTokenService;
+import com.br.farmacia.apiFarmacia.infra.limite.LimitadorRequisicoes;
+import com.br.farmacia.apiFarmacia.infra.limite.LimiteRequisicaoFilter;
+import com.br.farmacia.apiFarmacia.infra.limite.LimiteRequisicaoProperties.Etapa;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,11 +23,17 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.authentication.BearerTokenAuthenticationFilter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -41,14 +54,20 @@ public class SecurityConfig {
     private RSAPrivateKey privKey;
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, ObjectProvider<LimitadorRequisicoes> limitadorRequisicoes,
+                                                   ObjectMapper objectMapper) throws Exception {
         http.csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // ← LINHA ADICIONADA
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                                // Redespacho assincrono (SSE) de uma requisicao que ja foi autorizada
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers(HttpMethod.POST, "/login").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/register").permitAll()
+                                // Imagens do catalogo: carregadas por <img>, sem token
+                                .requestMatchers(HttpMethod.GET, "/imagens/**").permitAll()
 
+                                .requestMatchers(HttpMethod.GET, "/pessoa").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.GET, "/pessoa/findAll").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.GET, "/pessoa/findById/{idPessoa}").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/pessoa/create").hasAuthority("SCOPE_ADMIN")
@@ -57,17 +76,34 @@ public class SecurityConfig {
 
                                 .requestMatchers(HttpMethod.PUT, "/venda/update/{idVenda}").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.DELETE, "/venda/delete/{idVenda}").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.GET, "/venda/eventos/metricas").hasAuthority("SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.GET, "/venda/eventos/stream").hasAuthority("SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.GET, "/venda/arquivadas", "/venda/arquivadas/**").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
 
+                                .requestMatchers(HttpMethod.GET, "/produto/validade", "/produto/vencendo").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.POST, "/produto/create").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/produto/import").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.POST, "/produto/{idProduto}/imagem").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.PUT, "/produto/update/{idProduto}").hasAnyAuthority("SCOPE_EMPLOY","SCOPE_ADMIN")
+                                .requestMatchers(HttpMethod.PUT, "/produto/preco/ajuste").hasAuthority("SCOPE_ADMIN")
                                 .requestMatchers(HttpMethod.DELETE, "/produto/delete/{idProduto}").hasAuthority("SCOPE_ADMIN")
 
+                                .requestMatchers("/relatorio/**").hasAuthority("SCOPE_ADMIN")
+
                                 .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults())
                 .oauth2ResourceServer(
                         conf -> conf.jwt(Customizer.withDefaults()));
 
+        // Por IP antes da autenticacao (o filtro do bearer roda antes do Basic), para que credenciais erradas
+        // tambem sejam limitadas; por subject do token depois dela e antes da autorizacao
+        limitadorRequisicoes.ifAvailable(limitador -> http
+                .addFilterBefore(new LimiteRequisicaoFilter(limitador, Etapa.ANTES_DA_AUTENTICACAO, objectMapper),
+                        BearerTokenAuthenticationFilter.class)
+                .addFilterBefore(new LimiteRequisicaoFilter(limitador, Etapa.DEPOIS_DA_AUTENTICACAO, objectMapper),
+                        AuthorizationFilter.class));
+
         return http.build();
     }
 
@@ -82,6 +118,8 @@ public class SecurityConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Cabecalhos de resposta que o front precisa ler (versao para If-Match, repeticao idempotente e espera apos 429)
+        configuration.setExposedHeaders(Arrays.asList("ETag", "Idempotent-Replayed", "Retry-After"));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -89,6 +127,17 @@ public class SecurityConfig {
         return source;
     }
 
+    // EventSource do navegador nao envia cabecalhos: so o feed SSE aceita o token em ?access_token=
+    @Bean
+    public BearerTokenResolver bearerTokenResolver() {
+        DefaultBearerTokenResolver padrao = new DefaultBearerTokenResolver();
+        DefaultBearerTokenResolver comParametro = new DefaultBearerTokenResolver();
+        comParametro.setAllowUriQueryParameter(true);
+        return request -> "/venda/eventos/stream".equals(request.getRequestURI())
+                ? comParametro.resolve(request)
+                : padrao.resolve(request);
+    }
+
     @Bean
     public JwtEncoder jwtEncoder() {
         var jwk = new RSAKey.Builder(pubKey).privateKey(privKey).build();
@@ -97,8 +146,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(pubKey).build();
+    public JwtDecoder jwtDecoder(EpocaTokenService epocaTokenService) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withPublicKey(pubKey).build();
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(), epocaTokenService::validar));
+        return decoder;
     }
 
     @Bean
@@ -0,0 +1,48 @@
+package com.br.farmacia.apiFarmacia.controller;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.CatalogoFacetadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ContagemFacetaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.EventoVendaMetricasDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ImportacaoProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.IncluidosDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaCursorDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutosVencendoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendasNormalizadasDTO;
+import com.br.farmacia.apiFarmacia.infra.json.FiltroCampos;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+import java.util.Set;
+
+// ?fields=idVenda,usuario.nome em qualquer resposta JSON (ou CBOR/Smile): os campos valem para cada item das listagens
+@ControllerAdvice
+public class CamposParciaisAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    static final String PARAMETRO = "fields";
+
+    // Respostas que embrulham uma lista: mantem os proprios campos e os caminhos comecam nos itens
+    public static final Set<Class<?>> ENVELOPES = Set.of(PaginaDTO.class, PaginaCursorDTO.class, VendasNormalizadasDTO.class,
+            CatalogoFacetadoDTO.class, ProdutosVencendoDTO.class, ImportacaoProdutoResponseDTO.class, EventoVendaMetricasDTO.class);
+
+    // Os objetos referenciados do modo normalizado ja saem uma vez so e nao sao recortados; nem as contagens de facetas
+    public static final Set<Class<?>> ISENTOS = Set.of(IncluidosDTO.class, ContagemFacetaDTO.class);
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType, MethodParameter returnType,
+                                           ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        String campos = servletRequest.getServletRequest().getParameter(PARAMETRO);
+        if (campos != null && !campos.isBlank()) {
+            bodyContainer.setFilters(new FiltroCampos(campos, ENVELOPES, ISENTOS).comoProvider());
+        }
+    }
+}
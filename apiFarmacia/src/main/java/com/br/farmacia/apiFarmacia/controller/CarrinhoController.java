@@ -2,17 +2,18 @@ package com.br.farmacia.apiFarmacia.controller;
 
 import com.br.farmacia.apiFarmacia.data.dto.request.ItemCarrinhoRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.CarrinhoResponseDTO;
-import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
-import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
-import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import com.br.farmacia.apiFarmacia.data.dto.response.RecomendacaoResponseDTO;
 import com.br.farmacia.apiFarmacia.service.CarrinhoService;
+import com.br.farmacia.apiFarmacia.service.PessoaService;
+import com.br.farmacia.apiFarmacia.service.RecomendacaoService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/carrinho")
 public class CarrinhoController {
@@ -21,38 +22,38 @@ public class CarrinhoController {
     private CarrinhoService carrinhoService;
 
     @Autowired
-    private PessoaRepository pessoaRepository;
-
-    private Long getUsuarioLogadoId() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+    private PessoaService pessoaService;
 
-        Pessoa pessoa = pessoaRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Usuário logado não encontrado no banco de dados."));
-
-        return pessoa.getIdPessoa();
-    }
+    @Autowired
+    private RecomendacaoService recomendacaoService;
 
     @GetMapping("/all")
     public ResponseEntity<CarrinhoResponseDTO> getCarrinho() {
-        Long idUsuario = getUsuarioLogadoId();
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
         return ResponseEntity.status(HttpStatus.OK).body(carrinhoService.getCarrinhoByUsuario(idUsuario));
     }
 
+    @GetMapping("/recomendacoes")
+    public ResponseEntity<List<RecomendacaoResponseDTO>> getRecomendacoes() {
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
+        return ResponseEntity.status(HttpStatus.OK).body(recomendacaoService.recomendarParaCarrinho(idUsuario));
+    }
+
     @PostMapping("/adicionar")
     public ResponseEntity<CarrinhoResponseDTO> adicionarItem(@RequestBody @Valid ItemCarrinhoRequestDTO dto) {
-        Long idUsuario = getUsuarioLogadoId();
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
         return ResponseEntity.status(HttpStatus.CREATED).body(carrinhoService.adicionarItem(idUsuario, dto));
     }
 
     @DeleteMapping("/remover/{idItemCarrinho}")
     public ResponseEntity<String> removerItem(@PathVariable Long idItemCarrinho) {
-        Long idUsuario = getUsuarioLogadoId();
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
         return ResponseEntity.status(HttpStatus.OK).body(carrinhoService.removerItem(idUsuario, idItemCarrinho));
     }
 
     @DeleteMapping("/limpar")
     public ResponseEntity<String> limparCarrinho() {
-        Long idUsuario = getUsuarioLogadoId();
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
         return ResponseEntity.status(HttpStatus.OK).body(carrinhoService.limparCarrinho(idUsuario));
     }
 }
\ No newline at end of file
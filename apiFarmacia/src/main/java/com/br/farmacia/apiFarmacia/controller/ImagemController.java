@@ -0,0 +1,34 @@
+package com.br.farmacia.apiFarmacia.controller;
+
+import com.br.farmacia.apiFarmacia.infra.imagem.EnvioArquivo;
+import com.br.farmacia.apiFarmacia.service.ImagemProdutoService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/imagens")
+public class ImagemController {
+
+    // O nome e o hash do conteudo: a mesma URL nunca muda de conteudo
+    private static final String CACHE_IMUTAVEL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue();
+
+    @Autowired
+    private ImagemProdutoService imagemProdutoService;
+
+    @GetMapping("/{nome}")
+    public void getImagem(@PathVariable String nome, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path arquivo = imagemProdutoService.localizar(nome);
+        if (arquivo == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        EnvioArquivo.enviar(arquivo, ImagemProdutoService.tipo(nome), ImagemProdutoService.etag(nome), CACHE_IMUTAVEL, request, response);
+    }
+}
@@ -0,0 +1,33 @@
+package com.br.farmacia.apiFarmacia.controller;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.LoteRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.SubRespostaDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.lote.RequisicaoLote;
+import com.br.farmacia.apiFarmacia.service.LoteRequisicaoService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/batch")
+public class LoteController {
+
+    @Autowired
+    private LoteRequisicaoService loteRequisicaoService;
+
+    // Cada item da resposta traz o status, os cabecalhos e o corpo da sub-requisicao de mesma posicao
+    @PostMapping
+    public ResponseEntity<List<SubRespostaDTO>> executarLote(@RequestBody @Valid LoteRequestDTO dto, HttpServletRequest request) {
+        // Um lote dentro de outro ocuparia as threads do pool esperando por sub-requisicoes do mesmo pool
+        if (request.getAttribute(RequisicaoLote.ATRIBUTO_SUB_REQUISICAO) != null) {
+            throw new InvalidRequestException("Um lote não pode conter outro lote.");
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(loteRequisicaoService.executar(dto.requisicoes(), request));
+    }
+}
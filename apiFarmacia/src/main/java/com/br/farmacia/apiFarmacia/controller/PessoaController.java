@@ -2,7 +2,10 @@ package com.br.farmacia.apiFarmacia.controller;
 
 import com.br.farmacia.apiFarmacia.data.dto.request.ChangePasswordRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.PessoaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
 import com.br.farmacia.apiFarmacia.service.PessoaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,6 +24,16 @@ public class PessoaController {
     @Autowired
     private PessoaService pessoaService;
 
+    @GetMapping
+    public ResponseEntity<PaginaDTO<PessoaResumoDTO>> buscarDiretorio(
+            @RequestParam(required = false) UserRole tipoUsuario,
+            @RequestParam(required = false) String nome,
+            @RequestParam(required = false) Boolean ativo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.status(HttpStatus.OK).body(pessoaService.buscarDiretorio(tipoUsuario, nome, ativo, page, size));
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<PessoaResponseDTO>> getAllPessoas() {
         return ResponseEntity.status(HttpStatus.OK).body(pessoaService.getAllPessoas());
@@ -1,14 +1,32 @@
 package com.br.farmacia.apiFarmacia.controller;
 
+import com.br.farmacia.apiFarmacia.data.dto.request.AjustePrecoRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.AjustePrecoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.CatalogoFacetadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ImagemProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ImportacaoProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutosVencendoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RecomendacaoResponseDTO;
+import com.br.farmacia.apiFarmacia.service.CatalogoFacetasService;
+import com.br.farmacia.apiFarmacia.service.ImagemProdutoService;
+import com.br.farmacia.apiFarmacia.service.ProdutoImportacaoService;
 import com.br.farmacia.apiFarmacia.service.ProdutoService;
+import com.br.farmacia.apiFarmacia.service.ProdutoValidadeService;
+import com.br.farmacia.apiFarmacia.service.RecomendacaoService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,14 +36,62 @@ public class ProdutoController {
     @Autowired
     private ProdutoService produtoService;
 
+    @Autowired
+    private ProdutoImportacaoService produtoImportacaoService;
+
+    @Autowired
+    private ProdutoValidadeService produtoValidadeService;
+
+    @Autowired
+    private ImagemProdutoService imagemProdutoService;
+
+    @Autowired
+    private RecomendacaoService recomendacaoService;
+
+    @Autowired
+    private CatalogoFacetasService catalogoFacetasService;
+
     @GetMapping("/all")
     public ResponseEntity<List<ProdutoResponseDTO>> getAllProdutos() {
         return ResponseEntity.status(HttpStatus.OK).body(produtoService.getAllProdutos());
     }
 
+    @GetMapping("/validade")
+    public ResponseEntity<PaginaDTO<ProdutoResponseDTO>> getProdutosPorValidade(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.status(HttpStatus.OK).body(produtoValidadeService.buscarPorValidade(inicio, fim, page, size));
+    }
+
+    @GetMapping("/vencendo")
+    public ResponseEntity<ProdutosVencendoDTO> getProdutosVencendo() {
+        return ResponseEntity.status(HttpStatus.OK).body(produtoValidadeService.getProdutosVencendo());
+    }
+
+    // Varios valores da mesma faceta somam (?fabricante=EMS&fabricante=Medley); facetas diferentes se cruzam
+    @GetMapping("/facetas")
+    public ResponseEntity<CatalogoFacetadoDTO> getCatalogoFacetado(
+            @RequestParam(required = false) List<String> fabricante,
+            @RequestParam(required = false) List<String> preco,
+            @RequestParam(required = false) List<String> validade,
+            @RequestParam(required = false) List<String> disponibilidade,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .body(catalogoFacetasService.consultar(fabricante, preco, validade, disponibilidade, page, size));
+    }
+
     @GetMapping("/{idProduto}")
     public ResponseEntity<ProdutoResponseDTO> getProdutoById(@PathVariable Long idProduto) {
-        return ResponseEntity.status(HttpStatus.OK).body(produtoService.getProdutoById(idProduto));
+        ProdutoResponseDTO produto = produtoService.getProdutoById(idProduto);
+        return ResponseEntity.status(HttpStatus.OK).eTag(VersaoHeader.etag(produto.versao())).body(produto);
+    }
+
+    @GetMapping("/{idProduto}/recomendacoes")
+    public ResponseEntity<List<RecomendacaoResponseDTO>> getRecomendacoes(@PathVariable Long idProduto) {
+        return ResponseEntity.status(HttpStatus.OK).body(recomendacaoService.recomendarParaProduto(idProduto));
     }
 
     @PostMapping("/create")
@@ -33,11 +99,31 @@ public class ProdutoController {
         return ResponseEntity.status(HttpStatus.CREATED).body(produtoService.createProduto(dto));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportacaoProdutoResponseDTO> importarProdutos(
+            @RequestParam("arquivo") MultipartFile arquivo,
+            @RequestParam(defaultValue = "false") boolean reativarExcluidos) {
+        return ResponseEntity.status(HttpStatus.OK).body(produtoImportacaoService.importar(arquivo, reativarExcluidos));
+    }
+
+    // A imagem passa a ser servida por /imagens; a resposta traz tambem as URLs das miniaturas
+    @PostMapping(value = "/{idProduto}/imagem", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImagemProdutoResponseDTO> enviarImagem(@PathVariable Long idProduto, @RequestParam("arquivo") MultipartFile arquivo) {
+        return ResponseEntity.status(HttpStatus.OK).body(imagemProdutoService.salvarImagem(idProduto, arquivo));
+    }
+
     @PutMapping("/update/{idProduto}")
     public ResponseEntity<ProdutoResponseDTO> updateProduto(
             @PathVariable Long idProduto,
-            @RequestBody @Valid ProdutoRequestDTO dto) {
-        return ResponseEntity.status(HttpStatus.OK).body(produtoService.updateProduto(idProduto, dto));
+            @RequestBody @Valid ProdutoRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        ProdutoResponseDTO produto = produtoService.updateProduto(idProduto, dto, VersaoHeader.versao(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(VersaoHeader.etag(produto.versao())).body(produto);
+    }
+
+    @PutMapping("/preco/ajuste")
+    public ResponseEntity<AjustePrecoResponseDTO> ajustarPrecos(@RequestBody @Valid AjustePrecoRequestDTO dto) {
+        return ResponseEntity.status(HttpStatus.OK).body(produtoService.ajustarPrecos(dto));
     }
 
     @DeleteMapping("/delete/{idProduto}")
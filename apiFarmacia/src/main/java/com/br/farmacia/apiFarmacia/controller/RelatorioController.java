@@ -0,0 +1,48 @@
+package com.br.farmacia.apiFarmacia.controller;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.RelatorioVendasRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RelatorioJobResponseDTO;
+import com.br.farmacia.apiFarmacia.service.RelatorioVendasService;
+import com.br.farmacia.apiFarmacia.service.RelatorioVendasService.ArquivoRelatorio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/relatorio")
+public class RelatorioController {
+
+    @Autowired
+    private RelatorioVendasService relatorioVendasService;
+
+    // O relatorio e gerado em segundo plano: a resposta traz o id para acompanhar o progresso
+    @PostMapping("/vendas")
+    public ResponseEntity<RelatorioJobResponseDTO> gerarRelatorioVendas(@RequestBody @Valid RelatorioVendasRequestDTO dto) {
+        RelatorioJobResponseDTO job = relatorioVendasService.submeter(dto);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/relatorio/vendas/" + job.idRelatorio())
+                .body(job);
+    }
+
+    @GetMapping("/vendas/{idRelatorio}")
+    public ResponseEntity<RelatorioJobResponseDTO> getRelatorioVendas(@PathVariable Long idRelatorio) {
+        return ResponseEntity.status(HttpStatus.OK).body(relatorioVendasService.consultar(idRelatorio));
+    }
+
+    @GetMapping("/vendas/{idRelatorio}/arquivo")
+    public ResponseEntity<Resource> baixarRelatorioVendas(@PathVariable Long idRelatorio) {
+        ArquivoRelatorio arquivo = relatorioVendasService.getArquivo(idRelatorio);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(arquivo.formato().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo.nome()).build().toString())
+                .body(new FileSystemResource(arquivo.caminho()));
+    }
+}
@@ -1,14 +1,30 @@
 package com.br.farmacia.apiFarmacia.controller;
 
 import com.br.farmacia.apiFarmacia.data.dto.request.VendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.CompraResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.EventoVendaMetricasDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaCursorDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaArquivadaDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.VendaResponseDTO;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoRingBuffer;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaFeedSse;
+import com.br.farmacia.apiFarmacia.service.ArquivamentoVendaService;
+import com.br.farmacia.apiFarmacia.service.IdempotenciaService;
+import com.br.farmacia.apiFarmacia.service.IdempotenciaService.RespostaIdempotente;
+import com.br.farmacia.apiFarmacia.service.PessoaService;
 import com.br.farmacia.apiFarmacia.service.VendaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,33 +34,104 @@ public class VendaController {
     @Autowired
     private VendaService vendaService;
 
+    @Autowired
+    private VendaEventoRingBuffer vendaEventoRingBuffer;
+
+    @Autowired
+    private PessoaService pessoaService;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private VendaFeedSse vendaFeedSse;
+
+    @Autowired
+    private ArquivamentoVendaService arquivamentoVendaService;
+
+    // normalizado=true: comprador e produtos uma vez so, na secao "included", em vez de repetidos em cada venda
     @GetMapping("/all")
-    public ResponseEntity<List<VendaResponseDTO>> getAllVendas() {
+    public ResponseEntity<?> getAllVendas(@RequestParam(defaultValue = "false") boolean normalizado) {
+        if (normalizado) {
+            return ResponseEntity.status(HttpStatus.OK).body(vendaService.getAllVendasNormalizadas());
+        }
         return ResponseEntity.status(HttpStatus.OK).body(vendaService.getAllVendas());
     }
 
 
+    @GetMapping("/minhas")
+    public ResponseEntity<PaginaCursorDTO<CompraResponseDTO>> getMinhasCompras(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Long idUsuario = pessoaService.getIdUsuarioLogado();
+        return ResponseEntity.status(HttpStatus.OK).body(vendaService.getComprasDoUsuario(idUsuario, cursor, size));
+    }
+
+    // Vendas ja movidas para o arquivo em disco (fora da retencao ou excluidas)
+    @GetMapping("/arquivadas/{idVenda}")
+    public ResponseEntity<VendaArquivadaDTO> getVendaArquivada(@PathVariable Long idVenda) {
+        return ResponseEntity.status(HttpStatus.OK).body(arquivamentoVendaService.buscarPorId(idVenda));
+    }
+
+    @GetMapping("/arquivadas")
+    public ResponseEntity<List<VendaArquivadaDTO>> getVendasArquivadas(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate de,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate ate) {
+        return ResponseEntity.status(HttpStatus.OK).body(arquivamentoVendaService.buscarPorPeriodo(de, ate));
+    }
+
     @GetMapping("/{idVenda}")
     public ResponseEntity<VendaResponseDTO> getVendaById(@PathVariable Long idVenda) {
-        return ResponseEntity.status(HttpStatus.OK).body(vendaService.getVendaById(idVenda));
+        VendaResponseDTO venda = vendaService.getVendaById(idVenda);
+        return ResponseEntity.status(HttpStatus.OK).eTag(VersaoHeader.etag(venda.versao())).body(venda);
     }
 
 
     @PostMapping("/create")
-    public ResponseEntity<VendaResponseDTO> createVenda(@RequestBody @Valid VendaRequestDTO dto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(vendaService.createVenda(dto));
+    public ResponseEntity<VendaResponseDTO> createVenda(
+            @RequestBody @Valid VendaRequestDTO dto,
+            @RequestHeader(value = "Idempotency-Key", required = false) String chaveIdempotencia
+    ) {
+        if (chaveIdempotencia == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(vendaService.createVenda(dto));
+        }
+
+        // Repeticoes com a mesma chave devolvem a venda original sem criar outra; o corpo passa pelos
+        // conversores normais, entao o Accept e o ?fields= da repeticao valem como na primeira chamada
+        String escopo = SecurityContextHolder.getContext().getAuthentication().getName();
+        RespostaIdempotente<VendaResponseDTO> resposta = idempotenciaService.executar(escopo, chaveIdempotencia, dto,
+                HttpStatus.CREATED, VendaResponseDTO.class, () -> vendaService.createVenda(dto));
+
+        return ResponseEntity.status(resposta.status())
+                .header("Idempotent-Replayed", String.valueOf(resposta.repetida()))
+                .body(resposta.corpo());
     }
 
     @PutMapping("/update/{idVenda}")
     public ResponseEntity<VendaResponseDTO> updateVenda(
             @PathVariable Long idVenda,
-            @RequestBody @Valid VendaRequestDTO dto
+            @RequestBody @Valid VendaRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return ResponseEntity.status(HttpStatus.OK).body(vendaService.updateVenda(idVenda, dto));
+        VendaResponseDTO venda = vendaService.updateVenda(idVenda, dto, VersaoHeader.versao(ifMatch));
+        return ResponseEntity.status(HttpStatus.OK).eTag(VersaoHeader.etag(venda.versao())).body(venda);
     }
 
     @DeleteMapping("/delete/{idVenda}")
     public ResponseEntity<String> deleteVenda(@PathVariable Long idVenda) {
         return ResponseEntity.status(HttpStatus.OK).body(vendaService.deleteVenda(idVenda));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/eventos/metricas")
+    public ResponseEntity<EventoVendaMetricasDTO> getMetricasEventos() {
+        return ResponseEntity.status(HttpStatus.OK).body(vendaEventoRingBuffer.metricas());
+    }
+
+    // Feed ao vivo para o painel: vendas criadas, editadas e excluidas chegam como deltas, sem refazer o /all
+    @GetMapping(value = "/eventos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanharVendas() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .header("X-Accel-Buffering", "no")
+                .body(vendaFeedSse.assinar());
+    }
+}
@@ -0,0 +1,30 @@
+package com.br.farmacia.apiFarmacia.controller;
+
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+
+// Converte a versao (@Version) das entidades em ETag e le de volta o If-Match enviado nas edicoes
+final class VersaoHeader {
+
+    private VersaoHeader() {
+    }
+
+    static String etag(Long versao) {
+        return versao == null ? null : "\"" + versao + "\"";
+    }
+
+    static Long versao(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        valor = valor.replace("\"", "");
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Cabeçalho If-Match inválido: " + ifMatch);
+        }
+    }
+}
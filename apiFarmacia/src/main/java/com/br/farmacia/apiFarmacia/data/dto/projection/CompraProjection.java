@@ -0,0 +1,9 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+import java.time.LocalDate;
+
+public record CompraProjection(
+        Long idVenda,
+        LocalDate dataCompra
+) {
+}
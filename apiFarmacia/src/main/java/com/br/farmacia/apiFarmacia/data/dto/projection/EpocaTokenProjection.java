@@ -0,0 +1,7 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+public record EpocaTokenProjection(
+        Long idPessoa,
+        Integer epocaToken
+) {
+}
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+public record ItemArquivamentoProjection(
+        Long idVenda,
+        Long idItemVenda,
+        Long idProduto,
+        Integer quantidade,
+        Double precoUnitario
+) {
+}
@@ -0,0 +1,8 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+public record ItemCestaProjection(
+        Long idVenda,
+        Long idItemVenda,
+        Long idProduto
+) {
+}
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+public record ItemVendaProjection(
+        Long idVenda,
+        Long idProduto,
+        String nomeProduto,
+        Integer quantidade,
+        Double precoUnitario
+) {
+}
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+public record LinhaRelatorioProjection(
+        String chave,
+        String descricao,
+        Long vendas,
+        Long quantidade,
+        Double receita
+) {
+}
@@ -0,0 +1,12 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+import java.time.LocalDate;
+
+public record VendaArquivamentoProjection(
+        Long idVenda,
+        Long idUsuario,
+        LocalDate dataCompra,
+        LocalDate dataExclusao,
+        Long versao
+) {
+}
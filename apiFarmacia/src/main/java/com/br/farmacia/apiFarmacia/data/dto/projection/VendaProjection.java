@@ -0,0 +1,21 @@
+package com.br.farmacia.apiFarmacia.data.dto.projection;
+
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+
+import java.time.LocalDate;
+
+// Linha plana de venda + comprador, montada direto pela consulta (sem entidade gerenciada)
+public record VendaProjection(
+        Long idVenda,
+        Long idUsuario,
+        String nomeUsuario,
+        String cpfUsuario,
+        String telefoneUsuario,
+        String emailUsuario,
+        UserRole tipoUsuario,
+        LocalDate dataExclusaoUsuario,
+        LocalDate dataCompra,
+        LocalDate dataExclusao,
+        Long versao
+) {
+}
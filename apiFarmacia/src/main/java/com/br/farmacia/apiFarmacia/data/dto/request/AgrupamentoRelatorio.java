@@ -0,0 +1,7 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+public enum AgrupamentoRelatorio {
+    PRODUTO,
+    FABRICANTE,
+    CLIENTE
+}
@@ -0,0 +1,23 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record AjustePrecoRequestDTO(
+
+        @NotNull(message = "O tipo de ajuste é obrigatório")
+        TipoAjustePreco tipo,
+
+        // PERCENTUAL: 10 = +10%, -5 = -5%. ABSOLUTO: valor somado ao preço atual
+        @NotNull(message = "O valor do ajuste é obrigatório")
+        Double valor,
+
+        String fabricante,
+
+        // Trecho do nome, sem diferenciar maiúsculas e minúsculas
+        String nome,
+
+        List<Long> ids
+) {
+}
@@ -0,0 +1,22 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+public enum FormatoRelatorio {
+    CSV("csv", "text/csv; charset=UTF-8"),
+    XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final String extensao;
+    private final String contentType;
+
+    FormatoRelatorio(String extensao, String contentType) {
+        this.extensao = extensao;
+        this.contentType = contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
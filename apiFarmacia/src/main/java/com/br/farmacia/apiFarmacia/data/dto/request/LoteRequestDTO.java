@@ -0,0 +1,13 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record LoteRequestDTO(
+        // Leituras (GET) consecutivas rodam em paralelo; as escritas, na ordem, depois das anteriores
+        @NotEmpty(message = "Informe ao menos uma requisição")
+        List<@Valid SubRequisicaoDTO> requisicoes
+) {
+}
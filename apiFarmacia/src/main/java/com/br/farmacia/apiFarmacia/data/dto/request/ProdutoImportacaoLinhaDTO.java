@@ -0,0 +1,23 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+import java.util.Date;
+
+public record ProdutoImportacaoLinhaDTO(
+        String codigoFornecedor,
+
+        String nome,
+
+        Double preco,
+
+        String descricao,
+
+        String linkImagem,
+
+        Date dataValidade,
+
+        String fabricante
+) {
+    public ProdutoRequestDTO toProdutoRequestDTO() {
+        return new ProdutoRequestDTO(nome, preco, descricao, linkImagem, dataValidade, fabricante);
+    }
+}
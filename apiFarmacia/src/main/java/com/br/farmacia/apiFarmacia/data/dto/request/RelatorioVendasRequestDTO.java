@@ -0,0 +1,28 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record RelatorioVendasRequestDTO(
+
+        @NotNull(message = "O agrupamento é obrigatório")
+        AgrupamentoRelatorio agrupamento,
+
+        @NotNull(message = "O ano é obrigatório")
+        @Min(value = 2000, message = "Ano inválido")
+        Integer ano,
+
+        // Informe o mes (relatorio mensal) ou o trimestre (relatorio trimestral)
+        @Min(value = 1, message = "Mês inválido")
+        @Max(value = 12, message = "Mês inválido")
+        Integer mes,
+
+        @Min(value = 1, message = "Trimestre inválido")
+        @Max(value = 4, message = "Trimestre inválido")
+        Integer trimestre,
+
+        // CSV quando omitido
+        FormatoRelatorio formato
+) {
+}
@@ -0,0 +1,27 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+import java.util.Map;
+
+public record SubRequisicaoDTO(
+        // Devolvido na resposta correspondente; opcional
+        String id,
+
+        @NotBlank(message = "O método da requisição é obrigatório")
+        @Pattern(regexp = "(?i)GET|POST|PUT|PATCH|DELETE", message = "Método inválido")
+        String metodo,
+
+        // Caminho com a query string, ex.: /venda/10 ou /pessoa?nome=ana
+        @NotBlank(message = "A URL da requisição é obrigatória")
+        @Pattern(regexp = "/[^\\s#]*", message = "A URL deve ser um caminho da API iniciado por /")
+        String url,
+
+        // Ex.: If-Match e Idempotency-Key; a autenticacao e a da requisicao do lote
+        Map<String, String> cabecalhos,
+
+        JsonNode corpo
+) {
+}
@@ -0,0 +1,6 @@
+package com.br.farmacia.apiFarmacia.data.dto.request;
+
+public enum TipoAjustePreco {
+    PERCENTUAL,
+    ABSOLUTO
+}
@@ -0,0 +1,6 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record AjustePrecoResponseDTO(
+        int produtosAfetados
+) {
+}
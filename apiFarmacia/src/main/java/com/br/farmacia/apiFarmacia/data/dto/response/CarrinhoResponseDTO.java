@@ -12,7 +12,8 @@ public record CarrinhoResponseDTO(
         String nomeUsuario,
         LocalDate dataCriacao,
         Double valorTotalCarrinho,
-        List<ItemCarrinhoResponseDTO> itens
+        List<ItemCarrinhoResponseDTO> itens,
+        Long versao
 ) {
     public CarrinhoResponseDTO(Carrinho carrinho) {
         this(
@@ -25,7 +26,8 @@ public record CarrinhoResponseDTO(
                         .sum(),
                 carrinho.getItens().stream()
                         .map(ItemCarrinhoResponseDTO::new)
-                        .collect(Collectors.toList())
+                        .collect(Collectors.toList()),
+                carrinho.getVersao()
         );
     }
 }
\ No newline at end of file
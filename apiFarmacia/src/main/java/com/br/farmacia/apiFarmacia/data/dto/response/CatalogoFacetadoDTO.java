@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+public record CatalogoFacetadoDTO(
+        PaginaDTO<ProdutoResponseDTO> produtos,
+        Map<String, List<ContagemFacetaDTO>> facetas
+) {
+}
@@ -0,0 +1,22 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CompraResponseDTO(
+        Long idVenda,
+        LocalDate dataCompra,
+        Double valorTotal,
+        List<ItemVendaResponseDTO> itens
+) {
+    public CompraResponseDTO(CompraProjection compra, List<ItemVendaResponseDTO> itens) {
+        this(
+                compra.idVenda(),
+                compra.dataCompra(),
+                itens.stream().mapToDouble(ItemVendaResponseDTO::subTotal).sum(),
+                itens
+        );
+    }
+}
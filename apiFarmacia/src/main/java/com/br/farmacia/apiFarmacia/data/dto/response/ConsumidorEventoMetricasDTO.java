@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record ConsumidorEventoMetricasDTO(
+        String nome,
+        long sequencia,
+        long atraso,
+        long processados,
+        long erros
+) {
+}
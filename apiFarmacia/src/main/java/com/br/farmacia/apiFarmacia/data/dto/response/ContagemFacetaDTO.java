@@ -0,0 +1,9 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record ContagemFacetaDTO(
+        String valor,
+        // Produtos com esse valor que atendem aos filtros das outras facetas
+        int quantidade,
+        boolean selecionado
+) {
+}
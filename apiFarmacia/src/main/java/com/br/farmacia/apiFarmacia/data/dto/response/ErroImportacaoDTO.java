@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.List;
+
+public record ErroImportacaoDTO(
+        long linha,
+        String codigoFornecedor,
+        List<String> mensagens
+) {
+}
@@ -0,0 +1,14 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.infra.evento.PoliticaBackpressure;
+
+import java.util.List;
+
+public record EventoVendaMetricasDTO(
+        int capacidade,
+        PoliticaBackpressure politica,
+        long publicados,
+        long descartados,
+        List<ConsumidorEventoMetricasDTO> consumidores
+) {
+}
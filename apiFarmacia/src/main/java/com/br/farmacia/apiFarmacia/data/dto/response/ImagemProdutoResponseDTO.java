@@ -0,0 +1,16 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.Map;
+
+public record ImagemProdutoResponseDTO(
+        Long idProduto,
+
+        // Tambem gravado em Produto.linkImagem
+        String linkImagem,
+
+        // Largura em pixels -> URL da miniatura
+        Map<Integer, String> miniaturas,
+
+        long tamanho
+) {
+}
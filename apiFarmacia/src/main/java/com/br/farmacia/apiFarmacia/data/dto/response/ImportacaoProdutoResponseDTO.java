@@ -0,0 +1,12 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.List;
+
+public record ImportacaoProdutoResponseDTO(
+        long linhasLidas,
+        long gravadas,
+        long comErro,
+        List<ErroImportacaoDTO> erros,
+        boolean errosTruncados
+) {
+}
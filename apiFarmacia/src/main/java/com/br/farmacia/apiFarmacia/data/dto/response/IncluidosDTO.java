@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.Map;
+
+// Objetos referenciados pelas vendas, indexados pelo id
+public record IncluidosDTO(
+        Map<Long, PessoaResponseDTO> pessoas,
+        Map<Long, ProdutoIncluidoDTO> produtos
+) {
+}
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record ItemVendaArquivadoDTO(
+        Long idItemVenda,
+        Long idProduto,
+        Integer quantidade,
+        // Preco do produto no momento do arquivamento
+        Double precoUnitario
+) {
+}
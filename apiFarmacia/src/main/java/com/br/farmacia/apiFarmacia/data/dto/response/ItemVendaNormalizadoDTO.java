@@ -0,0 +1,14 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection;
+
+public record ItemVendaNormalizadoDTO(
+        Long idProduto,
+        Integer quantidade,
+        Double precoUnitario,
+        Double subTotal
+) {
+    public ItemVendaNormalizadoDTO(ItemVendaProjection item) {
+        this(item.idProduto(), item.quantidade(), item.precoUnitario(), item.precoUnitario() * item.quantidade());
+    }
+}
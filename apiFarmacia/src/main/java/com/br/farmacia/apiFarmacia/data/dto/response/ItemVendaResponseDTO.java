@@ -1,5 +1,6 @@
 package com.br.farmacia.apiFarmacia.data.dto.response;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection;
 import com.br.farmacia.apiFarmacia.data.entity.ItensVenda;
 
 public record ItemVendaResponseDTO(
@@ -14,8 +15,18 @@ public record ItemVendaResponseDTO(
                 item.getProduto().getIdProduto(),
                 item.getProduto().getNome(),
                 item.getQuantidade(),
-                item.getProduto().getPreco(),
-                item.getProduto().getPreco() * item.getQuantidade()
+                item.getPrecoUnitario(),
+                item.getPrecoUnitario() * item.getQuantidade()
+        );
+    }
+
+    public ItemVendaResponseDTO(ItemVendaProjection item) {
+        this(
+                item.idProduto(),
+                item.nomeProduto(),
+                item.quantidade(),
+                item.precoUnitario(),
+                item.precoUnitario() * item.quantidade()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.List;
+
+// proximoCursor nulo indica que nao ha mais paginas
+public record PaginaCursorDTO<T>(
+        List<T> conteudo,
+        String proximoCursor
+) {
+}
@@ -0,0 +1,17 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+public record PaginaDTO<T>(
+        List<T> conteudo,
+        int pagina,
+        int tamanho,
+        long totalElementos,
+        int totalPaginas
+) {
+    public PaginaDTO(Page<T> page) {
+        this(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+    }
+}
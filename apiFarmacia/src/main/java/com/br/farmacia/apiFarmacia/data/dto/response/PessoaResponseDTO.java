@@ -2,8 +2,10 @@ package com.br.farmacia.apiFarmacia.data.dto.response;
 
 import java.time.LocalDate;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
 import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
 import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 public record PessoaResponseDTO(
 
@@ -17,6 +19,8 @@ public record PessoaResponseDTO(
 
         String email,
 
+        // Omitida quando nula (listagens e vendas nao leem a senha)
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         String senha,
 
         UserRole tipoUsuario,
@@ -26,4 +30,15 @@ public record PessoaResponseDTO(
     public PessoaResponseDTO(Pessoa pessoa){
         this(pessoa.getIdPessoa(),pessoa.getNome(),pessoa.getCpf(), pessoa.getTelefone(), pessoa.getEmail(),pessoa.getSenha(),pessoa.getTipoUsuario(),pessoa.getDataExclusao());
     }
+
+    // Comprador de uma venda, sem a senha
+    public static PessoaResponseDTO comprador(Pessoa pessoa) {
+        return new PessoaResponseDTO(pessoa.getIdPessoa(), pessoa.getNome(), pessoa.getCpf(), pessoa.getTelefone(),
+                pessoa.getEmail(), null, pessoa.getTipoUsuario(), pessoa.getDataExclusao());
+    }
+
+    public static PessoaResponseDTO comprador(VendaProjection venda) {
+        return new PessoaResponseDTO(venda.idUsuario(), venda.nomeUsuario(), venda.cpfUsuario(), venda.telefoneUsuario(),
+                venda.emailUsuario(), null, venda.tipoUsuario(), venda.dataExclusaoUsuario());
+    }
 }
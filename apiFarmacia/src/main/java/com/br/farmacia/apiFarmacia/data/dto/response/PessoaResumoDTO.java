@@ -0,0 +1,22 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+
+import java.time.LocalDate;
+
+// Linha da listagem de pessoas: somente as colunas exibidas, nunca a senha
+public record PessoaResumoDTO(
+
+        Long id,
+
+        String nome,
+
+        String cpf,
+
+        String email,
+
+        UserRole tipoUsuario,
+
+        LocalDate dataExclusao
+) {
+}
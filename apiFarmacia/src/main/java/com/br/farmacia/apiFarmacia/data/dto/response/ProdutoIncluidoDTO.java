@@ -0,0 +1,7 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record ProdutoIncluidoDTO(
+        Long idProduto,
+        String nome
+) {
+}
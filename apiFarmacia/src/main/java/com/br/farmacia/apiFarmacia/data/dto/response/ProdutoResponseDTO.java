@@ -21,9 +21,11 @@ public record ProdutoResponseDTO(
 
         String fabricante,
 
-        LocalDate dataExclusao
+        LocalDate dataExclusao,
+
+        Long versao
 ) {
     public ProdutoResponseDTO(Produto produto) {
-        this(produto.getIdProduto(),produto.getNome(), produto.getPreco(), produto.getDescricao(), produto.getLinkImagem(), produto.getDataValidade(), produto.getFabricante(), produto.getDataExclusao());
+        this(produto.getIdProduto(),produto.getNome(), produto.getPreco(), produto.getDescricao(), produto.getLinkImagem(), produto.getDataValidade(), produto.getFabricante(), produto.getDataExclusao(), produto.getVersao());
     }
 }
\ No newline at end of file
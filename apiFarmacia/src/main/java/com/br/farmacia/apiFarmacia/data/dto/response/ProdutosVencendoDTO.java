@@ -0,0 +1,13 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ProdutosVencendoDTO(
+        LocalDateTime geradoEm,
+        int dias,
+        LocalDate ate,
+        List<ProdutoResponseDTO> produtos
+) {
+}
@@ -0,0 +1,14 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+public record RecomendacaoResponseDTO(
+        Long idProduto,
+        String nome,
+        Double preco,
+        String linkImagem,
+        // Em quantas vendas o produto saiu junto com o consultado (no carrinho, somado entre os itens)
+        Integer compradosJuntos
+) {
+    public RecomendacaoResponseDTO(ProdutoResponseDTO produto, int compradosJuntos) {
+        this(produto.idProduto(), produto.nome(), produto.preco(), produto.linkImagem(), compradosJuntos);
+    }
+}
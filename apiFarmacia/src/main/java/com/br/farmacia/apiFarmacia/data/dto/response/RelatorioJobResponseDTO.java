@@ -0,0 +1,24 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.AgrupamentoRelatorio;
+import com.br.farmacia.apiFarmacia.data.dto.request.FormatoRelatorio;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record RelatorioJobResponseDTO(
+        Long idRelatorio,
+        AgrupamentoRelatorio agrupamento,
+        FormatoRelatorio formato,
+        LocalDate inicio,
+        LocalDate fim,
+        String status,
+        int partesConcluidas,
+        int partesTotais,
+        LocalDateTime criadoEm,
+        LocalDateTime concluidoEm,
+        String erro,
+        // Preenchido quando o status e CONCLUIDO
+        String arquivo
+) {
+}
@@ -0,0 +1,13 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+public record SubRespostaDTO(
+        String id,
+        int status,
+        Map<String, String> cabecalhos,
+        JsonNode corpo
+) {
+}
@@ -0,0 +1,14 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record VendaArquivadaDTO(
+        Long idVenda,
+        Long idUsuario,
+        LocalDate dataCompra,
+        LocalDate dataExclusao,
+        Long versao,
+        List<ItemVendaArquivadoDTO> itens
+) {
+}
@@ -0,0 +1,20 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Venda do modo normalizado: comprador e produtos so por id, detalhados uma vez em IncluidosDTO
+public record VendaNormalizadaDTO(
+        Long idVenda,
+        Long idUsuario,
+        LocalDate dataCompra,
+        LocalDate dataExclusao,
+        List<ItemVendaNormalizadoDTO> itens,
+        Long versao
+) {
+    public VendaNormalizadaDTO(VendaProjection venda, List<ItemVendaNormalizadoDTO> itens) {
+        this(venda.idVenda(), venda.idUsuario(), venda.dataCompra(), venda.dataExclusao(), itens, venda.versao());
+    }
+}
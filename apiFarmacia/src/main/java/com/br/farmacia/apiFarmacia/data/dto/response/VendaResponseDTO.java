@@ -1,5 +1,6 @@
 package com.br.farmacia.apiFarmacia.data.dto.response;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
 import com.br.farmacia.apiFarmacia.data.entity.Venda;
 import java.time.LocalDate;
 import java.util.List;
@@ -10,16 +11,30 @@ public record VendaResponseDTO(
         PessoaResponseDTO usuario,
         LocalDate dataCompra,
         LocalDate dataExclusao,
-        List<ItemVendaResponseDTO> itens
+        List<ItemVendaResponseDTO> itens,
+        Long versao
 ) {
     public VendaResponseDTO(Venda venda){
         this(
                 venda.getIdVenda(),
-                new PessoaResponseDTO(venda.getIdUsuario()),
+                PessoaResponseDTO.comprador(venda.getIdUsuario()),
                 venda.getDataCompra(),
                 venda.getDataExclusao(),
                 venda.getItens() != null ?
-                        venda.getItens().stream().map(ItemVendaResponseDTO::new).collect(Collectors.toList()) : List.of()
+                        venda.getItens().stream().map(ItemVendaResponseDTO::new).collect(Collectors.toList()) : List.of(),
+                venda.getVersao()
+        );
+    }
+
+    // Usado pelas listagens: o comprador vem da projecao, sem a senha
+    public VendaResponseDTO(VendaProjection venda, List<ItemVendaResponseDTO> itens) {
+        this(
+                venda.idVenda(),
+                PessoaResponseDTO.comprador(venda),
+                venda.dataCompra(),
+                venda.dataExclusao(),
+                itens,
+                venda.versao()
         );
     }
 }
\ No newline at end of file
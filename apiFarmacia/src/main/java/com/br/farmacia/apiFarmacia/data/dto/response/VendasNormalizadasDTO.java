@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.data.dto.response;
+
+import java.util.List;
+
+// Chave "included" como no JSON:API
+public record VendasNormalizadasDTO(
+        List<VendaNormalizadaDTO> vendas,
+        IncluidosDTO included
+) {
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -13,14 +14,17 @@ import java.util.List;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "carrinho")
+@Table(name = "carrinho", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_carrinho_usuario", columnNames = "id_usuario")
+})
 public class Carrinho {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long idCarrinho;
 
-    @OneToOne // Geralmente um usuário tem um carrinho ativo, mas pode ser ManyToOne se preferir histórico
+    // Um carrinho por usuario, garantido pela constraint uk_carrinho_usuario
+    @OneToOne
     @JoinColumn(name = "id_usuario", nullable = false)
     private Pessoa usuario;
 
@@ -30,4 +34,10 @@ public class Carrinho {
     // orphanRemoval = true: se remover da lista, apaga do banco
     @OneToMany(mappedBy = "carrinho", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ItensCarrinho> itens = new ArrayList<>();
+
+    // Controle de concorrencia otimista: cada UPDATE confere e incrementa a versao
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
 }
\ No newline at end of file
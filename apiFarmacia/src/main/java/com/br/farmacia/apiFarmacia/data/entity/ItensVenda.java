@@ -5,11 +5,15 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.LocalDate;
+
 @Getter
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "itens_venda")
+@Table(name = "itens_venda", indexes = {
+        @Index(name = "idx_itens_venda_venda", columnList = "id_venda")
+})
 public class ItensVenda {
 
     @Id
@@ -27,4 +31,12 @@ public class ItensVenda {
     @Column(nullable = false)
     private Integer quantidade;
 
+    // Preco do produto no momento da venda: reajustes posteriores nao mudam vendas ja feitas
+    @Column(name = "preco_unitario", nullable = false, updatable = false)
+    private Double precoUnitario;
+
+    // Copia da data da venda: chave de particionamento de itens_venda (ver db/venda-particionada.sql)
+    @Column(name = "data_compra", nullable = false, updatable = false)
+    private LocalDate dataCompra;
+
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.validator.constraints.br.CPF;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,7 +19,10 @@ import java.util.List;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "pessoa")
+@Table(name = "pessoa", indexes = {
+        @Index(name = "idx_pessoa_tipo_nome", columnList = "tipo_usuario, nome"),
+        @Index(name = "idx_pessoa_nome", columnList = "nome")
+})
 public class Pessoa implements UserDetails {
 
     @Id
@@ -48,6 +52,11 @@ public class Pessoa implements UserDetails {
     @Column (name = "tipo_usuario")
     private UserRole tipoUsuario;
 
+    // Incrementada a cada exclusao, troca de senha ou de perfil: tokens de epocas anteriores deixam de valer
+    @ColumnDefault("0")
+    @Column(name = "epoca_token", nullable = false)
+    private Integer epocaToken = 0;
+
     @Builder
     public Pessoa(PessoaRequestDTO pessoaRequestDTO){
         this.nome = pessoaRequestDTO.nome();
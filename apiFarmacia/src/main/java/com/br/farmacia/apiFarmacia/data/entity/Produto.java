@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.Date;
@@ -13,7 +14,9 @@ import java.util.Date;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "Produto")
+@Table(name = "Produto", indexes = {
+        @Index(name = "idx_produto_data_validade", columnList = "dataValidade")
+})
 public class Produto {
 
     @Id
@@ -41,6 +44,16 @@ public class Produto {
     @Column(name = "fabricante")
     private String fabricante;
 
+    // Codigo do produto no catalogo do fornecedor, usado como chave no upsert da importacao em lote
+    @Column(name = "codigo_fornecedor", unique = true)
+    private String codigoFornecedor;
+
+    // Controle de concorrencia otimista: cada UPDATE confere e incrementa a versao
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     @Builder
     public Produto(ProdutoRequestDTO produtoRequestDTO){
         this.nome = produtoRequestDTO.nome();
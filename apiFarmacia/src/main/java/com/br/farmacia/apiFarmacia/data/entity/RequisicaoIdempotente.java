@@ -0,0 +1,36 @@
+package com.br.farmacia.apiFarmacia.data.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "requisicao_idempotente", indexes = {
+        @Index(name = "idx_requisicao_idempotente_expira_em", columnList = "expira_em")
+})
+public class RequisicaoIdempotente {
+
+    // Chave enviada pelo cliente, prefixada pelo usuario autenticado
+    @Id
+    @Column(name = "chave", length = 200)
+    private String chave;
+
+    // SHA-256 do corpo da requisicao original, para recusar a mesma chave com outro conteudo
+    @Column(name = "hash_requisicao", length = 64, nullable = false)
+    private String hashRequisicao;
+
+    @Column(name = "status", nullable = false)
+    private short status;
+
+    @Column(name = "corpo", columnDefinition = "text", nullable = false)
+    private String corpo;
+
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+}
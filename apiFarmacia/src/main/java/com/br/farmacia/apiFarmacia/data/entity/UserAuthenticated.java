@@ -15,6 +15,10 @@ public class UserAuthenticated implements UserDetails {
         this.pessoa = pessoa;
     }
 
+    public Pessoa getPessoa() {
+        return pessoa;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         if (pessoa.getTipoUsuario() == null) {
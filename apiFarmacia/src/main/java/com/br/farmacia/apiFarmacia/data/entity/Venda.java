@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -14,7 +15,10 @@ import java.util.List;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "venda")
+@Table(name = "venda", indexes = {
+        @Index(name = "idx_venda_usuario_data_compra", columnList = "id_usuario, data_compra"),
+        @Index(name = "idx_venda_data_compra", columnList = "data_compra")
+})
 public class Venda {
 
     @Id
@@ -25,7 +29,8 @@ public class Venda {
     @JoinColumn(name = "id_usuario", nullable = false)
     private Pessoa idUsuario;
 
-    @Column(name = "data_compra", nullable = false)
+    // Chave de particionamento: nao muda depois da criacao, para a linha nunca trocar de particao
+    @Column(name = "data_compra", nullable = false, updatable = false)
     private LocalDate dataCompra;
 
     @Column(name = "data_exclusao")
@@ -34,4 +39,10 @@ public class Venda {
     @OneToMany(mappedBy = "venda", cascade = CascadeType.ALL)
     private List<ItensVenda> itens;
 
+    // Controle de concorrencia otimista: cada UPDATE confere e incrementa a versao
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
 }
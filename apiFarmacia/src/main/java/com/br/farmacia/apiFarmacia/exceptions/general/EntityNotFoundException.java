@@ -5,4 +5,8 @@ public class EntityNotFoundException extends RuntimeException{
     public EntityNotFoundException(Long id){
         super("Entity not found with id :" + id);
     }
+
+    public EntityNotFoundException(String message){
+        super(message);
+    }
 }
@@ -1,6 +1,8 @@
 package com.br.farmacia.apiFarmacia.exceptions.general;
 
 import com.br.farmacia.apiFarmacia.exceptions.RestErrorMessage;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -19,6 +21,32 @@ public class GeneralExceptionHandler{
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    private ResponseEntity<RestErrorMessage> invalidRequestHandler(InvalidRequestException exception) {
+        RestErrorMessage error = new RestErrorMessage(HttpStatus.BAD_REQUEST, exception.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(IdempotenciaConflitoException.class)
+    private ResponseEntity<RestErrorMessage> idempotenciaConflitoHandler(IdempotenciaConflitoException exception) {
+        RestErrorMessage error = new RestErrorMessage(HttpStatus.CONFLICT, exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    // Miniatura pedida antes de pronta: o cliente tenta de novo em instantes
+    @ExceptionHandler(MiniaturaEmPreparoException.class)
+    private ResponseEntity<RestErrorMessage> miniaturaEmPreparoHandler(MiniaturaEmPreparoException exception) {
+        RestErrorMessage error = new RestErrorMessage(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    private ResponseEntity<RestErrorMessage> optimisticLockingHandler(OptimisticLockingFailureException exception) {
+        RestErrorMessage error = new RestErrorMessage(HttpStatus.CONFLICT,
+                "O registro foi alterado por outra requisição. Recarregue os dados e tente novamente.");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     private ResponseEntity<List<RestErrorMessage>> methodArgumentNotValidHandler(MethodArgumentNotValidException exception) {
         List<RestErrorMessage> errors = exception.getBindingResult().getFieldErrors()
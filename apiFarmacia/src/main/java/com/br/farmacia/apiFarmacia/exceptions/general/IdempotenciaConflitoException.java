@@ -0,0 +1,8 @@
+package com.br.farmacia.apiFarmacia.exceptions.general;
+
+public class IdempotenciaConflitoException extends RuntimeException{
+
+    public IdempotenciaConflitoException(String message){
+        super(message);
+    }
+}
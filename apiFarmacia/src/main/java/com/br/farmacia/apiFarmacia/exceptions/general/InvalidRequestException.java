@@ -0,0 +1,8 @@
+package com.br.farmacia.apiFarmacia.exceptions.general;
+
+public class InvalidRequestException extends RuntimeException{
+
+    public InvalidRequestException(String message){
+        super(message);
+    }
+}
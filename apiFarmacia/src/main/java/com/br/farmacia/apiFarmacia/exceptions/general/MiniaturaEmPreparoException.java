@@ -0,0 +1,8 @@
+package com.br.farmacia.apiFarmacia.exceptions.general;
+
+public class MiniaturaEmPreparoException extends RuntimeException{
+
+    public MiniaturaEmPreparoException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,342 @@
+package com.br.farmacia.apiFarmacia.infra.arquivamento;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaArquivadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaArquivadaDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Arquivo colunar de vendas arquivadas. Cada coluna (id, usuario, datas, itens...) e gravada como
+ * uma sequencia de varints, em geral delta em relacao ao valor anterior ou a menor data, e
+ * comprimida com Deflate separadamente. O cabecalho, sem compressao, traz quantidade de linhas e
+ * faixas de id e de data_compra: a leitura descarta arquivos pelo cabecalho e, num arquivo, so
+ * descomprime as colunas de que precisa (a busca por id abre apenas a coluna de ids).
+ */
+public final class ArquivoColunarVendas {
+
+    // "FVA1"
+    private static final int ASSINATURA = 0x46564131;
+
+    private static final int ID_VENDA = 0;
+    private static final int ID_USUARIO = 1;
+    private static final int DATA_COMPRA = 2;
+    private static final int DATA_EXCLUSAO = 3;
+    private static final int VERSAO = 4;
+    private static final int QUANTIDADE_ITENS = 5;
+    private static final int ID_ITEM = 6;
+    private static final int ID_PRODUTO = 7;
+    private static final int QUANTIDADE = 8;
+    private static final int PRECO_CENTAVOS = 9;
+    private static final int COLUNAS = 10;
+
+    public record Metadados(Path arquivo, int vendas, int itens, long menorId, long maiorId,
+                            LocalDate menorData, LocalDate maiorData) {
+
+        public boolean podeConterId(long idVenda) {
+            return idVenda >= menorId && idVenda <= maiorId;
+        }
+
+        public boolean sobrepoe(LocalDate de, LocalDate ate) {
+            return !maiorData.isBefore(de) && !menorData.isAfter(ate);
+        }
+    }
+
+    private ArquivoColunarVendas() {
+    }
+
+    /**
+     * Grava as vendas (ordenadas por id, com os itens de cada uma) e sincroniza o arquivo com o disco.
+     */
+    public static Metadados gravar(Path arquivo, List<VendaArquivadaDTO> vendas) throws IOException {
+        if (vendas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma venda para arquivar");
+        }
+        int n = vendas.size();
+        int totalItens = vendas.stream().mapToInt(venda -> venda.itens().size()).sum();
+        long menorDia = Long.MAX_VALUE;
+        long maiorDia = Long.MIN_VALUE;
+        for (VendaArquivadaDTO venda : vendas) {
+            menorDia = Math.min(menorDia, venda.dataCompra().toEpochDay());
+            maiorDia = Math.max(maiorDia, venda.dataCompra().toEpochDay());
+        }
+
+        long[][] colunas = new long[COLUNAS][];
+        for (int c = 0; c <= QUANTIDADE_ITENS; c++) {
+            colunas[c] = new long[n];
+        }
+        for (int c = ID_ITEM; c < COLUNAS; c++) {
+            colunas[c] = new long[totalItens];
+        }
+
+        long idAnterior = 0;
+        long itemAnterior = 0;
+        int item = 0;
+        for (int i = 0; i < n; i++) {
+            VendaArquivadaDTO venda = vendas.get(i);
+            if (i > 0 && venda.idVenda() <= idAnterior) {
+                throw new IllegalArgumentException("As vendas devem estar ordenadas por id");
+            }
+            long diaCompra = venda.dataCompra().toEpochDay();
+            colunas[ID_VENDA][i] = venda.idVenda() - idAnterior;
+            colunas[ID_USUARIO][i] = venda.idUsuario();
+            colunas[DATA_COMPRA][i] = diaCompra - menorDia;
+            // 0 = nao excluida; senao dias entre compra e exclusao, deslocado em 1
+            colunas[DATA_EXCLUSAO][i] = venda.dataExclusao() == null
+                    ? 0 : zigzag(venda.dataExclusao().toEpochDay() - diaCompra) + 1;
+            colunas[VERSAO][i] = venda.versao() == null ? 0 : venda.versao();
+            colunas[QUANTIDADE_ITENS][i] = venda.itens().size();
+            idAnterior = venda.idVenda();
+
+            for (ItemVendaArquivadoDTO itemVenda : venda.itens()) {
+                colunas[ID_ITEM][item] = itemVenda.idItemVenda() - itemAnterior;
+                colunas[ID_PRODUTO][item] = itemVenda.idProduto();
+                colunas[QUANTIDADE][item] = itemVenda.quantidade();
+                colunas[PRECO_CENTAVOS][item] = Math.round(itemVenda.precoUnitario() * 100);
+                itemAnterior = itemVenda.idItemVenda();
+                item++;
+            }
+        }
+
+        byte[][] blocos = new byte[COLUNAS][];
+        for (int c = 0; c < COLUNAS; c++) {
+            blocos[c] = comprimir(colunas[c]);
+        }
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal)));
+            saida.writeInt(ASSINATURA);
+            saida.writeInt(n);
+            saida.writeInt(totalItens);
+            saida.writeLong(vendas.get(0).idVenda());
+            saida.writeLong(vendas.get(n - 1).idVenda());
+            saida.writeLong(menorDia);
+            saida.writeLong(maiorDia);
+            for (byte[] bloco : blocos) {
+                saida.writeInt(bloco.length);
+            }
+            for (byte[] bloco : blocos) {
+                saida.write(bloco);
+            }
+            saida.flush();
+            canal.force(true);
+        }
+        return new Metadados(arquivo, n, totalItens, vendas.get(0).idVenda(), vendas.get(n - 1).idVenda(),
+                LocalDate.ofEpochDay(menorDia), LocalDate.ofEpochDay(maiorDia));
+    }
+
+    public static Metadados lerMetadados(Path arquivo) throws IOException {
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            return lerCabecalho(arquivo, new DataInputStream(in));
+        }
+    }
+
+    public static Optional<VendaArquivadaDTO> buscar(Path arquivo, long idVenda) throws IOException {
+        Conteudo conteudo = abrir(arquivo);
+        if (!conteudo.metadados.podeConterId(idVenda)) {
+            return Optional.empty();
+        }
+        long[] ids = conteudo.ids();
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == idVenda) {
+                int posicao = i;
+                return Optional.of(conteudo.vendas(indice -> indice == posicao).get(0));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static List<VendaArquivadaDTO> buscarPorPeriodo(Path arquivo, LocalDate de, LocalDate ate) throws IOException {
+        Conteudo conteudo = abrir(arquivo);
+        if (!conteudo.metadados.sobrepoe(de, ate)) {
+            return List.of();
+        }
+        long menorDia = conteudo.metadados.menorData().toEpochDay();
+        long[] dias = conteudo.coluna(DATA_COMPRA, conteudo.metadados.vendas());
+        long inicio = de.toEpochDay() - menorDia;
+        long fim = ate.toEpochDay() - menorDia;
+        IntPredicate noPeriodo = indice -> dias[indice] >= inicio && dias[indice] <= fim;
+        // So descomprime as demais colunas se alguma venda do arquivo cair no periodo
+        for (int i = 0; i < dias.length; i++) {
+            if (noPeriodo.test(i)) {
+                return conteudo.vendas(noPeriodo);
+            }
+        }
+        return List.of();
+    }
+
+    public static List<VendaArquivadaDTO> lerTodas(Path arquivo) throws IOException {
+        return abrir(arquivo).vendas(indice -> true);
+    }
+
+    private static Conteudo abrir(Path arquivo) throws IOException {
+        try (InputStream in = Files.newInputStream(arquivo)) {
+            DataInputStream entrada = new DataInputStream(new BufferedInputStream(in));
+            Metadados metadados = lerCabecalho(arquivo, entrada);
+            int[] tamanhos = new int[COLUNAS];
+            for (int c = 0; c < COLUNAS; c++) {
+                tamanhos[c] = entrada.readInt();
+            }
+            byte[][] blocos = new byte[COLUNAS][];
+            for (int c = 0; c < COLUNAS; c++) {
+                blocos[c] = new byte[tamanhos[c]];
+                entrada.readFully(blocos[c]);
+            }
+            return new Conteudo(metadados, blocos);
+        }
+    }
+
+    private static Metadados lerCabecalho(Path arquivo, DataInputStream entrada) throws IOException {
+        if (entrada.readInt() != ASSINATURA) {
+            throw new IOException("Arquivo de vendas arquivadas invalido: " + arquivo);
+        }
+        int vendas = entrada.readInt();
+        int itens = entrada.readInt();
+        long menorId = entrada.readLong();
+        long maiorId = entrada.readLong();
+        LocalDate menorData = LocalDate.ofEpochDay(entrada.readLong());
+        LocalDate maiorData = LocalDate.ofEpochDay(entrada.readLong());
+        return new Metadados(arquivo, vendas, itens, menorId, maiorId, menorData, maiorData);
+    }
+
+    private record Conteudo(Metadados metadados, byte[][] blocos) {
+
+        long[] ids() throws IOException {
+            long[] ids = coluna(ID_VENDA, metadados.vendas());
+            for (int i = 1; i < ids.length; i++) {
+                ids[i] += ids[i - 1];
+            }
+            return ids;
+        }
+
+        long[] coluna(int coluna, int quantidade) throws IOException {
+            return descomprimir(blocos[coluna], quantidade);
+        }
+
+        List<VendaArquivadaDTO> vendas(IntPredicate filtro) throws IOException {
+            int n = metadados.vendas();
+            long[] ids = ids();
+            long[] usuarios = coluna(ID_USUARIO, n);
+            long[] dias = coluna(DATA_COMPRA, n);
+            long[] exclusoes = coluna(DATA_EXCLUSAO, n);
+            long[] versoes = coluna(VERSAO, n);
+            long[] quantidadesItens = coluna(QUANTIDADE_ITENS, n);
+            long[] idsItens = coluna(ID_ITEM, metadados.itens());
+            long[] produtos = coluna(ID_PRODUTO, metadados.itens());
+            long[] quantidades = coluna(QUANTIDADE, metadados.itens());
+            long[] precos = coluna(PRECO_CENTAVOS, metadados.itens());
+            for (int i = 1; i < idsItens.length; i++) {
+                idsItens[i] += idsItens[i - 1];
+            }
+
+            long menorDia = metadados.menorData().toEpochDay();
+            List<VendaArquivadaDTO> vendas = new ArrayList<>();
+            int item = 0;
+            for (int i = 0; i < n; i++) {
+                int quantidadeItens = (int) quantidadesItens[i];
+                if (filtro.test(i)) {
+                    List<ItemVendaArquivadoDTO> itens = new ArrayList<>(quantidadeItens);
+                    for (int j = item; j < item + quantidadeItens; j++) {
+                        itens.add(new ItemVendaArquivadoDTO(idsItens[j], produtos[j], (int) quantidades[j], precos[j] / 100.0));
+                    }
+                    long diaCompra = menorDia + dias[i];
+                    LocalDate dataExclusao = exclusoes[i] == 0 ? null : LocalDate.ofEpochDay(diaCompra + dezigzag(exclusoes[i] - 1));
+                    vendas.add(new VendaArquivadaDTO(ids[i], usuarios[i], LocalDate.ofEpochDay(diaCompra), dataExclusao,
+                            versoes[i], itens));
+                }
+                item += quantidadeItens;
+            }
+            return vendas;
+        }
+    }
+
+    private static byte[] comprimir(long[] valores) {
+        ByteArrayOutputStream bruto = new ByteArrayOutputStream(valores.length * 2 + 16);
+        for (long valor : valores) {
+            escreverVarint(bruto, zigzag(valor));
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(bruto.toByteArray());
+            deflater.finish();
+            ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                comprimido.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return comprimido.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long[] descomprimir(byte[] bloco, int quantidade) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bloco);
+            ByteArrayOutputStream bruto = new ByteArrayOutputStream(quantidade * 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int lidos = inflater.inflate(buffer);
+                if (lidos == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Coluna truncada no arquivo de vendas arquivadas");
+                }
+                bruto.write(buffer, 0, lidos);
+            }
+            byte[] bytes = bruto.toByteArray();
+            long[] valores = new long[quantidade];
+            int posicao = 0;
+            for (int i = 0; i < quantidade; i++) {
+                long valor = 0;
+                int deslocamento = 0;
+                byte b;
+                do {
+                    b = bytes[posicao++];
+                    valor |= (long) (b & 0x7F) << deslocamento;
+                    deslocamento += 7;
+                } while (b < 0);
+                valores[i] = dezigzag(valor);
+            }
+            return valores;
+        } catch (DataFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Coluna corrompida no arquivo de vendas arquivadas", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void escreverVarint(ByteArrayOutputStream saida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+
+    private static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    private static long dezigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+}
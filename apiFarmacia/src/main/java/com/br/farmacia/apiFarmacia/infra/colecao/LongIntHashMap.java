@@ -0,0 +1,188 @@
+package com.br.farmacia.apiFarmacia.infra.colecao;
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> int com enderecamento aberto (sondagem linear) sobre arrays primitivos, sem
+ * boxing e sem um objeto por entrada. Nao e thread-safe: quem compartilha entre threads deve
+ * proteger as escritas. As leituras toleram escrita concorrente no sentido de nunca lancarem
+ * excecao nem entrarem em laco (chaves e valores de uma tabela sao trocados juntos), mas o
+ * valor lido so e confiavel se validado depois, como no modo otimista do StampedLock.
+ */
+public class LongIntHashMap {
+
+    private static final long VAZIO = 0L;
+    private static final float FATOR_CARGA = 0.5f;
+
+    private record Tabela(long[] chaves, int[] valores) {
+    }
+
+    private Tabela tabela;
+    private int tamanho;
+    private int limite;
+
+    // A chave 0 marca o slot vazio, entao ela fica fora da tabela
+    private boolean temZero;
+    private int valorZero;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int capacidadeEsperada) {
+        int capacidade = Integer.highestOneBit(Math.max(4, (int) (capacidadeEsperada / FATOR_CARGA)) - 1) << 1;
+        alocar(capacidade);
+    }
+
+    public int get(long chave, int padrao) {
+        if (chave == VAZIO) {
+            return temZero ? valorZero : padrao;
+        }
+        Tabela atual = tabela;
+        long[] chaves = atual.chaves();
+        int mascara = chaves.length - 1;
+        for (int i = indice(chave, mascara), sondas = 0; sondas <= mascara; i = (i + 1) & mascara, sondas++) {
+            long existente = chaves[i];
+            if (existente == chave) {
+                return atual.valores()[i];
+            }
+            if (existente == VAZIO) {
+                return padrao;
+            }
+        }
+        return padrao;
+    }
+
+    public boolean containsKey(long chave) {
+        if (chave == VAZIO) {
+            return temZero;
+        }
+        long[] chaves = tabela.chaves();
+        int mascara = chaves.length - 1;
+        for (int i = indice(chave, mascara), sondas = 0; sondas <= mascara; i = (i + 1) & mascara, sondas++) {
+            if (chaves[i] == chave) {
+                return true;
+            }
+            if (chaves[i] == VAZIO) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Grava o valor e devolve o anterior, ou {@code padrao} se a chave nao existia.
+     */
+    public int put(long chave, int valor, int padrao) {
+        if (chave == VAZIO) {
+            int anterior = temZero ? valorZero : padrao;
+            if (!temZero) {
+                temZero = true;
+                tamanho++;
+            }
+            valorZero = valor;
+            return anterior;
+        }
+        int i = slot(chave);
+        long[] chaves = tabela.chaves();
+        int[] valores = tabela.valores();
+        if (chaves[i] == chave) {
+            int anterior = valores[i];
+            valores[i] = valor;
+            return anterior;
+        }
+        // Valor antes da chave: um leitor que enxergue a chave ja enxerga o valor correto
+        valores[i] = valor;
+        chaves[i] = chave;
+        if (++tamanho > limite) {
+            redimensionar();
+        }
+        return padrao;
+    }
+
+    /**
+     * Soma {@code delta} ao valor da chave (partindo de zero) e devolve o novo valor.
+     */
+    public int addTo(long chave, int delta) {
+        int novo = get(chave, 0) + delta;
+        put(chave, novo, 0);
+        return novo;
+    }
+
+    public int size() {
+        return tamanho;
+    }
+
+    public boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(tabela.chaves(), VAZIO);
+        temZero = false;
+        tamanho = 0;
+    }
+
+    public void forEach(Consumidor consumidor) {
+        if (temZero) {
+            consumidor.aceitar(VAZIO, valorZero);
+        }
+        long[] chaves = tabela.chaves();
+        int[] valores = tabela.valores();
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] != VAZIO) {
+                consumidor.aceitar(chaves[i], valores[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Consumidor {
+        void aceitar(long chave, int valor);
+    }
+
+    private int slot(long chave) {
+        long[] chaves = tabela.chaves();
+        int mascara = chaves.length - 1;
+        int i = indice(chave, mascara);
+        while (chaves[i] != VAZIO && chaves[i] != chave) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = tabela.chaves();
+        int[] valoresAntigos = tabela.valores();
+        int capacidade = chavesAntigas.length << 1;
+        long[] chaves = new long[capacidade];
+        int[] valores = new int[capacidade];
+        int mascara = capacidade - 1;
+        for (int j = 0; j < chavesAntigas.length; j++) {
+            long chave = chavesAntigas[j];
+            if (chave != VAZIO) {
+                int i = indice(chave, mascara);
+                while (chaves[i] != VAZIO) {
+                    i = (i + 1) & mascara;
+                }
+                chaves[i] = chave;
+                valores[i] = valoresAntigos[j];
+            }
+        }
+        // A nova tabela so e publicada depois de preenchida
+        tabela = new Tabela(chaves, valores);
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private void alocar(int capacidade) {
+        tabela = new Tabela(new long[capacidade], new int[capacidade]);
+        limite = (int) (capacidade * FATOR_CARGA);
+    }
+
+    private static int indice(long chave, int mascara) {
+        // Hash de Fibonacci: espalha ids sequenciais pela tabela
+        long h = chave * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) h & mascara;
+    }
+}
@@ -12,6 +12,7 @@ public class CorsConfig implements WebMvcConfigurer {
         corsRegistry.addMapping("/**")
                 .allowedOrigins("http://localhost:3000")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH")
+                .exposedHeaders("Idempotent-Replayed", "ETag", "Retry-After")
                 .maxAge(3600)
                 .allowCredentials(true);
     }
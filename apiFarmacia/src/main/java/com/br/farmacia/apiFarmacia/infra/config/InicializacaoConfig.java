@@ -0,0 +1,107 @@
+package com.br.farmacia.apiFarmacia.infra.config;
+
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoConsumer;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class InicializacaoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(InicializacaoConfig.class);
+
+    private static final String ETAPA_BEAN = "spring.beans.instantiate";
+    private static final int BEANS_NO_RELATORIO = 10;
+
+    @Value("${farmacia.startup.relatorio:true}")
+    private boolean relatorioHabilitado;
+
+    // Com spring.main.lazy-initialization=true (perfil prod) continuam sendo criados no boot os beans que precisam
+    // existir antes da primeira requisicao: agendamentos, registro dos consumidores de eventos e o Hibernate
+    @Bean
+    static LazyInitializationExcludeFilter beansIniciadosNoBoot() {
+        return (beanName, beanDefinition, beanType) ->
+                SmartInitializingSingleton.class.isAssignableFrom(beanType)
+                        || VendaEventoConsumer.class.isAssignableFrom(beanType)
+                        || EntityManagerFactory.class.isAssignableFrom(beanType)
+                        || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                        || temMetodoAgendado(beanType);
+    }
+
+    private static boolean temMetodoAgendado(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, Schedules.class) ? Boolean.TRUE : null).isEmpty();
+    }
+
+    // Tempo de cada fase da inicializacao e os beans mais lentos, para que regressoes aparecam no log do deploy
+    @EventListener(ApplicationReadyEvent.class)
+    public void relatarTempos(ApplicationReadyEvent event) {
+        if (!relatorioHabilitado || !(event.getApplicationContext().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            return;
+        }
+        StartupTimeline timeline = startup.drainBufferedTimeline();
+
+        Map<String, Duration> fases = new LinkedHashMap<>();
+        Map<String, Integer> ocorrencias = new LinkedHashMap<>();
+        timeline.getEvents().stream()
+                .filter(evento -> !evento.getStartupStep().getName().startsWith("spring.beans."))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getStartTime))
+                .forEach(evento -> {
+                    String nome = evento.getStartupStep().getName();
+                    fases.merge(nome, evento.getDuration(), Duration::plus);
+                    ocorrencias.merge(nome, 1, Integer::sum);
+                });
+
+        List<StartupTimeline.TimelineEvent> beansMaisLentos = timeline.getEvents().stream()
+                .filter(evento -> ETAPA_BEAN.equals(evento.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(BEANS_NO_RELATORIO)
+                .toList();
+
+        StringBuilder relatorio = new StringBuilder()
+                .append("Inicializacao: aplicacao pronta em ").append(event.getTimeTaken().toMillis()).append(" ms")
+                .append(" (JVM ate pronto: ").append(ManagementFactory.getRuntimeMXBean().getUptime()).append(" ms)");
+
+        relatorio.append("\n  Fases:");
+        fases.forEach((nome, duracao) -> relatorio.append(String.format("%n    %-55s %6d ms", nome
+                + (ocorrencias.get(nome) > 1 ? " (x" + ocorrencias.get(nome) + ")" : ""), duracao.toMillis())));
+
+        relatorio.append("\n  Beans mais lentos (inclui dependencias):");
+        for (StartupTimeline.TimelineEvent evento : beansMaisLentos) {
+            relatorio.append(String.format("%n    %-55s %6d ms", nomeDoBean(evento.getStartupStep()), evento.getDuration().toMillis()));
+        }
+        log.info(relatorio.toString());
+    }
+
+    private static String nomeDoBean(StartupStep etapa) {
+        for (StartupStep.Tag tag : etapa.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return etapa.getName();
+    }
+}
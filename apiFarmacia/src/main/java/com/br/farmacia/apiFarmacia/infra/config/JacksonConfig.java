@@ -0,0 +1,47 @@
+package com.br.farmacia.apiFarmacia.infra.config;
+
+import com.br.farmacia.apiFarmacia.infra.json.FiltroCampos;
+import com.br.farmacia.apiFarmacia.infra.json.FiltroCamposIntrospector;
+import com.fasterxml.jackson.databind.introspect.AnnotationIntrospectorPair;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Os DTOs passam pelo FiltroCampos; o ?fields= (CamposParciaisAdvice) troca o filtro so na requisicao que pediu
+@Configuration
+public class JacksonConfig {
+
+    static final String PACOTE_DTO = "com.br.farmacia.apiFarmacia.data.dto";
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtroCamposCustomizer() {
+        // No postConfigurer para somar ao introspector final, ja com o dos modulos registrados
+        return builder -> builder
+                .filters(FiltroCampos.TODOS_OS_CAMPOS)
+                .postConfigurer(objectMapper -> objectMapper.setAnnotationIntrospectors(
+                        AnnotationIntrospectorPair.pair(new FiltroCamposIntrospector(PACOTE_DTO),
+                                objectMapper.getSerializationConfig().getAnnotationIntrospector()),
+                        objectMapper.getDeserializationConfig().getAnnotationIntrospector()));
+    }
+
+    /*
+     * Accept: application/cbor ou application/x-jackson-smile. O Spring MVC ja registraria esses
+     * conversores sozinho, mas com um ObjectMapper cru (sem os customizers do Boot, o FiltroCampos e as
+     * datas como no JSON); estes substituem os padroes e continuam depois do JSON, que segue sendo o
+     * formato de quem nao pede outro. O builder do Boot e prototype: cada bean recebe o seu.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,20 @@
+package com.br.farmacia.apiFarmacia.infra.config;
+
+import com.br.farmacia.apiFarmacia.infra.limite.LimitadorRequisicoes;
+import com.br.farmacia.apiFarmacia.infra.limite.LimiteRequisicaoProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// O filtro e registrado na cadeia do Spring Security (SecurityConfig) quando este bean existe
+@Configuration
+@EnableConfigurationProperties(LimiteRequisicaoProperties.class)
+@ConditionalOnProperty(name = "farmacia.limite-requisicao.habilitado", havingValue = "true", matchIfMissing = true)
+public class LimiteRequisicaoConfig {
+
+    @Bean
+    public LimitadorRequisicoes limitadorRequisicoes(LimiteRequisicaoProperties properties) {
+        return new LimitadorRequisicoes(properties);
+    }
+}
@@ -0,0 +1,85 @@
+package com.br.farmacia.apiFarmacia.infra.config;
+
+import com.br.farmacia.apiFarmacia.infra.datasource.ReadYourWritesTracker;
+import com.br.farmacia.apiFarmacia.infra.datasource.ReplicaDataSourceProperties;
+import com.br.farmacia.apiFarmacia.infra.datasource.ReplicaHealthMonitor;
+import com.br.farmacia.apiFarmacia.infra.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ativado com farmacia.datasource.replicas-habilitadas=true (ver application-replicas.properties)
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(name = "farmacia.datasource.replicas-habilitadas", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primarioDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReplicaDataSourceProperties properties) {
+        return new ReadYourWritesTracker(properties.getJanelaLeituraPrimario());
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaHealthMonitor replicaHealthMonitor(ReplicaDataSourceProperties properties,
+                                                     DataSourceProperties dataSourceProperties) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+
+        List<ReplicaDataSourceProperties.Replica> configuradas = properties.getReplicas();
+        for (int i = 0; i < configuradas.size(); i++) {
+            ReplicaDataSourceProperties.Replica replica = configuradas.get(i);
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getTamanhoPool());
+            dataSource.setReadOnly(true);
+            // Replica fora do ar nao pode impedir a aplicacao de subir
+            dataSource.setInitializationFailTimeout(-1);
+
+            replicas.put("replica-" + i, dataSource);
+        }
+
+        return new ReplicaHealthMonitor(replicas, properties.getAtrasoMaximo(), properties.getIntervaloVerificacao());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primarioDataSource, ReplicaHealthMonitor replicaHealthMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        Map<Object, Object> destinos = new HashMap<>(replicaHealthMonitor.getReplicas());
+        destinos.put(ReplicaRoutingDataSource.PRIMARIO, primarioDataSource);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new ArrayList<>(replicaHealthMonitor.getReplicas().keySet()), replicaHealthMonitor, readYourWritesTracker);
+        routing.setTargetDataSources(destinos);
+        routing.setDefaultTargetDataSource(primarioDataSource);
+        routing.afterPropertiesSet();
+
+        // Adia o getConnection ate o primeiro comando, quando o readOnly da transacao ja esta definido
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
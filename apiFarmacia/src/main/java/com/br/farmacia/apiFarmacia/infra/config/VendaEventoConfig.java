@@ -0,0 +1,37 @@
+package com.br.farmacia.apiFarmacia.infra.config;
+
+import com.br.farmacia.apiFarmacia.infra.evento.PoliticaBackpressure;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoConsumer;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoRingBuffer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class VendaEventoConfig {
+
+    @Value("${farmacia.eventos.venda.capacidade:1024}")
+    private int capacidade;
+
+    @Value("${farmacia.eventos.venda.politica:DESCARTAR}")
+    private PoliticaBackpressure politica;
+
+    @Value("${farmacia.eventos.venda.timeout-bloqueio:50ms}")
+    private Duration timeoutBloqueio;
+
+    @Bean(destroyMethod = "close")
+    public VendaEventoRingBuffer vendaEventoRingBuffer() {
+        return new VendaEventoRingBuffer(capacidade, politica, timeoutBloqueio);
+    }
+
+    // Registra os consumidores depois que todos os singletons existem
+    @Bean
+    public SmartInitializingSingleton registrarConsumidoresVenda(VendaEventoRingBuffer vendaEventoRingBuffer,
+                                                                 ObjectProvider<VendaEventoConsumer> consumidores) {
+        return () -> consumidores.orderedStream().forEach(vendaEventoRingBuffer::registrar);
+    }
+}
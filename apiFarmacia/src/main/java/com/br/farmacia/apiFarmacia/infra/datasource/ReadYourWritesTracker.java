@@ -0,0 +1,52 @@
+package com.br.farmacia.apiFarmacia.infra.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Guarda o instante da ultima escrita de cada usuario. Enquanto a janela nao expira,
+ * as leituras desse usuario vao para o primario, assim o carrinho e o checkout
+ * nunca leem uma replica que ainda nao recebeu o que acabou de ser gravado.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int ESCRITAS_ENTRE_LIMPEZAS = 1024;
+
+    private final ConcurrentHashMap<String, Long> ultimaEscrita = new ConcurrentHashMap<>();
+    private final AtomicInteger escritas = new AtomicInteger();
+    private final long janelaNanos;
+
+    public ReadYourWritesTracker(Duration janela) {
+        this.janelaNanos = janela.toNanos();
+    }
+
+    public void registrarEscrita(String usuario) {
+        if (usuario != null) {
+            ultimaEscrita.put(usuario, System.nanoTime());
+            if (escritas.incrementAndGet() % ESCRITAS_ENTRE_LIMPEZAS == 0) {
+                limparExpirados();
+            }
+        }
+    }
+
+    public boolean deveLerDoPrimario(String usuario) {
+        if (usuario == null) {
+            return false;
+        }
+        Long instante = ultimaEscrita.get(usuario);
+        if (instante == null) {
+            return false;
+        }
+        if (System.nanoTime() - instante > janelaNanos) {
+            ultimaEscrita.remove(usuario, instante);
+            return false;
+        }
+        return true;
+    }
+
+    void limparExpirados() {
+        long agora = System.nanoTime();
+        ultimaEscrita.entrySet().removeIf(e -> agora - e.getValue() > janelaNanos);
+    }
+}
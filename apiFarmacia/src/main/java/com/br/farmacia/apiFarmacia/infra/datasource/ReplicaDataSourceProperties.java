@@ -0,0 +1,38 @@
+package com.br.farmacia.apiFarmacia.infra.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "farmacia.datasource")
+public class ReplicaDataSourceProperties {
+
+    // Liga o roteamento primario/replicas. Desligado, vale somente o spring.datasource
+    private boolean replicasHabilitadas = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Atraso maximo de replicacao tolerado antes da replica sair do rodizio
+    private Duration atrasoMaximo = Duration.ofSeconds(5);
+
+    // Intervalo entre as verificacoes de saude/atraso das replicas
+    private Duration intervaloVerificacao = Duration.ofSeconds(2);
+
+    // Janela em que um usuario que acabou de escrever le somente do primario (read-your-writes)
+    private Duration janelaLeituraPrimario = Duration.ofSeconds(10);
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int tamanhoPool = 10;
+    }
+}
@@ -0,0 +1,93 @@
+package com.br.farmacia.apiFarmacia.infra.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede periodicamente o atraso de replicacao de cada replica e tira do rodizio
+ * as que estao fora do ar ou atrasadas demais.
+ */
+public class ReplicaHealthMonitor implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    // Em uma replica sem trafego o replay fica parado, por isso compara o LSN recebido com o aplicado
+    private static final String SQL_ATRASO = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END""";
+
+    private final Map<String, DataSource> replicas;
+    private final Duration atrasoMaximo;
+    private final Map<String, Boolean> disponiveis = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor;
+
+    public ReplicaHealthMonitor(Map<String, DataSource> replicas, Duration atrasoMaximo, Duration intervalo) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.atrasoMaximo = atrasoMaximo;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::verificar, 0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public boolean isDisponivel(String replica) {
+        return disponiveis.getOrDefault(replica, false);
+    }
+
+    void verificar() {
+        replicas.forEach((nome, dataSource) -> {
+            boolean disponivel = medirAtraso(nome, dataSource) <= atrasoMaximo.toMillis() / 1000.0;
+            Boolean anterior = disponiveis.put(nome, disponivel);
+            if (anterior != null && anterior != disponivel) {
+                log.warn("Replica {} {} do rodizio de leitura", nome, disponivel ? "voltou ao" : "saiu");
+            }
+        });
+    }
+
+    private double medirAtraso(String nome, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(SQL_ATRASO)) {
+            return rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+        } catch (Exception e) {
+            log.debug("Falha ao verificar replica {}: {}", nome, e.getMessage());
+            return Double.MAX_VALUE;
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.debug("Falha ao fechar pool da replica: {}", e.getMessage());
+                }
+            }
+        });
+    }
+}
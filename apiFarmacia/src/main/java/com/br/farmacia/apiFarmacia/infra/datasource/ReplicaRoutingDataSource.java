@@ -0,0 +1,70 @@
+package com.br.farmacia.apiFarmacia.infra.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia transacoes somente-leitura para uma replica saudavel e todo o resto para o primario.
+ * Deve ficar atras de um LazyConnectionDataSourceProxy para que a decisao seja tomada
+ * depois que o JpaTransactionManager marcou a transacao como readOnly.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARIO = "primario";
+
+    private final List<String> replicas;
+    private final ReplicaHealthMonitor healthMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(List<String> replicas, ReplicaHealthMonitor healthMonitor,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        this.replicas = List.copyOf(replicas);
+        this.healthMonitor = healthMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String usuario = usuarioAtual();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Escrita (ou sem transacao): primario, e o usuario passa a ler do primario por um tempo
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesTracker.registrarEscrita(usuario);
+            }
+            return PRIMARIO;
+        }
+
+        if (readYourWritesTracker.deveLerDoPrimario(usuario)) {
+            return PRIMARIO;
+        }
+
+        return escolherReplica();
+    }
+
+    private String escolherReplica() {
+        int total = replicas.size();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), Math.max(total, 1));
+
+        for (int i = 0; i < total; i++) {
+            String replica = replicas.get((inicio + i) % total);
+            if (healthMonitor.isDisponivel(replica)) {
+                return replica;
+            }
+        }
+
+        // Nenhuma replica dentro do atraso tolerado: cai para o primario
+        return PRIMARIO;
+    }
+
+    private String usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+public enum PoliticaBackpressure {
+    // Buffer cheio: o evento e descartado e contabilizado, o checkout nunca espera
+    DESCARTAR,
+    // Buffer cheio: o publicador espera ate o timeout configurado e so entao descarta
+    BLOQUEAR
+}
@@ -0,0 +1,22 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import java.util.List;
+
+/**
+ * Publicado (via ApplicationEventPublisher) sempre que produtos sao gravados, para que caches
+ * e indices do catalogo se atualizem. Sem ids significa que qualquer produto pode ter mudado.
+ */
+public record ProdutoCatalogoAlteradoEvent(List<Long> idsProdutos) {
+
+    public static ProdutoCatalogoAlteradoEvent catalogoInteiro() {
+        return new ProdutoCatalogoAlteradoEvent(List.of());
+    }
+
+    public static ProdutoCatalogoAlteradoEvent produto(Long idProduto) {
+        return new ProdutoCatalogoAlteradoEvent(List.of(idProduto));
+    }
+
+    public boolean isCatalogoInteiro() {
+        return idsProdutos.isEmpty();
+    }
+}
@@ -0,0 +1,7 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+public enum TipoEventoVenda {
+    CRIADA,
+    ATUALIZADA,
+    EXCLUIDA
+}
@@ -0,0 +1,64 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import java.time.LocalDate;
+
+/**
+ * Slot pre-alocado do ring buffer. O mesmo objeto e reaproveitado a cada volta do buffer,
+ * entao os consumidores devem copiar o que precisarem antes de retornar de onEvento.
+ */
+public final class VendaEvento {
+
+    private static final long[] SEM_PRODUTOS = new long[0];
+    private static final int[] SEM_QUANTIDADES = new int[0];
+
+    private TipoEventoVenda tipo;
+    private long idVenda;
+    private long idUsuario;
+    private LocalDate dataCompra;
+    private long[] idsProdutos = SEM_PRODUTOS;
+    private int[] quantidades = SEM_QUANTIDADES;
+    private long publicadoEm;
+
+    void preencher(TipoEventoVenda tipo, long idVenda, long idUsuario, LocalDate dataCompra,
+                   long[] idsProdutos, int[] quantidades, long publicadoEm) {
+        this.tipo = tipo;
+        this.idVenda = idVenda;
+        this.idUsuario = idUsuario;
+        this.dataCompra = dataCompra;
+        this.idsProdutos = idsProdutos != null ? idsProdutos : SEM_PRODUTOS;
+        this.quantidades = quantidades != null ? quantidades : SEM_QUANTIDADES;
+        this.publicadoEm = publicadoEm;
+    }
+
+    public TipoEventoVenda getTipo() {
+        return tipo;
+    }
+
+    public long getIdVenda() {
+        return idVenda;
+    }
+
+    public long getIdUsuario() {
+        return idUsuario;
+    }
+
+    public LocalDate getDataCompra() {
+        return dataCompra;
+    }
+
+    public int getQuantidadeItens() {
+        return idsProdutos.length;
+    }
+
+    public long getIdProduto(int indice) {
+        return idsProdutos[indice];
+    }
+
+    public int getQuantidade(int indice) {
+        return quantidades[indice];
+    }
+
+    public long getPublicadoEm() {
+        return publicadoEm;
+    }
+}
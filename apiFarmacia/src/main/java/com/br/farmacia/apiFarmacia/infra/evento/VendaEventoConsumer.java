@@ -0,0 +1,18 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+/**
+ * Efeito colateral assincrono de uma venda (analytics, contadores, notificacoes, auditoria).
+ * Todo bean que implementa esta interface e registrado automaticamente no VendaEventoRingBuffer
+ * e roda na sua propria thread, fora da transacao do checkout.
+ */
+public interface VendaEventoConsumer {
+
+    /**
+     * @param fimDoLote true no ultimo evento disponivel do lote atual, util para fazer flush
+     */
+    void onEvento(VendaEvento evento, long sequencia, boolean fimDoLote) throws Exception;
+
+    default String nome() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,47 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import com.br.farmacia.apiFarmacia.data.entity.ItensVenda;
+import com.br.farmacia.apiFarmacia.data.entity.Venda;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Component
+public class VendaEventoPublisher {
+
+    @Autowired
+    private VendaEventoRingBuffer ringBuffer;
+
+    // Copia os dados da venda agora (a entidade ainda esta gerenciada) e so publica depois do commit
+    public void publicarAposCommit(TipoEventoVenda tipo, Venda venda) {
+        long idVenda = venda.getIdVenda();
+        long idUsuario = venda.getIdUsuario().getIdPessoa();
+        LocalDate dataCompra = venda.getDataCompra();
+
+        List<ItensVenda> itens = venda.getItens() != null ? venda.getItens() : List.of();
+        long[] idsProdutos = new long[itens.size()];
+        int[] quantidades = new int[itens.size()];
+        for (int i = 0; i < itens.size(); i++) {
+            idsProdutos[i] = itens.get(i).getProduto().getIdProduto();
+            quantidades[i] = itens.get(i).getQuantidade();
+        }
+
+        Runnable publicar = () -> ringBuffer.publicar(tipo, idVenda, idUsuario, dataCompra, idsProdutos, quantidades);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicar.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publicar.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,191 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ConsumidorEventoMetricasDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.EventoVendaMetricasDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ring buffer no estilo Disruptor para os eventos de venda: slots pre-alocados, um unico
+ * escritor por vez (a publicacao e serializada por um lock curto) e cada consumidor em uma
+ * thread propria, lendo em lotes tudo o que ja foi publicado desde a ultima passada.
+ */
+public class VendaEventoRingBuffer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VendaEventoRingBuffer.class);
+
+    private final VendaEvento[] slots;
+    private final int mascara;
+    private final PoliticaBackpressure politica;
+    private final long timeoutBloqueioNanos;
+
+    // Ultima sequencia publicada; a escrita volatil e o que torna o slot visivel aos consumidores
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final ReentrantLock publicacao = new ReentrantLock();
+    private long proximaSequencia = 0;
+
+    private final AtomicLong descartados = new AtomicLong();
+    private final List<Consumidor> consumidores = new CopyOnWriteArrayList<>();
+    private volatile boolean ativo = true;
+
+    public VendaEventoRingBuffer(int capacidade, PoliticaBackpressure politica, Duration timeoutBloqueio) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("A capacidade do ring buffer deve ser potencia de 2: " + capacidade);
+        }
+        this.slots = new VendaEvento[capacidade];
+        for (int i = 0; i < capacidade; i++) {
+            slots[i] = new VendaEvento();
+        }
+        this.mascara = capacidade - 1;
+        this.politica = politica;
+        this.timeoutBloqueioNanos = timeoutBloqueio.toNanos();
+    }
+
+    public void registrar(VendaEventoConsumer handler) {
+        publicacao.lock();
+        try {
+            // O consumidor comeca a partir do proximo evento, sem reprocessar o que ja passou
+            Consumidor consumidor = new Consumidor(handler, cursor.get());
+            consumidores.add(consumidor);
+            consumidor.thread.start();
+        } finally {
+            publicacao.unlock();
+        }
+    }
+
+    public boolean publicar(TipoEventoVenda tipo, long idVenda, long idUsuario, LocalDate dataCompra,
+                            long[] idsProdutos, int[] quantidades) {
+        publicacao.lock();
+        try {
+            long sequencia = proximaSequencia;
+            if (!aguardarEspaco(sequencia)) {
+                descartados.incrementAndGet();
+                return false;
+            }
+
+            slots[(int) sequencia & mascara].preencher(tipo, idVenda, idUsuario, dataCompra,
+                    idsProdutos, quantidades, System.currentTimeMillis());
+            proximaSequencia = sequencia + 1;
+            cursor.set(sequencia);
+            return true;
+        } finally {
+            publicacao.unlock();
+        }
+    }
+
+    private boolean aguardarEspaco(long sequencia) {
+        // O slot da sequencia foi usado por (sequencia - capacidade) e fica livre assim que o
+        // consumidor mais atrasado tiver processado esse evento
+        long pontoDeVolta = sequencia - slots.length;
+        if (pontoDeVolta <= menorSequenciaConsumida()) {
+            return true;
+        }
+        if (politica == PoliticaBackpressure.DESCARTAR) {
+            return false;
+        }
+
+        long limite = System.nanoTime() + timeoutBloqueioNanos;
+        while (pontoDeVolta > menorSequenciaConsumida()) {
+            if (!ativo || System.nanoTime() >= limite) {
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        return true;
+    }
+
+    private long menorSequenciaConsumida() {
+        long menor = Long.MAX_VALUE;
+        for (Consumidor consumidor : consumidores) {
+            menor = Math.min(menor, consumidor.sequencia.get());
+        }
+        return menor == Long.MAX_VALUE ? cursor.get() : menor;
+    }
+
+    public EventoVendaMetricasDTO metricas() {
+        long publicado = cursor.get();
+        return new EventoVendaMetricasDTO(
+                slots.length,
+                politica,
+                publicado + 1,
+                descartados.get(),
+                consumidores.stream().map(c -> new ConsumidorEventoMetricasDTO(
+                        c.handler.nome(),
+                        c.sequencia.get(),
+                        publicado - c.sequencia.get(),
+                        c.processados.get(),
+                        c.erros.get()
+                )).toList()
+        );
+    }
+
+    @Override
+    public void close() {
+        ativo = false;
+        for (Consumidor consumidor : consumidores) {
+            LockSupport.unpark(consumidor.thread);
+        }
+    }
+
+    private final class Consumidor implements Runnable {
+
+        private final VendaEventoConsumer handler;
+        private final AtomicLong sequencia;
+        private final AtomicLong processados = new AtomicLong();
+        private final AtomicLong erros = new AtomicLong();
+        private final Thread thread;
+
+        private Consumidor(VendaEventoConsumer handler, long sequenciaInicial) {
+            this.handler = handler;
+            this.sequencia = new AtomicLong(sequenciaInicial);
+            this.thread = new Thread(this, "venda-evento-" + handler.nome());
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int ociosidade = 0;
+            while (ativo) {
+                long proxima = sequencia.get() + 1;
+                long disponivel = cursor.get();
+
+                if (disponivel < proxima) {
+                    ociosidade = esperar(ociosidade);
+                    continue;
+                }
+                ociosidade = 0;
+
+                for (long s = proxima; s <= disponivel; s++) {
+                    try {
+                        handler.onEvento(slots[(int) s & mascara], s, s == disponivel);
+                    } catch (Exception e) {
+                        erros.incrementAndGet();
+                        log.error("Consumidor {} falhou no evento {}", handler.nome(), s, e);
+                    }
+                }
+                processados.addAndGet(disponivel - proxima + 1);
+                // Libera os slots do lote inteiro de uma vez para o publicador
+                sequencia.set(disponivel);
+            }
+        }
+
+        private int esperar(int ociosidade) {
+            if (ociosidade < 100) {
+                Thread.onSpinWait();
+            } else if (ociosidade < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(1_000_000);
+            }
+            return ociosidade + 1;
+        }
+    }
+}
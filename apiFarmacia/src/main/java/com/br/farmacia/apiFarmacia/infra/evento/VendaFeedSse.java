@@ -0,0 +1,303 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed SSE das vendas para o painel do administrador. Cada evento do ring buffer vira um delta
+ * compacto, serializado uma unica vez e colocado na fila limitada de cada assinante; poucas threads
+ * de envio esvaziam as filas. Assinante cuja fila enche (conexao lenta ou parada) e desconectado,
+ * sem atrasar os demais nem o consumidor do ring buffer.
+ * <p>
+ * Cada escrita tem prazo: se o cliente parar de ler, o write bloqueia a thread de envio. Passado o prazo
+ * o assinante e desconectado e a thread presa e substituida por outra no pool, para que clientes parados
+ * nao ocupem todas as threads e facam os assinantes saudaveis encherem a fila. A thread presa volta ao
+ * pool (e o pool ao tamanho configurado) quando o container encerra o write.
+ */
+@Component
+public class VendaFeedSse implements VendaEventoConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(VendaFeedSse.class);
+
+    private static final int MENSAGENS_POR_ENVIO = 64;
+    // Valores de Assinante.escritaIniciadaEm fora de uma escrita
+    private static final long SEM_ESCRITA = 0;
+    private static final long ESCRITA_ABANDONADA = -1;
+    // Os conjuntos do SseEventBuilder sao ordenados (LinkedHashSet): a ordem das partes e o formato do evento
+    private static final Set<DataWithMediaType> HEARTBEAT = Collections.unmodifiableSet(SseEmitter.event().comment("ping").build());
+
+    @Value("${farmacia.eventos.venda.sse.buffer-por-assinante:256}")
+    private int capacidadeBuffer;
+
+    @Value("${farmacia.eventos.venda.sse.threads:2}")
+    private int threadsEnvio;
+
+    @Value("${farmacia.eventos.venda.sse.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${farmacia.eventos.venda.sse.prazo-escrita:PT5S}")
+    private Duration prazoEscrita;
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong desconectadosPorLentidao = new AtomicLong();
+    private ThreadPoolExecutor envio;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        envio = new ThreadPoolExecutor(threadsEnvio, threadsEnvio, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "venda-sse-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envio.shutdownNow();
+        assinantes.forEach(assinante -> assinante.emitter.complete());
+        assinantes.clear();
+    }
+
+    public SseEmitter assinar() {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        registrar(emitter);
+        return emitter;
+    }
+
+    Assinante registrar(SseEmitter emitter) {
+        Assinante assinante = new Assinante(emitter, capacidadeBuffer);
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onError(erro -> assinantes.remove(assinante));
+        assinantes.add(assinante);
+        // Primeiro envio: o cliente recebe os cabecalhos e sabe que a conexao esta aberta
+        entregar(assinante, HEARTBEAT);
+        return assinante;
+    }
+
+    @Override
+    public void onEvento(VendaEvento evento, long sequencia, boolean fimDoLote) {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> mensagem = Collections.unmodifiableSet(SseEmitter.event()
+                .id(Long.toString(sequencia))
+                .name(evento.getTipo().name().toLowerCase())
+                .data(delta(evento), MediaType.APPLICATION_JSON)
+                .build());
+        for (Assinante assinante : assinantes) {
+            entregar(assinante, mensagem);
+        }
+    }
+
+    // Mantem proxies e balanceadores sem derrubar a conexao ociosa e detecta clientes que ja sairam
+    @Scheduled(fixedDelayString = "${farmacia.eventos.venda.sse.heartbeat:PT15S}")
+    public void enviarHeartbeat() {
+        for (Assinante assinante : assinantes) {
+            entregar(assinante, HEARTBEAT);
+        }
+    }
+
+    // Desconecta quem esta ha mais que o prazo dentro de um write; nunca bloqueia (nao toca no emitter)
+    @Scheduled(fixedDelayString = "${farmacia.eventos.venda.sse.verificacao-prazo:PT1S}")
+    public void verificarPrazoDeEscrita() {
+        long limite = System.currentTimeMillis() - prazoEscrita.toMillis();
+        for (Assinante assinante : assinantes) {
+            long inicio = assinante.escritaIniciadaEm.get();
+            if (inicio > SEM_ESCRITA && inicio < limite && abandonarEscrita(assinante, inicio)) {
+                assinantes.remove(assinante);
+                assinante.fila.clear();
+                desconectadosPorLentidao.incrementAndGet();
+                log.warn("Assinante do feed de vendas desconectado: escrita parada ha mais de {} ms", prazoEscrita.toMillis());
+            }
+        }
+    }
+
+    public int getAssinantes() {
+        return assinantes.size();
+    }
+
+    public long getDesconectadosPorLentidao() {
+        return desconectadosPorLentidao.get();
+    }
+
+    @Override
+    public String nome() {
+        return "feed-sse";
+    }
+
+    private void entregar(Assinante assinante, Set<DataWithMediaType> mensagem) {
+        if (!assinante.fila.offer(mensagem)) {
+            desconectarLento(assinante);
+            return;
+        }
+        agendarEnvio(assinante);
+    }
+
+    private void agendarEnvio(Assinante assinante) {
+        if (assinante.agendado.compareAndSet(false, true)) {
+            try {
+                envio.execute(() -> enviar(assinante));
+            } catch (RejectedExecutionException e) {
+                assinante.agendado.set(false);
+            }
+        }
+    }
+
+    private void enviar(Assinante assinante) {
+        try {
+            Set<DataWithMediaType> lote = new LinkedHashSet<>();
+            Set<DataWithMediaType> mensagem;
+            do {
+                // Varias mensagens pendentes saem num unico write + flush
+                lote.clear();
+                int quantidade = 0;
+                while (quantidade < MENSAGENS_POR_ENVIO && (mensagem = assinante.fila.poll()) != null) {
+                    lote.addAll(mensagem);
+                    quantidade++;
+                }
+                if (!lote.isEmpty() && !escrever(assinante, lote)) {
+                    return;
+                }
+            } while (!lote.isEmpty());
+        } catch (IOException | IllegalStateException e) {
+            // Cliente fechou a conexao ou o emitter ja terminou
+            remover(assinante);
+            return;
+        } finally {
+            assinante.agendado.set(false);
+        }
+        // Mensagem que chegou entre o ultimo poll e a liberacao da flag
+        if (!assinante.fila.isEmpty()) {
+            agendarEnvio(assinante);
+        }
+    }
+
+    // Falso quando a escrita foi abandonada por prazo: o pool ja tem uma thread a mais e o assinante saiu
+    private boolean escrever(Assinante assinante, Set<DataWithMediaType> lote) throws IOException {
+        assinante.escritaIniciadaEm.set(System.currentTimeMillis());
+        boolean abandonada;
+        try {
+            // Removido enquanto a escrita comecava: quem removeu ve a escrita em andamento e a abandona
+            if (assinantes.contains(assinante)) {
+                assinante.emitter.send(lote);
+            }
+        } finally {
+            abandonada = assinante.escritaIniciadaEm.getAndSet(SEM_ESCRITA) == ESCRITA_ABANDONADA;
+            if (abandonada) {
+                devolverThread();
+                try {
+                    assinante.emitter.completeWithError(new IOException("Prazo de escrita do feed de vendas esgotado"));
+                } catch (RuntimeException ignorada) {
+                    // A conexao ja pode ter sido encerrada pelo container
+                }
+            }
+        }
+        return !abandonada && assinantes.contains(assinante);
+    }
+
+    // So um dos lados vence: a thread de envio ao terminar o write ou quem abandona a escrita em andamento
+    private boolean abandonarEscrita(Assinante assinante, long inicio) {
+        if (!assinante.escritaIniciadaEm.compareAndSet(inicio, ESCRITA_ABANDONADA)) {
+            return false;
+        }
+        substituirThreadPresa();
+        return true;
+    }
+
+    private synchronized void substituirThreadPresa() {
+        int tamanho = envio.getMaximumPoolSize() + 1;
+        envio.setMaximumPoolSize(tamanho);
+        // Aumentar o core inicia uma thread para as tarefas ja enfileiradas
+        envio.setCorePoolSize(tamanho);
+    }
+
+    private synchronized void devolverThread() {
+        int tamanho = envio.getCorePoolSize() - 1;
+        envio.setCorePoolSize(tamanho);
+        envio.setMaximumPoolSize(tamanho);
+    }
+
+    private void desconectarLento(Assinante assinante) {
+        if (remover(assinante)) {
+            desconectadosPorLentidao.incrementAndGet();
+            log.warn("Assinante do feed de vendas desconectado por lentidao ({} mensagens pendentes)", assinante.fila.size());
+        }
+    }
+
+    private boolean remover(Assinante assinante) {
+        boolean removido = assinantes.remove(assinante);
+        assinante.fila.clear();
+        if (removido) {
+            // Com um write em andamento complete() esperaria por ele; a thread de envio encerra o emitter ao voltar
+            long inicio = assinante.escritaIniciadaEm.get();
+            if (inicio > SEM_ESCRITA && abandonarEscrita(assinante, inicio)) {
+                return true;
+            }
+            try {
+                assinante.emitter.complete();
+            } catch (RuntimeException ignorada) {
+                // A conexao ja pode ter sido encerrada pelo container
+            }
+        }
+        return removido;
+    }
+
+    // {"id":10,"usuario":3,"data":"2026-10-19","itens":[[idProduto,quantidade],...]}; exclusao leva so o id
+    static String delta(VendaEvento evento) {
+        StringBuilder json = new StringBuilder(48 + evento.getQuantidadeItens() * 16)
+                .append("{\"id\":").append(evento.getIdVenda());
+        if (evento.getTipo() != TipoEventoVenda.EXCLUIDA) {
+            json.append(",\"usuario\":").append(evento.getIdUsuario());
+            if (evento.getDataCompra() != null) {
+                json.append(",\"data\":\"").append(evento.getDataCompra()).append('"');
+            }
+            json.append(",\"itens\":[");
+            for (int i = 0; i < evento.getQuantidadeItens(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append('[').append(evento.getIdProduto(i)).append(',').append(evento.getQuantidade(i)).append(']');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    static final class Assinante {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> fila;
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        // Inicio do write em andamento (epoch ms), SEM_ESCRITA ou ESCRITA_ABANDONADA
+        private final AtomicLong escritaIniciadaEm = new AtomicLong(SEM_ESCRITA);
+
+        private Assinante(SseEmitter emitter, int capacidade) {
+            this.emitter = emitter;
+            this.fila = new ArrayBlockingQueue<>(capacidade);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.br.farmacia.apiFarmacia.infra.facetas;
+
+import com.br.farmacia.apiFarmacia.infra.colecao.LongIntHashMap;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Indice invertido para busca por facetas: cada item ocupa uma linha (numero denso) e cada valor de
+ * faceta tem um RoaringBitmap com as linhas que o possuem. Na consulta os valores pedidos de uma
+ * faceta se somam (OR) e as facetas se cruzam (AND); a contagem de cada valor usa os filtros das
+ * outras facetas, mostrando quantos itens sairiam se o cliente mudasse a escolha naquela faceta.
+ * Nao muda depois de montado: {@link #atualizar} devolve outro indice, que divide com este os
+ * bitmaps que nao mudaram, entao leitores usam o indice publicado sem lock.
+ */
+public final class IndiceFacetas<T> {
+
+    // Valor do item na faceta de indice {@code faceta}; null quando o item nao tem valor nela
+    @FunctionalInterface
+    public interface Classificador<T> {
+        String valor(T item, int faceta);
+    }
+
+    public record Resultado<T>(List<T> itens, int total, List<Map<String, Integer>> contagens) {
+    }
+
+    private final int quantidadeFacetas;
+    private final ToLongFunction<T> id;
+    private final Classificador<T> classificador;
+    private final Object[] itens;
+    private final RoaringBitmap vivos;
+    private final List<Map<String, RoaringBitmap>> porValor;
+
+    private IndiceFacetas(int quantidadeFacetas, ToLongFunction<T> id, Classificador<T> classificador,
+                          Object[] itens, RoaringBitmap vivos, List<Map<String, RoaringBitmap>> porValor) {
+        this.quantidadeFacetas = quantidadeFacetas;
+        this.id = id;
+        this.classificador = classificador;
+        this.itens = itens;
+        this.vivos = vivos;
+        this.porValor = porValor;
+    }
+
+    // As linhas seguem a ordem da lista, que e a ordem dos resultados
+    public static <T> IndiceFacetas<T> montar(List<T> itens, int quantidadeFacetas, ToLongFunction<T> id, Classificador<T> classificador) {
+        List<Map<String, RoaringBitmap>> porValor = new ArrayList<>(quantidadeFacetas);
+        for (int f = 0; f < quantidadeFacetas; f++) {
+            porValor.add(new HashMap<>());
+        }
+        for (int linha = 0; linha < itens.size(); linha++) {
+            T item = itens.get(linha);
+            for (int f = 0; f < quantidadeFacetas; f++) {
+                String valor = classificador.valor(item, f);
+                if (valor != null) {
+                    porValor.get(f).computeIfAbsent(valor, v -> new RoaringBitmap()).add(linha);
+                }
+            }
+        }
+        porValor.forEach(bitmaps -> bitmaps.values().forEach(RoaringBitmap::runOptimize));
+        RoaringBitmap vivos = RoaringBitmap.bitmapOfRange(0, itens.size());
+        return new IndiceFacetas<>(quantidadeFacetas, id, classificador, itens.toArray(), vivos, porValor);
+    }
+
+    /**
+     * Aplica a gravacao dos itens {@code ids}: {@code atuais} traz o estado novo de cada um (um id
+     * ausente dela sai do indice). So os bitmaps dos valores que mudaram sao copiados. Itens novos
+     * entram no fim; a linha de um removido fica vazia ate a proxima montagem.
+     */
+    public IndiceFacetas<T> atualizar(Collection<Long> ids, List<T> atuais) {
+        LongIntHashMap linhas = new LongIntHashMap(ids.size());
+        ids.forEach(idItem -> linhas.put(idItem, -1, -1));
+        for (int linha = 0; linha < itens.length; linha++) {
+            if (itens[linha] != null && linhas.containsKey(id.applyAsLong(item(linha)))) {
+                linhas.put(id.applyAsLong(item(linha)), linha, -1);
+            }
+        }
+
+        Copia copia = new Copia(atuais.size());
+        Set<Long> gravados = new HashSet<>();
+        for (T atual : atuais) {
+            long idItem = id.applyAsLong(atual);
+            gravados.add(idItem);
+            int linha = linhas.get(idItem, -1);
+            if (linha >= 0) {
+                copia.remover(linha);
+            } else {
+                linha = copia.novaLinha();
+            }
+            copia.adicionar(linha, atual);
+        }
+        for (Long idItem : ids) {
+            int linha = linhas.get(idItem, -1);
+            if (linha >= 0 && !gravados.contains(idItem)) {
+                copia.remover(linha);
+                copia.itens[linha] = null;
+                copia.vivos.remove(linha);
+            }
+        }
+        return new IndiceFacetas<>(quantidadeFacetas, id, classificador, Arrays.copyOf(copia.itens, copia.tamanho),
+                copia.vivos, copia.porValor);
+    }
+
+    /**
+     * @param filtros valores aceitos em cada faceta, na ordem das facetas; vazio nao filtra
+     */
+    public Resultado<T> consultar(List<? extends Collection<String>> filtros, int deslocamento, int limite) {
+        RoaringBitmap[] porFaceta = new RoaringBitmap[quantidadeFacetas];
+        for (int f = 0; f < quantidadeFacetas; f++) {
+            Collection<String> aceitos = filtros.get(f);
+            if (aceitos != null && !aceitos.isEmpty()) {
+                Map<String, RoaringBitmap> bitmaps = porValor.get(f);
+                porFaceta[f] = FastAggregation.or(aceitos.stream().distinct().map(bitmaps::get)
+                        .filter(bitmap -> bitmap != null).iterator());
+            }
+        }
+        RoaringBitmap resultado = cruzar(porFaceta, -1);
+
+        // Contagem disjuntiva: cada faceta ve o cruzamento das demais (sem filtro nela, e o proprio resultado)
+        List<Map<String, Integer>> contagens = new ArrayList<>(quantidadeFacetas);
+        for (int f = 0; f < quantidadeFacetas; f++) {
+            RoaringBitmap base = porFaceta[f] == null ? resultado : cruzar(porFaceta, f);
+            Collection<String> aceitos = filtros.get(f);
+            Map<String, Integer> contagem = new HashMap<>();
+            porValor.get(f).forEach((valor, bitmap) -> {
+                int quantidade = RoaringBitmap.andCardinality(bitmap, base);
+                if (quantidade > 0) {
+                    contagem.put(valor, quantidade);
+                }
+            });
+            // Valor pedido aparece mesmo zerado, inclusive se nenhum item o tem
+            if (aceitos != null) {
+                aceitos.forEach(valor -> contagem.putIfAbsent(valor, 0));
+            }
+            contagens.add(contagem);
+        }
+
+        int total = resultado.getCardinality();
+        List<T> pagina = new ArrayList<>(Math.max(0, Math.min(limite, total - deslocamento)));
+        if (deslocamento < total) {
+            PeekableIntIterator linhas = resultado.getIntIterator();
+            linhas.advanceIfNeeded(resultado.select(deslocamento));
+            while (linhas.hasNext() && pagina.size() < limite) {
+                pagina.add(item(linhas.next()));
+            }
+        }
+        return new Resultado<>(pagina, total, contagens);
+    }
+
+    public int tamanho() {
+        return vivos.getCardinality();
+    }
+
+    private RoaringBitmap cruzar(RoaringBitmap[] porFaceta, int ignorada) {
+        RoaringBitmap cruzamento = vivos.clone();
+        for (int f = 0; f < porFaceta.length; f++) {
+            if (f != ignorada && porFaceta[f] != null) {
+                cruzamento.and(porFaceta[f]);
+            }
+        }
+        return cruzamento;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(int linha) {
+        return (T) itens[linha];
+    }
+
+    // Estado em construcao de um atualizar: copia cada bitmap na primeira vez que ele muda
+    private final class Copia {
+
+        private Object[] itens;
+        private int tamanho;
+        private final RoaringBitmap vivos = IndiceFacetas.this.vivos.clone();
+        private final List<Map<String, RoaringBitmap>> porValor = new ArrayList<>(quantidadeFacetas);
+        private final List<Set<String>> copiados = new ArrayList<>(quantidadeFacetas);
+
+        Copia(int novosNoMaximo) {
+            itens = Arrays.copyOf(IndiceFacetas.this.itens, IndiceFacetas.this.itens.length + novosNoMaximo);
+            tamanho = IndiceFacetas.this.itens.length;
+            for (int f = 0; f < quantidadeFacetas; f++) {
+                porValor.add(new HashMap<>(IndiceFacetas.this.porValor.get(f)));
+                copiados.add(new HashSet<>());
+            }
+        }
+
+        int novaLinha() {
+            vivos.add(tamanho);
+            return tamanho++;
+        }
+
+        @SuppressWarnings("unchecked")
+        void remover(int linha) {
+            T anterior = (T) itens[linha];
+            for (int f = 0; f < quantidadeFacetas; f++) {
+                String valor = classificador.valor(anterior, f);
+                if (valor != null) {
+                    RoaringBitmap bitmap = editavel(f, valor);
+                    bitmap.remove(linha);
+                    if (bitmap.isEmpty()) {
+                        porValor.get(f).remove(valor);
+                    }
+                }
+            }
+        }
+
+        void adicionar(int linha, T item) {
+            itens[linha] = item;
+            for (int f = 0; f < quantidadeFacetas; f++) {
+                String valor = classificador.valor(item, f);
+                if (valor != null) {
+                    editavel(f, valor).add(linha);
+                }
+            }
+        }
+
+        private RoaringBitmap editavel(int faceta, String valor) {
+            Map<String, RoaringBitmap> bitmaps = porValor.get(faceta);
+            RoaringBitmap atual = bitmaps.get(valor);
+            if (atual != null && copiados.get(faceta).add(valor)) {
+                bitmaps.put(valor, atual.clone());
+            }
+            return bitmaps.computeIfAbsent(valor, v -> {
+                copiados.get(faceta).add(v);
+                return new RoaringBitmap();
+            });
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.br.farmacia.apiFarmacia.infra.imagem;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Envia um arquivo imutavel do disco com ETag, If-None-Match (304) e Range de uma faixa (206/416).
+ * O corpo nao passa pela heap: no Tomcat o envio fica com o sendfile do conector (o servlet so indica
+ * arquivo e faixa nos atributos da requisicao); nos demais casos o FileChannel transfere direto para a
+ * saida da resposta.
+ */
+public final class EnvioArquivo {
+
+    // Atributos do Tomcat (org.apache.coyote.Constants), como no DefaultServlet
+    static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    // Abaixo disso uma escrita comum sai mais barata que preparar o sendfile (mesmo limite do DefaultServlet)
+    private static final long SENDFILE_MINIMO = 48 * 1024;
+
+    private EnvioArquivo() {
+    }
+
+    public static void enviar(Path arquivo, MediaType tipo, String etag, String cacheControl,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long tamanho = Files.size(arquivo);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fim = tamanho - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // Com If-Range de outra versao (ou varias faixas, ou Range malformado) vai o arquivo inteiro
+        List<HttpRange> faixas = range == null || (ifRange != null && !ifRange.trim().equals(etag)) ? List.of() : faixas(range);
+        boolean parcial = faixas.size() == 1;
+        if (parcial) {
+            HttpRange faixa = faixas.get(0);
+            inicio = faixa.getRangeStart(tamanho);
+            fim = faixa.getRangeEnd(tamanho);
+            if (tamanho == 0 || inicio >= tamanho || inicio > fim) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanho);
+                return;
+            }
+        }
+        long comprimento = tamanho == 0 ? 0 : fim - inicio + 1;
+
+        response.setStatus(parcial ? HttpServletResponse.SC_PARTIAL_CONTENT : HttpServletResponse.SC_OK);
+        if (parcial) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fim + "/" + tamanho);
+        }
+        response.setContentType(tipo.toString());
+        response.setContentLengthLong(comprimento);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || comprimento == 0) {
+            return;
+        }
+
+        if (comprimento >= SENDFILE_MINIMO && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            request.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().normalize().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, inicio + comprimento);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+            long posicao = inicio;
+            long restante = comprimento;
+            while (restante > 0) {
+                long enviados = canal.transferTo(posicao, restante, saida);
+                if (enviados <= 0) {
+                    throw new EOFException("Arquivo menor que o esperado: " + arquivo);
+                }
+                posicao += enviados;
+                restante -= enviados;
+            }
+        }
+    }
+
+    private static List<HttpRange> faixas(String range) {
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String valor : ifNoneMatch.split(",")) {
+            String candidato = valor.trim();
+            if (candidato.startsWith("W/")) {
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals("*") || candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
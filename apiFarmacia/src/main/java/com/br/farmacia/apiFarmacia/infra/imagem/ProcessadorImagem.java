@@ -0,0 +1,90 @@
+package com.br.farmacia.apiFarmacia.infra.imagem;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+
+// Leitura do formato e geracao de miniaturas com o ImageIO do JDK (JPEG e PNG)
+public final class ProcessadorImagem {
+
+    public record InfoImagem(String extensao, int largura, int altura) {
+    }
+
+    private ProcessadorImagem() {
+    }
+
+    // So le o cabecalho: confere o formato pelo conteudo e as dimensoes antes de decodificar qualquer pixel
+    public static InfoImagem ler(Path arquivo) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(arquivo.toFile())) {
+            Iterator<ImageReader> leitores = entrada == null ? null : ImageIO.getImageReaders(entrada);
+            if (leitores == null || !leitores.hasNext()) {
+                return null;
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                String extensao = switch (leitor.getFormatName().toLowerCase(Locale.ROOT)) {
+                    case "jpeg", "jpg" -> "jpg";
+                    case "png" -> "png";
+                    default -> null;
+                };
+                return extensao == null ? null : new InfoImagem(extensao, leitor.getWidth(0), leitor.getHeight(0));
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    public static void gerarMiniatura(Path origem, Path destino, String extensao, int largura) throws IOException {
+        BufferedImage imagem = ImageIO.read(origem.toFile());
+        if (imagem == null) {
+            throw new IOException("Imagem ilegível: " + origem);
+        }
+        boolean png = "png".equals(extensao);
+        int larguraFinal = Math.min(largura, imagem.getWidth());
+        int alturaFinal = Math.max(1, (int) Math.round(imagem.getHeight() * (double) larguraFinal / imagem.getWidth()));
+
+        // Reduz no maximo pela metade a cada passo: o bilinear direto perde detalhe em reducoes grandes
+        BufferedImage atual = imagem;
+        int w = imagem.getWidth();
+        int h = imagem.getHeight();
+        do {
+            w = Math.max(larguraFinal, w / 2);
+            h = Math.max(alturaFinal, h / 2);
+            BufferedImage passo = new BufferedImage(w, h, png ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+            Graphics2D grafico = passo.createGraphics();
+            try {
+                grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!png) {
+                    grafico.setColor(Color.WHITE);
+                    grafico.fillRect(0, 0, w, h);
+                }
+                grafico.drawImage(atual, 0, 0, w, h, null);
+            } finally {
+                grafico.dispose();
+            }
+            atual = passo;
+        } while (w != larguraFinal || h != alturaFinal);
+
+        Path temporario = Files.createTempFile(destino.getParent(), "miniatura-", ".parcial");
+        try {
+            if (!ImageIO.write(atual, png ? "png" : "jpg", temporario.toFile())) {
+                throw new IOException("Sem escritor de imagem para " + extensao);
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.br.farmacia.apiFarmacia.infra.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Filtro do ?fields=: escreve so os campos pedidos, em caminhos com ponto a partir de cada item da
+ * resposta (ex.: idVenda,usuario.nome,itens.idProduto). Pedir um objeto traz ele inteiro; pedir um
+ * campo interno traz o objeto que o contem so com esse campo. Os campos de envelopes (paginas) sempre
+ * saem e os caminhos comecam abaixo deles; o que esta dentro de um objeto isento sai inteiro.
+ */
+public class FiltroCampos extends SimpleBeanPropertyFilter {
+
+    public static final String ID = "campos";
+
+    // Sem ?fields= o filtro nao corta nada
+    public static final FilterProvider TODOS_OS_CAMPOS = new SimpleFilterProvider()
+            .addFilter(ID, SimpleBeanPropertyFilter.serializeAll());
+
+    // Prefixo que marca "tudo daqui para baixo sai"; nenhum nome de campo e "*"
+    private static final String TUDO = "*";
+
+    private static final Object PREFIXOS = FiltroCampos.class.getName() + ".prefixos";
+
+    private final Set<String> campos = new HashSet<>();
+    private final Set<String> ancestrais = new HashSet<>();
+    private final Set<Class<?>> envelopes;
+    private final Set<Class<?>> isentos;
+
+    public FiltroCampos(String campos, Set<Class<?>> envelopes, Set<Class<?>> isentos) {
+        for (String campo : campos.split(",")) {
+            String caminho = campo.trim();
+            if (caminho.isEmpty()) {
+                continue;
+            }
+            this.campos.add(caminho);
+            for (int ponto = caminho.indexOf('.'); ponto > 0; ponto = caminho.indexOf('.', ponto + 1)) {
+                ancestrais.add(caminho.substring(0, ponto));
+            }
+        }
+        this.envelopes = envelopes;
+        this.isentos = isentos;
+    }
+
+    public FilterProvider comoProvider() {
+        return new SimpleFilterProvider().addFilter(ID, this);
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+        if (campos.isEmpty()) {
+            writer.serializeAsField(pojo, gen, provider);
+            return;
+        }
+        Deque<String> prefixos = prefixos(provider);
+        String prefixo = prefixos.isEmpty() ? "" : prefixos.peek();
+
+        String proximo;
+        if (TUDO.equals(prefixo) || isentos.contains(pojo.getClass())) {
+            proximo = TUDO;
+        } else if (envelopes.contains(pojo.getClass())) {
+            proximo = "";
+        } else {
+            String caminho = prefixo.isEmpty() ? writer.getName() : prefixo + "." + writer.getName();
+            if (campos.contains(caminho)) {
+                proximo = TUDO;
+            } else if (ancestrais.contains(caminho)) {
+                proximo = caminho;
+            } else {
+                if (!gen.canOmitFields()) {
+                    writer.serializeAsOmittedField(pojo, gen, provider);
+                }
+                return;
+            }
+        }
+
+        prefixos.push(proximo);
+        try {
+            writer.serializeAsField(pojo, gen, provider);
+        } finally {
+            prefixos.pop();
+        }
+    }
+
+    /*
+     * Caminho de quem esta sendo escrito, nos atributos da serializacao. Os contextos do gerador nao
+     * servem para isso porque nem todo formato guarda neles o nome do campo (o CBOR nao guarda).
+     */
+    @SuppressWarnings("unchecked")
+    private static Deque<String> prefixos(SerializerProvider provider) {
+        Deque<String> prefixos = (Deque<String>) provider.getAttribute(PREFIXOS);
+        if (prefixos == null) {
+            prefixos = new ArrayDeque<>();
+            provider.setAttribute(PREFIXOS, prefixos);
+        }
+        return prefixos;
+    }
+}
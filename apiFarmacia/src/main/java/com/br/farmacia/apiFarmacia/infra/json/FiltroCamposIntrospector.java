@@ -0,0 +1,23 @@
+package com.br.farmacia.apiFarmacia.infra.json;
+
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+
+// Equivale a um @JsonFilter(FiltroCampos.ID) em todas as classes do pacote, sem anotar cada DTO
+public class FiltroCamposIntrospector extends NopAnnotationIntrospector {
+
+    private final String pacote;
+
+    public FiltroCamposIntrospector(String pacote) {
+        this.pacote = pacote + ".";
+    }
+
+    @Override
+    public Object findFilterId(Annotated annotated) {
+        if (annotated instanceof AnnotatedClass classe && classe.getRawType().getName().startsWith(pacote)) {
+            return FiltroCampos.ID;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.br.farmacia.apiFarmacia.infra.limite;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balde de tokens com reposicao preguicosa, guardado num unico long (GCRA): em vez de tokens
+ * restantes e hora da ultima reposicao, guarda o instante teorico em que o balde estaria cheio
+ * de novo. Consumir e um CAS sobre esse valor, sem lock e sem thread de reposicao.
+ */
+final class BaldeTokens {
+
+    private final AtomicLong cheioEm;
+
+    BaldeTokens(long agora) {
+        this.cheioEm = new AtomicLong(agora);
+    }
+
+    /**
+     * Consome um token. Devolve 0 se a requisicao foi aceita ou os nanossegundos ate haver token.
+     */
+    long consumir(long agora, long intervalo, long tolerancia) {
+        while (true) {
+            long atual = cheioEm.get();
+            long novo = Math.max(atual, agora) + intervalo;
+            long espera = novo - agora - tolerancia;
+            if (espera > 0) {
+                return espera;
+            }
+            if (cheioEm.compareAndSet(atual, novo)) {
+                return 0;
+            }
+        }
+    }
+
+    boolean ocioso(long agora, long ociosidadeMaxima) {
+        return cheioEm.get() + ociosidadeMaxima < agora;
+    }
+}
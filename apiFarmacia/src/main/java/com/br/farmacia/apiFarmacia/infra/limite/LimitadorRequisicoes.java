@@ -0,0 +1,140 @@
+package com.br.farmacia.apiFarmacia.infra.limite;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Limite de requisicoes por cliente (subject do JWT ou IP) e por grupo de rotas. Cada grupo tem
+ * seu mapa de baldes; o caminho quente e uma busca no ConcurrentHashMap e um CAS, sem locks.
+ * Os grupos se dividem em duas etapas da cadeia de seguranca, cada uma com seu filtro: uma
+ * requisicao consome no maximo um token por etapa.
+ */
+public class LimitadorRequisicoes {
+
+    private final List<GrupoLimite> grupos;
+    private final long ociosidadeMaximaNanos;
+
+    public LimitadorRequisicoes(LimiteRequisicaoProperties properties) {
+        this.grupos = properties.getGrupos().stream().map(GrupoLimite::new).toList();
+        this.ociosidadeMaximaNanos = properties.getOciosidadeMaxima().toNanos();
+    }
+
+    /**
+     * Consome um token do balde do cliente no grupo da requisicao. Devolve 0 se a requisicao
+     * pode seguir ou os nanossegundos que o cliente deve esperar.
+     */
+    public long consumir(HttpServletRequest request, LimiteRequisicaoProperties.Etapa etapa) {
+        return consumir(request, etapa, System.nanoTime());
+    }
+
+    long consumir(HttpServletRequest request, LimiteRequisicaoProperties.Etapa etapa, long agora) {
+        GrupoLimite grupo = grupo(request, etapa);
+        if (grupo == null) {
+            return 0;
+        }
+        String chave = chave(grupo, request);
+        BaldeTokens balde = grupo.baldes.get(chave);
+        if (balde == null) {
+            BaldeTokens novo = new BaldeTokens(agora);
+            balde = grupo.baldes.putIfAbsent(chave, novo);
+            if (balde == null) {
+                balde = novo;
+            }
+        }
+        return balde.consumir(agora, grupo.intervaloNanos, grupo.toleranciaNanos);
+    }
+
+    // Um balde ocioso ja se reencheu: descarta-lo equivale a recria-lo cheio no proximo acesso
+    @Scheduled(fixedDelayString = "${farmacia.limite-requisicao.intervalo-limpeza:PT1M}")
+    public void removerOciosos() {
+        long agora = System.nanoTime();
+        for (GrupoLimite grupo : grupos) {
+            grupo.baldes.values().removeIf(balde -> balde.ocioso(agora, ociosidadeMaximaNanos));
+        }
+    }
+
+    public int getBaldesAtivos() {
+        return grupos.stream().mapToInt(grupo -> grupo.baldes.size()).sum();
+    }
+
+    private GrupoLimite grupo(HttpServletRequest request, LimiteRequisicaoProperties.Etapa etapa) {
+        PathContainer caminho = PathContainer.parsePath(request.getRequestURI());
+        String metodo = request.getMethod();
+        String autorizacao = request.getHeader(HttpHeaders.AUTHORIZATION);
+        for (GrupoLimite grupo : grupos) {
+            if (grupo.etapa == etapa && grupo.casa(metodo, caminho, autorizacao)) {
+                return grupo;
+            }
+        }
+        return null;
+    }
+
+    private static String chave(GrupoLimite grupo, HttpServletRequest request) {
+        if (grupo.chave == LimiteRequisicaoProperties.Chave.USUARIO) {
+            Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+            if (autenticacao != null && autenticacao.isAuthenticated()
+                    && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+                return autenticacao.getName();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static final class GrupoLimite {
+        private final List<PathPattern> padroes;
+        private final Set<String> metodos;
+        private final LimiteRequisicaoProperties.Chave chave;
+        private final LimiteRequisicaoProperties.Etapa etapa;
+        private final String esquemaAutorizacao;
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+        private final ConcurrentHashMap<String, BaldeTokens> baldes = new ConcurrentHashMap<>();
+
+        GrupoLimite(LimiteRequisicaoProperties.Grupo grupo) {
+            if (grupo.getCapacidade() < 1 || grupo.getIntervaloReposicao().isNegative() || grupo.getIntervaloReposicao().isZero()) {
+                throw new IllegalArgumentException("Limite de requisicao invalido no grupo " + grupo.getNome());
+            }
+            if (grupo.getEtapa() == LimiteRequisicaoProperties.Etapa.ANTES_DA_AUTENTICACAO
+                    && grupo.getChave() != LimiteRequisicaoProperties.Chave.IP) {
+                throw new IllegalArgumentException("O grupo " + grupo.getNome() + " roda antes da autenticacao e so pode usar a chave IP");
+            }
+            this.padroes = grupo.getPadroes().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.metodos = grupo.getMetodos().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+            this.chave = grupo.getChave();
+            this.etapa = grupo.getEtapa();
+            this.esquemaAutorizacao = grupo.getEsquemaAutorizacao() == null || grupo.getEsquemaAutorizacao().isBlank()
+                    ? null : grupo.getEsquemaAutorizacao().trim() + " ";
+            this.intervaloNanos = grupo.getIntervaloReposicao().toNanos();
+            this.toleranciaNanos = intervaloNanos * grupo.getCapacidade();
+        }
+
+        boolean casa(String metodo, PathContainer caminho, String autorizacao) {
+            if (!metodos.isEmpty() && !metodos.contains(metodo)) {
+                return false;
+            }
+            if (esquemaAutorizacao != null && (autorizacao == null
+                    || !autorizacao.regionMatches(true, 0, esquemaAutorizacao, 0, esquemaAutorizacao.length()))) {
+                return false;
+            }
+            for (PathPattern padrao : padroes) {
+                if (padrao.matches(caminho)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
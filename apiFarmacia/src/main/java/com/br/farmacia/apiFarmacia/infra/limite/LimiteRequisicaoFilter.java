@@ -0,0 +1,54 @@
+package com.br.farmacia.apiFarmacia.infra.limite;
+
+import com.br.farmacia.apiFarmacia.exceptions.RestErrorMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Um por etapa na cadeia do Spring Security: antes da autenticacao (por IP) e depois dela (subject do token)
+public class LimiteRequisicaoFilter extends OncePerRequestFilter {
+
+    private final LimitadorRequisicoes limitador;
+    private final LimiteRequisicaoProperties.Etapa etapa;
+    private final ObjectMapper objectMapper;
+
+    public LimiteRequisicaoFilter(LimitadorRequisicoes limitador, LimiteRequisicaoProperties.Etapa etapa,
+                                  ObjectMapper objectMapper) {
+        this.limitador = limitador;
+        this.etapa = etapa;
+        this.objectMapper = objectMapper;
+    }
+
+    // O padrao e o nome da classe: as duas instancias se confundiriam e a segunda nunca rodaria
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return LimiteRequisicaoFilter.class.getName() + "." + etapa + ".FILTERED";
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long esperaNanos = limitador.consumir(request, etapa);
+        if (esperaNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long segundos = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(esperaNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        RestErrorMessage erro = new RestErrorMessage(HttpStatus.TOO_MANY_REQUESTS,
+                "Limite de requisições excedido. Tente novamente em " + segundos + " s.");
+        objectMapper.writeValue(response.getOutputStream(), erro);
+    }
+}
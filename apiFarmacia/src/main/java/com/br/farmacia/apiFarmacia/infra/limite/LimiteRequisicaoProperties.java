@@ -0,0 +1,64 @@
+package com.br.farmacia.apiFarmacia.infra.limite;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "farmacia.limite-requisicao")
+public class LimiteRequisicaoProperties {
+
+    private boolean habilitado = true;
+
+    // Balde sem uso ha mais tempo que isso ja esta cheio e pode ser descartado
+    private Duration ociosidadeMaxima = Duration.ofMinutes(10);
+
+    private Duration intervaloLimpeza = Duration.ofMinutes(1);
+
+    // Avaliados na ordem dentro de cada etapa: a requisicao usa o primeiro grupo que casar. Sem grupo, nao ha limite
+    private List<Grupo> grupos = new ArrayList<>();
+
+    public enum Chave {
+        // Subject do JWT; requisicoes anonimas caem no IP
+        USUARIO,
+        IP
+    }
+
+    public enum Etapa {
+        // Antes dos filtros de autenticacao: barra credenciais erradas repetidas (senha testada com BCrypt,
+        // token verificado) antes que custem alguma coisa. So aceita chave IP
+        ANTES_DA_AUTENTICACAO,
+        // Depois da autenticacao, quando o subject do token ja e conhecido
+        DEPOIS_DA_AUTENTICACAO
+    }
+
+    @Getter
+    @Setter
+    public static class Grupo {
+        private String nome;
+
+        // Padroes de caminho do Spring MVC, ex.: /produto/**
+        private List<String> padroes = new ArrayList<>();
+
+        // Vazio vale para todos os metodos
+        private List<String> metodos = new ArrayList<>();
+
+        private Chave chave = Chave.USUARIO;
+
+        private Etapa etapa = Etapa.DEPOIS_DA_AUTENTICACAO;
+
+        // So requisicoes com Authorization neste esquema (ex.: Basic); vazio vale para todas
+        private String esquemaAutorizacao;
+
+        // Rajada maxima: requisicoes aceitas de uma vez com o balde cheio
+        private int capacidade = 100;
+
+        // Tempo para repor um token (a taxa sustentada e 1 / intervaloReposicao)
+        private Duration intervaloReposicao = Duration.ofMillis(10);
+    }
+}
@@ -0,0 +1,546 @@
+package com.br.farmacia.apiFarmacia.infra.lote;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletConnection;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.Part;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+import org.springframework.web.util.UriUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sub-requisicao de um lote vista pelo Spring Security e pelo DispatcherServlet como uma requisicao
+ * propria: metodo, caminho, parametros, cabecalhos, corpo e atributos sao os dela. Da requisicao do
+ * lote so vem o que e da conexao (endereco remoto, servidor, context path), copiado na criacao: uma
+ * sub-requisicao que passa do prazo do lote continua rodando depois que o container ja reciclou a
+ * requisicao original, entao nada aqui pode delegar a ela.
+ */
+public class RequisicaoLote implements HttpServletRequest {
+
+    // Presente nos atributos de toda sub-requisicao; o LoteController o usa para recusar lote dentro de lote
+    public static final String ATRIBUTO_SUB_REQUISICAO = RequisicaoLote.class.getName() + ".SUB_REQUISICAO";
+
+    private final String metodo;
+    private final String caminho;
+    private final String consulta;
+    private final Map<String, String[]> parametros;
+    private final Map<String, String> cabecalhos = new LinkedCaseInsensitiveMap<>();
+    private final byte[] corpo;
+    // Isolados da requisicao do lote: os filtros marcam nos atributos que ja rodaram
+    private final Map<String, Object> atributos = new ConcurrentHashMap<>();
+
+    // Dados da conexao do lote
+    private final String esquema;
+    private final String servidor;
+    private final int porta;
+    private final boolean seguro;
+    private final String protocolo;
+    private final String contextPath;
+    private final String enderecoRemoto;
+    private final String hostRemoto;
+    private final int portaRemota;
+    private final String nomeLocal;
+    private final String enderecoLocal;
+    private final int portaLocal;
+    private final List<Locale> locales;
+    private final Cookie[] cookies;
+    private final ServletContext servletContext;
+    private final HttpServletMapping mapeamento;
+    private final String idRequisicao;
+    private final ServletConnection conexao;
+
+    public RequisicaoLote(HttpServletRequest lote, String metodo, String url, Map<String, String> cabecalhos, byte[] corpo) {
+        this.esquema = lote.getScheme();
+        this.servidor = lote.getServerName();
+        this.porta = lote.getServerPort();
+        this.seguro = lote.isSecure();
+        this.protocolo = lote.getProtocol();
+        this.contextPath = lote.getContextPath();
+        this.enderecoRemoto = lote.getRemoteAddr();
+        this.hostRemoto = lote.getRemoteHost();
+        this.portaRemota = lote.getRemotePort();
+        this.nomeLocal = lote.getLocalName();
+        this.enderecoLocal = lote.getLocalAddr();
+        this.portaLocal = lote.getLocalPort();
+        this.locales = Collections.list(lote.getLocales());
+        this.cookies = lote.getCookies() == null ? null : lote.getCookies().clone();
+        this.servletContext = lote.getServletContext();
+        this.mapeamento = lote.getHttpServletMapping();
+        this.idRequisicao = lote.getRequestId();
+        this.conexao = lote.getServletConnection();
+        this.atributos.put(ATRIBUTO_SUB_REQUISICAO, Boolean.TRUE);
+
+        this.metodo = metodo;
+        int interrogacao = url.indexOf('?');
+        this.caminho = interrogacao < 0 ? url : url.substring(0, interrogacao);
+        this.consulta = interrogacao < 0 || interrogacao == url.length() - 1 ? null : url.substring(interrogacao + 1);
+        this.parametros = lerParametros(consulta);
+        this.corpo = corpo == null ? new byte[0] : corpo;
+        this.cabecalhos.put("Accept", MediaType.APPLICATION_JSON_VALUE);
+        if (corpo != null) {
+            this.cabecalhos.put("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        }
+        if (cabecalhos != null) {
+            this.cabecalhos.putAll(cabecalhos);
+        }
+        if (corpo != null) {
+            this.cabecalhos.put("Content-Length", Integer.toString(corpo.length));
+        }
+    }
+
+    private static Map<String, String[]> lerParametros(String consulta) {
+        Map<String, List<String>> valores = new LinkedHashMap<>();
+        if (consulta != null) {
+            for (String par : consulta.split("&")) {
+                if (par.isEmpty()) {
+                    continue;
+                }
+                int igual = par.indexOf('=');
+                String nome = URLDecoder.decode(igual < 0 ? par : par.substring(0, igual), StandardCharsets.UTF_8);
+                String valor = igual < 0 ? "" : URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8);
+                valores.computeIfAbsent(nome, chave -> new ArrayList<>()).add(valor);
+            }
+        }
+        Map<String, String[]> parametros = new LinkedHashMap<>();
+        valores.forEach((nome, lista) -> parametros.put(nome, lista.toArray(String[]::new)));
+        return Collections.unmodifiableMap(parametros);
+    }
+
+    @Override
+    public String getMethod() {
+        return metodo;
+    }
+
+    @Override
+    public String getRequestURI() {
+        return getContextPath() + caminho;
+    }
+
+    @Override
+    public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer(esquema).append("://").append(servidor);
+        boolean portaPadrao = ("http".equals(esquema) && porta == 80) || ("https".equals(esquema) && porta == 443);
+        if (porta > 0 && !portaPadrao) {
+            url.append(':').append(porta);
+        }
+        return url.append(getRequestURI());
+    }
+
+    @Override
+    public String getContextPath() {
+        return contextPath;
+    }
+
+    // O DispatcherServlet do Spring Boot fica mapeado em "/"
+    @Override
+    public String getServletPath() {
+        return UriUtils.decode(caminho, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public HttpServletMapping getHttpServletMapping() {
+        return mapeamento;
+    }
+
+    @Override
+    public String getPathInfo() {
+        return null;
+    }
+
+    @Override
+    public String getPathTranslated() {
+        return null;
+    }
+
+    @Override
+    public String getQueryString() {
+        return consulta;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] valores = parametros.get(name);
+        return valores == null ? null : valores[0];
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parametros;
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parametros.keySet());
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parametros.get(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return cabecalhos.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        String valor = cabecalhos.get(name);
+        return valor == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(valor));
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        return Collections.enumeration(cabecalhos.keySet());
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        String valor = cabecalhos.get(name);
+        return valor == null ? -1 : Integer.parseInt(valor.trim());
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        String valor = cabecalhos.get(name);
+        if (valor == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(valor.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Data inválida no cabeçalho " + name + ": " + valor, e);
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return cabecalhos.get("Content-Type");
+    }
+
+    @Override
+    public int getContentLength() {
+        return corpo.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return corpo.length;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return StandardCharsets.UTF_8.name();
+    }
+
+    @Override
+    public void setCharacterEncoding(String env) {
+        // O corpo do lote ja foi lido e e sempre UTF-8
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return entrada.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("Leitura assíncrona não suportada em requisições de lote");
+            }
+
+            @Override
+            public int read() {
+                return entrada.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return entrada.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(corpo), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        return atributos.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getAttributeNames() {
+        return Collections.enumeration(atributos.keySet());
+    }
+
+    @Override
+    public void setAttribute(String name, Object o) {
+        if (o == null) {
+            atributos.remove(name);
+        } else {
+            atributos.put(name, o);
+        }
+    }
+
+    @Override
+    public void removeAttribute(String name) {
+        atributos.remove(name);
+    }
+
+    @Override
+    public DispatcherType getDispatcherType() {
+        return DispatcherType.REQUEST;
+    }
+
+    @Override
+    public String getScheme() {
+        return esquema;
+    }
+
+    @Override
+    public String getServerName() {
+        return servidor;
+    }
+
+    @Override
+    public int getServerPort() {
+        return porta;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return seguro;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocolo;
+    }
+
+    @Override
+    public String getRemoteAddr() {
+        return enderecoRemoto;
+    }
+
+    @Override
+    public String getRemoteHost() {
+        return hostRemoto;
+    }
+
+    @Override
+    public int getRemotePort() {
+        return portaRemota;
+    }
+
+    @Override
+    public String getLocalName() {
+        return nomeLocal;
+    }
+
+    @Override
+    public String getLocalAddr() {
+        return enderecoLocal;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return portaLocal;
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locales.isEmpty() ? Locale.getDefault() : locales.get(0);
+    }
+
+    @Override
+    public Enumeration<Locale> getLocales() {
+        return Collections.enumeration(locales.isEmpty() ? List.of(Locale.getDefault()) : locales);
+    }
+
+    @Override
+    public Cookie[] getCookies() {
+        return cookies == null ? null : cookies.clone();
+    }
+
+    @Override
+    public ServletContext getServletContext() {
+        return servletContext;
+    }
+
+    @Override
+    public RequestDispatcher getRequestDispatcher(String path) {
+        return path != null && path.startsWith("/") ? servletContext.getRequestDispatcher(path) : null;
+    }
+
+    @Override
+    public String getRequestId() {
+        return idRequisicao;
+    }
+
+    @Override
+    public String getProtocolRequestId() {
+        return "";
+    }
+
+    @Override
+    public ServletConnection getServletConnection() {
+        return conexao;
+    }
+
+    // A autenticacao vem do contexto do Spring Security, que envolve a requisicao com o proprio wrapper
+    @Override
+    public String getAuthType() {
+        return null;
+    }
+
+    @Override
+    public String getRemoteUser() {
+        return null;
+    }
+
+    @Override
+    public boolean isUserInRole(String role) {
+        return false;
+    }
+
+    @Override
+    public Principal getUserPrincipal() {
+        return null;
+    }
+
+    @Override
+    public boolean authenticate(HttpServletResponse response) {
+        return false;
+    }
+
+    @Override
+    public void login(String username, String password) throws ServletException {
+        throw new ServletException("Login não suportado em requisições de lote");
+    }
+
+    @Override
+    public void logout() {
+    }
+
+    // API sem sessao
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession(boolean create) {
+        if (create) {
+            throw new IllegalStateException("Requisições de lote não têm sessão");
+        }
+        return null;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        throw new IllegalStateException("Requisições de lote não têm sessão");
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromCookie() {
+        return false;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdFromURL() {
+        return false;
+    }
+
+    @Override
+    public Collection<Part> getParts() throws ServletException {
+        throw new ServletException("Requisições de lote não suportam multipart");
+    }
+
+    @Override
+    public Part getPart(String name) throws ServletException {
+        throw new ServletException("Requisições de lote não suportam multipart");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) throws ServletException {
+        throw new ServletException("Requisições de lote não suportam upgrade de protocolo");
+    }
+
+    // A resposta e montada em memoria: endpoints assincronos (SSE) ficam de fora do lote
+    @Override
+    public boolean isAsyncSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isAsyncStarted() {
+        return false;
+    }
+
+    @Override
+    public AsyncContext startAsync() {
+        throw new IllegalStateException("Requisições de lote não suportam processamento assíncrono");
+    }
+
+    @Override
+    public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+        throw new IllegalStateException("Requisições de lote não suportam processamento assíncrono");
+    }
+
+    @Override
+    public AsyncContext getAsyncContext() {
+        throw new IllegalStateException("Requisições de lote não suportam processamento assíncrono");
+    }
+}
@@ -0,0 +1,317 @@
+package com.br.farmacia.apiFarmacia.infra.lote;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resposta de uma sub-requisicao do lote, guardada em memoria. Nada chega a resposta do lote:
+ * status, cabecalhos e corpo sao lidos depois e vao como um item do array devolvido. Nao envolve a
+ * resposta do lote, que o container recicla se a sub-requisicao passar do prazo.
+ */
+public class RespostaLote implements HttpServletResponse {
+
+    private int status = SC_OK;
+    private String mensagemErro;
+    private final Map<String, List<String>> cabecalhos = new LinkedCaseInsensitiveMap<>();
+    private final ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+    private ServletOutputStream saida;
+    private PrintWriter escritor;
+    private String characterEncoding;
+    private Locale locale = Locale.getDefault();
+    private boolean confirmada;
+
+    public String getMensagemErro() {
+        return mensagemErro;
+    }
+
+    public Map<String, List<String>> getCabecalhos() {
+        return cabecalhos;
+    }
+
+    public byte[] getCorpo() {
+        if (escritor != null) {
+            escritor.flush();
+        }
+        return corpo.toByteArray();
+    }
+
+    @Override
+    public void setStatus(int sc) {
+        if (!confirmada) {
+            status = sc;
+        }
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public void sendError(int sc) {
+        sendError(sc, null);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) {
+        if (confirmada) {
+            throw new IllegalStateException("Resposta já confirmada");
+        }
+        resetBuffer();
+        status = sc;
+        mensagemErro = msg;
+        confirmada = true;
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        if (confirmada) {
+            throw new IllegalStateException("Resposta já confirmada");
+        }
+        resetBuffer();
+        status = SC_FOUND;
+        setHeader(HttpHeaders.LOCATION, location);
+        confirmada = true;
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return cabecalhos.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        List<String> valores = cabecalhos.get(name);
+        return valores == null || valores.isEmpty() ? null : valores.get(0);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> valores = cabecalhos.get(name);
+        return valores == null ? List.of() : List.copyOf(valores);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return List.copyOf(cabecalhos.keySet());
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (confirmada) {
+            return;
+        }
+        if (value == null) {
+            cabecalhos.remove(name);
+        } else {
+            List<String> valores = new ArrayList<>();
+            valores.add(value);
+            cabecalhos.put(name, valores);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!confirmada && value != null) {
+            cabecalhos.computeIfAbsent(name, chave -> new ArrayList<>()).add(value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        setHeader(name, formatarData(date));
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        addHeader(name, formatarData(date));
+    }
+
+    private static String formatarData(long data) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(data).atOffset(ZoneOffset.UTC));
+    }
+
+    @Override
+    public void setContentType(String type) {
+        if (type == null) {
+            cabecalhos.remove(HttpHeaders.CONTENT_TYPE);
+            return;
+        }
+        MediaType tipo = MediaType.parseMediaType(type);
+        if (tipo.getCharset() != null) {
+            characterEncoding = tipo.getCharset().name();
+        }
+        setHeader(HttpHeaders.CONTENT_TYPE, type);
+    }
+
+    @Override
+    public String getContentType() {
+        return getHeader(HttpHeaders.CONTENT_TYPE);
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        if (escritor == null) {
+            characterEncoding = charset;
+        }
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return characterEncoding == null ? StandardCharsets.ISO_8859_1.name() : characterEncoding;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setIntHeader(HttpHeaders.CONTENT_LENGTH, len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(len));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (escritor != null) {
+            throw new IllegalStateException("getWriter() já foi chamado nesta resposta");
+        }
+        if (saida == null) {
+            saida = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException("Escrita assíncrona não suportada em requisições de lote");
+                }
+
+                @Override
+                public void write(int b) {
+                    corpo.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    corpo.write(b, off, len);
+                }
+
+                @Override
+                public void flush() {
+                    confirmada = true;
+                }
+            };
+        }
+        return saida;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (saida != null) {
+            throw new IllegalStateException("getOutputStream() já foi chamado nesta resposta");
+        }
+        if (escritor == null) {
+            escritor = new PrintWriter(new OutputStreamWriter(corpo, Charset.forName(getCharacterEncoding())));
+        }
+        return escritor;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (escritor != null) {
+            escritor.flush();
+        }
+        confirmada = true;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return confirmada;
+    }
+
+    @Override
+    public void reset() {
+        if (confirmada) {
+            throw new IllegalStateException("Resposta já confirmada");
+        }
+        status = SC_OK;
+        cabecalhos.clear();
+        characterEncoding = null;
+        resetBuffer();
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (escritor != null) {
+            escritor.flush();
+        }
+        corpo.reset();
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+    }
+
+    @Override
+    public int getBufferSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setLocale(Locale loc) {
+        if (loc != null) {
+            locale = loc;
+        }
+    }
+
+    @Override
+    public Locale getLocale() {
+        return locale;
+    }
+
+    // API sem sessao: cookies de sub-requisicoes sao descartados
+    @Override
+    public void addCookie(Cookie cookie) {
+    }
+
+    @Override
+    public String encodeURL(String url) {
+        return url;
+    }
+
+    @Override
+    public String encodeRedirectURL(String url) {
+        return url;
+    }
+}
@@ -0,0 +1,98 @@
+package com.br.farmacia.apiFarmacia.infra.recomendacao;
+
+import com.br.farmacia.apiFarmacia.infra.colecao.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Matriz esparsa de co-ocorrencia: em quantas vendas cada par de produtos apareceu junto. A matriz e
+ * simetrica, entao cada par e guardado uma vez num LongIntHashMap, com os dois ids empacotados na
+ * chave (o menor nos 32 bits altos). Nao e thread-safe, como o mapa por baixo.
+ */
+public class MatrizCoocorrencia {
+
+    // Ids fora de (0, 2^32) nao cabem na chave empacotada e sao ignorados
+    private static final long MAIOR_ID = 0xFFFFFFFFL;
+
+    private final LongIntHashMap pares;
+    private final int maxItensPorVenda;
+
+    public MatrizCoocorrencia(int capacidadeEsperada, int maxItensPorVenda) {
+        this.pares = new LongIntHashMap(capacidadeEsperada);
+        this.maxItensPorVenda = maxItensPorVenda;
+    }
+
+    /**
+     * Soma uma venda com os produtos nas {@code quantidade} primeiras posicoes de {@code idsProdutos}
+     * (o array e reordenado). Cada par conta uma vez por venda, mesmo com o produto repetido em mais
+     * de um item. Vendas com mais de maxItensPorVenda produtos distintos sao ignoradas: geram pares
+     * demais (n^2) e sao compras de reposicao, nao "comprados juntos".
+     */
+    public void registrarVenda(long[] idsProdutos, int quantidade) {
+        Arrays.sort(idsProdutos, 0, quantidade);
+        int distintos = 0;
+        for (int i = 0; i < quantidade; i++) {
+            long id = idsProdutos[i];
+            if (id > 0 && id <= MAIOR_ID && (distintos == 0 || idsProdutos[distintos - 1] != id)) {
+                idsProdutos[distintos++] = id;
+            }
+        }
+        if (distintos > maxItensPorVenda) {
+            return;
+        }
+        for (int i = 0; i < distintos; i++) {
+            for (int j = i + 1; j < distintos; j++) {
+                pares.addTo(chave(idsProdutos[i], idsProdutos[j]), 1);
+            }
+        }
+    }
+
+    public int contagem(long idProduto, long outroProduto) {
+        if (idProduto == outroProduto) {
+            return 0;
+        }
+        return pares.get(idProduto < outroProduto ? chave(idProduto, outroProduto) : chave(outroProduto, idProduto), 0);
+    }
+
+    public int quantidadePares() {
+        return pares.size();
+    }
+
+    /**
+     * Monta os {@code n} vizinhos mais frequentes de cada produto em duas passadas pelos pares: a
+     * primeira numera as linhas, a segunda insere cada par nas linhas dos dois produtos.
+     */
+    public TopVizinhos calcularTop(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Quantidade de vizinhos deve ser positiva: " + n);
+        }
+        LongIntHashMap linhas = new LongIntHashMap(Math.max(16, pares.size() / 4));
+        pares.forEach((chave, contagem) -> {
+            numerar(linhas, chave >>> 32);
+            numerar(linhas, chave & MAIOR_ID);
+        });
+
+        long[] vizinhos = new long[linhas.size() * n];
+        int[] contagens = new int[linhas.size() * n];
+        pares.forEach((chave, contagem) -> {
+            if (contagem <= 0) {
+                return;
+            }
+            long a = chave >>> 32;
+            long b = chave & MAIOR_ID;
+            TopVizinhos.inserir(vizinhos, contagens, linhas.get(a, 0) * n, n, b, contagem);
+            TopVizinhos.inserir(vizinhos, contagens, linhas.get(b, 0) * n, n, a, contagem);
+        });
+        return new TopVizinhos(linhas, vizinhos, contagens, n);
+    }
+
+    private static void numerar(LongIntHashMap linhas, long idProduto) {
+        if (!linhas.containsKey(idProduto)) {
+            linhas.put(idProduto, linhas.size(), 0);
+        }
+    }
+
+    private static long chave(long menor, long maior) {
+        return (menor << 32) | maior;
+    }
+}
@@ -0,0 +1,77 @@
+package com.br.farmacia.apiFarmacia.infra.recomendacao;
+
+import com.br.farmacia.apiFarmacia.infra.colecao.LongIntHashMap;
+
+/**
+ * Os N produtos mais comprados junto com cada produto, em arrays planos: a linha do produto ocupa
+ * [linha * n, linha * n + n), em ordem de contagem, e termina na primeira contagem 0. Nao muda depois
+ * de montado, entao e publicado inteiro e lido sem lock; a consulta nao aloca.
+ */
+public final class TopVizinhos {
+
+    public static final TopVizinhos VAZIO = new TopVizinhos(new LongIntHashMap(), new long[0], new int[0], 0);
+
+    private final LongIntHashMap linhas;
+    private final long[] vizinhos;
+    private final int[] contagens;
+    private final int n;
+
+    TopVizinhos(LongIntHashMap linhas, long[] vizinhos, int[] contagens, int n) {
+        this.linhas = linhas;
+        this.vizinhos = vizinhos;
+        this.contagens = contagens;
+        this.n = n;
+    }
+
+    public int porProduto() {
+        return n;
+    }
+
+    public int quantidadeProdutos() {
+        return linhas.size();
+    }
+
+    /**
+     * Copia os vizinhos do produto para os arrays do chamador (ate o tamanho deles) e devolve
+     * quantos copiou; 0 quando o produto nunca foi vendido junto com outro.
+     */
+    public int vizinhos(long idProduto, long[] ids, int[] contagensDestino) {
+        int linha = linhas.get(idProduto, -1);
+        if (linha < 0) {
+            return 0;
+        }
+        int inicio = linha * n;
+        int limite = Math.min(n, Math.min(ids.length, contagensDestino.length));
+        int copiados = 0;
+        while (copiados < limite && contagens[inicio + copiados] > 0) {
+            ids[copiados] = vizinhos[inicio + copiados];
+            contagensDestino[copiados] = contagens[inicio + copiados];
+            copiados++;
+        }
+        return copiados;
+    }
+
+    /**
+     * Insere o par numa linha ordenada de tamanho fixo [inicio, inicio + n), descartando o ultimo
+     * quando ela esta cheia: maior contagem primeiro, empate pelo menor id. Posicao com contagem 0
+     * esta vazia.
+     */
+    public static void inserir(long[] ids, int[] contagens, int inicio, int n, long id, int contagem) {
+        int fim = inicio + n - 1;
+        if (!antes(contagem, id, contagens[fim], ids[fim])) {
+            return;
+        }
+        int i = fim;
+        while (i > inicio && antes(contagem, id, contagens[i - 1], ids[i - 1])) {
+            ids[i] = ids[i - 1];
+            contagens[i] = contagens[i - 1];
+            i--;
+        }
+        ids[i] = id;
+        contagens[i] = contagem;
+    }
+
+    private static boolean antes(int contagem, long id, int outraContagem, long outroId) {
+        return contagem > outraContagem || (contagem == outraContagem && outraContagem > 0 && id < outroId);
+    }
+}
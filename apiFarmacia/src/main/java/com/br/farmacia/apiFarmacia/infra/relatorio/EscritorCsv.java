@@ -0,0 +1,53 @@
+package com.br.farmacia.apiFarmacia.infra.relatorio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// CSV (RFC 4180) em UTF-8 com BOM, para o Excel reconhecer os acentos
+class EscritorCsv implements EscritorPlanilha {
+
+    private final Writer writer;
+
+    EscritorCsv(OutputStream saida) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        writer.write('\uFEFF');
+    }
+
+    @Override
+    public void linha(List<?> celulas) throws IOException {
+        for (int i = 0; i < celulas.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object celula = celulas.get(i);
+            if (celula instanceof Number) {
+                writer.write(celula.toString());
+            } else if (celula != null) {
+                escrever(celula.toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private void escrever(String texto) throws IOException {
+        boolean precisaAspas = texto.indexOf(',') >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        if (!precisaAspas) {
+            writer.write(texto);
+            return;
+        }
+        writer.write('"');
+        writer.write(texto.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.br.farmacia.apiFarmacia.infra.relatorio;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.FormatoRelatorio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Escrita em streaming de uma planilha simples: uma linha por chamada, celulas de texto ou numero.
+ */
+public interface EscritorPlanilha extends Closeable {
+
+    void linha(List<?> celulas) throws IOException;
+
+    static EscritorPlanilha abrir(FormatoRelatorio formato, OutputStream saida) throws IOException {
+        return switch (formato) {
+            case CSV -> new EscritorCsv(saida);
+            case XLSX -> new EscritorXlsx(saida);
+        };
+    }
+}
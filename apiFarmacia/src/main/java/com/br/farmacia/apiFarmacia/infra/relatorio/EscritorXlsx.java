@@ -0,0 +1,111 @@
+package com.br.farmacia.apiFarmacia.infra.relatorio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * XLSX minimo (uma aba, textos inline, sem estilos) gerado direto no zip, sem manter a planilha
+ * em memoria: as partes fixas do pacote sao gravadas na abertura e a aba e escrita linha a linha.
+ */
+class EscritorXlsx implements EscritorPlanilha {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private static final String CONTENT_TYPES = XML
+            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+            + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+            + "</Types>";
+
+    private static final String RELS = XML
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+            + "</Relationships>";
+
+    private static final String WORKBOOK = XML
+            + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+            + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+            + "<sheets><sheet name=\"Relatorio\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+            + "</workbook>";
+
+    private static final String WORKBOOK_RELS = XML
+            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+            + "</Relationships>";
+
+    private final ZipOutputStream zip;
+    private final Writer writer;
+
+    EscritorXlsx(OutputStream saida) throws IOException {
+        this.zip = new ZipOutputStream(saida, StandardCharsets.UTF_8);
+        this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        parte("[Content_Types].xml", CONTENT_TYPES);
+        parte("_rels/.rels", RELS);
+        parte("xl/workbook.xml", WORKBOOK);
+        parte("xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write(XML);
+        writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+    }
+
+    @Override
+    public void linha(List<?> celulas) throws IOException {
+        writer.write("<row>");
+        for (Object celula : celulas) {
+            if (celula instanceof Number numero) {
+                writer.write("<c><v>");
+                writer.write(numero.toString());
+                writer.write("</v></c>");
+            } else if (celula == null) {
+                writer.write("<c/>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                escapar(celula.toString());
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.close();
+    }
+
+    private void parte(String nome, String conteudo) throws IOException {
+        zip.putNextEntry(new ZipEntry(nome));
+        zip.write(conteudo.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void escapar(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '"' -> writer.write("&quot;");
+                default -> {
+                    // Caracteres de controle sao invalidos em XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+    }
+}
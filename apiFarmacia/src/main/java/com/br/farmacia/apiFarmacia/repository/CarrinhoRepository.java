@@ -3,8 +3,28 @@ package com.br.farmacia.apiFarmacia.repository;
 import com.br.farmacia.apiFarmacia.data.entity.Carrinho;
 import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
-public interface CarrinhoRepository extends JpaRepository<Carrinho, Long> {
+public interface CarrinhoRepository extends JpaRepository<Carrinho, Long>, VersionamentoRepository<Carrinho> {
     Optional<Carrinho> findByUsuario(Pessoa usuario);
-}
\ No newline at end of file
+
+    // Busca ou cria o carrinho do usuario num unico comando. So insere quando nao existe; se outra requisicao
+    // criar o mesmo carrinho ao mesmo tempo, o ON CONFLICT nao falha e a consulta volta vazia
+    @Query(value = """
+            WITH existente AS (
+                SELECT * FROM carrinho WHERE id_usuario = :idUsuario
+            ), novo AS (
+                INSERT INTO carrinho (id_usuario, data_criacao, versao)
+                SELECT :idUsuario, CURRENT_DATE, 0
+                WHERE NOT EXISTS (SELECT 1 FROM existente)
+                ON CONFLICT (id_usuario) DO NOTHING
+                RETURNING *
+            )
+            SELECT * FROM existente
+            UNION ALL
+            SELECT * FROM novo""", nativeQuery = true)
+    Optional<Carrinho> obterOuCriarPorUsuario(@Param("idUsuario") Long idUsuario);
+}
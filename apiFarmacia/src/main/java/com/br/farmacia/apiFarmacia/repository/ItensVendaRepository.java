@@ -1,9 +1,86 @@
 package com.br.farmacia.apiFarmacia.repository;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemCestaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection;
 import com.br.farmacia.apiFarmacia.data.entity.ItensVenda;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ItensVendaRepository extends JpaRepository<ItensVenda, Long> {
-}
\ No newline at end of file
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection(
+                i.venda.idVenda, p.idProduto, p.nome, i.quantidade, i.precoUnitario)
+            from ItensVenda i join i.produto p
+            order by i.venda.idVenda, i.idItemVenda""")
+    List<ItemVendaProjection> listarTodos();
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection(
+                i.venda.idVenda, p.idProduto, p.nome, i.quantidade, i.precoUnitario)
+            from ItensVenda i join i.produto p
+            where i.venda.idVenda in :idsVendas and i.dataCompra between :de and :ate
+            order by i.venda.idVenda, i.idItemVenda""")
+    List<ItemVendaProjection> listarPorVendas(Collection<Long> idsVendas, LocalDate de, LocalDate ate);
+
+    // Consultas do relatorio de vendas: uma por parte do periodo, agregadas no banco.
+    // A receita usa o preco gravado no item, o praticado na venda
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection(
+                cast(p.idProduto as String), p.nome, count(distinct v.idVenda), sum(i.quantidade), sum(i.quantidade * i.precoUnitario))
+            from ItensVenda i join i.venda v join i.produto p
+            where v.dataCompra between :inicio and :fim and i.dataCompra between :inicio and :fim
+              and v.dataExclusao is null
+            group by p.idProduto, p.nome""")
+    List<LinhaRelatorioProjection> totalizarPorProduto(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection(
+                coalesce(p.fabricante, ''), coalesce(p.fabricante, ''), count(distinct v.idVenda), sum(i.quantidade), sum(i.quantidade * i.precoUnitario))
+            from ItensVenda i join i.venda v join i.produto p
+            where v.dataCompra between :inicio and :fim and i.dataCompra between :inicio and :fim
+              and v.dataExclusao is null
+            group by p.fabricante""")
+    List<LinhaRelatorioProjection> totalizarPorFabricante(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection(
+                cast(u.idPessoa as String), u.nome, count(distinct v.idVenda), sum(i.quantidade), sum(i.quantidade * i.precoUnitario))
+            from ItensVenda i join i.venda v join v.idUsuario u join i.produto p
+            where v.dataCompra between :inicio and :fim and i.dataCompra between :inicio and :fim
+              and v.dataExclusao is null
+            group by u.idPessoa, u.nome""")
+    List<LinhaRelatorioProjection> totalizarPorCliente(LocalDate inicio, LocalDate fim);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.ItemArquivamentoProjection(
+                i.venda.idVenda, i.idItemVenda, p.idProduto, i.quantidade, i.precoUnitario)
+            from ItensVenda i join i.produto p
+            where i.venda.idVenda in :idsVendas
+            order by i.venda.idVenda, i.idItemVenda""")
+    List<ItemArquivamentoProjection> listarParaArquivar(Collection<Long> idsVendas);
+
+    // Produtos de cada venda ativa para a matriz de recomendacao, em paginas por (idVenda, idItemVenda)
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.ItemCestaProjection(
+                v.idVenda, i.idItemVenda, i.produto.idProduto)
+            from ItensVenda i join i.venda v
+            where v.dataExclusao is null and v.idVenda <= :ateVenda
+              and (v.idVenda > :depoisVenda or (v.idVenda = :depoisVenda and i.idItemVenda > :depoisItem))
+            order by v.idVenda, i.idItemVenda""")
+    List<ItemCestaProjection> listarCestas(Long depoisVenda, Long depoisItem, Long ateVenda, Limit limit);
+
+    @Modifying
+    @Query("delete from ItensVenda i where i.venda.idVenda in :idsVendas")
+    int removerArquivados(Collection<Long> idsVendas);
+}
@@ -1,12 +1,31 @@
 package com.br.farmacia.apiFarmacia.repository;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.EpocaTokenProjection;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
 import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PessoaRepository extends JpaRepository<Pessoa, Long> {
+public interface PessoaRepository extends JpaRepository<Pessoa, Long>, PessoaRepositoryCustom {
     Optional<Pessoa> findByEmail(String email);
+
+    // A senha nao e lida: a listagem devolve o campo nulo
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO(
+                p.idPessoa, p.nome, p.cpf, p.telefone, p.email, cast(null as String), p.tipoUsuario, p.dataExclusao)
+            from Pessoa p
+            order by p.idPessoa""")
+    List<PessoaResponseDTO> listarTodas();
+
+    // So quem ja teve tokens revogados: os demais estao na epoca 0
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.EpocaTokenProjection(p.idPessoa, p.epocaToken)
+            from Pessoa p
+            where p.epocaToken > 0""")
+    List<EpocaTokenProjection> listarEpocasToken();
 }
@@ -0,0 +1,10 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface PessoaRepositoryCustom {
+    Page<PessoaResumoDTO> buscarDiretorio(UserRole tipoUsuario, String prefixoNome, Boolean ativo, Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PessoaRepositoryImpl implements PessoaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Projecao direta no DTO: a senha e as demais colunas nao exibidas nao saem do banco
+    @Override
+    public Page<PessoaResumoDTO> buscarDiretorio(UserRole tipoUsuario, String prefixoNome, Boolean ativo, Pageable pageable) {
+        StringBuilder where = new StringBuilder(" where 1 = 1");
+        Map<String, Object> parametros = new HashMap<>();
+
+        if (tipoUsuario != null) {
+            where.append(" and p.tipoUsuario = :tipoUsuario");
+            parametros.put("tipoUsuario", tipoUsuario);
+        }
+        if (prefixoNome != null && !prefixoNome.isBlank()) {
+            // Prefixo sem curinga no inicio, para aproveitar o indice de nome
+            // ESCAPE explicito: o caractere de escape padrao do LIKE varia entre bancos
+            where.append(" and p.nome like :prefixoNome escape '\\'");
+            parametros.put("prefixoNome", escaparLike(prefixoNome.trim()) + "%");
+        }
+        if (ativo != null) {
+            where.append(ativo ? " and p.dataExclusao is null" : " and p.dataExclusao is not null");
+        }
+
+        TypedQuery<PessoaResumoDTO> query = entityManager.createQuery("""
+                select new com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO(
+                    p.idPessoa, p.nome, p.cpf, p.email, p.tipoUsuario, p.dataExclusao)
+                from Pessoa p""" + where + " order by p.nome, p.idPessoa", PessoaResumoDTO.class);
+        parametros.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        List<PessoaResumoDTO> conteudo = query.getResultList();
+
+        TypedQuery<Long> count = entityManager.createQuery("select count(p) from Pessoa p" + where, Long.class);
+        parametros.forEach(count::setParameter);
+
+        return new PageImpl<>(conteudo, pageable, count.getSingleResult());
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
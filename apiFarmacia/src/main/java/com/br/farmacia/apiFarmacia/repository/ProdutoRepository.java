@@ -1,9 +1,66 @@
 package com.br.farmacia.apiFarmacia.repository;
 
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
 import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
 @Repository
-public interface ProdutoRepository extends JpaRepository<Produto,Long> {
+public interface ProdutoRepository extends JpaRepository<Produto,Long>, ProdutoRepositoryCustom {
+
+    // Usa o indice idx_produto_data_validade; o intervalo e [inicio, fim)
+    @Query(value = """
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            where p.dataExclusao is null and p.dataValidade >= :inicio and p.dataValidade < :fim
+            order by p.dataValidade, p.idProduto""",
+            countQuery = """
+            select count(p) from Produto p
+            where p.dataExclusao is null and p.dataValidade >= :inicio and p.dataValidade < :fim""")
+    Page<ProdutoResponseDTO> buscarPorValidade(Date inicio, Date fim, Pageable pageable);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            where p.dataExclusao is null and p.dataValidade >= :inicio and p.dataValidade < :fim
+            order by p.dataValidade, p.idProduto""")
+    List<ProdutoResponseDTO> listarPorValidade(Date inicio, Date fim);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            order by p.idProduto""")
+    List<ProdutoResponseDTO> listarTodos();
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            where p.dataValidade >= :data
+            order by p.idProduto""")
+    List<ProdutoResponseDTO> listarValidosAPartirDe(Date data);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            where p.idProduto in :idsProdutos and p.dataExclusao is null""")
+    List<ProdutoResponseDTO> listarAtivosPorIds(Collection<Long> idsProdutos);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO(
+                p.idProduto, p.nome, p.preco, p.descricao, p.linkImagem, p.dataValidade, p.fabricante, p.dataExclusao, p.versao)
+            from Produto p
+            where p.idProduto in :idsProdutos""")
+    List<ProdutoResponseDTO> listarPorIds(Collection<Long> idsProdutos);
 }
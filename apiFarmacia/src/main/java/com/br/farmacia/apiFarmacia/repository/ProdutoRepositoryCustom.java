@@ -0,0 +1,7 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.AjustePrecoRequestDTO;
+
+public interface ProdutoRepositoryCustom {
+    int ajustarPrecos(AjustePrecoRequestDTO ajuste);
+}
@@ -0,0 +1,47 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.AjustePrecoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.TipoAjustePreco;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProdutoRepositoryImpl implements ProdutoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Um unico UPDATE para todos os produtos do filtro; linhas cujo preco ficaria abaixo de 0,01 nao sao alteradas.
+    // "versioned" incrementa a versao, invalidando edicoes que partiram do preco antigo
+    @Override
+    public int ajustarPrecos(AjustePrecoRequestDTO ajuste) {
+        String novoPreco = ajuste.tipo() == TipoAjustePreco.PERCENTUAL
+                ? "round(p.preco * :fator, 2)"
+                : "round(p.preco + :fator, 2)";
+
+        StringBuilder jpql = new StringBuilder("update versioned Produto p set p.preco = ").append(novoPreco)
+                .append(" where p.dataExclusao is null and ").append(novoPreco).append(" >= 0.01");
+        Map<String, Object> parametros = new HashMap<>();
+        parametros.put("fator", ajuste.tipo() == TipoAjustePreco.PERCENTUAL ? 1 + ajuste.valor() / 100 : ajuste.valor());
+
+        if (ajuste.fabricante() != null && !ajuste.fabricante().isBlank()) {
+            jpql.append(" and p.fabricante = :fabricante");
+            parametros.put("fabricante", ajuste.fabricante());
+        }
+        if (ajuste.nome() != null && !ajuste.nome().isBlank()) {
+            jpql.append(" and lower(p.nome) like :nome");
+            parametros.put("nome", "%" + ajuste.nome().toLowerCase() + "%");
+        }
+        if (ajuste.ids() != null && !ajuste.ids().isEmpty()) {
+            jpql.append(" and p.idProduto in :ids");
+            parametros.put("ids", ajuste.ids());
+        }
+
+        Query query = entityManager.createQuery(jpql.toString());
+        parametros.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+}
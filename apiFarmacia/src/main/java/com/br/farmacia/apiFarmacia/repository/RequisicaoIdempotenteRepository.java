@@ -0,0 +1,34 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.entity.RequisicaoIdempotente;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface RequisicaoIdempotenteRepository extends JpaRepository<RequisicaoIdempotente, String> {
+
+    // Retorna 0 quando outra requisicao ja gravou a mesma chave (ex.: outra instancia da aplicacao).
+    // Um registro expirado que a limpeza ainda nao removeu e substituido, como se nao existisse
+    @Modifying
+    @Query(value = """
+            INSERT INTO requisicao_idempotente (chave, hash_requisicao, status, corpo, expira_em)
+            VALUES (:chave, :hashRequisicao, :status, :corpo, :expiraEm)
+            ON CONFLICT (chave) DO UPDATE SET hash_requisicao = EXCLUDED.hash_requisicao, status = EXCLUDED.status,
+                corpo = EXCLUDED.corpo, expira_em = EXCLUDED.expira_em
+            WHERE requisicao_idempotente.expira_em < :agora""", nativeQuery = true)
+    int inserirSeAusente(@Param("chave") String chave,
+                         @Param("hashRequisicao") String hashRequisicao,
+                         @Param("status") short status,
+                         @Param("corpo") String corpo,
+                         @Param("expiraEm") Instant expiraEm,
+                         @Param("agora") Instant agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RequisicaoIdempotente r WHERE r.expiraEm < :agora")
+    int removerExpiradas(@Param("agora") Instant agora);
+}
@@ -1,9 +1,69 @@
 package com.br.farmacia.apiFarmacia.repository;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
 import com.br.farmacia.apiFarmacia.data.entity.Venda;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface VendaRepository extends JpaRepository<Venda,Long> {
+public interface VendaRepository extends JpaRepository<Venda,Long>, VersionamentoRepository<Venda> {
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection(
+                v.idVenda, u.idPessoa, u.nome, u.cpf, u.telefone, u.email, u.tipoUsuario, u.dataExclusao,
+                v.dataCompra, v.dataExclusao, v.versao)
+            from Venda v join v.idUsuario u
+            order by v.idVenda""")
+    List<VendaProjection> listarTodas();
+
+    @Query("select max(v.idVenda) from Venda v")
+    Long maiorId();
+
+    // Keyset pagination sobre o indice (id_usuario, data_compra): o custo depende do tamanho da pagina
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection(v.idVenda, v.dataCompra)
+            from Venda v
+            where v.idUsuario.idPessoa = :idUsuario and v.dataExclusao is null
+            order by v.dataCompra desc, v.idVenda desc""")
+    List<CompraProjection> listarComprasDoUsuario(Long idUsuario, Limit limit);
+
+    // O "data_compra <= :dataCompra" repete o que o OR ja garante, mas e o que permite ao Postgres
+    // descartar as particoes mensais posteriores ao cursor
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection(v.idVenda, v.dataCompra)
+            from Venda v
+            where v.idUsuario.idPessoa = :idUsuario and v.dataExclusao is null
+              and v.dataCompra <= :dataCompra
+              and (v.dataCompra < :dataCompra or (v.dataCompra = :dataCompra and v.idVenda < :idVenda))
+            order by v.dataCompra desc, v.idVenda desc""")
+    List<CompraProjection> listarComprasDoUsuarioAntesDe(Long idUsuario, LocalDate dataCompra, Long idVenda, Limit limit);
+
+    // Candidatas ao arquivamento: fora da janela de retencao ou excluidas ha mais tempo que a carencia
+    @Query("""
+            select v.idVenda from Venda v
+            where v.dataCompra < :limiteRetencao
+               or (v.dataExclusao is not null and v.dataExclusao < :limiteExclusao)
+            order by v.idVenda""")
+    List<Long> listarIdsParaArquivar(LocalDate limiteRetencao, LocalDate limiteExclusao, Limit limit);
+
+    @Query("""
+            select new com.br.farmacia.apiFarmacia.data.dto.projection.VendaArquivamentoProjection(
+                v.idVenda, v.idUsuario.idPessoa, v.dataCompra, v.dataExclusao, v.versao)
+            from Venda v
+            where v.idVenda in :idsVendas
+            order by v.idVenda""")
+    List<VendaArquivamentoProjection> listarParaArquivar(Collection<Long> idsVendas);
+
+    @Modifying
+    @Query("delete from Venda v where v.idVenda in :idsVendas")
+    int removerArquivadas(Collection<Long> idsVendas);
 }
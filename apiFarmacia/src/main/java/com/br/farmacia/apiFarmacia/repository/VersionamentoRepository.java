@@ -0,0 +1,6 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+public interface VersionamentoRepository<T> {
+
+    void incrementarVersao(T entidade);
+}
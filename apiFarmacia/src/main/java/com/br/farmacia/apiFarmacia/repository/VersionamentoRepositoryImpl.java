@@ -0,0 +1,20 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+public class VersionamentoRepositoryImpl<T> implements VersionamentoRepository<T> {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Agenda para o commit "UPDATE ... SET versao = versao + 1 WHERE id = ? AND versao = ?" e atualiza a versao da
+    // entidade. Serve para entidades cujas mudancas ficam so nas tabelas filhas (itens), que nao incrementam a versao
+    // sozinhas. Se outra transacao gravou antes, o commit falha com conflito de versao; a versao final so existe
+    // depois dele, entao quem devolve a versao na resposta precisa monta-la apos o commit
+    @Override
+    public void incrementarVersao(T entidade) {
+        entityManager.lock(entidade, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+}
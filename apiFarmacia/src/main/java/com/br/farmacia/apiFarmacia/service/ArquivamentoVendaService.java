@@ -0,0 +1,244 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaArquivadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaArquivadaDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.arquivamento.ArquivoColunarVendas;
+import com.br.farmacia.apiFarmacia.infra.arquivamento.ArquivoColunarVendas.Metadados;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Move para arquivos colunares em disco as vendas fora da janela de retencao e as excluidas ha mais
+ * tempo que a carencia, em lotes: cada lote e gravado (com fsync) e so entao apagado do banco, na
+ * mesma transacao que o selecionou. As faixas de id e de data de cada arquivo ficam num indice em
+ * memoria, carregado dos cabecalhos na inicializacao, e a consulta so abre os arquivos que podem
+ * conter o que foi pedido.
+ */
+@Service
+public class ArquivamentoVendaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoVendaService.class);
+
+    private static final String EXTENSAO = ".fva";
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private ItensVendaRepository itensVendaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Em mais de uma instancia, deve ser um diretorio compartilhado
+    @Value("${farmacia.venda.arquivamento.diretorio:arquivo/vendas}")
+    private Path diretorio;
+
+    @Value("${farmacia.venda.arquivamento.retencao:P5Y}")
+    private Period retencao;
+
+    @Value("${farmacia.venda.arquivamento.carencia-excluidas:P30D}")
+    private Period carenciaExcluidas;
+
+    @Value("${farmacia.venda.arquivamento.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    @Value("${farmacia.venda.arquivamento.max-lotes-por-execucao:200}")
+    private int maxLotesPorExecucao;
+
+    private final List<Metadados> indice = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    void carregarIndice() throws IOException {
+        Files.createDirectories(diretorio);
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            for (Path arquivo : arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(EXTENSAO)).toList()) {
+                indice.add(ArquivoColunarVendas.lerMetadados(arquivo));
+            }
+        }
+        log.info("{} arquivo(s) de vendas arquivadas em {}", indice.size(), diretorio);
+    }
+
+    @Scheduled(cron = "${farmacia.venda.arquivamento.cron:0 0 3 * * *}")
+    public void arquivarAgendado() {
+        int arquivadas = arquivar();
+        if (arquivadas > 0) {
+            log.info("{} venda(s) movidas para o arquivo", arquivadas);
+        }
+    }
+
+    public int arquivar() {
+        LocalDate hoje = LocalDate.now();
+        LocalDate limiteRetencao = hoje.minus(retencao);
+        LocalDate limiteExclusao = hoje.minus(carenciaExcluidas);
+        int total = 0;
+        for (int lote = 0; lote < maxLotesPorExecucao; lote++) {
+            int arquivadas = arquivarLote(limiteRetencao, limiteExclusao);
+            if (arquivadas == 0) {
+                break;
+            }
+            total += arquivadas;
+        }
+        return total;
+    }
+
+    public VendaArquivadaDTO buscarPorId(Long idVenda) {
+        VendaArquivadaDTO encontrada = null;
+        for (Metadados metadados : indice) {
+            if (metadados.podeConterId(idVenda)) {
+                try {
+                    var venda = ArquivoColunarVendas.buscar(metadados.arquivo(), idVenda);
+                    if (venda.isPresent()) {
+                        encontrada = maisRecente(encontrada, venda.get());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        if (encontrada == null) {
+            throw new EntityNotFoundException(idVenda);
+        }
+        return encontrada;
+    }
+
+    public List<VendaArquivadaDTO> buscarPorPeriodo(LocalDate de, LocalDate ate) {
+        if (de.isAfter(ate)) {
+            throw new InvalidRequestException("A data inicial deve ser anterior ou igual à final.");
+        }
+        // Um lote regravado apos uma falha pode repetir vendas em dois arquivos: o id desduplica
+        Map<Long, VendaArquivadaDTO> vendas = new TreeMap<>();
+        for (Metadados metadados : indice) {
+            if (metadados.sobrepoe(de, ate)) {
+                try {
+                    ArquivoColunarVendas.buscarPorPeriodo(metadados.arquivo(), de, ate)
+                            .forEach(venda -> vendas.merge(venda.idVenda(), venda, ArquivamentoVendaService::maisRecente));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        List<VendaArquivadaDTO> resultado = new ArrayList<>(vendas.values());
+        resultado.sort(Comparator.comparing(VendaArquivadaDTO::dataCompra).thenComparing(VendaArquivadaDTO::idVenda));
+        return resultado;
+    }
+
+    // Copias da mesma venda em dois arquivos: vale a de maior versao (a gravada por ultimo)
+    private static VendaArquivadaDTO maisRecente(VendaArquivadaDTO atual, VendaArquivadaDTO outra) {
+        if (atual == null) {
+            return outra;
+        }
+        return outra.versao() != null && (atual.versao() == null || outra.versao() > atual.versao()) ? outra : atual;
+    }
+
+    private int arquivarLote(LocalDate limiteRetencao, LocalDate limiteExclusao) {
+        Metadados[] gravado = new Metadados[1];
+        boolean[] callbackConcluido = new boolean[1];
+        try {
+            Integer arquivadas = transactionTemplate.execute(status -> {
+                // Uma instancia arquiva por vez; as outras desistem desta execucao
+                if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "select pg_try_advisory_xact_lock(hashtext('arquivamento_venda'))", Boolean.class))) {
+                    return 0;
+                }
+                List<Long> ids = vendaRepository.listarIdsParaArquivar(limiteRetencao, limiteExclusao, Limit.of(tamanhoLote));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                List<VendaArquivadaDTO> vendas = montar(vendaRepository.listarParaArquivar(ids),
+                        itensVendaRepository.listarParaArquivar(ids));
+                gravado[0] = gravar(vendas);
+
+                itensVendaRepository.removerArquivados(ids);
+                vendaRepository.removerArquivadas(ids);
+                callbackConcluido[0] = true;
+                return vendas.size();
+            });
+            indexar(gravado[0]);
+            return arquivadas == null ? 0 : arquivadas;
+        } catch (RuntimeException e) {
+            if (gravado[0] != null) {
+                if (callbackConcluido[0]) {
+                    // Falha no commit: o banco pode ter removido as vendas e o arquivo pode ser a unica copia.
+                    // Se o commit nao valeu, a proxima execucao regrava o lote e a leitura desduplica por id
+                    log.warn("Resultado do commit do lote {} desconhecido; arquivo mantido", gravado[0].arquivo(), e);
+                    indexar(gravado[0]);
+                } else {
+                    // A falha veio antes do commit: o banco certamente desfez a remocao
+                    try {
+                        Files.deleteIfExists(gravado[0].arquivo());
+                    } catch (IOException erroRemocao) {
+                        e.addSuppressed(erroRemocao);
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void indexar(Metadados metadados) {
+        if (metadados != null) {
+            indice.removeIf(existente -> existente.arquivo().equals(metadados.arquivo()));
+            indice.add(metadados);
+        }
+    }
+
+    private Metadados gravar(List<VendaArquivadaDTO> vendas) {
+        // O nome vem da faixa de ids: regravar o mesmo lote substitui o arquivo em vez de duplicar
+        String nome = String.format("vendas-%019d-%019d", vendas.get(0).idVenda(), vendas.get(vendas.size() - 1).idVenda());
+        Path arquivo = diretorio.resolve(nome + EXTENSAO);
+        Path parcial = diretorio.resolve(nome + ".parcial");
+        try {
+            ArquivoColunarVendas.gravar(parcial, vendas);
+            Files.move(parcial, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return ArquivoColunarVendas.lerMetadados(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o arquivo de vendas " + arquivo, e);
+        }
+    }
+
+    static List<VendaArquivadaDTO> montar(List<VendaArquivamentoProjection> vendas, List<ItemArquivamentoProjection> itens) {
+        Map<Long, List<ItemVendaArquivadoDTO>> itensPorVenda = new HashMap<>();
+        for (ItemArquivamentoProjection item : itens) {
+            itensPorVenda.computeIfAbsent(item.idVenda(), id -> new ArrayList<>())
+                    .add(new ItemVendaArquivadoDTO(item.idItemVenda(), item.idProduto(), item.quantidade(), item.precoUnitario()));
+        }
+        return vendas.stream()
+                .map(venda -> new VendaArquivadaDTO(venda.idVenda(), venda.idUsuario(), venda.dataCompra(),
+                        venda.dataExclusao(), venda.versao(), itensPorVenda.getOrDefault(venda.idVenda(), List.of())))
+                .toList();
+    }
+}
@@ -11,11 +11,14 @@ import com.br.farmacia.apiFarmacia.repository.CarrinhoRepository;
 import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
 import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class CarrinhoService {
@@ -29,21 +32,26 @@ public class CarrinhoService {
     @Autowired
     private ProdutoRepository produtoRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${farmacia.carrinho.tentativas-conflito:3}")
+    private int tentativasConflito;
+
     @Transactional
     public CarrinhoResponseDTO getCarrinhoByUsuario(Long idUsuario) {
-        Pessoa pessoa = getPessoaById(idUsuario);
-        Carrinho carrinho = carrinhoRepository.findByUsuario(pessoa)
-                .orElseGet(() -> criarNovoCarrinho(pessoa));
+        Carrinho carrinho = obterOuCriarCarrinho(getPessoaById(idUsuario));
 
         return new CarrinhoResponseDTO(carrinho);
     }
 
-    @Transactional
     public CarrinhoResponseDTO adicionarItem(Long idUsuario, ItemCarrinhoRequestDTO dto) {
-        Pessoa pessoa = getPessoaById(idUsuario);
+        // A versao so e incrementada no commit: a resposta sai do carrinho ja gravado
+        return new CarrinhoResponseDTO(comRetentativa(() -> adicionarItemNoCarrinho(idUsuario, dto)));
+    }
 
-        Carrinho carrinho = carrinhoRepository.findByUsuario(pessoa)
-                .orElseGet(() -> criarNovoCarrinho(pessoa));
+    private Carrinho adicionarItemNoCarrinho(Long idUsuario, ItemCarrinhoRequestDTO dto) {
+        Carrinho carrinho = obterOuCriarCarrinho(getPessoaById(idUsuario));
 
         Produto produto = produtoRepository.findById(dto.idProduto())
                 .orElseThrow(() -> new EntityNotFoundException(dto.idProduto()));
@@ -64,11 +72,15 @@ public class CarrinhoService {
         }
 
         Carrinho carrinhoSalvo = carrinhoRepository.save(carrinho);
-        return new CarrinhoResponseDTO(carrinhoSalvo);
+        carrinhoRepository.incrementarVersao(carrinhoSalvo);
+        return carrinhoSalvo;
     }
 
-    @Transactional
     public String removerItem(Long idUsuario, Long idItemCarrinho) {
+        return comRetentativa(() -> removerItemDoCarrinho(idUsuario, idItemCarrinho));
+    }
+
+    private String removerItemDoCarrinho(Long idUsuario, Long idItemCarrinho) {
         Pessoa pessoa = getPessoaById(idUsuario);
 
         Carrinho carrinho = carrinhoRepository.findByUsuario(pessoa)
@@ -81,11 +93,15 @@ public class CarrinhoService {
         }
 
         carrinhoRepository.save(carrinho);
+        carrinhoRepository.incrementarVersao(carrinho);
         return "Item removido com sucesso!";
     }
 
-    @Transactional
     public String limparCarrinho(Long idUsuario) {
+        return comRetentativa(() -> limparItensDoCarrinho(idUsuario));
+    }
+
+    private String limparItensDoCarrinho(Long idUsuario) {
         Pessoa pessoa = getPessoaById(idUsuario);
 
         Carrinho carrinho = carrinhoRepository.findByUsuario(pessoa)
@@ -93,19 +109,34 @@ public class CarrinhoService {
 
         carrinho.getItens().clear();
         carrinhoRepository.save(carrinho);
+        carrinhoRepository.incrementarVersao(carrinho);
 
         return "Carrinho limpo com sucesso!";
     }
 
+    // Duas abas alterando o mesmo carrinho: quem perder o conflito de versao refaz a operacao
+    // numa transacao nova, sobre o carrinho ja atualizado, em vez de sobrescrever a outra
+    private <T> T comRetentativa(Supplier<T> operacao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> operacao.get());
+            } catch (ObjectOptimisticLockingFailureException e) {
+                if (tentativa >= tentativasConflito) {
+                    throw e;
+                }
+            }
+        }
+    }
+
     private Pessoa getPessoaById(Long id) {
         return pessoaRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(id));
     }
 
-    private Carrinho criarNovoCarrinho(Pessoa pessoa) {
-        Carrinho novo = new Carrinho();
-        novo.setUsuario(pessoa);
-        novo.setDataCriacao(LocalDate.now());
-        return carrinhoRepository.save(novo);
+    private Carrinho obterOuCriarCarrinho(Pessoa pessoa) {
+        // Vazio so quando outra requisicao criou o carrinho no mesmo instante; ai ele ja esta gravado
+        return carrinhoRepository.obterOuCriarPorUsuario(pessoa.getIdPessoa())
+                .or(() -> carrinhoRepository.findByUsuario(pessoa))
+                .orElseThrow(() -> new EntityNotFoundException(pessoa.getIdPessoa()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,216 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.CatalogoFacetadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ContagemFacetaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.infra.facetas.IndiceFacetas;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalogo filtrado por fabricante, faixa de preco, janela de validade e disponibilidade, com a
+ * contagem de cada faceta, direto de um indice de bitmaps em memoria (IndiceFacetas). Cada gravacao
+ * de produto atualiza so as linhas gravadas; o indice e remontado inteiro ao subir, quando o catalogo
+ * todo muda (importacao, ajuste geral de preco) e na virada do dia, porque as janelas de validade sao
+ * contadas a partir de hoje.
+ */
+@Service
+public class CatalogoFacetasService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoFacetasService.class);
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 200;
+
+    public static final String FABRICANTE = "fabricante";
+    public static final String PRECO = "preco";
+    public static final String VALIDADE = "validade";
+    public static final String DISPONIBILIDADE = "disponibilidade";
+
+    // Ordem das facetas no indice e na resposta
+    private static final List<String> FACETAS = List.of(FABRICANTE, PRECO, VALIDADE, DISPONIBILIDADE);
+
+    static final String VENCIDO = "vencido";
+    static final String SEM_VALIDADE = "sem-validade";
+    static final String DISPONIVEL = "disponivel";
+    static final String EXCLUIDO = "excluido";
+    private static final List<String> ROTULOS_DISPONIBILIDADE = List.of(DISPONIVEL, VENCIDO, EXCLUIDO);
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    // Limites das faixas de preco: 10,25 vira 0-10, 10-25 e 25+
+    @Value("${farmacia.produto.facetas.faixas-preco:10,25,50,100}")
+    private double[] faixasPreco;
+
+    // Limites das janelas de validade em dias a partir de hoje: 30,90 vira ate-30-dias, 31-90-dias e acima-de-90-dias
+    @Value("${farmacia.produto.facetas.janelas-validade:30,90,180}")
+    private int[] janelasValidade;
+
+    // Rotulos de cada faixa e janela, na ordem em que aparecem na resposta
+    private List<String> rotulosPreco;
+    private List<String> rotulosValidade;
+
+    private record Indice(IndiceFacetas<ProdutoResponseDTO> facetas, LocalDate dia) {
+    }
+
+    private volatile Indice indice;
+
+    @PostConstruct
+    void iniciar() {
+        rotulosPreco = new ArrayList<>();
+        double anterior = 0;
+        for (double limite : faixasPreco) {
+            rotulosPreco.add(numero(anterior) + "-" + numero(limite));
+            anterior = limite;
+        }
+        rotulosPreco.add(numero(anterior) + "+");
+
+        rotulosValidade = new ArrayList<>();
+        rotulosValidade.add(VENCIDO);
+        int dias = -1;
+        for (int limite : janelasValidade) {
+            rotulosValidade.add(dias < 0 ? "ate-" + limite + "-dias" : (dias + 1) + "-" + limite + "-dias");
+            dias = limite;
+        }
+        rotulosValidade.add("acima-de-" + dias + "-dias");
+        rotulosValidade.add(SEM_VALIDADE);
+    }
+
+    public CatalogoFacetadoDTO consultar(List<String> fabricantes, List<String> precos, List<String> validades,
+                                         List<String> disponibilidades, int pagina, int tamanho) {
+        Indice atual = indice;
+        if (atual == null || !atual.dia().equals(LocalDate.now())) {
+            atual = remontar();
+        }
+        int paginaValida = Math.max(pagina, 0);
+        int tamanhoValido = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA);
+        List<List<String>> filtros = List.of(vazioSeNulo(fabricantes), vazioSeNulo(precos),
+                vazioSeNulo(validades), vazioSeNulo(disponibilidades));
+
+        IndiceFacetas.Resultado<ProdutoResponseDTO> resultado = atual.facetas().consultar(
+                filtros, (int) Math.min(Integer.MAX_VALUE, (long) paginaValida * tamanhoValido), tamanhoValido);
+
+        Map<String, List<ContagemFacetaDTO>> facetas = new LinkedHashMap<>();
+        for (int f = 0; f < FACETAS.size(); f++) {
+            List<String> selecionados = filtros.get(f);
+            List<ContagemFacetaDTO> contagens = new ArrayList<>();
+            resultado.contagens().get(f).forEach((valor, quantidade) ->
+                    contagens.add(new ContagemFacetaDTO(valor, quantidade, selecionados.contains(valor))));
+            contagens.sort(ordem(f));
+            facetas.put(FACETAS.get(f), contagens);
+        }
+        int totalPaginas = (resultado.total() + tamanhoValido - 1) / tamanhoValido;
+        return new CatalogoFacetadoDTO(
+                new PaginaDTO<>(resultado.itens(), paginaValida, tamanhoValido, resultado.total(), totalPaginas), facetas);
+    }
+
+    @Scheduled(cron = "${farmacia.produto.facetas.cron:0 0 0 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    public void recalcularIndice() {
+        remontar();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCatalogoAlterado(ProdutoCatalogoAlteradoEvent event) {
+        Indice atual = indice;
+        if (atual == null) {
+            return;
+        }
+        if (event.isCatalogoInteiro() || !atual.dia().equals(LocalDate.now())) {
+            remontar();
+            return;
+        }
+        List<ProdutoResponseDTO> gravados = produtoRepository.listarPorIds(event.idsProdutos());
+        indice = new Indice(atual.facetas().atualizar(event.idsProdutos(), gravados), atual.dia());
+    }
+
+    private synchronized Indice remontar() {
+        long inicio = System.currentTimeMillis();
+        LocalDate hoje = LocalDate.now();
+        List<ProdutoResponseDTO> produtos = produtoRepository.listarTodos();
+        IndiceFacetas<ProdutoResponseDTO> facetas = IndiceFacetas.montar(produtos, FACETAS.size(),
+                ProdutoResponseDTO::idProduto, (produto, faceta) -> classificar(produto, faceta, hoje));
+        indice = new Indice(facetas, hoje);
+        log.info("Indice de facetas do catalogo montado: {} produtos em {} ms", produtos.size(), System.currentTimeMillis() - inicio);
+        return indice;
+    }
+
+    String classificar(ProdutoResponseDTO produto, int faceta, LocalDate hoje) {
+        return switch (FACETAS.get(faceta)) {
+            case FABRICANTE -> produto.fabricante() == null || produto.fabricante().isBlank() ? null : produto.fabricante().trim();
+            case PRECO -> produto.preco() == null ? null : faixaPreco(produto.preco());
+            case VALIDADE -> janelaValidade(produto, hoje);
+            default -> produto.dataExclusao() != null ? EXCLUIDO
+                    : VENCIDO.equals(janelaValidade(produto, hoje)) ? VENCIDO : DISPONIVEL;
+        };
+    }
+
+    private String faixaPreco(double preco) {
+        for (int i = 0; i < faixasPreco.length; i++) {
+            if (preco < faixasPreco[i]) {
+                return rotulosPreco.get(i);
+            }
+        }
+        return rotulosPreco.get(faixasPreco.length);
+    }
+
+    private String janelaValidade(ProdutoResponseDTO produto, LocalDate hoje) {
+        if (produto.dataValidade() == null) {
+            return SEM_VALIDADE;
+        }
+        // Mesmo fuso com que a validade e gravada e buscada, independente do fuso da JVM
+        LocalDate validade = ProdutoValidadeService.diaDaValidade(produto.dataValidade());
+        long dias = ChronoUnit.DAYS.between(hoje, validade);
+        if (dias < 0) {
+            return VENCIDO;
+        }
+        for (int i = 0; i < janelasValidade.length; i++) {
+            if (dias <= janelasValidade[i]) {
+                return rotulosValidade.get(i + 1);
+            }
+        }
+        return rotulosValidade.get(janelasValidade.length + 1);
+    }
+
+    // Fabricantes em ordem alfabetica; as demais facetas na ordem dos rotulos
+    private Comparator<ContagemFacetaDTO> ordem(int faceta) {
+        List<String> rotulos = switch (FACETAS.get(faceta)) {
+            case FABRICANTE -> null;
+            case PRECO -> rotulosPreco;
+            case VALIDADE -> rotulosValidade;
+            default -> ROTULOS_DISPONIBILIDADE;
+        };
+        if (rotulos == null) {
+            return Comparator.comparing(ContagemFacetaDTO::valor, String.CASE_INSENSITIVE_ORDER);
+        }
+        return Comparator.comparingInt(contagem -> rotulos.indexOf(contagem.valor()));
+    }
+
+    private static String numero(double valor) {
+        return BigDecimal.valueOf(valor).stripTrailingZeros().toPlainString();
+    }
+
+    private static List<String> vazioSeNulo(List<String> valores) {
+        return valores == null ? List.of() : valores;
+    }
+}
@@ -0,0 +1,120 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.EpocaTokenProjection;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.infra.colecao.LongIntHashMap;
+import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Revogacao de tokens por usuario: cada token carrega a epoca da pessoa no momento do login e
+ * e recusado quando a epoca atual e maior. As epocas ficam num mapa primitivo em memoria, entao a
+ * verificacao custa uma busca no hash por requisicao; o banco so e lido na sincronizacao periodica,
+ * que tambem propaga revogacoes feitas por outras instancias.
+ */
+@Service
+public class EpocaTokenService {
+
+    public static final String CLAIM_USUARIO = "uid";
+    public static final String CLAIM_EPOCA = "epoca";
+
+    private static final OAuth2Error TOKEN_SEM_EPOCA = new OAuth2Error(
+            OAuth2ErrorCodes.INVALID_TOKEN, "Token emitido sem epoca; faca login novamente", null);
+    private static final OAuth2Error TOKEN_REVOGADO = new OAuth2Error(
+            OAuth2ErrorCodes.INVALID_TOKEN, "Token revogado; faca login novamente", null);
+
+    @Autowired
+    private PessoaRepository pessoaRepository;
+
+    // Pessoas ausentes do mapa estao na epoca 0
+    private final LongIntHashMap epocas = new LongIntHashMap(1024);
+    private final StampedLock lock = new StampedLock();
+
+    public int epocaAtual(long idPessoa) {
+        long stamp = lock.tryOptimisticRead();
+        int epoca = epocas.get(idPessoa, 0);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                epoca = epocas.get(idPessoa, 0);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return epoca;
+    }
+
+    public OAuth2TokenValidatorResult validar(Jwt jwt) {
+        Object usuario = jwt.getClaims().get(CLAIM_USUARIO);
+        Object epoca = jwt.getClaims().get(CLAIM_EPOCA);
+        if (!(usuario instanceof Number idPessoa) || !(epoca instanceof Number epocaToken)) {
+            return OAuth2TokenValidatorResult.failure(TOKEN_SEM_EPOCA);
+        }
+        if (epocaToken.intValue() < epocaAtual(idPessoa.longValue())) {
+            return OAuth2TokenValidatorResult.failure(TOKEN_REVOGADO);
+        }
+        return OAuth2TokenValidatorResult.success();
+    }
+
+    /**
+     * Avanca a epoca da pessoa, invalidando todos os tokens ja emitidos para ela. O mapa so e
+     * atualizado depois do commit: se a transacao falhar, os tokens continuam valendo e novos
+     * logins (que leem a epoca do banco) nao sao recusados.
+     */
+    public void revogarTokens(Pessoa pessoa) {
+        int novaEpoca = pessoa.getEpocaToken() + 1;
+        pessoa.setEpocaToken(novaEpoca);
+        long idPessoa = pessoa.getIdPessoa();
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrar(idPessoa, novaEpoca);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrar(idPessoa, novaEpoca);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${farmacia.seguranca.epoca-token.sincronizacao:PT30S}")
+    public void sincronizar() {
+        List<EpocaTokenProjection> lidas = pessoaRepository.listarEpocasToken();
+        long stamp = lock.writeLock();
+        try {
+            for (EpocaTokenProjection lida : lidas) {
+                atualizarSeMaior(lida.idPessoa(), lida.epocaToken());
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void registrar(long idPessoa, int epoca) {
+        long stamp = lock.writeLock();
+        try {
+            atualizarSeMaior(idPessoa, epoca);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // A epoca so avanca: uma leitura antiga do banco nao desfaz uma revogacao local
+    private void atualizarSeMaior(long idPessoa, int epoca) {
+        if (epoca > epocas.get(idPessoa, 0)) {
+            epocas.put(idPessoa, epoca, 0);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.entity.RequisicaoIdempotente;
+import com.br.farmacia.apiFarmacia.exceptions.general.IdempotenciaConflitoException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.repository.RequisicaoIdempotenteRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Garante que uma requisicao com o mesmo Idempotency-Key seja executada uma unica vez.
+ * A primeira resposta fica serializada em JSON num cache LRU em memoria e na tabela requisicao_idempotente
+ * ate expirar; repeticoes recebem o mesmo objeto de volta (desserializado), para que a negociacao de formato
+ * e o ?fields= da requisicao repetida se apliquem como na original. Requisicoes simultaneas com a mesma
+ * chave aguardam a primeira.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    @Autowired
+    private RequisicaoIdempotenteRepository requisicaoIdempotenteRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${farmacia.idempotencia.validade:24h}")
+    private Duration validade;
+
+    @Value("${farmacia.idempotencia.capacidade-cache:10000}")
+    private int capacidadeCache;
+
+    @Value("${farmacia.idempotencia.espera-maxima:30s}")
+    private Duration esperaMaxima;
+
+    private final ConcurrentHashMap<String, CompletableFuture<RespostaArmazenada>> emAndamento = new ConcurrentHashMap<>();
+
+    private Map<String, RespostaArmazenada> cache;
+
+    public record RespostaIdempotente<T>(int status, T corpo, boolean repetida) {
+    }
+
+    private record RespostaArmazenada(String hashRequisicao, int status, String corpo, Instant expiraEm) {
+
+        boolean expirada(Instant agora) {
+            return expiraEm.isBefore(agora);
+        }
+    }
+
+    private record Gravacao<T>(RespostaArmazenada armazenada, T corpo) {
+    }
+
+    @PostConstruct
+    void criarCache() {
+        // LinkedHashMap em ordem de acesso: o mais antigo sai quando a capacidade estoura
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RespostaArmazenada> eldest) {
+                return size() > capacidadeCache;
+            }
+        };
+    }
+
+    public <T> RespostaIdempotente<T> executar(String escopo, String chave, Object requisicao, HttpStatus status,
+                                               Class<T> tipoResposta, Supplier<T> operacao) {
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new InvalidRequestException("Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+        String id = escopo + ":" + chave;
+        String hashRequisicao = calcularHash(requisicao);
+
+        RespostaArmazenada armazenada = buscar(id);
+        if (armazenada != null) {
+            return repetir(armazenada, hashRequisicao, tipoResposta);
+        }
+
+        CompletableFuture<RespostaArmazenada> futuro = new CompletableFuture<>();
+        CompletableFuture<RespostaArmazenada> existente = emAndamento.putIfAbsent(id, futuro);
+        if (existente != null) {
+            return repetir(aguardar(existente), hashRequisicao, tipoResposta);
+        }
+
+        try {
+            // A requisicao anterior pode ter terminado entre a busca e o registro acima
+            armazenada = buscar(id);
+            if (armazenada != null) {
+                futuro.complete(armazenada);
+                return repetir(armazenada, hashRequisicao, tipoResposta);
+            }
+
+            return processar(id, hashRequisicao, status, tipoResposta, operacao, futuro);
+        } catch (RuntimeException e) {
+            futuro.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(id, futuro);
+        }
+    }
+
+    private <T> RespostaIdempotente<T> processar(String id, String hashRequisicao, HttpStatus status, Class<T> tipoResposta,
+                                                 Supplier<T> operacao, CompletableFuture<RespostaArmazenada> futuro) {
+        Instant agora = Instant.now();
+        Instant expiraEm = agora.plus(validade);
+
+        // A operacao e o registro da chave fazem parte da mesma transacao: ou ambos ficam gravados ou nenhum
+        Gravacao<T> gravacao = transactionTemplate.execute(tx -> {
+            T resultado = operacao.get();
+            String corpo = serializar(resultado);
+            int inseridas = requisicaoIdempotenteRepository.inserirSeAusente(
+                    id, hashRequisicao, (short) status.value(), corpo, expiraEm, agora);
+            if (inseridas == 0) {
+                tx.setRollbackOnly();
+                return null;
+            }
+            return new Gravacao<>(new RespostaArmazenada(hashRequisicao, status.value(), corpo, expiraEm), resultado);
+        });
+
+        if (gravacao == null) {
+            // Outra instancia gravou a mesma chave primeiro; o trabalho desta tentativa foi desfeito
+            RespostaArmazenada vencedora = buscar(id);
+            if (vencedora == null) {
+                throw new IdempotenciaConflitoException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+            }
+            futuro.complete(vencedora);
+            return repetir(vencedora, hashRequisicao, tipoResposta);
+        }
+
+        RespostaArmazenada nova = gravacao.armazenada();
+        synchronized (cache) {
+            cache.put(id, nova);
+        }
+        futuro.complete(nova);
+        return new RespostaIdempotente<>(nova.status(), gravacao.corpo(), false);
+    }
+
+    private RespostaArmazenada buscar(String id) {
+        Instant agora = Instant.now();
+        synchronized (cache) {
+            RespostaArmazenada armazenada = cache.get(id);
+            if (armazenada != null) {
+                if (!armazenada.expirada(agora)) {
+                    return armazenada;
+                }
+                cache.remove(id);
+            }
+        }
+
+        RequisicaoIdempotente registro = requisicaoIdempotenteRepository.findById(id).orElse(null);
+        if (registro == null || registro.getExpiraEm().isBefore(agora)) {
+            return null;
+        }
+        RespostaArmazenada armazenada = new RespostaArmazenada(
+                registro.getHashRequisicao(), registro.getStatus(), registro.getCorpo(), registro.getExpiraEm());
+        synchronized (cache) {
+            cache.put(id, armazenada);
+        }
+        return armazenada;
+    }
+
+    private RespostaArmazenada aguardar(CompletableFuture<RespostaArmazenada> futuro) {
+        try {
+            RespostaArmazenada armazenada = futuro.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+            if (armazenada == null) {
+                throw new IdempotenciaConflitoException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+            }
+            return armazenada;
+        } catch (ExecutionException e) {
+            // A requisicao original falhou: quem esperava por ela recebe o mesmo erro
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotenciaConflitoException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotenciaConflitoException("Requisição com a mesma Idempotency-Key ainda em processamento.");
+        }
+    }
+
+    private <T> RespostaIdempotente<T> repetir(RespostaArmazenada armazenada, String hashRequisicao, Class<T> tipoResposta) {
+        if (!armazenada.hashRequisicao().equals(hashRequisicao)) {
+            throw new IdempotenciaConflitoException("Idempotency-Key já utilizada com uma requisição diferente.");
+        }
+        return new RespostaIdempotente<>(armazenada.status(), desserializar(armazenada.corpo(), tipoResposta), true);
+    }
+
+    @Scheduled(fixedDelayString = "${farmacia.idempotencia.intervalo-limpeza:PT1H}")
+    public void removerExpiradas() {
+        Instant agora = Instant.now();
+        synchronized (cache) {
+            cache.values().removeIf(armazenada -> armazenada.expirada(agora));
+        }
+        requisicaoIdempotenteRepository.removerExpiradas(agora);
+    }
+
+    private String serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a resposta.", e);
+        }
+    }
+
+    private <T> T desserializar(String corpo, Class<T> tipo) {
+        try {
+            return objectMapper.readValue(corpo, tipo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível ler a resposta armazenada.", e);
+        }
+    }
+
+    private String calcularHash(Object requisicao) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(requisicao)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível calcular o hash da requisição.", e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ImagemProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.exceptions.general.MiniaturaEmPreparoException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.infra.imagem.ProcessadorImagem;
+import com.br.farmacia.apiFarmacia.infra.imagem.ProcessadorImagem.InfoImagem;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Imagens de produto guardadas em disco pelo SHA-256 do conteudo: o mesmo arquivo enviado para
+ * varios produtos ocupa espaco uma vez, e como o nome muda junto com o conteudo as URLs podem ser
+ * cacheadas para sempre. As miniaturas saem em segundo plano depois do upload; se uma for pedida
+ * antes de pronta (ou se perdeu num reinicio), a requisicao espera a geracao no mesmo pool, que limita
+ * quantas imagens sao decodificadas ao mesmo tempo, e cada miniatura e gerada uma vez so.
+ */
+@Service
+public class ImagemProdutoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImagemProdutoService.class);
+
+    public static final String PREFIXO_URL = "/imagens/";
+
+    // <sha256>.<ext> para o original, <sha256>-<largura>.<ext> para as miniaturas
+    private static final Pattern NOME = Pattern.compile("([0-9a-f]{64})(?:-([0-9]{1,4}))?\\.(jpg|png)");
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${farmacia.imagem.diretorio:imagens}")
+    private Path diretorio;
+
+    @Value("${farmacia.imagem.tamanho-maximo:5MB}")
+    private DataSize tamanhoMaximo;
+
+    // Evita decodificar imagens gigantes (ex.: PNG pequeno que descomprime em gigabytes)
+    @Value("${farmacia.imagem.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${farmacia.imagem.miniaturas:160,480}")
+    private int[] larguras;
+
+    @Value("${farmacia.imagem.threads:2}")
+    private int threads;
+
+    // Quanto um GET espera por uma miniatura que ainda nao existe antes de responder 503
+    @Value("${farmacia.imagem.espera-miniatura:PT5S}")
+    private Duration esperaMiniatura;
+
+    private ExecutorService executor;
+
+    // Uma geracao por miniatura: o upload e os pedidos simultaneos esperam pelo mesmo futuro
+    private final Map<String, CompletableFuture<Path>> emPreparo = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(diretorio);
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "imagem-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public ImagemProdutoResponseDTO salvarImagem(Long idProduto, MultipartFile arquivo) {
+        if (arquivo == null || arquivo.isEmpty()) {
+            throw new InvalidRequestException("Envie o arquivo da imagem.");
+        }
+        if (arquivo.getSize() > tamanhoMaximo.toBytes()) {
+            throw new InvalidRequestException("A imagem deve ter no máximo " + tamanhoMaximo.toMegabytes() + " MB.");
+        }
+        Produto produto = produtoRepository.findById(idProduto).orElseThrow(() -> new EntityNotFoundException(idProduto));
+
+        String nome;
+        try {
+            nome = armazenar(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar a imagem do produto " + idProduto, e);
+        }
+
+        produto.setLinkImagem(PREFIXO_URL + nome);
+        produtoRepository.save(produto);
+        eventPublisher.publishEvent(ProdutoCatalogoAlteradoEvent.produto(idProduto));
+
+        String hash = nome.substring(0, nome.indexOf('.'));
+        String extensao = nome.substring(nome.indexOf('.') + 1);
+        Map<Integer, String> miniaturas = new LinkedHashMap<>();
+        for (int largura : larguras) {
+            String nomeMiniatura = hash + "-" + largura + "." + extensao;
+            miniaturas.put(largura, PREFIXO_URL + nomeMiniatura);
+            agendarMiniatura(nome, nomeMiniatura, extensao, largura).exceptionally(erro -> {
+                log.warn("Falha ao gerar a miniatura {}", nomeMiniatura, erro);
+                return null;
+            });
+        }
+        return new ImagemProdutoResponseDTO(idProduto, produto.getLinkImagem(), miniaturas, arquivo.getSize());
+    }
+
+    // Copia para um temporario calculando o hash no caminho; so entao sabe o nome definitivo
+    private String armazenar(MultipartFile arquivo) throws IOException {
+        Path temporario = Files.createTempFile(diretorio, "upload-", ".parcial");
+        try {
+            MessageDigest sha256 = novoSha256();
+            try (InputStream entrada = new DigestInputStream(arquivo.getInputStream(), sha256);
+                 FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                entrada.transferTo(Channels.newOutputStream(canal));
+                canal.force(true);
+            }
+
+            InfoImagem info = ProcessadorImagem.ler(temporario);
+            if (info == null) {
+                throw new InvalidRequestException("Formato de imagem não suportado. Envie JPEG ou PNG.");
+            }
+            if ((long) info.largura() * info.altura() > maxPixels) {
+                throw new InvalidRequestException("A imagem deve ter no máximo " + maxPixels + " pixels.");
+            }
+
+            String nome = HexFormat.of().formatHex(sha256.digest()) + "." + info.extensao();
+            Path destino = caminho(nome);
+            if (!Files.exists(destino)) {
+                Files.createDirectories(destino.getParent());
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return nome;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    // Caminho da imagem ou miniatura pedida em /imagens/{nome}; null quando nao existe
+    public Path localizar(String nome) {
+        Matcher partes = NOME.matcher(nome);
+        if (!partes.matches()) {
+            return null;
+        }
+        Path arquivo = caminho(nome);
+        if (Files.exists(arquivo)) {
+            return arquivo;
+        }
+        if (partes.group(2) == null) {
+            return null;
+        }
+        int largura = Integer.parseInt(partes.group(2));
+        String original = partes.group(1) + "." + partes.group(3);
+        if (Arrays.stream(larguras).noneMatch(configurada -> configurada == largura) || !Files.exists(caminho(original))) {
+            return null;
+        }
+        CompletableFuture<Path> miniatura = agendarMiniatura(original, nome, partes.group(3), largura);
+        try {
+            return miniatura.get(esperaMiniatura.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new MiniaturaEmPreparoException("A miniatura " + nome + " ainda está sendo gerada.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MiniaturaEmPreparoException("A miniatura " + nome + " ainda está sendo gerada.");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao gerar a miniatura " + nome, e.getCause());
+        }
+    }
+
+    public static MediaType tipo(String nome) {
+        return nome.endsWith(".png") ? MediaType.IMAGE_PNG : MediaType.IMAGE_JPEG;
+    }
+
+    public static String etag(String nome) {
+        return "\"" + nome.substring(0, nome.lastIndexOf('.')) + "\"";
+    }
+
+    private CompletableFuture<Path> agendarMiniatura(String original, String nomeMiniatura, String extensao, int largura) {
+        CompletableFuture<Path> futuro = emPreparo.computeIfAbsent(nomeMiniatura, chave -> CompletableFuture.supplyAsync(() -> {
+            Path destino = caminho(nomeMiniatura);
+            try {
+                if (!Files.exists(destino)) {
+                    ProcessadorImagem.gerarMiniatura(caminho(original), destino, extensao, largura);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return destino;
+        }, executor));
+        futuro.whenComplete((destino, erro) -> emPreparo.remove(nomeMiniatura, futuro));
+        return futuro;
+    }
+
+    // Um subdiretorio por prefixo de 2 caracteres do hash, para nao acumular tudo num diretorio so
+    private Path caminho(String nome) {
+        return diretorio.resolve(nome.substring(0, 2)).resolve(nome);
+    }
+
+    private static MessageDigest novoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.br.farmacia.apiFarmacia.service;
 
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.UserAuthenticated;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
@@ -31,9 +33,15 @@ public class JwtService {
                 .issuedAt(now)
                 .expiresAt(now.plusSeconds(expiry))
                 .subject(authentication.getName())
-                .claim("scope",scopes)
-                .build();
+                .claim("scope",scopes);
 
-        return encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+        // Id e epoca permitem revogar o token sem consultar o banco a cada requisicao
+        if (authentication.getPrincipal() instanceof UserAuthenticated usuario) {
+            Pessoa pessoa = usuario.getPessoa();
+            claims.claim(EpocaTokenService.CLAIM_USUARIO, pessoa.getIdPessoa())
+                    .claim(EpocaTokenService.CLAIM_EPOCA, pessoa.getEpocaToken());
+        }
+
+        return encoder.encode(JwtEncoderParameters.from(claims.build())).getTokenValue();
     }
 }
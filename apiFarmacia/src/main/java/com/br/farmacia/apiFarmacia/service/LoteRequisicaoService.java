@@ -0,0 +1,236 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.SubRequisicaoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.SubRespostaDTO;
+import com.br.farmacia.apiFarmacia.exceptions.RestErrorMessage;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.lote.RequisicaoLote;
+import com.br.farmacia.apiFarmacia.infra.lote.RespostaLote;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa as sub-requisicoes de um lote (POST /batch) contra os proprios controllers. Cada uma passa
+ * pela cadeia do Spring Security (autorizacao por rota e limite de requisicoes) e pelo
+ * DispatcherServlet, com a autenticacao ja feita na requisicao do lote. Leituras consecutivas rodam
+ * em paralelo; uma escrita espera as anteriores terminarem e segura as seguintes, assim a ordem do
+ * lote vale como a ordem das chamadas que ele substitui.
+ */
+@Service
+public class LoteRequisicaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoteRequisicaoService.class);
+
+    // Streams e o proprio lote nao cabem numa resposta montada em memoria
+    private static final Set<String> CAMINHOS_BLOQUEADOS = Set.of("/batch", "/venda/eventos/stream");
+
+    private final SecurityContextRepository repositorioContexto = new RequestAttributeSecurityContextRepository();
+
+    @Autowired
+    @Qualifier("springSecurityFilterChain")
+    private Filter filtroSeguranca;
+
+    @Autowired
+    private DispatcherServlet dispatcherServlet;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${farmacia.lote.max-requisicoes:20}")
+    private int maxRequisicoes;
+
+    @Value("${farmacia.lote.threads:8}")
+    private int threads;
+
+    @Value("${farmacia.lote.timeout:PT30S}")
+    private Duration timeout;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "lote-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    public List<SubRespostaDTO> executar(List<SubRequisicaoDTO> requisicoes, HttpServletRequest request) {
+        if (requisicoes.size() > maxRequisicoes) {
+            throw new InvalidRequestException("O lote aceita no máximo " + maxRequisicoes + " requisições.");
+        }
+        requisicoes.forEach(LoteRequisicaoService::validar);
+
+        SecurityContext contexto = SecurityContextHolder.getContext();
+        long prazo = System.nanoTime() + timeout.toNanos();
+        List<Future<SubRespostaDTO>> pendentes = new ArrayList<>(requisicoes.size());
+        int aguardadas = 0;
+        for (SubRequisicaoDTO requisicao : requisicoes) {
+            if (System.nanoTime() - prazo >= 0) {
+                pendentes.add(CompletableFuture.completedFuture(null));
+                continue;
+            }
+            boolean escrita = !leitura(requisicao);
+            if (escrita) {
+                // Espera as leituras anteriores, roda sozinha e so entao libera as seguintes
+                while (aguardadas < pendentes.size()) {
+                    aguardar(pendentes.get(aguardadas++), prazo);
+                }
+            }
+            pendentes.add(executor.submit(() -> despachar(requisicao, contexto, request)));
+            if (escrita) {
+                aguardar(pendentes.get(aguardadas++), prazo);
+            }
+        }
+
+        List<SubRespostaDTO> respostas = new ArrayList<>(requisicoes.size());
+        for (int i = 0; i < requisicoes.size(); i++) {
+            SubRespostaDTO resposta = aguardar(pendentes.get(i), prazo);
+            respostas.add(resposta != null ? resposta
+                    : erro(requisicoes.get(i).id(), HttpStatus.GATEWAY_TIMEOUT, "Tempo limite do lote excedido."));
+        }
+        return respostas;
+    }
+
+    private static void validar(SubRequisicaoDTO requisicao) {
+        String caminho = caminhoNormalizado(requisicao.url());
+        if (CAMINHOS_BLOQUEADOS.contains(caminho)) {
+            throw new InvalidRequestException("A URL " + caminho + " não pode ser usada em um lote.");
+        }
+    }
+
+    // Compara a rota que o DispatcherServlet vai resolver, nao o texto enviado: /b%61tch, /batch;x=1,
+    // //batch e /produto/../batch chegam todos no LoteController
+    static String caminhoNormalizado(String url) {
+        int interrogacao = url.indexOf('?');
+        String caminho = interrogacao < 0 ? url : url.substring(0, interrogacao);
+        try {
+            caminho = UriUtils.decode(caminho, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("A URL " + url + " não é válida.");
+        }
+        caminho = caminho.replaceAll(";[^/]*", "");
+        caminho = StringUtils.cleanPath(caminho).replaceAll("/{2,}", "/");
+        if (!caminho.startsWith("/")) {
+            caminho = "/" + caminho;
+        }
+        if (caminho.length() > 1 && caminho.endsWith("/")) {
+            caminho = caminho.substring(0, caminho.length() - 1);
+        }
+        return caminho;
+    }
+
+    private static boolean leitura(SubRequisicaoDTO requisicao) {
+        return "GET".equalsIgnoreCase(requisicao.metodo());
+    }
+
+    // Devolve null quando o prazo do lote acabou; a sub-requisicao em andamento termina sozinha
+    private static SubRespostaDTO aguardar(Future<SubRespostaDTO> futuro, long prazo) {
+        try {
+            return futuro.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            futuro.cancel(false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futuro.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha inesperada ao executar sub-requisição do lote", e.getCause());
+        }
+    }
+
+    SubRespostaDTO despachar(SubRequisicaoDTO dto, SecurityContext contexto, HttpServletRequest request) {
+        try {
+            byte[] corpo = dto.corpo() == null || dto.corpo().isNull() ? null : objectMapper.writeValueAsBytes(dto.corpo());
+            RequisicaoLote requisicao = new RequisicaoLote(request, dto.metodo().toUpperCase(Locale.ROOT), dto.url(), dto.cabecalhos(), corpo);
+            RespostaLote resposta = new RespostaLote();
+
+            // A cadeia de seguranca carrega este contexto em vez de validar o token de novo
+            SecurityContext contextoSubRequisicao = SecurityContextHolder.createEmptyContext();
+            contextoSubRequisicao.setAuthentication(contexto.getAuthentication());
+            repositorioContexto.saveContext(contextoSubRequisicao, requisicao, resposta);
+
+            filtroSeguranca.doFilter(requisicao, resposta, dispatcherServlet::service);
+            return resposta(dto.id(), resposta);
+        } catch (Exception e) {
+            log.error("Falha na sub-requisição {} {} do lote", dto.metodo(), dto.url(), e);
+            return erro(dto.id(), HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno ao processar a requisição.");
+        }
+    }
+
+    private SubRespostaDTO resposta(String id, RespostaLote resposta) throws IOException {
+        Map<String, String> cabecalhos = new LinkedHashMap<>();
+        resposta.getCabecalhos().forEach((nome, valores) -> cabecalhos.put(nome, String.join(", ", valores)));
+
+        byte[] bytes = resposta.getCorpo();
+        JsonNode corpo = null;
+        if (bytes.length > 0) {
+            String contentType = resposta.getContentType();
+            MediaType tipo = contentType == null ? null : MediaType.parseMediaType(contentType);
+            if (tipo != null && (tipo.isCompatibleWith(MediaType.APPLICATION_JSON) || tipo.getSubtype().endsWith("+json"))) {
+                corpo = objectMapper.readTree(bytes);
+            } else {
+                corpo = TextNode.valueOf(new String(bytes, Charset.forName(resposta.getCharacterEncoding())));
+            }
+        } else if (resposta.getStatus() >= 400) {
+            // sendError (ex.: rota inexistente) nao escreve corpo: segue o formato dos demais erros
+            HttpStatus status = HttpStatus.resolve(resposta.getStatus());
+            corpo = objectMapper.valueToTree(new RestErrorMessage(status == null ? HttpStatus.INTERNAL_SERVER_ERROR : status,
+                    resposta.getMensagemErro() != null ? resposta.getMensagemErro()
+                            : status != null ? status.getReasonPhrase() : "Erro " + resposta.getStatus()));
+        }
+        return new SubRespostaDTO(id, resposta.getStatus(), cabecalhos, corpo);
+    }
+
+    private SubRespostaDTO erro(String id, HttpStatus status, String mensagem) {
+        return new SubRespostaDTO(id, status.value(), Map.of(), objectMapper.valueToTree(new RestErrorMessage(status, mensagem)));
+    }
+}
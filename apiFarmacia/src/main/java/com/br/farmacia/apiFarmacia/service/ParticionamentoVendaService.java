@@ -0,0 +1,84 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cria com antecedencia as particoes mensais de venda e itens_venda (particionadas por data_compra
+ * pelo script db/venda-particionada.sql). Enquanto o banco nao estiver particionado a rotina
+ * apenas confere isso e nao faz nada; vendas fora das particoes existentes caem na particao padrao.
+ */
+@Service
+@ConditionalOnProperty(name = "farmacia.venda.particoes.habilitado", havingValue = "true", matchIfMissing = true)
+public class ParticionamentoVendaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionamentoVendaService.class);
+
+    static final List<String> TABELAS = List.of("venda", "itens_venda");
+
+    private static final String TABELA_PARTICIONADA = """
+            select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('venda'))""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${farmacia.venda.particoes.meses-a-frente:3}")
+    private int mesesAFrente;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        criarParticoesFuturas();
+    }
+
+    @Scheduled(cron = "${farmacia.venda.particoes.cron:0 30 2 * * *}")
+    public void criarParticoesFuturas() {
+        try {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TABELA_PARTICIONADA, Boolean.class))) {
+                log.debug("Tabela venda nao particionada; nenhuma particao criada");
+                return;
+            }
+            List<String> comandos = comandos(YearMonth.now(), mesesAFrente);
+            transactionTemplate.executeWithoutResult(status -> {
+                // Varias instancias podem rodar ao mesmo tempo: uma espera a outra terminar
+                jdbcTemplate.queryForObject("select pg_advisory_xact_lock(hashtext('particoes_venda'))", Object.class);
+                comandos.forEach(jdbcTemplate::execute);
+            });
+        } catch (DataAccessException e) {
+            // Ex.: a particao padrao ja recebeu vendas do mes; exige mover as linhas manualmente
+            log.error("Falha ao criar as particoes futuras de venda", e);
+        }
+    }
+
+    static List<String> comandos(YearMonth mesAtual, int mesesAFrente) {
+        List<String> comandos = new ArrayList<>();
+        for (int i = 0; i <= mesesAFrente; i++) {
+            YearMonth mes = mesAtual.plusMonths(i);
+            LocalDate inicio = mes.atDay(1);
+            LocalDate fim = mes.plusMonths(1).atDay(1);
+            for (String tabela : TABELAS) {
+                comandos.add(String.format(
+                        "create table if not exists %s_%d_%02d partition of %s for values from ('%s') to ('%s')",
+                        tabela, mes.getYear(), mes.getMonthValue(), tabela, inicio, fim));
+            }
+        }
+        return comandos;
+    }
+}
@@ -2,25 +2,35 @@ package com.br.farmacia.apiFarmacia.service;
 
 import com.br.farmacia.apiFarmacia.data.dto.request.ChangePasswordRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.PessoaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO;
 import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
 import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
 import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Service
 public class PessoaService {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 200;
+
     @Autowired
     private PessoaRepository pessoaRepository;
 
+    @Autowired
+    private EpocaTokenService epocaTokenService;
+
     private final BCryptPasswordEncoder passwordEncoder;
 
     public PessoaService(BCryptPasswordEncoder passwordEncoder) {
@@ -28,8 +38,22 @@ public class PessoaService {
     }
 
     public List<PessoaResponseDTO> getAllPessoas() {
-        List<Pessoa> pessoas = pessoaRepository.findAll();
-        return pessoas.stream().map(PessoaResponseDTO::new).collect(Collectors.toList());
+        return pessoaRepository.listarTodas();
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaDTO<PessoaResumoDTO> buscarDiretorio(UserRole tipoUsuario, String nome, Boolean ativo, int pagina, int tamanho) {
+        PageRequest pageRequest = PageRequest.of(Math.max(pagina, 0), Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA));
+        return new PaginaDTO<>(pessoaRepository.buscarDiretorio(tipoUsuario, nome, ativo, pageRequest));
+    }
+
+    // Id da pessoa autenticada na requisicao atual (o subject do token e o email)
+    public Long getIdUsuarioLogado() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        return pessoaRepository.findByEmail(email)
+                .map(Pessoa::getIdPessoa)
+                .orElseThrow(() -> new EntityNotFoundException("Usuário logado não encontrado no banco de dados."));
     }
 
     public PessoaResponseDTO getPessoaById(Long idPessoa) {
@@ -46,8 +70,12 @@ public class PessoaService {
         return new PessoaResponseDTO(pessoa);
     }
 
+    @Transactional
     public PessoaResponseDTO updatePessoa(Long idPessoa, PessoaRequestDTO pessoaRequestDTO) {
         Pessoa pessoa = getPessoaEntityById(idPessoa);
+        // Email (subject do token), senha e perfil (scope) mudando invalidam os tokens emitidos
+        boolean revogarTokens = !Objects.equals(pessoa.getEmail(), pessoaRequestDTO.email())
+                || pessoa.getTipoUsuario() != pessoaRequestDTO.tipoUsuario();
 
         pessoa.setNome(pessoaRequestDTO.nome());
         pessoa.setCpf(pessoaRequestDTO.cpf());
@@ -57,19 +85,25 @@ public class PessoaService {
         if (pessoaRequestDTO.senha() != null && !pessoaRequestDTO.senha().isEmpty()) {
             String encryptedSenha = passwordEncoder.encode(pessoaRequestDTO.senha());
             pessoa.setSenha(encryptedSenha);
+            revogarTokens = true;
         }
 
         pessoa.setTipoUsuario(pessoaRequestDTO.tipoUsuario());
+        if (revogarTokens) {
+            epocaTokenService.revogarTokens(pessoa);
+        }
 
         pessoaRepository.save(pessoa);
 
         return new PessoaResponseDTO(pessoa);
     }
 
+    @Transactional
     public String deletePessoa(Long idPessoa) {
         Pessoa pessoa = getPessoaEntityById(idPessoa);
 
         pessoa.setDataExclusao(LocalDate.now());
+        epocaTokenService.revogarTokens(pessoa);
         pessoaRepository.save(pessoa);
 
         return "Pessoa Id: " + idPessoa +  "deletada com sucesso!";
@@ -91,6 +125,7 @@ public class PessoaService {
         }
 
         pessoa.setSenha(passwordEncoder.encode(newPassword));
+        epocaTokenService.revogarTokens(pessoa);
         pessoaRepository.save(pessoa);
     }
 
@@ -0,0 +1,325 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoImportacaoLinhaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ErroImportacaoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ImportacaoProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ProdutoImportacaoService {
+
+    private static final String SQL_INSERT = """
+            INSERT INTO produto (nome, preco, descricao, link_imagem, data_validade, fabricante, codigo_fornecedor)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    // Um produto excluido logicamente continua excluido: os dados sao atualizados, mas ele so volta ao catalogo
+    // se a importacao pedir reativarExcluidos (SQL_UPSERT_REATIVANDO)
+    private static final String SQL_UPSERT = SQL_INSERT + """
+
+            ON CONFLICT (codigo_fornecedor) DO UPDATE SET
+                nome = EXCLUDED.nome,
+                preco = EXCLUDED.preco,
+                descricao = EXCLUDED.descricao,
+                link_imagem = EXCLUDED.link_imagem,
+                data_validade = EXCLUDED.data_validade,
+                fabricante = EXCLUDED.fabricante,
+                versao = produto.versao + 1""";
+
+    private static final String SQL_UPSERT_REATIVANDO = SQL_UPSERT + """
+            ,
+                data_exclusao = NULL""";
+
+    private static final List<String> COLUNAS_CSV = List.of(
+            "codigoFornecedor", "nome", "preco", "descricao", "linkImagem", "dataValidade", "fabricante");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${farmacia.produto.importacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${farmacia.produto.importacao.max-erros-relatados:1000}")
+    private int maxErrosRelatados;
+
+    public ImportacaoProdutoResponseDTO importar(MultipartFile arquivo, boolean reativarExcluidos) {
+        Importacao importacao = new Importacao(reativarExcluidos ? SQL_UPSERT_REATIVANDO : SQL_UPSERT);
+
+        try (InputStream in = arquivo.getInputStream()) {
+            if (isJson(arquivo)) {
+                lerJson(in, importacao);
+            } else {
+                lerCsv(in, importacao);
+            }
+        } catch (IOException e) {
+            throw new InvalidRequestException("Não foi possível ler o arquivo de importação: " + e.getMessage());
+        }
+
+        importacao.gravarLote();
+        if (importacao.gravadas > 0) {
+            eventPublisher.publishEvent(ProdutoCatalogoAlteradoEvent.catalogoInteiro());
+        }
+        return importacao.resultado();
+    }
+
+    private boolean isJson(MultipartFile arquivo) {
+        String nome = arquivo.getOriginalFilename();
+        String tipo = arquivo.getContentType();
+        return (nome != null && nome.toLowerCase().endsWith(".json"))
+                || (tipo != null && tipo.contains("json"));
+    }
+
+    // Le um objeto por vez do array, o arquivo inteiro nunca fica em memoria
+    private void lerJson(InputStream in, Importacao importacao) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("O arquivo JSON deve conter um array de produtos.");
+            }
+
+            long linha = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                linha++;
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    importacao.processar(linha, objectMapper.treeToValue(node, ProdutoImportacaoLinhaDTO.class));
+                } catch (JsonProcessingException e) {
+                    importacao.registrarLinhaInvalida(linha, node.path("codigoFornecedor").asText(null),
+                            List.of("Registro inválido: " + e.getOriginalMessage()));
+                }
+            }
+        }
+    }
+
+    // CSV com cabecalho (separador "," ou ";"); a ordem das colunas vem do cabecalho
+    private void lerCsv(InputStream in, Importacao importacao) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String cabecalho = reader.readLine();
+        if (cabecalho == null) {
+            throw new InvalidRequestException("O arquivo CSV está vazio.");
+        }
+        if (cabecalho.startsWith("\uFEFF")) {
+            cabecalho = cabecalho.substring(1);
+        }
+        char separador = cabecalho.indexOf(';') >= 0 ? ';' : ',';
+
+        Map<String, Integer> indices = new HashMap<>();
+        List<String> colunas = dividirLinha(cabecalho, separador);
+        for (int i = 0; i < colunas.size(); i++) {
+            indices.put(colunas.get(i).trim(), i);
+        }
+        if (!indices.keySet().containsAll(List.of("nome", "preco", "dataValidade", "fabricante"))) {
+            throw new InvalidRequestException("Cabeçalho do CSV inválido. Colunas esperadas: " + String.join(",", COLUNAS_CSV));
+        }
+
+        String texto;
+        long linha = 1;
+        while ((texto = reader.readLine()) != null) {
+            linha++;
+            if (texto.isBlank()) {
+                continue;
+            }
+
+            List<String> campos = dividirLinha(texto, separador);
+            String codigo = campo(campos, indices, "codigoFornecedor");
+            try {
+                importacao.processar(linha, new ProdutoImportacaoLinhaDTO(
+                        codigo,
+                        campo(campos, indices, "nome"),
+                        converterPreco(campo(campos, indices, "preco")),
+                        campo(campos, indices, "descricao"),
+                        campo(campos, indices, "linkImagem"),
+                        converterData(campo(campos, indices, "dataValidade")),
+                        campo(campos, indices, "fabricante")
+                ));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                importacao.registrarLinhaInvalida(linha, codigo, List.of("Valor inválido: " + e.getMessage()));
+            }
+        }
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> indices, String coluna) {
+        Integer indice = indices.get(coluna);
+        if (indice == null || indice >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(indice).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private static Double converterPreco(String valor) {
+        return valor == null ? null : Double.valueOf(valor.replace(',', '.'));
+    }
+
+    // Mesma convencao do JSON: a data (yyyy-MM-dd) e interpretada como meia-noite UTC
+    private static Date converterData(String valor) {
+        return valor == null ? null : Date.from(LocalDate.parse(valor).atStartOfDay().toInstant(ZoneOffset.UTC));
+    }
+
+    static List<String> dividirLinha(String linha, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private record LinhaValida(long linha, String codigoFornecedor, ProdutoRequestDTO produto) {
+    }
+
+    // Estado de uma importacao: guarda no maximo um lote de linhas validas e uma lista limitada de erros
+    private class Importacao {
+
+        private final List<LinhaValida> lote = new ArrayList<>(tamanhoLote);
+        private final Set<String> codigosNoLote = new HashSet<>();
+        private final List<ErroImportacaoDTO> erros = new ArrayList<>();
+        private final String sqlUpsert;
+        private long linhasLidas;
+        private long gravadas;
+        private long comErro;
+
+        Importacao(String sqlUpsert) {
+            this.sqlUpsert = sqlUpsert;
+        }
+
+        void processar(long linha, ProdutoImportacaoLinhaDTO dto) {
+            linhasLidas++;
+
+            ProdutoRequestDTO produto = dto.toProdutoRequestDTO();
+            Set<ConstraintViolation<ProdutoRequestDTO>> violacoes = validator.validate(produto);
+            if (!violacoes.isEmpty()) {
+                registrarErro(linha, dto.codigoFornecedor(),
+                        violacoes.stream().map(ConstraintViolation::getMessage).sorted().toList());
+                return;
+            }
+
+            // O mesmo codigo duas vezes no lote faria o upsert atualizar a mesma linha no mesmo comando
+            if (dto.codigoFornecedor() != null && !codigosNoLote.add(dto.codigoFornecedor())) {
+                gravarLote();
+                codigosNoLote.add(dto.codigoFornecedor());
+            }
+
+            lote.add(new LinhaValida(linha, dto.codigoFornecedor(), produto));
+            if (lote.size() >= tamanhoLote) {
+                gravarLote();
+            }
+        }
+
+        void registrarLinhaInvalida(long linha, String codigoFornecedor, List<String> mensagens) {
+            linhasLidas++;
+            registrarErro(linha, codigoFornecedor, mensagens);
+        }
+
+        void registrarErro(long linha, String codigoFornecedor, List<String> mensagens) {
+            comErro++;
+            if (erros.size() < maxErrosRelatados) {
+                erros.add(new ErroImportacaoDTO(linha, codigoFornecedor, mensagens));
+            }
+        }
+
+        void gravarLote() {
+            if (lote.isEmpty()) {
+                return;
+            }
+
+            List<Object[]> inserts = new ArrayList<>();
+            List<Object[]> upserts = new ArrayList<>();
+            for (LinhaValida linha : lote) {
+                ProdutoRequestDTO p = linha.produto();
+                Object[] parametros = {p.nome(), p.preco(), p.descricao(), p.linkImagem(),
+                        new Timestamp(p.dataValidade().getTime()), p.fabricante(), linha.codigoFornecedor()};
+                (linha.codigoFornecedor() == null ? inserts : upserts).add(parametros);
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!inserts.isEmpty()) {
+                        jdbcTemplate.batchUpdate(SQL_INSERT, inserts);
+                    }
+                    if (!upserts.isEmpty()) {
+                        jdbcTemplate.batchUpdate(sqlUpsert, upserts);
+                    }
+                });
+                gravadas += lote.size();
+            } catch (DataAccessException e) {
+                String mensagem = "Falha ao gravar o lote: " + e.getMostSpecificCause().getMessage();
+                for (LinhaValida linha : lote) {
+                    registrarErro(linha.linha(), linha.codigoFornecedor(), List.of(mensagem));
+                }
+            }
+
+            lote.clear();
+            codigosNoLote.clear();
+        }
+
+        ImportacaoProdutoResponseDTO resultado() {
+            return new ImportacaoProdutoResponseDTO(linhasLidas, gravadas, comErro, erros, comErro > erros.size());
+        }
+    }
+}
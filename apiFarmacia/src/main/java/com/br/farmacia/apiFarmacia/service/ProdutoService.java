@@ -1,16 +1,24 @@
 package com.br.farmacia.apiFarmacia.service;
 
+import com.br.farmacia.apiFarmacia.data.dto.request.AjustePrecoRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.TipoAjustePreco;
+import com.br.farmacia.apiFarmacia.data.dto.response.AjustePrecoResponseDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
 import com.br.farmacia.apiFarmacia.data.entity.Produto;
 import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
 import com.br.farmacia.apiFarmacia.repository.ProdutoRepository; // Assumindo que este repositório existe
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ProdutoService {
@@ -18,9 +26,18 @@ public class ProdutoService {
     @Autowired
     private ProdutoRepository produtoRepository; // Injeção do repositório de Produto
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Quando ligado, produtos com a validade vencida nao aparecem na listagem do catalogo
+    @Value("${farmacia.produto.ocultar-vencidos:false}")
+    private boolean ocultarVencidos;
+
     public List<ProdutoResponseDTO> getAllProdutos() {
-        List<Produto> produtos = produtoRepository.findAll();
-        return produtos.stream().map(ProdutoResponseDTO::new).collect(Collectors.toList());
+        // Projecao direta no DTO, sem passar pelo contexto de persistencia
+        return ocultarVencidos
+                ? produtoRepository.listarValidosAPartirDe(ProdutoValidadeService.inicioDoDia(LocalDate.now()))
+                : produtoRepository.listarTodos();
     }
 
     public ProdutoResponseDTO getProdutoById(Long idProduto) {
@@ -30,15 +47,19 @@ public class ProdutoService {
     }
 
     public ProdutoResponseDTO createProduto(ProdutoRequestDTO produtoRequestDTO) {
-        Produto produto = new Produto(produtoRequestDTO);
-
-        produtoRepository.save(produto);
+        Produto produto = produtoRepository.save(new Produto(produtoRequestDTO));
+        eventPublisher.publishEvent(ProdutoCatalogoAlteradoEvent.produto(produto.getIdProduto()));
 
         return new ProdutoResponseDTO(produto);
     }
 
-    public ProdutoResponseDTO updateProduto(Long idProduto, ProdutoRequestDTO produtoRequestDTO) {
+    // versaoEsperada vem do If-Match; se outro admin salvou antes (aqui ou no flush) a edicao e recusada com 409
+    @Transactional
+    public ProdutoResponseDTO updateProduto(Long idProduto, ProdutoRequestDTO produtoRequestDTO, Long versaoEsperada) {
         Produto produto = getProdutoEntityById(idProduto);
+        if (versaoEsperada != null && !versaoEsperada.equals(produto.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(Produto.class, idProduto);
+        }
 
         produto.setNome(produtoRequestDTO.nome());
         produto.setPreco(produtoRequestDTO.preco());
@@ -48,6 +69,9 @@ public class ProdutoService {
         produto.setFabricante(produtoRequestDTO.fabricante());
 
         produtoRepository.save(produto);
+        // Flush antes de montar a resposta para devolver a versao ja incrementada
+        produtoRepository.flush();
+        eventPublisher.publishEvent(ProdutoCatalogoAlteradoEvent.produto(idProduto));
 
         return new ProdutoResponseDTO(produto);
     }
@@ -57,10 +81,33 @@ public class ProdutoService {
 
         produto.setDataExclusao(LocalDate.now());
         produtoRepository.save(produto);
+        eventPublisher.publishEvent(ProdutoCatalogoAlteradoEvent.produto(idProduto));
 
         return "Produto Id: " + idProduto + " deletado com sucesso!";
     }
 
+    @Transactional
+    public AjustePrecoResponseDTO ajustarPrecos(AjustePrecoRequestDTO ajuste) {
+        boolean semFiltro = (ajuste.fabricante() == null || ajuste.fabricante().isBlank())
+                && (ajuste.nome() == null || ajuste.nome().isBlank())
+                && (ajuste.ids() == null || ajuste.ids().isEmpty());
+        if (semFiltro) {
+            throw new InvalidRequestException("Informe ao menos um filtro (fabricante, nome ou ids) para o ajuste de preço.");
+        }
+        if (ajuste.tipo() == TipoAjustePreco.PERCENTUAL && ajuste.valor() <= -100) {
+            throw new InvalidRequestException("O ajuste percentual deve ser maior que -100%.");
+        }
+
+        int afetados = produtoRepository.ajustarPrecos(ajuste);
+
+        // Os ids afetados nao sao conhecidos sem reler a tabela, entao invalida o catalogo inteiro de uma vez
+        eventPublisher.publishEvent(ajuste.ids() != null && !ajuste.ids().isEmpty()
+                ? new ProdutoCatalogoAlteradoEvent(List.copyOf(ajuste.ids()))
+                : ProdutoCatalogoAlteradoEvent.catalogoInteiro());
+
+        return new AjustePrecoResponseDTO(afetados);
+    }
+
     private Produto getProdutoEntityById(Long idProduto){
         return produtoRepository.findById(idProduto).orElseThrow(() -> new EntityNotFoundException(idProduto));
     }
@@ -0,0 +1,91 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutosVencendoDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class ProdutoValidadeService {
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 200;
+    private static final ZoneId FUSO_VALIDADE = ZoneOffset.UTC;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Value("${farmacia.produto.vencimento.dias:30}")
+    private int diasVencimento;
+
+    // Snapshot imutavel servido pelo GET /produto/vencendo; trocado inteiro a cada recalculo
+    private volatile ProdutosVencendoDTO snapshot;
+    private volatile boolean desatualizado = true;
+
+    public PaginaDTO<ProdutoResponseDTO> buscarPorValidade(LocalDate inicio, LocalDate fim, int pagina, int tamanho) {
+        if (fim.isBefore(inicio)) {
+            throw new InvalidRequestException("A data final deve ser igual ou posterior à data inicial.");
+        }
+        PageRequest pageRequest = PageRequest.of(Math.max(pagina, 0), Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA));
+        return new PaginaDTO<>(produtoRepository.buscarPorValidade(inicioDoDia(inicio), inicioDoDia(fim.plusDays(1)), pageRequest));
+    }
+
+    public ProdutosVencendoDTO getProdutosVencendo() {
+        ProdutosVencendoDTO atual = snapshot;
+        if (atual == null || desatualizado || !atual.geradoEm().toLocalDate().equals(LocalDate.now())) {
+            atual = atualizarSnapshot();
+        }
+        return atual;
+    }
+
+    // Recalcula todo dia antes da abertura e tambem logo que a aplicacao sobe
+    @Scheduled(cron = "${farmacia.produto.vencimento.cron:0 0 6 * * *}")
+    @EventListener(ApplicationReadyEvent.class)
+    public void recalcularSnapshot() {
+        atualizarSnapshot();
+    }
+
+    private synchronized ProdutosVencendoDTO atualizarSnapshot() {
+        desatualizado = false;
+
+        LocalDate hoje = LocalDate.now();
+        LocalDate ate = hoje.plusDays(diasVencimento);
+        List<ProdutoResponseDTO> produtos = produtoRepository.listarPorValidade(inicioDoDia(hoje), inicioDoDia(ate.plusDays(1)));
+
+        snapshot = new ProdutosVencendoDTO(LocalDateTime.now(), diasVencimento, ate, List.copyOf(produtos));
+        return snapshot;
+    }
+
+    // Qualquer gravacao de produto pode mudar a validade; o snapshot e refeito na proxima leitura
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogoAlterado(ProdutoCatalogoAlteradoEvent event) {
+        desatualizado = true;
+    }
+
+    // A data de validade e gravada como meia-noite UTC (JSON e importacao usam a mesma convencao),
+    // entao os limites das buscas e o dia de uma validade sao sempre calculados em UTC, seja qual
+    // for o fuso da JVM
+    static Date inicioDoDia(LocalDate data) {
+        return Date.from(data.atStartOfDay(FUSO_VALIDADE).toInstant());
+    }
+
+    static LocalDate diaDaValidade(Date dataValidade) {
+        return dataValidade.toInstant().atZone(FUSO_VALIDADE).toLocalDate();
+    }
+}
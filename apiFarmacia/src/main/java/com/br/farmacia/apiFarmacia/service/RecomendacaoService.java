@@ -0,0 +1,297 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemCestaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemCarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RecomendacaoResponseDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.infra.colecao.LongIntHashMap;
+import com.br.farmacia.apiFarmacia.infra.evento.TipoEventoVenda;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEvento;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoConsumer;
+import com.br.farmacia.apiFarmacia.infra.recomendacao.MatrizCoocorrencia;
+import com.br.farmacia.apiFarmacia.infra.recomendacao.TopVizinhos;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * "Comprados juntos": a matriz de co-ocorrencia e montada a partir de itens_venda ao subir e de
+ * madrugada, e entre uma reconstrucao e outra cresce com as vendas criadas, que chegam pelo ring
+ * buffer. Os N vizinhos de cada produto sao recalculados a cada intervalo quando houve venda nova e
+ * publicados de uma vez; as consultas so leem esse retrato, sem lock. Edicoes e exclusoes de venda
+ * nao trazem os itens antigos no evento, entao so entram na proxima reconstrucao.
+ */
+@Service
+public class RecomendacaoService implements VendaEventoConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(RecomendacaoService.class);
+
+    @Autowired
+    private ItensVendaRepository itensVendaRepository;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private CarrinhoService carrinhoService;
+
+    @Value("${farmacia.recomendacao.vizinhos:10}")
+    private int vizinhos;
+
+    @Value("${farmacia.recomendacao.max-itens-por-venda:50}")
+    private int maxItensPorVenda;
+
+    @Value("${farmacia.recomendacao.capacidade-pares:65536}")
+    private int capacidadePares;
+
+    @Value("${farmacia.recomendacao.tamanho-lote:5000}")
+    private int tamanhoLote;
+
+    private volatile TopVizinhos top = TopVizinhos.VAZIO;
+
+    // Protege a matriz: escrevem o consumidor do ring buffer, o recalculo do top e a reconstrucao
+    private final ReentrantLock lock = new ReentrantLock();
+    private MatrizCoocorrencia matriz;
+    private boolean alterada;
+    private boolean reconstruindo;
+    private final List<VendaCriada> criadasDuranteReconstrucao = new ArrayList<>();
+
+    private record VendaCriada(long idVenda, long[] idsProdutos) {
+    }
+
+    // Buffer do consumidor do ring buffer (thread unica)
+    private long[] cesta = new long[64];
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void iniciar() {
+        matriz = new MatrizCoocorrencia(capacidadePares, maxItensPorVenda);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recomendacao-1");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void onEvento(VendaEvento evento, long sequencia, boolean fimDoLote) {
+        if (evento.getTipo() != TipoEventoVenda.CRIADA) {
+            return;
+        }
+        int quantidade = evento.getQuantidadeItens();
+        if (cesta.length < quantidade) {
+            cesta = new long[Integer.highestOneBit(quantidade) << 1];
+        }
+        for (int i = 0; i < quantidade; i++) {
+            cesta[i] = evento.getIdProduto(i);
+        }
+        lock.lock();
+        try {
+            if (reconstruindo) {
+                criadasDuranteReconstrucao.add(new VendaCriada(evento.getIdVenda(), Arrays.copyOf(cesta, quantidade)));
+            }
+            matriz.registrarVenda(cesta, quantidade);
+            alterada = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A reconstrucao le todo o historico: roda na thread propria, sem segurar o agendador
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirAoIniciar() {
+        executor.execute(this::reconstruir);
+    }
+
+    @Scheduled(cron = "${farmacia.recomendacao.reconstrucao.cron:0 30 4 * * *}")
+    public void agendarReconstrucao() {
+        executor.execute(this::reconstruir);
+    }
+
+    @Scheduled(fixedDelayString = "${farmacia.recomendacao.intervalo-recalculo:PT10S}")
+    public void recalcularTop() {
+        TopVizinhos novo;
+        lock.lock();
+        try {
+            if (!alterada) {
+                return;
+            }
+            novo = matriz.calcularTop(vizinhos);
+            alterada = false;
+        } finally {
+            lock.unlock();
+        }
+        top = novo;
+    }
+
+    void reconstruir() {
+        long inicio = System.currentTimeMillis();
+        // Passa a guardar as vendas novas antes de ler o corte: uma venda criada entre as duas coisas
+        // ou fica abaixo do corte (vem na leitura) ou acima (vem da lista)
+        lock.lock();
+        try {
+            reconstruindo = true;
+            criadasDuranteReconstrucao.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        MatrizCoocorrencia nova = null;
+        long ateVenda = 0;
+        try {
+            Long maiorId = vendaRepository.maiorId();
+            ateVenda = maiorId == null ? 0 : maiorId;
+            nova = lerHistorico(ateVenda);
+        } catch (RuntimeException e) {
+            log.error("Falha ao reconstruir a matriz de recomendacao; segue a atual", e);
+        } finally {
+            lock.lock();
+            try {
+                if (nova != null) {
+                    // O que foi vendido depois do corte da leitura entra por cima, como no incremental
+                    for (VendaCriada criada : criadasDuranteReconstrucao) {
+                        if (criada.idVenda() > ateVenda) {
+                            nova.registrarVenda(criada.idsProdutos(), criada.idsProdutos().length);
+                        }
+                    }
+                    matriz = nova;
+                    alterada = true;
+                }
+                reconstruindo = false;
+                criadasDuranteReconstrucao.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (nova != null) {
+            recalcularTop();
+            log.info("Matriz de recomendacao reconstruida: {} pares em {} ms", nova.quantidadePares(), System.currentTimeMillis() - inicio);
+        }
+    }
+
+    private MatrizCoocorrencia lerHistorico(long ateVenda) {
+        MatrizCoocorrencia nova = new MatrizCoocorrencia(capacidadePares, maxItensPorVenda);
+        long[] itens = new long[64];
+        int quantidade = 0;
+        long vendaAtual = 0;
+        long depoisVenda = 0;
+        long depoisItem = 0;
+        List<ItemCestaProjection> pagina;
+        do {
+            pagina = itensVendaRepository.listarCestas(depoisVenda, depoisItem, ateVenda, Limit.of(tamanhoLote));
+            for (ItemCestaProjection item : pagina) {
+                if (item.idVenda() != vendaAtual) {
+                    nova.registrarVenda(itens, quantidade);
+                    vendaAtual = item.idVenda();
+                    quantidade = 0;
+                }
+                if (quantidade == itens.length) {
+                    itens = Arrays.copyOf(itens, itens.length * 2);
+                }
+                itens[quantidade++] = item.idProduto();
+                depoisVenda = item.idVenda();
+                depoisItem = item.idItemVenda();
+            }
+        } while (pagina.size() == tamanhoLote);
+        nova.registrarVenda(itens, quantidade);
+        return nova;
+    }
+
+    public List<RecomendacaoResponseDTO> recomendarParaProduto(Long idProduto) {
+        if (!produtoRepository.existsById(idProduto)) {
+            throw new EntityNotFoundException(idProduto);
+        }
+        TopVizinhos atual = top;
+        long[] ids = new long[atual.porProduto()];
+        int[] contagens = new int[atual.porProduto()];
+        int encontrados = atual.vizinhos(idProduto, ids, contagens);
+        return detalhar(ids, contagens, encontrados);
+    }
+
+    // Soma os vizinhos de todos os itens do carrinho, sem sugerir o que ja esta nele
+    public List<RecomendacaoResponseDTO> recomendarParaCarrinho(Long idUsuario) {
+        List<ItemCarrinhoResponseDTO> itens = carrinhoService.getCarrinhoByUsuario(idUsuario).itens();
+        TopVizinhos atual = top;
+        if (itens.isEmpty() || atual.porProduto() == 0) {
+            return List.of();
+        }
+        long[] ids = new long[atual.porProduto()];
+        int[] contagens = new int[atual.porProduto()];
+
+        LongIntHashMap somas = new LongIntHashMap(Math.max(16, itens.size() * atual.porProduto()));
+        for (ItemCarrinhoResponseDTO item : itens) {
+            int encontrados = atual.vizinhos(item.idProduto(), ids, contagens);
+            for (int i = 0; i < encontrados; i++) {
+                somas.addTo(ids[i], contagens[i]);
+            }
+        }
+        for (ItemCarrinhoResponseDTO item : itens) {
+            somas.put(item.idProduto(), 0, 0);
+        }
+
+        Arrays.fill(contagens, 0);
+        somas.forEach((id, soma) -> {
+            if (soma > 0) {
+                TopVizinhos.inserir(ids, contagens, 0, ids.length, id, soma);
+            }
+        });
+        int quantidade = 0;
+        while (quantidade < contagens.length && contagens[quantidade] > 0) {
+            quantidade++;
+        }
+        return detalhar(ids, contagens, quantidade);
+    }
+
+    // Produtos excluidos depois da ultima reconstrucao ficam de fora aqui
+    private List<RecomendacaoResponseDTO> detalhar(long[] ids, int[] contagens, int quantidade) {
+        if (quantidade == 0) {
+            return List.of();
+        }
+        List<Long> idsProdutos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            idsProdutos.add(ids[i]);
+        }
+        Map<Long, ProdutoResponseDTO> produtos = produtoRepository.listarAtivosPorIds(idsProdutos).stream()
+                .collect(Collectors.toMap(ProdutoResponseDTO::idProduto, Function.identity()));
+
+        List<RecomendacaoResponseDTO> recomendacoes = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            ProdutoResponseDTO produto = produtos.get(ids[i]);
+            if (produto != null) {
+                recomendacoes.add(new RecomendacaoResponseDTO(produto, contagens[i]));
+            }
+        }
+        return recomendacoes;
+    }
+}
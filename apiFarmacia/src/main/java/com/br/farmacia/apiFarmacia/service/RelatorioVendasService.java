@@ -0,0 +1,316 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection;
+import com.br.farmacia.apiFarmacia.data.dto.request.AgrupamentoRelatorio;
+import com.br.farmacia.apiFarmacia.data.dto.request.FormatoRelatorio;
+import com.br.farmacia.apiFarmacia.data.dto.request.RelatorioVendasRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RelatorioJobResponseDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.relatorio.EscritorPlanilha;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Relatorios de vendas mensais e trimestrais gerados em segundo plano. O pedido vira um job numa
+ * fila propria; o periodo e dividido em partes de poucos dias, agregadas em paralelo num
+ * ForkJoinPool (uma consulta agrupada por parte) e somadas antes de gravar o arquivo em disco.
+ * Os jobs ficam so em memoria: depois de um restart os arquivos antigos sao apenas removidos.
+ */
+@Service
+public class RelatorioVendasService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatorioVendasService.class);
+
+    public enum StatusRelatorio {
+        PENDENTE,
+        EXECUTANDO,
+        CONCLUIDO,
+        FALHOU
+    }
+
+    public record ArquivoRelatorio(Path caminho, String nome, FormatoRelatorio formato) {
+    }
+
+    @Autowired
+    private ItensVendaRepository itensVendaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${farmacia.relatorio.diretorio:${java.io.tmpdir}/farmacia-relatorios}")
+    private Path diretorio;
+
+    @Value("${farmacia.relatorio.jobs-simultaneos:2}")
+    private int jobsSimultaneos;
+
+    // Limita as consultas simultaneas ao banco somando todos os jobs
+    @Value("${farmacia.relatorio.paralelismo:4}")
+    private int paralelismo;
+
+    @Value("${farmacia.relatorio.dias-por-parte:7}")
+    private int diasPorParte;
+
+    @Value("${farmacia.relatorio.retencao:P7D}")
+    private Duration retencao;
+
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong sequencia = new AtomicLong();
+    private ExecutorService execucao;
+    private ForkJoinPool agregacao;
+    private TransactionTemplate leitura;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        Files.createDirectories(diretorio);
+        AtomicInteger contador = new AtomicInteger();
+        execucao = Executors.newFixedThreadPool(jobsSimultaneos, runnable -> {
+            Thread thread = new Thread(runnable, "relatorio-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        agregacao = new ForkJoinPool(paralelismo);
+        // Somente leitura: com replicas habilitadas as consultas vao para uma replica
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        execucao.shutdownNow();
+        agregacao.shutdownNow();
+    }
+
+    public RelatorioJobResponseDTO submeter(RelatorioVendasRequestDTO dto) {
+        if ((dto.mes() == null) == (dto.trimestre() == null)) {
+            throw new InvalidRequestException("Informe o mês (relatório mensal) ou o trimestre (relatório trimestral).");
+        }
+        LocalDate inicio = dto.mes() != null
+                ? LocalDate.of(dto.ano(), dto.mes(), 1)
+                : LocalDate.of(dto.ano(), (dto.trimestre() - 1) * 3 + 1, 1);
+        LocalDate fim = inicio.plusMonths(dto.mes() != null ? 1 : 3).minusDays(1);
+        String periodo = dto.mes() != null
+                ? String.format("%d-%02d", dto.ano(), dto.mes())
+                : dto.ano() + "-T" + dto.trimestre();
+        FormatoRelatorio formato = dto.formato() != null ? dto.formato() : FormatoRelatorio.CSV;
+
+        Job job = new Job(sequencia.incrementAndGet(), dto.agrupamento(), formato, inicio, fim, periodo, partes(inicio, fim));
+        jobs.put(job.id, job);
+        execucao.execute(() -> executar(job));
+        return job.toDTO();
+    }
+
+    public RelatorioJobResponseDTO consultar(Long idRelatorio) {
+        return getJob(idRelatorio).toDTO();
+    }
+
+    public ArquivoRelatorio getArquivo(Long idRelatorio) {
+        Job job = getJob(idRelatorio);
+        if (job.status != StatusRelatorio.CONCLUIDO) {
+            throw new InvalidRequestException("O relatório " + idRelatorio + " ainda não está disponível (status " + job.status + ").");
+        }
+        String nome = "vendas-por-" + job.agrupamento.name().toLowerCase() + "-" + job.periodo + "." + job.formato.getExtensao();
+        return new ArquivoRelatorio(job.arquivo, nome, job.formato);
+    }
+
+    @Scheduled(fixedDelayString = "${farmacia.relatorio.intervalo-limpeza:PT1H}")
+    public void removerExpirados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencao);
+        jobs.values().removeIf(job -> job.terminado() && job.concluidoEm.isBefore(limite));
+
+        // Arquivos sem job (restart) ou de jobs removidos acima
+        long limiteArquivo = System.currentTimeMillis() - retencao.toMillis();
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            arquivos.filter(arquivo -> arquivo.toFile().lastModified() < limiteArquivo)
+                    .forEach(arquivo -> arquivo.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Falha ao limpar o diretorio de relatorios {}", diretorio, e);
+        }
+    }
+
+    void executar(Job job) {
+        job.status = StatusRelatorio.EXECUTANDO;
+        try {
+            Map<String, LinhaRelatorioProjection> totais = agregacao.invoke(new ParteRelatorio(job, 0, job.partes.size()));
+            Path arquivo = diretorio.resolve(job.id + "." + job.formato.getExtensao());
+            gravar(job, totais, arquivo);
+            job.arquivo = arquivo;
+            job.concluidoEm = LocalDateTime.now();
+            // status por ultimo: quem le CONCLUIDO ve arquivo e concluidoEm ja preenchidos
+            job.status = StatusRelatorio.CONCLUIDO;
+        } catch (Exception e) {
+            log.error("Falha ao gerar o relatorio {}", job.id, e);
+            job.erro = e.getMessage();
+            job.concluidoEm = LocalDateTime.now();
+            job.status = StatusRelatorio.FALHOU;
+        }
+    }
+
+    // Grava num arquivo parcial e so entao renomeia: o download nunca ve um arquivo pela metade
+    private void gravar(Job job, Map<String, LinhaRelatorioProjection> totais, Path arquivo) throws IOException {
+        List<LinhaRelatorioProjection> linhas = new ArrayList<>(totais.values());
+        linhas.sort(Comparator.comparing(LinhaRelatorioProjection::receita).reversed()
+                .thenComparing(LinhaRelatorioProjection::chave));
+
+        Path parcial = arquivo.resolveSibling(arquivo.getFileName() + ".parcial");
+        try (OutputStream saida = Files.newOutputStream(parcial);
+             EscritorPlanilha planilha = EscritorPlanilha.abrir(job.formato, saida)) {
+            planilha.linha(cabecalho(job.agrupamento));
+            for (LinhaRelatorioProjection linha : linhas) {
+                planilha.linha(celulas(job.agrupamento, linha));
+            }
+        }
+        Files.move(parcial, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<String> cabecalho(AgrupamentoRelatorio agrupamento) {
+        return switch (agrupamento) {
+            case PRODUTO -> List.of("Id produto", "Produto", "Vendas", "Quantidade", "Receita");
+            case FABRICANTE -> List.of("Fabricante", "Vendas", "Quantidade", "Receita");
+            case CLIENTE -> List.of("Id cliente", "Cliente", "Vendas", "Quantidade", "Receita");
+        };
+    }
+
+    private static List<Object> celulas(AgrupamentoRelatorio agrupamento, LinhaRelatorioProjection linha) {
+        BigDecimal receita = BigDecimal.valueOf(linha.receita()).setScale(2, RoundingMode.HALF_UP);
+        if (agrupamento == AgrupamentoRelatorio.FABRICANTE) {
+            return List.of(linha.descricao(), linha.vendas(), linha.quantidade(), receita);
+        }
+        return List.of(Long.valueOf(linha.chave()), linha.descricao(), linha.vendas(), linha.quantidade(), receita);
+    }
+
+    private List<LocalDate[]> partes(LocalDate inicio, LocalDate fim) {
+        List<LocalDate[]> partes = new ArrayList<>();
+        for (LocalDate parte = inicio; !parte.isAfter(fim); parte = parte.plusDays(diasPorParte)) {
+            LocalDate fimParte = parte.plusDays(diasPorParte - 1L);
+            partes.add(new LocalDate[]{parte, fimParte.isAfter(fim) ? fim : fimParte});
+        }
+        return partes;
+    }
+
+    private List<LinhaRelatorioProjection> consultar(AgrupamentoRelatorio agrupamento, LocalDate inicio, LocalDate fim) {
+        return leitura.execute(status -> switch (agrupamento) {
+            case PRODUTO -> itensVendaRepository.totalizarPorProduto(inicio, fim);
+            case FABRICANTE -> itensVendaRepository.totalizarPorFabricante(inicio, fim);
+            case CLIENTE -> itensVendaRepository.totalizarPorCliente(inicio, fim);
+        });
+    }
+
+    private static void somar(Map<String, LinhaRelatorioProjection> destino, LinhaRelatorioProjection linha) {
+        destino.merge(linha.chave(), linha, (a, b) -> new LinhaRelatorioProjection(a.chave(), a.descricao(),
+                a.vendas() + b.vendas(), a.quantidade() + b.quantidade(), a.receita() + b.receita()));
+    }
+
+    private Job getJob(Long idRelatorio) {
+        Job job = jobs.get(idRelatorio);
+        if (job == null) {
+            throw new EntityNotFoundException(idRelatorio);
+        }
+        return job;
+    }
+
+    // Divide a lista de partes ao meio ate sobrar uma; cada folha e uma consulta agregada
+    private class ParteRelatorio extends RecursiveTask<Map<String, LinhaRelatorioProjection>> {
+
+        private final Job job;
+        private final int de;
+        private final int ate;
+
+        ParteRelatorio(Job job, int de, int ate) {
+            this.job = job;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected Map<String, LinhaRelatorioProjection> compute() {
+            if (ate - de == 1) {
+                LocalDate[] parte = job.partes.get(de);
+                Map<String, LinhaRelatorioProjection> totais = new HashMap<>();
+                consultar(job.agrupamento, parte[0], parte[1]).forEach(linha -> somar(totais, linha));
+                job.partesConcluidas.incrementAndGet();
+                return totais;
+            }
+            int meio = (de + ate) >>> 1;
+            ParteRelatorio esquerda = new ParteRelatorio(job, de, meio);
+            esquerda.fork();
+            Map<String, LinhaRelatorioProjection> totais = new ParteRelatorio(job, meio, ate).compute();
+            esquerda.join().values().forEach(linha -> somar(totais, linha));
+            return totais;
+        }
+    }
+
+    static final class Job {
+        private final long id;
+        private final AgrupamentoRelatorio agrupamento;
+        private final FormatoRelatorio formato;
+        private final LocalDate inicio;
+        private final LocalDate fim;
+        private final String periodo;
+        private final List<LocalDate[]> partes;
+        private final AtomicInteger partesConcluidas = new AtomicInteger();
+        private final LocalDateTime criadoEm = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        // Ponto de publicacao: gravado depois de arquivo, erro e concluidoEm, e lido antes deles
+        private volatile StatusRelatorio status = StatusRelatorio.PENDENTE;
+        private volatile LocalDateTime concluidoEm;
+        private volatile String erro;
+        private volatile Path arquivo;
+
+        Job(long id, AgrupamentoRelatorio agrupamento, FormatoRelatorio formato, LocalDate inicio, LocalDate fim,
+            String periodo, List<LocalDate[]> partes) {
+            this.id = id;
+            this.agrupamento = agrupamento;
+            this.formato = formato;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.periodo = periodo;
+            this.partes = partes;
+        }
+
+        boolean terminado() {
+            StatusRelatorio atual = status;
+            return atual == StatusRelatorio.CONCLUIDO || atual == StatusRelatorio.FALHOU;
+        }
+
+        RelatorioJobResponseDTO toDTO() {
+            StatusRelatorio atual = status;
+            return new RelatorioJobResponseDTO(id, agrupamento, formato, inicio, fim, atual.name(),
+                    partesConcluidas.get(), partes.size(), criadoEm, concluidoEm, erro,
+                    atual == StatusRelatorio.CONCLUIDO ? "/relatorio/vendas/" + id + "/arquivo" : null);
+        }
+    }
+}
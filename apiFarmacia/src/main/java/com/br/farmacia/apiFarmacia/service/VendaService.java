@@ -1,28 +1,55 @@
 package com.br.farmacia.apiFarmacia.service;
 
+import com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
 import com.br.farmacia.apiFarmacia.data.dto.request.ItensVendaRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.VendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.CompraResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.IncluidosDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaNormalizadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaCursorDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoIncluidoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaNormalizadaDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.VendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendasNormalizadasDTO;
 import com.br.farmacia.apiFarmacia.data.entity.ItensVenda;
 import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
 import com.br.farmacia.apiFarmacia.data.entity.Produto;
 import com.br.farmacia.apiFarmacia.data.entity.Venda;
 import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.TipoEventoVenda;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoPublisher;
 import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
 import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
 import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
 import com.br.farmacia.apiFarmacia.repository.VendaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class VendaService {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     @Autowired
     private VendaRepository vendaRepository;
 
@@ -35,10 +62,39 @@ public class VendaService {
     @Autowired
     private ItensVendaRepository itensVendaRepository;
 
+    @Autowired
+    private VendaEventoPublisher vendaEventoPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Transactional(readOnly = true)
     public List<VendaResponseDTO> getAllVendas() {
-        List<Venda> vendas = vendaRepository.findAll();
-        return vendas.stream().map(VendaResponseDTO::new).collect(Collectors.toList());
+        // Duas consultas de projecao (vendas e itens) montadas em memoria, sem entidades gerenciadas
+        Map<Long, List<ItemVendaResponseDTO>> itensPorVenda = agruparItens(itensVendaRepository.listarTodos());
+
+        return vendaRepository.listarTodas().stream()
+                .map(venda -> new VendaResponseDTO(venda, itensPorVenda.getOrDefault(venda.idVenda(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    // Mesmas consultas do getAllVendas, mas cada comprador e produto sai uma vez em "included"
+    @Transactional(readOnly = true)
+    public VendasNormalizadasDTO getAllVendasNormalizadas() {
+        Map<Long, ProdutoIncluidoDTO> produtos = new LinkedHashMap<>();
+        Map<Long, List<ItemVendaNormalizadoDTO>> itensPorVenda = new HashMap<>();
+        for (ItemVendaProjection item : itensVendaRepository.listarTodos()) {
+            itensPorVenda.computeIfAbsent(item.idVenda(), id -> new ArrayList<>()).add(new ItemVendaNormalizadoDTO(item));
+            produtos.putIfAbsent(item.idProduto(), new ProdutoIncluidoDTO(item.idProduto(), item.nomeProduto()));
+        }
+
+        Map<Long, PessoaResponseDTO> pessoas = new LinkedHashMap<>();
+        List<VendaNormalizadaDTO> vendas = new ArrayList<>();
+        for (VendaProjection venda : vendaRepository.listarTodas()) {
+            pessoas.computeIfAbsent(venda.idUsuario(), id -> PessoaResponseDTO.comprador(venda));
+            vendas.add(new VendaNormalizadaDTO(venda, itensPorVenda.getOrDefault(venda.idVenda(), List.of())));
+        }
+        return new VendasNormalizadasDTO(vendas, new IncluidosDTO(pessoas, produtos));
     }
 
     @Transactional(readOnly = true)
@@ -47,6 +103,41 @@ public class VendaService {
         return new VendaResponseDTO(venda);
     }
 
+    // "Minhas compras": vendas do proprio usuario, mais recentes primeiro, paginadas por cursor
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<CompraResponseDTO> getComprasDoUsuario(Long idUsuario, String cursor, int tamanho) {
+        int limite = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA);
+        // Busca um registro a mais so para saber se existe proxima pagina
+        Limit limit = Limit.of(limite + 1);
+
+        List<CompraProjection> compras;
+        if (cursor == null || cursor.isBlank()) {
+            compras = vendaRepository.listarComprasDoUsuario(idUsuario, limit);
+        } else {
+            CompraProjection posicao = decodificarCursor(cursor);
+            compras = vendaRepository.listarComprasDoUsuarioAntesDe(idUsuario, posicao.dataCompra(), posicao.idVenda(), limit);
+        }
+
+        boolean temProxima = compras.size() > limite;
+        if (temProxima) {
+            compras = compras.subList(0, limite);
+        }
+        if (compras.isEmpty()) {
+            return new PaginaCursorDTO<>(List.of(), null);
+        }
+
+        // Uma unica consulta traz os itens de todas as vendas da pagina; as datas da pagina limitam as particoes lidas
+        Map<Long, List<ItemVendaResponseDTO>> itensPorVenda = agruparItens(itensVendaRepository.listarPorVendas(
+                compras.stream().map(CompraProjection::idVenda).toList(),
+                compras.get(compras.size() - 1).dataCompra(), compras.get(0).dataCompra()));
+
+        List<CompraResponseDTO> conteudo = compras.stream()
+                .map(compra -> new CompraResponseDTO(compra, itensPorVenda.getOrDefault(compra.idVenda(), List.of())))
+                .toList();
+
+        return new PaginaCursorDTO<>(conteudo, temProxima ? codificarCursor(compras.get(compras.size() - 1)) : null);
+    }
+
     @Transactional
     public VendaResponseDTO createVenda(VendaRequestDTO dto) {
         Pessoa pessoa = pessoaRepository.findById(dto.idUsuario())
@@ -57,6 +148,7 @@ public class VendaService {
         venda.setDataCompra(LocalDate.now());
 
         Venda vendaSalva = vendaRepository.save(venda);
+        List<ItensVenda> itens = new ArrayList<>();
 
         for (ItensVendaRequestDTO itemDto : dto.itens()) {
             Produto produto = produtoRepository.findById(itemDto.idProduto())
@@ -64,18 +156,32 @@ public class VendaService {
 
             ItensVenda itemVenda = new ItensVenda();
             itemVenda.setVenda(vendaSalva);
+            itemVenda.setDataCompra(vendaSalva.getDataCompra());
             itemVenda.setProduto(produto);
+            itemVenda.setPrecoUnitario(produto.getPreco());
             itemVenda.setQuantidade(itemDto.quantidade());
 
             itensVendaRepository.save(itemVenda);
+            itens.add(itemVenda);
         }
+        vendaSalva.setItens(itens);
+
+        vendaEventoPublisher.publicarAposCommit(TipoEventoVenda.CRIADA, vendaSalva);
 
         return new VendaResponseDTO(getVendaEntityById(vendaSalva.getIdVenda()));
     }
 
-    @Transactional
-    public VendaResponseDTO updateVenda(Long idVenda, VendaRequestDTO dto) {
+    public VendaResponseDTO updateVenda(Long idVenda, VendaRequestDTO dto, Long versaoEsperada) {
+        // A versao so e incrementada no commit: a resposta (e o ETag) sai da venda ja gravada
+        Venda vendaAtualizada = transactionTemplate.execute(status -> atualizarVenda(idVenda, dto, versaoEsperada));
+        return new VendaResponseDTO(vendaAtualizada);
+    }
+
+    private Venda atualizarVenda(Long idVenda, VendaRequestDTO dto, Long versaoEsperada) {
         Venda venda = getVendaEntityById(idVenda);
+        if (versaoEsperada != null && !versaoEsperada.equals(venda.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(Venda.class, idVenda);
+        }
 
         // 1. Atualiza usuário se necessário
         if (!venda.getIdUsuario().getIdPessoa().equals(dto.idUsuario())) {
@@ -84,29 +190,71 @@ public class VendaService {
             venda.setIdUsuario(novaPessoa);
         }
 
-        // 2. Remove todos os itens antigos da venda
-        itensVendaRepository.deleteAll(venda.getItens());
-        venda.getItens().clear();
-
-        // 3. Adiciona os novos itens
+        // 2. Quantidade desejada por produto (linhas repetidas do mesmo produto sao somadas)
+        Map<Long, Integer> quantidadesDesejadas = new LinkedHashMap<>();
         for (ItensVendaRequestDTO itemDto : dto.itens()) {
-            Produto produto = produtoRepository.findById(itemDto.idProduto())
-                    .orElseThrow(() -> new RuntimeException("Produto ID " + itemDto.idProduto() + " não encontrado."));
+            quantidadesDesejadas.merge(itemDto.idProduto(), itemDto.quantidade(), Integer::sum);
+        }
 
-            ItensVenda itemVenda = new ItensVenda();
-            itemVenda.setVenda(venda);
-            itemVenda.setProduto(produto);
-            itemVenda.setQuantidade(itemDto.quantidade());
+        // 3. Compara com os itens atuais: so altera a quantidade do que mudou e separa o que saiu
+        Map<Long, ItensVenda> itensMantidos = new HashMap<>();
+        List<ItensVenda> itensRemovidos = new ArrayList<>();
+        for (ItensVenda item : venda.getItens()) {
+            Long idProduto = item.getProduto().getIdProduto();
+            Integer quantidade = quantidadesDesejadas.get(idProduto);
 
-            itensVendaRepository.save(itemVenda);
-            venda.getItens().add(itemVenda);
+            if (quantidade == null || itensMantidos.containsKey(idProduto)) {
+                itensRemovidos.add(item);
+                continue;
+            }
+            itensMantidos.put(idProduto, item);
+            if (!quantidade.equals(item.getQuantidade())) {
+                // UPDATE gerado pelo dirty checking no flush, agrupado em lote
+                item.setQuantidade(quantidade);
+            }
         }
 
-        // 4. Salva a venda atualizada
+        // 4. Remove de uma vez os itens que sairam da venda
+        if (!itensRemovidos.isEmpty()) {
+            venda.getItens().removeAll(itensRemovidos);
+            itensVendaRepository.deleteAllInBatch(itensRemovidos);
+        }
+
+        // 5. Insere somente os produtos novos, carregados em uma unica consulta
+        List<Long> idsNovos = quantidadesDesejadas.keySet().stream()
+                .filter(idProduto -> !itensMantidos.containsKey(idProduto))
+                .toList();
+        if (!idsNovos.isEmpty()) {
+            Map<Long, Produto> produtos = new HashMap<>();
+            produtoRepository.findAllById(idsNovos).forEach(produto -> produtos.put(produto.getIdProduto(), produto));
+
+            List<ItensVenda> itensNovos = new ArrayList<>();
+            for (Long idProduto : idsNovos) {
+                Produto produto = produtos.get(idProduto);
+                if (produto == null) {
+                    throw new RuntimeException("Produto ID " + idProduto + " não encontrado.");
+                }
+
+                ItensVenda itemVenda = new ItensVenda();
+                itemVenda.setVenda(venda);
+                itemVenda.setDataCompra(venda.getDataCompra());
+                itemVenda.setProduto(produto);
+                itemVenda.setPrecoUnitario(produto.getPreco());
+                itemVenda.setQuantidade(quantidadesDesejadas.get(idProduto));
+                itensNovos.add(itemVenda);
+            }
+            itensVendaRepository.saveAll(itensNovos);
+            venda.getItens().addAll(itensNovos);
+        }
+
+        // 6. Salva a venda atualizada. A versao e incrementada mesmo quando so os itens mudaram,
+        // assim duas edicoes simultaneas da mesma venda nao se sobrescrevem
         Venda vendaAtualizada = vendaRepository.save(venda);
-        
-        // 5. Retorna a venda com os itens atualizados
-        return new VendaResponseDTO(getVendaEntityById(vendaAtualizada.getIdVenda()));
+        vendaRepository.incrementarVersao(vendaAtualizada);
+        vendaEventoPublisher.publicarAposCommit(TipoEventoVenda.ATUALIZADA, vendaAtualizada);
+
+        // 7. A lista de itens em memoria ja reflete o banco, nao e preciso recarregar a venda
+        return vendaAtualizada;
     }
 
     @Transactional
@@ -115,10 +263,34 @@ public class VendaService {
 
         venda.setDataExclusao(LocalDate.now());
         vendaRepository.save(venda);
+        vendaEventoPublisher.publicarAposCommit(TipoEventoVenda.EXCLUIDA, venda);
 
         return "Venda Id: " + idVenda + " deletada com sucesso!";
     }
 
+    private Map<Long, List<ItemVendaResponseDTO>> agruparItens(List<ItemVendaProjection> itens) {
+        Map<Long, List<ItemVendaResponseDTO>> itensPorVenda = new HashMap<>();
+        for (ItemVendaProjection item : itens) {
+            itensPorVenda.computeIfAbsent(item.idVenda(), id -> new ArrayList<>()).add(new ItemVendaResponseDTO(item));
+        }
+        return itensPorVenda;
+    }
+
+    private static String codificarCursor(CompraProjection compra) {
+        String valor = compra.dataCompra() + ":" + compra.idVenda();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CompraProjection decodificarCursor(String cursor) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(':');
+            return new CompraProjection(Long.valueOf(valor.substring(separador + 1)), LocalDate.parse(valor.substring(0, separador)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Cursor de paginação inválido.");
+        }
+    }
+
     private Venda getVendaEntityById(Long idVenda){
         return vendaRepository.findById(idVenda).orElseThrow(() -> new EntityNotFoundException(idVenda));
     }
@@ -0,0 +1,25 @@
+-- Executar uma vez antes de subir a versao com uk_carrinho_usuario, caso existam usuarios com mais de um carrinho.
+-- Os itens dos carrinhos duplicados vao para o carrinho mais antigo de cada usuario e os demais sao apagados.
+BEGIN;
+
+WITH principal AS (
+    SELECT id_usuario, MIN(id_carrinho) AS id_carrinho
+    FROM carrinho
+    GROUP BY id_usuario
+    HAVING COUNT(*) > 1
+)
+UPDATE itens_carrinho i
+SET id_carrinho = p.id_carrinho
+FROM carrinho c
+JOIN principal p ON p.id_usuario = c.id_usuario
+WHERE i.id_carrinho = c.id_carrinho
+  AND c.id_carrinho <> p.id_carrinho;
+
+DELETE FROM carrinho c
+USING carrinho outro
+WHERE c.id_usuario = outro.id_usuario
+  AND c.id_carrinho > outro.id_carrinho;
+
+ALTER TABLE carrinho ADD CONSTRAINT uk_carrinho_usuario UNIQUE (id_usuario);
+
+COMMIT;
@@ -0,0 +1,18 @@
+-- Executar uma vez antes de subir a versao com as buscas por validade, o diretorio de pessoas e o historico
+-- de compras paginado (o perfil prod nao altera o schema).
+-- Sem BEGIN/COMMIT: CREATE INDEX CONCURRENTLY nao roda dentro de transacao e nao bloqueia as gravacoes.
+-- Se um indice CONCURRENTLY falhar ele fica invalido; apague-o (DROP INDEX) e rode o script de novo.
+
+-- Busca por intervalo de validade, snapshot de produtos vencendo e ocultar-vencidos
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_produto_data_validade ON produto (data_validade);
+
+-- Diretorio de pessoas: filtro por perfil com prefixo do nome, e so prefixo do nome
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pessoa_tipo_nome ON pessoa (tipo_usuario, nome);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pessoa_nome ON pessoa (nome);
+
+-- Historico de compras (keyset por usuario e data), relatorios por periodo e itens por venda.
+-- O venda-particionada.sql ja cria estes indices; o IF NOT EXISTS os ignora nesse caso. Em tabela
+-- particionada o CONCURRENTLY nao e aceito, por isso estes sao criados do modo normal
+CREATE INDEX IF NOT EXISTS idx_venda_usuario_data_compra ON venda (id_usuario, data_compra);
+CREATE INDEX IF NOT EXISTS idx_venda_data_compra ON venda (data_compra);
+CREATE INDEX IF NOT EXISTS idx_itens_venda_venda ON itens_venda (id_venda);
@@ -0,0 +1,16 @@
+-- Executar uma vez antes de subir a versao em que itens_venda guarda a data da venda, caso o banco
+-- continue sem particionamento (o ddl-auto=update nao consegue criar a coluna NOT NULL com linhas existentes).
+-- Quem for particionar pode rodar direto o venda-particionada.sql, que ja preenche a coluna.
+BEGIN;
+
+ALTER TABLE itens_venda ADD COLUMN IF NOT EXISTS data_compra DATE;
+
+UPDATE itens_venda i
+SET data_compra = v.data_compra
+FROM venda v
+WHERE v.id_venda = i.id_venda
+  AND i.data_compra IS NULL;
+
+ALTER TABLE itens_venda ALTER COLUMN data_compra SET NOT NULL;
+
+COMMIT;
@@ -0,0 +1,17 @@
+-- Executar uma vez antes de subir a versao em que itens_venda guarda o preco praticado na venda
+-- (o ddl-auto=update nao consegue criar a coluna NOT NULL com linhas existentes). Se o banco for particionado,
+-- rodar depois do venda-particionada.sql: a coluna criada na tabela particionada vale para todas as particoes.
+-- As vendas antigas nao guardaram o preco; ficam com o preco atual do produto, o melhor valor disponivel.
+BEGIN;
+
+ALTER TABLE itens_venda ADD COLUMN IF NOT EXISTS preco_unitario DOUBLE PRECISION;
+
+UPDATE itens_venda i
+SET preco_unitario = p.preco
+FROM produto p
+WHERE p.id_produto = i.id_produto
+  AND i.preco_unitario IS NULL;
+
+ALTER TABLE itens_venda ALTER COLUMN preco_unitario SET NOT NULL;
+
+COMMIT;
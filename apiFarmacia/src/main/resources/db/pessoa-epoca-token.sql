@@ -0,0 +1,3 @@
+-- Executar uma vez antes de subir a versao com revogacao de tokens (o perfil prod nao altera o schema).
+-- Todos comecam na epoca 0; tokens emitidos antes desta versao nao carregam a epoca e exigem novo login.
+ALTER TABLE pessoa ADD COLUMN IF NOT EXISTS epoca_token INTEGER NOT NULL DEFAULT 0;
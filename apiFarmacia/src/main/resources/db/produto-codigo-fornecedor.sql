@@ -0,0 +1,6 @@
+-- Executar uma vez antes de subir a versao com importacao em lote de produtos (o perfil prod nao altera o schema).
+-- O upsert da importacao usa ON CONFLICT (codigo_fornecedor), que exige o indice unico abaixo.
+-- Produtos cadastrados pela API ficam sem codigo (NULL), o que o indice unico permite em varias linhas.
+ALTER TABLE produto ADD COLUMN IF NOT EXISTS codigo_fornecedor VARCHAR(255);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_produto_codigo_fornecedor ON produto (codigo_fornecedor);
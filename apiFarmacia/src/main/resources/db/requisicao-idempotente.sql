@@ -0,0 +1,11 @@
+-- Executar uma vez antes de subir a versao com Idempotency-Key na criacao de vendas (o perfil prod nao altera o schema).
+-- Respostas guardadas por chave ate expira_em; a limpeza periodica usa o indice de expira_em.
+CREATE TABLE IF NOT EXISTS requisicao_idempotente (
+    chave           VARCHAR(200)                NOT NULL PRIMARY KEY,
+    hash_requisicao VARCHAR(64)                 NOT NULL,
+    status          SMALLINT                    NOT NULL,
+    corpo           TEXT                        NOT NULL,
+    expira_em       TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_requisicao_idempotente_expira_em ON requisicao_idempotente (expira_em);
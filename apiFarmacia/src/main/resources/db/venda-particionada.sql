@@ -0,0 +1,83 @@
+-- Converte venda e itens_venda em tabelas particionadas por mes de data_compra (PostgreSQL 12+).
+-- Executar uma vez, com a aplicacao parada. Depois disso o schema dessas tabelas e mantido por este
+-- script e pelo ParticionamentoVendaService: use spring.jpa.hibernate.ddl-auto=none (como no perfil prod).
+--
+-- Restricoes de tabelas particionadas:
+--  * PK e FKs que apontam para venda incluem data_compra, por isso itens_venda carrega a data da venda;
+--  * os ids continuam unicos pelas sequences, mas uma busca so por id consulta o indice de cada particao.
+BEGIN;
+
+ALTER TABLE itens_venda RENAME TO itens_venda_legado;
+ALTER TABLE venda RENAME TO venda_legado;
+
+CREATE SEQUENCE venda_id_venda_seq_particionada;
+SELECT setval('venda_id_venda_seq_particionada', COALESCE((SELECT MAX(id_venda) FROM venda_legado), 0) + 1, false);
+CREATE SEQUENCE itens_venda_id_item_venda_seq_particionada;
+SELECT setval('itens_venda_id_item_venda_seq_particionada', COALESCE((SELECT MAX(id_item_venda) FROM itens_venda_legado), 0) + 1, false);
+
+CREATE TABLE venda (
+    id_venda      BIGINT NOT NULL DEFAULT nextval('venda_id_venda_seq_particionada'),
+    id_usuario    BIGINT NOT NULL,
+    data_compra   DATE   NOT NULL,
+    data_exclusao DATE,
+    versao        BIGINT NOT NULL DEFAULT 0
+) PARTITION BY RANGE (data_compra);
+
+CREATE TABLE itens_venda (
+    id_item_venda BIGINT  NOT NULL DEFAULT nextval('itens_venda_id_item_venda_seq_particionada'),
+    id_venda      BIGINT  NOT NULL,
+    id_produto    BIGINT  NOT NULL,
+    quantidade    INTEGER NOT NULL,
+    data_compra   DATE    NOT NULL
+) PARTITION BY RANGE (data_compra);
+
+ALTER SEQUENCE venda_id_venda_seq_particionada OWNED BY venda.id_venda;
+ALTER SEQUENCE itens_venda_id_item_venda_seq_particionada OWNED BY itens_venda.id_item_venda;
+
+-- Uma particao por mes, do primeiro mes com vendas ate 3 meses a frente; a rotina diaria cria as seguintes
+DO $$
+DECLARE
+    mes DATE;
+    ultimo DATE;
+BEGIN
+    SELECT date_trunc('month', COALESCE(MIN(data_compra), CURRENT_DATE))::date INTO mes FROM venda_legado;
+    SELECT (date_trunc('month', GREATEST(CURRENT_DATE, COALESCE(MAX(data_compra), CURRENT_DATE))) + INTERVAL '3 months')::date
+        INTO ultimo FROM venda_legado;
+    WHILE mes <= ultimo LOOP
+        EXECUTE format('CREATE TABLE venda_%s PARTITION OF venda FOR VALUES FROM (%L) TO (%L)',
+                       to_char(mes, 'YYYY_MM'), mes, (mes + INTERVAL '1 month')::date);
+        EXECUTE format('CREATE TABLE itens_venda_%s PARTITION OF itens_venda FOR VALUES FROM (%L) TO (%L)',
+                       to_char(mes, 'YYYY_MM'), mes, (mes + INTERVAL '1 month')::date);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- Rede de seguranca para datas sem particao (ex.: rotina desligada). Deve ficar vazia
+CREATE TABLE venda_padrao PARTITION OF venda DEFAULT;
+CREATE TABLE itens_venda_padrao PARTITION OF itens_venda DEFAULT;
+
+INSERT INTO venda (id_venda, id_usuario, data_compra, data_exclusao, versao)
+SELECT id_venda, id_usuario, data_compra, data_exclusao, versao FROM venda_legado;
+
+INSERT INTO itens_venda (id_item_venda, id_venda, id_produto, quantidade, data_compra)
+SELECT i.id_item_venda, i.id_venda, i.id_produto, i.quantidade, v.data_compra
+FROM itens_venda_legado i
+JOIN venda_legado v ON v.id_venda = i.id_venda;
+
+DROP TABLE itens_venda_legado;
+DROP TABLE venda_legado;
+
+-- Indices e restricoes depois da carga; criados na tabela mae, valem para as particoes atuais e futuras
+ALTER TABLE venda ADD CONSTRAINT venda_pkey PRIMARY KEY (id_venda, data_compra);
+ALTER TABLE venda ADD CONSTRAINT fk_venda_usuario FOREIGN KEY (id_usuario) REFERENCES pessoa (id_pessoa);
+CREATE INDEX idx_venda_usuario_data_compra ON venda (id_usuario, data_compra);
+CREATE INDEX idx_venda_data_compra ON venda (data_compra);
+
+ALTER TABLE itens_venda ADD CONSTRAINT itens_venda_pkey PRIMARY KEY (id_item_venda, data_compra);
+-- Verificada no commit: a venda e seus itens sao gravados na mesma transacao
+ALTER TABLE itens_venda ADD CONSTRAINT fk_itens_venda_venda FOREIGN KEY (id_venda, data_compra)
+    REFERENCES venda (id_venda, data_compra) DEFERRABLE INITIALLY DEFERRED;
+ALTER TABLE itens_venda ADD CONSTRAINT fk_itens_venda_produto FOREIGN KEY (id_produto) REFERENCES produto (id_produto);
+CREATE INDEX idx_itens_venda_venda ON itens_venda (id_venda);
+
+COMMIT;
@@ -0,0 +1,10 @@
+-- Executar uma vez antes de subir a versao com controle de concorrencia otimista (ETag/If-Match) em
+-- produto, venda e carrinho (o perfil prod nao altera o schema). Registros existentes comecam na versao 0.
+-- Rodar antes do venda-particionada.sql, que copia a coluna versao da tabela venda antiga.
+BEGIN;
+
+ALTER TABLE produto ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE venda ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE carrinho ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+
+COMMIT;
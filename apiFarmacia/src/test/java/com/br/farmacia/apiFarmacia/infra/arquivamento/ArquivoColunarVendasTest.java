@@ -0,0 +1,59 @@
+package com.br.farmacia.apiFarmacia.infra.arquivamento;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaArquivadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaArquivadaDTO;
+import com.br.farmacia.apiFarmacia.infra.arquivamento.ArquivoColunarVendas.Metadados;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArquivoColunarVendasTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void testGravarELer_IdaEVoltaComMetadados() throws Exception {
+        List<VendaArquivadaDTO> vendas = new ArrayList<>();
+        LocalDate inicio = LocalDate.of(2019, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            long idVenda = 1000L + i * 3L;
+            LocalDate dataCompra = inicio.plusDays(i / 10);
+            List<ItemVendaArquivadoDTO> itens = new ArrayList<>();
+            for (int j = 0; j < i % 4; j++) {
+                itens.add(new ItemVendaArquivadoDTO(idVenda * 10 + j, (long) (i + j) % 50 + 1, j + 1, 12.9 + j));
+            }
+            LocalDate dataExclusao = i % 7 == 0 ? dataCompra.plusDays(2) : null;
+            vendas.add(new VendaArquivadaDTO(idVenda, (long) i % 30 + 1, dataCompra, dataExclusao, (long) i % 3, itens));
+        }
+        Path arquivo = diretorio.resolve("vendas.fva");
+
+        Metadados gravado = ArquivoColunarVendas.gravar(arquivo, vendas);
+
+        Metadados lido = ArquivoColunarVendas.lerMetadados(arquivo);
+        assertEquals(gravado, lido);
+        assertEquals(2000, lido.vendas());
+        assertEquals(1000L, lido.menorId());
+        assertEquals(1000L + 1999 * 3L, lido.maiorId());
+        assertEquals(inicio, lido.menorData());
+        assertEquals(inicio.plusDays(199), lido.maiorData());
+        assertEquals(vendas, ArquivoColunarVendas.lerTodas(arquivo));
+        // Colunas delta + deflate: bem menor que 8 bytes por valor
+        assertTrue(Files.size(arquivo) < 2000 * 8);
+
+        assertEquals(vendas.get(7), ArquivoColunarVendas.buscar(arquivo, 1021L).orElseThrow());
+        assertTrue(ArquivoColunarVendas.buscar(arquivo, 1022L).isEmpty());
+        assertTrue(ArquivoColunarVendas.buscar(arquivo, 1L).isEmpty());
+
+        List<VendaArquivadaDTO> periodo = ArquivoColunarVendas.buscarPorPeriodo(arquivo, inicio.plusDays(5), inicio.plusDays(6));
+        assertEquals(vendas.subList(50, 70), periodo);
+        assertTrue(ArquivoColunarVendas.buscarPorPeriodo(arquivo, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)).isEmpty());
+    }
+}
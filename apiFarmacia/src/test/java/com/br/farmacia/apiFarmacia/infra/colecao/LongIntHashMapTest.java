@@ -0,0 +1,41 @@
+package com.br.farmacia.apiFarmacia.infra.colecao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void testPutGet_MantemValoresAposRedimensionar() {
+        LongIntHashMap mapa = new LongIntHashMap(4);
+        for (long id = 1; id <= 10_000; id++) {
+            mapa.put(id, (int) id * 2, -1);
+        }
+
+        assertEquals(10_000, mapa.size());
+        assertEquals(2, mapa.get(1, -1));
+        assertEquals(20_000, mapa.get(10_000, -1));
+        assertEquals(-1, mapa.get(10_001, -1));
+        assertEquals(2, mapa.put(1, 5, -1));
+        assertEquals(5, mapa.get(1, -1));
+    }
+
+    @Test
+    void testAddToEForEach_IncluindoChaveZero() {
+        LongIntHashMap mapa = new LongIntHashMap();
+        mapa.addTo(0, 3);
+        mapa.addTo(0, 4);
+        mapa.addTo(-7L << 32, 1);
+
+        Map<Long, Integer> vistos = new HashMap<>();
+        mapa.forEach(vistos::put);
+
+        assertEquals(Map.of(0L, 7, -7L << 32, 1), vistos);
+        assertTrue(mapa.containsKey(0));
+        assertFalse(mapa.containsKey(1));
+    }
+}
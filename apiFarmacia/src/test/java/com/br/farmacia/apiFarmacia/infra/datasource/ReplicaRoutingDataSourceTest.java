@@ -0,0 +1,67 @@
+package com.br.farmacia.apiFarmacia.infra.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaHealthMonitor healthMonitor;
+    private ReadYourWritesTracker tracker;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        healthMonitor = mock(ReplicaHealthMonitor.class);
+        tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        routing = new ReplicaRoutingDataSource(List.of("replica-0", "replica-1"), healthMonitor, tracker);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("cliente@farmacia.com", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testLeituraVaiParaReplicaDisponivel() {
+        when(healthMonitor.isDisponivel("replica-0")).thenReturn(false);
+        when(healthMonitor.isDisponivel("replica-1")).thenReturn(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals("replica-1", routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testSemReplicaDisponivelCaiParaPrimario() {
+        when(healthMonitor.isDisponivel(anyString())).thenReturn(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(ReplicaRoutingDataSource.PRIMARIO, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testLeituraAposEscritaDoMesmoUsuarioFicaNoPrimario() {
+        when(healthMonitor.isDisponivel(anyString())).thenReturn(true);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARIO, routing.determineCurrentLookupKey());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReplicaRoutingDataSource.PRIMARIO, routing.determineCurrentLookupKey());
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("outro@farmacia.com", null));
+        assertTrue(routing.determineCurrentLookupKey().toString().startsWith("replica-"));
+    }
+}
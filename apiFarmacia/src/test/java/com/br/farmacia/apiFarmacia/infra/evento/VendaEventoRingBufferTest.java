@@ -0,0 +1,65 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VendaEventoRingBufferTest {
+
+    private VendaEventoRingBuffer ringBuffer;
+
+    @AfterEach
+    void tearDown() {
+        ringBuffer.close();
+    }
+
+    @Test
+    void testConsumidorRecebeEventosNaOrdem() throws InterruptedException {
+        ringBuffer = new VendaEventoRingBuffer(8, PoliticaBackpressure.BLOQUEAR, Duration.ofSeconds(1));
+        List<Long> recebidos = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(20);
+
+        ringBuffer.registrar((evento, sequencia, fimDoLote) -> {
+            recebidos.add(evento.getIdVenda());
+            latch.countDown();
+        });
+
+        for (long i = 1; i <= 20; i++) {
+            assertTrue(ringBuffer.publicar(TipoEventoVenda.CRIADA, i, 1L, LocalDate.now(), new long[]{10L}, new int[]{1}));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(20, recebidos.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + 1L, recebidos.get(i));
+        }
+    }
+
+    @Test
+    void testDescartaQuandoConsumidorLentoEnche() throws InterruptedException {
+        ringBuffer = new VendaEventoRingBuffer(4, PoliticaBackpressure.DESCARTAR, Duration.ZERO);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ringBuffer.registrar((evento, sequencia, fimDoLote) -> liberar.await());
+
+        int aceitos = 0;
+        for (long i = 1; i <= 10; i++) {
+            if (ringBuffer.publicar(TipoEventoVenda.CRIADA, i, 1L, LocalDate.now(), null, null)) {
+                aceitos++;
+            }
+        }
+        liberar.countDown();
+
+        // O consumidor segura o primeiro evento, entao cabem exatamente 'capacidade' eventos
+        assertEquals(4, aceitos);
+        assertEquals(10 - aceitos, ringBuffer.metricas().descartados());
+    }
+}
@@ -0,0 +1,143 @@
+package com.br.farmacia.apiFarmacia.infra.evento;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VendaFeedSseTest {
+
+    private VendaFeedSse feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new VendaFeedSse();
+        ReflectionTestUtils.setField(feed, "capacidadeBuffer", 4);
+        ReflectionTestUtils.setField(feed, "threadsEnvio", 2);
+        ReflectionTestUtils.setField(feed, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(feed, "prazoEscrita", Duration.ofMillis(50));
+        ReflectionTestUtils.invokeMethod(feed, "iniciar");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(feed, "encerrar");
+    }
+
+    @Test
+    void deveGerarDeltaCompacto() {
+        VendaEvento criada = evento(TipoEventoVenda.CRIADA);
+        VendaEvento excluida = evento(TipoEventoVenda.EXCLUIDA);
+
+        assertEquals("{\"id\":10,\"usuario\":3,\"data\":\"2026-01-15\",\"itens\":[[7,2],[8,1]]}", VendaFeedSse.delta(criada));
+        assertEquals("{\"id\":10}", VendaFeedSse.delta(excluida));
+    }
+
+    @Test
+    void deveDesconectarAssinanteLentoSemAtrasarOsDemais() throws Exception {
+        CountDownLatch liberarLento = new CountDownLatch(1);
+        EmitterContador rapido = new EmitterContador(null);
+        EmitterContador lento = new EmitterContador(liberarLento);
+        feed.registrar(rapido);
+        feed.registrar(lento);
+
+        for (int i = 0; i < 20; i++) {
+            feed.onEvento(evento(TipoEventoVenda.CRIADA), i, i == 19);
+            Thread.sleep(2);
+        }
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rapido.mensagens.get() < 21 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        liberarLento.countDown();
+
+        // 1 heartbeat inicial + 20 eventos
+        assertEquals(21, rapido.mensagens.get());
+        assertEquals(1, feed.getAssinantes());
+        assertEquals(1, feed.getDesconectadosPorLentidao());
+    }
+
+    @Test
+    void deveAbandonarEscritasParadasSemPrenderAsThreadsDeEnvio() throws Exception {
+        ReflectionTestUtils.setField(feed, "capacidadeBuffer", 16);
+        CountDownLatch liberarParados = new CountDownLatch(1);
+        // Mais clientes parados que threads de envio: sem prazo de escrita o pool inteiro fica preso
+        for (int i = 0; i < 3; i++) {
+            feed.registrar(new EmitterContador(liberarParados));
+        }
+        EmitterContador rapido = new EmitterContador(null);
+        feed.registrar(rapido);
+
+        for (int i = 0; i < 20; i++) {
+            feed.onEvento(evento(TipoEventoVenda.CRIADA), i, i == 19);
+            Thread.sleep(20);
+            feed.verificarPrazoDeEscrita();
+        }
+
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rapido.mensagens.get() < 21 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+            feed.verificarPrazoDeEscrita();
+        }
+
+        assertEquals(21, rapido.mensagens.get());
+        assertEquals(1, feed.getAssinantes());
+        assertEquals(3, feed.getDesconectadosPorLentidao());
+
+        // Quando os writes presos terminam, o pool volta ao tamanho configurado
+        liberarParados.countDown();
+        ThreadPoolExecutor envio = (ThreadPoolExecutor) ReflectionTestUtils.getField(feed, "envio");
+        limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (envio.getCorePoolSize() != 2 && System.nanoTime() < limite) {
+            Thread.sleep(5);
+        }
+        assertEquals(2, envio.getCorePoolSize());
+        assertEquals(2, envio.getMaximumPoolSize());
+    }
+
+    private static VendaEvento evento(TipoEventoVenda tipo) {
+        VendaEvento evento = new VendaEvento();
+        evento.preencher(tipo, 10, 3, LocalDate.of(2026, 1, 15), new long[]{7, 8}, new int[]{2, 1}, 0);
+        return evento;
+    }
+
+    // Conta as mensagens recebidas (cada uma termina com uma linha em branco); o lento/parado trava no primeiro envio
+    private static final class EmitterContador extends SseEmitter {
+
+        private final CountDownLatch bloqueio;
+        private final AtomicInteger mensagens = new AtomicInteger();
+
+        private EmitterContador(CountDownLatch bloqueio) {
+            this.bloqueio = bloqueio;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> itens) {
+            if (bloqueio != null) {
+                try {
+                    bloqueio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            for (DataWithMediaType item : itens) {
+                if (item.getData() instanceof String texto && texto.endsWith("\n\n")) {
+                    mensagens.incrementAndGet();
+                }
+            }
+        }
+    }
+}
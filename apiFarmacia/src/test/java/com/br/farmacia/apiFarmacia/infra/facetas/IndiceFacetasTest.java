@@ -0,0 +1,77 @@
+package com.br.farmacia.apiFarmacia.infra.facetas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceFacetasTest {
+
+    // Faceta 0: marca, faceta 1: cor
+    private record Item(long id, String marca, String cor) {
+    }
+
+    private static IndiceFacetas<Item> indice(List<Item> itens) {
+        return IndiceFacetas.montar(itens, 2, Item::id, (item, faceta) -> faceta == 0 ? item.marca() : item.cor());
+    }
+
+    private static final List<Item> ITENS = List.of(
+            new Item(1, "A", "azul"),
+            new Item(2, "A", "verde"),
+            new Item(3, "B", "azul"),
+            new Item(4, "C", "azul"),
+            new Item(5, "B", null));
+
+    private static List<Long> ids(IndiceFacetas.Resultado<Item> resultado) {
+        return resultado.itens().stream().map(Item::id).toList();
+    }
+
+    @Test
+    void testConsultar_OrDentroDaFacetaAndEntreFacetas() {
+        var resultado = indice(ITENS).consultar(List.of(List.of("A", "B"), List.of("azul")), 0, 10);
+
+        assertEquals(List.of(1L, 3L), ids(resultado));
+        assertEquals(2, resultado.total());
+    }
+
+    @Test
+    void testConsultar_ContagemDeCadaFacetaIgnoraOProprioFiltro() {
+        var resultado = indice(ITENS).consultar(List.of(List.of("A"), List.of("azul")), 0, 10);
+
+        // Marcas contadas so com o filtro de cor; cores contadas so com o filtro de marca
+        assertEquals(Map.of("A", 1, "B", 1, "C", 1), resultado.contagens().get(0));
+        assertEquals(Map.of("azul", 1, "verde", 1), resultado.contagens().get(1));
+    }
+
+    @Test
+    void testConsultar_PaginaPelaOrdemDasLinhasEValorDesconhecido() {
+        IndiceFacetas<Item> indice = indice(ITENS);
+
+        assertEquals(List.of(3L, 4L), ids(indice.consultar(List.of(List.of(), List.of()), 2, 2)));
+        assertTrue(indice.consultar(List.of(List.of(), List.of()), 5, 2).itens().isEmpty());
+
+        var semResultado = indice.consultar(List.of(List.of("Z"), List.of()), 0, 10);
+        assertEquals(0, semResultado.total());
+        assertEquals(Map.of("A", 2, "B", 2, "C", 1, "Z", 0), semResultado.contagens().get(0));
+    }
+
+    @Test
+    void testAtualizar_NovoIndiceSemAlterarOPublicado() {
+        IndiceFacetas<Item> original = indice(ITENS);
+
+        IndiceFacetas<Item> atualizado = original.atualizar(List.of(1L, 4L, 6L),
+                List.of(new Item(1, "C", "azul"), new Item(6, "D", "verde")));
+
+        var resultado = atualizado.consultar(List.of(List.of(), List.of()), 0, 10);
+        assertEquals(List.of(1L, 2L, 3L, 5L, 6L), ids(resultado));
+        assertEquals(Map.of("A", 1, "B", 2, "C", 1, "D", 1), resultado.contagens().get(0));
+        assertEquals(5, atualizado.tamanho());
+
+        // O indice anterior continua como estava para quem ainda o esta lendo
+        var anterior = original.consultar(List.of(List.of("A"), List.of()), 0, 10);
+        assertEquals(List.of(1L, 2L), ids(anterior));
+        assertEquals(Map.of("A", 2, "B", 2, "C", 1), original.consultar(List.of(List.of(), List.of()), 0, 10).contagens().get(0));
+    }
+}
@@ -0,0 +1,112 @@
+package com.br.farmacia.apiFarmacia.infra.imagem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvioArquivoTest {
+
+    private static final String ETAG = "\"abc\"";
+    private static final String CACHE = "max-age=31536000, public, immutable";
+
+    @TempDir
+    Path diretorio;
+
+    private Path arquivo;
+    private byte[] conteudo;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        conteudo = new byte[100_000];
+        for (int i = 0; i < conteudo.length; i++) {
+            conteudo[i] = (byte) (i * 31);
+        }
+        arquivo = Files.write(diretorio.resolve("imagem.jpg"), conteudo);
+    }
+
+    private MockHttpServletResponse enviar(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        EnvioArquivo.enviar(arquivo, MediaType.IMAGE_JPEG, ETAG, CACHE, request, response);
+        return response;
+    }
+
+    @Test
+    void testEnviar_ArquivoInteiroComCacheImutavel() throws Exception {
+        MockHttpServletResponse response = enviar(new MockHttpServletRequest("GET", "/imagens/abc.jpg"));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals(CACHE, response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals("image/jpeg", response.getContentType());
+        assertArrayEquals(conteudo, response.getContentAsByteArray());
+    }
+
+    @Test
+    void testEnviar_FaixaEFaixaFinal() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.addHeader("Range", "bytes=10-19");
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(conteudo, 10, 20), response.getContentAsByteArray());
+
+        request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.addHeader("Range", "bytes=-5");
+        response = enviar(request);
+        assertEquals("bytes 99995-99999/100000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(conteudo, 99_995, 100_000), response.getContentAsByteArray());
+    }
+
+    @Test
+    void testEnviar_FaixaForaDoArquivoEIfRangeDeOutraVersao() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.addHeader("Range", "bytes=200000-");
+        MockHttpServletResponse response = enviar(request);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */100000", response.getHeader("Content-Range"));
+
+        request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"outra\"");
+        response = enviar(request);
+        assertEquals(200, response.getStatus());
+        assertEquals(conteudo.length, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testEnviar_IfNoneMatchDevolve304SemCorpo() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.addHeader("If-None-Match", "W/\"xyz\", \"abc\"");
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void testEnviar_ComSendfileSoIndicaArquivoEFaixa() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/imagens/abc.jpg");
+        request.setAttribute(EnvioArquivo.SENDFILE_SUPORTADO, Boolean.TRUE);
+        request.addHeader("Range", "bytes=1000-");
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(99_000L, response.getContentLengthLong());
+        assertEquals(arquivo.toAbsolutePath().normalize().toString(), request.getAttribute(EnvioArquivo.SENDFILE_ARQUIVO));
+        assertEquals(1000L, request.getAttribute(EnvioArquivo.SENDFILE_INICIO));
+        assertEquals(100_000L, request.getAttribute(EnvioArquivo.SENDFILE_FIM));
+    }
+}
@@ -0,0 +1,127 @@
+package com.br.farmacia.apiFarmacia.infra.json;
+
+import com.br.farmacia.apiFarmacia.controller.CamposParciaisAdvice;
+import com.br.farmacia.apiFarmacia.data.dto.response.IncluidosDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaNormalizadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaCursorDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoIncluidoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutosVencendoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaNormalizadaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendasNormalizadasDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import com.br.farmacia.apiFarmacia.exceptions.RestErrorMessage;
+import com.br.farmacia.apiFarmacia.infra.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroCamposTest {
+
+    // Os mesmos conjuntos registrados no advice, para que um envelope esquecido la apareca aqui
+    private static final Set<Class<?>> ENVELOPES = CamposParciaisAdvice.ENVELOPES;
+    private static final Set<Class<?>> ISENTOS = CamposParciaisAdvice.ISENTOS;
+
+    private final ObjectMapper objectMapper = objectMapper();
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        new JacksonConfig().filtroCamposCustomizer().customize(builder);
+        return builder.build();
+    }
+
+    private JsonNode escrever(Object valor, String campos) throws Exception {
+        var writer = campos == null ? objectMapper.writer()
+                : objectMapper.writer(new FiltroCampos(campos, ENVELOPES, ISENTOS).comoProvider());
+        return objectMapper.readTree(writer.writeValueAsString(valor));
+    }
+
+    private static VendaResponseDTO venda(long id) {
+        PessoaResponseDTO usuario = new PessoaResponseDTO(1L, "Ana", "123", "9999", "ana@x.com", null, UserRole.USER, null);
+        return new VendaResponseDTO(id, usuario, null, null,
+                List.of(new ItemVendaResponseDTO(5L, "Dipirona", 2, 10.0, 20.0)), 0L);
+    }
+
+    @Test
+    void testSemFields_SerializaTudo() throws Exception {
+        JsonNode json = escrever(List.of(venda(1)), null);
+
+        assertEquals("Ana", json.get(0).get("usuario").get("nome").asText());
+        assertFalse(json.get(0).get("usuario").has("senha"));
+        assertEquals(2, json.get(0).get("itens").get(0).get("quantidade").asInt());
+    }
+
+    @Test
+    void testFields_CaminhosAninhadosEmCadaItem() throws Exception {
+        JsonNode json = escrever(List.of(venda(1), venda(2)), "idVenda, usuario.nome,itens");
+
+        JsonNode segunda = json.get(1);
+        assertEquals(Set.of("idVenda", "usuario", "itens"), nomes(segunda));
+        assertEquals(Set.of("nome"), nomes(segunda.get("usuario")));
+        // Pedir o objeto traz ele inteiro
+        assertEquals(5, nomes(segunda.get("itens").get(0)).size());
+    }
+
+    @Test
+    void testFields_CaminhosComecamAbaixoDoEnvelope() throws Exception {
+        JsonNode json = escrever(new PaginaCursorDTO<>(List.of(venda(1)), "abc"), "idVenda,itens.subTotal");
+
+        assertEquals("abc", json.get("proximoCursor").asText());
+        JsonNode venda = json.get("conteudo").get(0);
+        assertEquals(Set.of("idVenda", "itens"), nomes(venda));
+        assertEquals(Set.of("subTotal"), nomes(venda.get("itens").get(0)));
+    }
+
+    @Test
+    void testFields_ProdutosVencendoMantemOEnvelope() throws Exception {
+        ProdutoResponseDTO produto = new ProdutoResponseDTO(5L, "Dipirona", 10.0, "Analgesico", null, null, "Fabricante", null, 0L);
+        ProdutosVencendoDTO vencendo = new ProdutosVencendoDTO(LocalDateTime.of(2026, 10, 19, 6, 0), 30,
+                LocalDate.of(2026, 11, 18), List.of(produto));
+
+        JsonNode json = escrever(vencendo, "nome");
+
+        assertEquals(Set.of("geradoEm", "dias", "ate", "produtos"), nomes(json));
+        assertEquals(30, json.get("dias").asInt());
+        assertEquals(Set.of("nome"), nomes(json.get("produtos").get(0)));
+    }
+
+    @Test
+    void testFields_IncluidosSaemInteiros() throws Exception {
+        PessoaResponseDTO ana = new PessoaResponseDTO(1L, "Ana", "123", "9999", "ana@x.com", null, UserRole.USER, null);
+        VendasNormalizadasDTO normalizadas = new VendasNormalizadasDTO(
+                List.of(new VendaNormalizadaDTO(1L, 1L, null, null, List.of(new ItemVendaNormalizadoDTO(5L, 2, 10.0, 20.0)), 0L)),
+                new IncluidosDTO(Map.of(1L, ana), Map.of(5L, new ProdutoIncluidoDTO(5L, "Dipirona"))));
+
+        JsonNode json = escrever(normalizadas, "idVenda,idUsuario");
+
+        assertEquals(Set.of("idVenda", "idUsuario"), nomes(json.get("vendas").get(0)));
+        assertEquals("Ana", json.get("included").get("pessoas").get("1").get("nome").asText());
+        assertEquals("Dipirona", json.get("included").get("produtos").get("5").get("nome").asText());
+    }
+
+    @Test
+    void testFields_NaoAfetaClassesForaDosDtos() throws Exception {
+        JsonNode json = escrever(new RestErrorMessage(HttpStatus.BAD_REQUEST, "erro"), "idVenda");
+
+        assertEquals("erro", json.get("message").asText());
+    }
+
+    private static Set<String> nomes(JsonNode objeto) {
+        Set<String> nomes = new java.util.HashSet<>();
+        objeto.fieldNames().forEachRemaining(nomes::add);
+        return nomes;
+    }
+}
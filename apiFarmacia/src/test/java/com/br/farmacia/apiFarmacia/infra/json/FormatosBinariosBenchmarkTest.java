@@ -0,0 +1,72 @@
+package com.br.farmacia.apiFarmacia.infra.json;
+
+import com.br.farmacia.apiFarmacia.infra.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tempo de encode e decode de JSON, CBOR e Smile para as listas do FormatosBinariosTest, com os
+ * ObjectMappers que a aplicacao registra.
+ *
+ * Fora da suite padrao: mvn test -Dtest=FormatosBinariosBenchmarkTest -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FormatosBinariosBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FormatosBinariosBenchmarkTest.class);
+
+    private static final int AQUECIMENTO = 30;
+    private static final int REPETICOES = 30;
+
+    private final FormatosBinariosTest fixtures = new FormatosBinariosTest();
+    private final JacksonConfig jacksonConfig = new JacksonConfig();
+
+    @Test
+    void benchmarkEncodeEDecode() throws Exception {
+        Map<String, ObjectMapper> formatos = Map.of(
+                "JSON", fixtures.builder().build(),
+                "CBOR", jacksonConfig.cborHttpMessageConverter(fixtures.builder()).getObjectMapper(),
+                "Smile", jacksonConfig.smileHttpMessageConverter(fixtures.builder()).getObjectMapper());
+
+        for (List<?> valores : List.of(FormatosBinariosTest.produtos(), FormatosBinariosTest.vendas())) {
+            String lista = valores.get(0).getClass().getSimpleName() + " x" + valores.size();
+            int tamanhoJson = formatos.get("JSON").writeValueAsBytes(valores).length;
+            for (String formato : List.of("JSON", "CBOR", "Smile")) {
+                medir(lista, formato, formatos.get(formato), valores, tamanhoJson);
+            }
+        }
+    }
+
+    private static void medir(String lista, String formato, ObjectMapper mapper, List<?> valores, int tamanhoJson) throws Exception {
+        JavaType tipo = mapper.getTypeFactory().constructCollectionType(List.class, valores.get(0).getClass());
+        byte[] bytes = mapper.writeValueAsBytes(valores);
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            assertEquals(valores.size(), mapper.<List<?>>readValue(mapper.writeValueAsBytes(valores), tipo).size());
+        }
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            mapper.writeValueAsBytes(valores);
+        }
+        long encode = (System.nanoTime() - inicio) / REPETICOES;
+        inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            mapper.readValue(bytes, tipo);
+        }
+        long decode = (System.nanoTime() - inicio) / REPETICOES;
+
+        log.info(String.format("%s %s: %d bytes (%.0f%% do JSON), encode %d us, decode %d us", lista, formato,
+                bytes.length, 100.0 * bytes.length / tamanhoJson, encode / 1_000, decode / 1_000));
+    }
+}
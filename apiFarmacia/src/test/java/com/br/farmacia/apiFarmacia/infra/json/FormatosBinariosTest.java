@@ -0,0 +1,103 @@
+package com.br.farmacia.apiFarmacia.infra.json;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.CarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemCarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import com.br.farmacia.apiFarmacia.infra.config.JacksonConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+ * Compara JSON, CBOR e Smile com os mesmos ObjectMappers que a aplicacao registra: tamanho e ida e
+ * volta sem perda. Os tempos ficam no FormatosBinariosBenchmarkTest, fora da suite padrao.
+ */
+class FormatosBinariosTest {
+
+    static final int ITENS = 2_000;
+
+    private final JacksonConfig jacksonConfig = new JacksonConfig();
+    private final ObjectMapper json = builder().build();
+    private final ObjectMapper cbor = jacksonConfig.cborHttpMessageConverter(builder()).getObjectMapper();
+    private final ObjectMapper smile = jacksonConfig.smileHttpMessageConverter(builder()).getObjectMapper();
+
+    Jackson2ObjectMapperBuilder builder() {
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+        jacksonConfig.filtroCamposCustomizer().customize(builder);
+        return builder;
+    }
+
+    static List<ProdutoResponseDTO> produtos() {
+        return IntStream.rangeClosed(1, ITENS).mapToObj(i -> new ProdutoResponseDTO((long) i, "Dipirona Sódica 500mg " + i,
+                9.9 + i % 50, "Analgésico e antitérmico, caixa com 10 comprimidos", "/imagens/ab/" + "f".repeat(64) + ".jpg",
+                new Date(1_800_000_000_000L + i * 86_400_000L), "EMS", null, (long) i % 7)).toList();
+    }
+
+    static List<VendaResponseDTO> vendas() {
+        PessoaResponseDTO comprador = new PessoaResponseDTO(7L, "Maria Souza", "12345678900", "11999998888",
+                "maria@farmacia.com", null, UserRole.USER, null);
+        return IntStream.rangeClosed(1, ITENS / 4).mapToObj(i -> new VendaResponseDTO((long) i, comprador,
+                LocalDate.of(2026, 3, 1).plusDays(i % 28), null,
+                IntStream.rangeClosed(1, 4).mapToObj(p -> new ItemVendaResponseDTO((long) p, "Produto " + p, p, 12.5, 12.5 * p)).toList(),
+                0L)).toList();
+    }
+
+    @Test
+    void testBinarios_MenoresQueJsonEIdaEVoltaSemPerda() throws Exception {
+        for (List<?> valores : List.of(produtos(), vendas())) {
+            Class<?> tipo = valores.get(0).getClass();
+            JavaType tipoLista = json.getTypeFactory().constructCollectionType(List.class, tipo);
+            byte[] bytesJson = json.writeValueAsBytes(valores);
+
+            for (ObjectMapper binario : List.of(cbor, smile)) {
+                byte[] bytes = binario.writeValueAsBytes(valores);
+                assertTrue(bytes.length < bytesJson.length, tipo.getSimpleName() + " em " + binario.getFactory().getFormatName());
+                assertEquals(valores, binario.readValue(bytes, tipoLista));
+            }
+        }
+    }
+
+    @Test
+    void testBinarios_DatasComoNoJsonEFieldsAplicado() throws Exception {
+        CarrinhoResponseDTO carrinho = new CarrinhoResponseDTO(3L, 7L, "Maria Souza", LocalDate.of(2026, 3, 1), 25.0,
+                List.of(new ItemCarrinhoResponseDTO(1L, 5L, "Dipirona", 2, 12.5, 25.0)), 1L);
+        AbstractJackson2HttpMessageConverter conversor = jacksonConfig.cborHttpMessageConverter(builder());
+
+        MappingJacksonValue valor = new MappingJacksonValue(carrinho);
+        valor.setFilters(new FiltroCampos("dataCriacao,itens.idProduto", Set.of(), Set.of()).comoProvider());
+        MockHttpOutputMessage saida = new MockHttpOutputMessage();
+        conversor.write(valor, MediaType.APPLICATION_CBOR, saida);
+
+        assertEquals(MediaType.APPLICATION_CBOR, saida.getHeaders().getContentType());
+        JsonNode lido = cbor.readTree(saida.getBodyAsBytes());
+        assertEquals(json.readTree(json.writeValueAsBytes(carrinho)).get("dataCriacao"), lido.get("dataCriacao"));
+        assertEquals(Set.of("dataCriacao", "itens"), Set.copyOf(iterar(lido.fieldNames())));
+        assertEquals(Set.of("idProduto"), Set.copyOf(iterar(lido.get("itens").get(0).fieldNames())));
+    }
+
+    private static List<String> iterar(Iterator<String> nomes) {
+        List<String> lista = new ArrayList<>();
+        nomes.forEachRemaining(lista::add);
+        return lista;
+    }
+}
@@ -0,0 +1,128 @@
+package com.br.farmacia.apiFarmacia.infra.limite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.br.farmacia.apiFarmacia.infra.limite.LimiteRequisicaoProperties.Etapa.ANTES_DA_AUTENTICACAO;
+import static com.br.farmacia.apiFarmacia.infra.limite.LimiteRequisicaoProperties.Etapa.DEPOIS_DA_AUTENTICACAO;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitadorRequisicoesTest {
+
+    private LimitadorRequisicoes limitador;
+
+    @BeforeEach
+    void setUp() {
+        LimiteRequisicaoProperties.Grupo login = new LimiteRequisicaoProperties.Grupo();
+        login.setNome("autenticacao");
+        login.setPadroes(List.of("/login"));
+        login.setMetodos(List.of("POST"));
+        login.setChave(LimiteRequisicaoProperties.Chave.IP);
+        login.setCapacidade(3);
+        login.setIntervaloReposicao(Duration.ofSeconds(10));
+
+        LimiteRequisicaoProperties.Grupo produtos = new LimiteRequisicaoProperties.Grupo();
+        produtos.setNome("produtos");
+        produtos.setPadroes(List.of("/produto/**"));
+        produtos.setCapacidade(2);
+        produtos.setIntervaloReposicao(Duration.ofSeconds(1));
+
+        LimiteRequisicaoProperties.Grupo basic = new LimiteRequisicaoProperties.Grupo();
+        basic.setNome("credenciais-basic");
+        basic.setPadroes(List.of("/**"));
+        basic.setEtapa(ANTES_DA_AUTENTICACAO);
+        basic.setEsquemaAutorizacao("Basic");
+        basic.setChave(LimiteRequisicaoProperties.Chave.IP);
+        basic.setCapacidade(2);
+        basic.setIntervaloReposicao(Duration.ofSeconds(10));
+
+        LimiteRequisicaoProperties properties = new LimiteRequisicaoProperties();
+        properties.setGrupos(List.of(login, produtos, basic));
+        limitador = new LimitadorRequisicoes(properties);
+    }
+
+    @AfterEach
+    void limparContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testConsumir_RajadaEsgotadaEsperaReposicao() {
+        MockHttpServletRequest request = requisicao("POST", "/login", "10.0.0.1");
+        long agora = 0;
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir(request, DEPOIS_DA_AUTENTICACAO, agora));
+        }
+        long espera = limitador.consumir(request, DEPOIS_DA_AUTENTICACAO, agora);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), espera);
+
+        // Outro IP tem seu proprio balde; depois do intervalo o primeiro volta a ter um token
+        assertEquals(0, limitador.consumir(requisicao("POST", "/login", "10.0.0.2"), DEPOIS_DA_AUTENTICACAO, agora));
+        assertEquals(0, limitador.consumir(request, DEPOIS_DA_AUTENTICACAO, agora + espera));
+        assertTrue(limitador.consumir(request, DEPOIS_DA_AUTENTICACAO, agora + espera) > 0);
+    }
+
+    @Test
+    void testConsumir_ChavePorUsuarioEForaDosGrupos() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("caixa@farmacia.com", null, "SCOPE_EMPLOY"));
+        MockHttpServletRequest doCaixa = requisicao("GET", "/produto/all", "10.0.0.1");
+        MockHttpServletRequest mesmoCaixaOutroIp = requisicao("GET", "/produto/all", "10.0.0.9");
+
+        assertEquals(0, limitador.consumir(doCaixa, DEPOIS_DA_AUTENTICACAO, 0));
+        assertEquals(0, limitador.consumir(mesmoCaixaOutroIp, DEPOIS_DA_AUTENTICACAO, 0));
+        assertTrue(limitador.consumir(doCaixa, DEPOIS_DA_AUTENTICACAO, 0) > 0);
+
+        // GET /login nao casa com o grupo (so POST) e nenhuma outra rota e limitada
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limitador.consumir(requisicao("GET", "/login", "10.0.0.1"), DEPOIS_DA_AUTENTICACAO, 0));
+        }
+    }
+
+    private static MockHttpServletRequest requisicao(String metodo, String uri, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, uri);
+        request.setRemoteAddr(ip);
+        return request;
+    }
+    @Test
+    void testConsumir_CredenciaisBasicLimitadasPorIpAntesDaAutenticacao() {
+        // Cada tentativa usa uma senha diferente e ainda nao ha subject: o balde e o do IP
+        for (int i = 0; i < 2; i++) {
+            assertEquals(0, limitador.consumir(comAutorizacao("GET", "/produto/" + i, "10.0.0.1", "Basic c2VuaGE" + i), ANTES_DA_AUTENTICACAO, 0));
+        }
+        assertTrue(limitador.consumir(comAutorizacao("GET", "/qualquer", "10.0.0.1", "basic b3V0cmE="), ANTES_DA_AUTENTICACAO, 0) > 0);
+
+        // Sem Basic (ou com bearer) o grupo nao casa; e os grupos da outra etapa nao consomem aqui
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limitador.consumir(comAutorizacao("GET", "/produto/all", "10.0.0.1", "Bearer abc"), ANTES_DA_AUTENTICACAO, 0));
+            assertEquals(0, limitador.consumir(requisicao("POST", "/login", "10.0.0.1"), ANTES_DA_AUTENTICACAO, 0));
+        }
+        assertEquals(0, limitador.consumir(comAutorizacao("GET", "/qualquer", "10.0.0.2", "Basic b3V0cmE="), ANTES_DA_AUTENTICACAO, 0));
+    }
+
+    @Test
+    void testGrupoAntesDaAutenticacaoExigeChaveIp() {
+        LimiteRequisicaoProperties.Grupo grupo = new LimiteRequisicaoProperties.Grupo();
+        grupo.setNome("invalido");
+        grupo.setPadroes(List.of("/**"));
+        grupo.setEtapa(ANTES_DA_AUTENTICACAO);
+        LimiteRequisicaoProperties properties = new LimiteRequisicaoProperties();
+        properties.setGrupos(List.of(grupo));
+
+        assertThrows(IllegalArgumentException.class, () -> new LimitadorRequisicoes(properties));
+    }
+
+    private static MockHttpServletRequest comAutorizacao(String metodo, String uri, String ip, String autorizacao) {
+        MockHttpServletRequest request = requisicao(metodo, uri, ip);
+        request.addHeader("Authorization", autorizacao);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package com.br.farmacia.apiFarmacia.infra.recomendacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrizCoocorrenciaTest {
+
+    private final MatrizCoocorrencia matriz = new MatrizCoocorrencia(64, 4);
+
+    private void vender(long... idsProdutos) {
+        matriz.registrarVenda(idsProdutos.clone(), idsProdutos.length);
+    }
+
+    @Test
+    void testRegistrarVenda_ParContaUmaVezPorVendaESimetrico() {
+        vender(3, 1, 3, 2);
+        vender(1, 3);
+
+        assertEquals(2, matriz.contagem(1, 3));
+        assertEquals(2, matriz.contagem(3, 1));
+        assertEquals(1, matriz.contagem(2, 3));
+        assertEquals(0, matriz.contagem(3, 3));
+        assertEquals(3, matriz.quantidadePares());
+    }
+
+    @Test
+    void testRegistrarVenda_IgnoraVendaComProdutosDemais() {
+        vender(1, 2, 3, 4, 5);
+
+        assertEquals(0, matriz.quantidadePares());
+    }
+
+    @Test
+    void testCalcularTop_OrdenaPorContagemEDesempataPeloMenorId() {
+        vender(1, 2);
+        vender(1, 2);
+        vender(1, 9);
+        vender(1, 5);
+        vender(1, 7);
+
+        TopVizinhos top = matriz.calcularTop(3);
+        long[] ids = new long[3];
+        int[] contagens = new int[3];
+
+        assertEquals(3, top.vizinhos(1, ids, contagens));
+        assertArrayEquals(new long[]{2, 5, 7}, ids);
+        assertArrayEquals(new int[]{2, 1, 1}, contagens);
+
+        assertEquals(1, top.vizinhos(9, ids, contagens));
+        assertEquals(1, ids[0]);
+        assertEquals(0, top.vizinhos(42, ids, contagens));
+    }
+
+    @Test
+    void testVizinhos_ConsultaSemAlocacao() {
+        MatrizCoocorrencia grande = new MatrizCoocorrencia(1 << 16, 20);
+        Random random = new Random(7);
+        long[] cesta = new long[6];
+        for (int venda = 0; venda < 20_000; venda++) {
+            for (int i = 0; i < cesta.length; i++) {
+                cesta[i] = 1 + random.nextInt(2_000);
+            }
+            grande.registrarVenda(cesta, cesta.length);
+        }
+        TopVizinhos top = grande.calcularTop(10);
+        long[] ids = new long[10];
+        int[] contagens = new int[10];
+
+        long soma = 0;
+        for (int i = 0; i < 100_000; i++) {
+            soma += top.vizinhos(1 + i % 2_000, ids, contagens);
+        }
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long idThread = Thread.currentThread().getId();
+        long alocadoAntes = threads.getThreadAllocatedBytes(idThread);
+        for (int i = 0; i < 100_000; i++) {
+            soma += top.vizinhos(1 + i % 2_000, ids, contagens);
+        }
+        long alocado = threads.getThreadAllocatedBytes(idThread) - alocadoAntes;
+
+        assertTrue(soma > 0);
+        // Folga para o que a propria medicao aloca
+        assertTrue(alocado < 1024, "alocou " + alocado + " bytes");
+    }
+}
@@ -0,0 +1,148 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResumoDTO;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PessoaRepositoryImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<PessoaResumoDTO> consulta;
+
+    @Mock
+    private TypedQuery<Long> contagem;
+
+    @InjectMocks
+    private PessoaRepositoryImpl pessoaRepository;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(entityManager.createQuery(anyString(), eq(PessoaResumoDTO.class))).thenReturn(consulta);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(contagem);
+        when(consulta.getResultList()).thenReturn(List.of());
+        when(contagem.getSingleResult()).thenReturn(0L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private record Execucao(String consulta, String contagem, Map<String, Object> parametrosConsulta,
+                            Map<String, Object> parametrosContagem) {
+
+        String where() {
+            return consulta.substring(consulta.indexOf(" where "), consulta.indexOf(" order by "));
+        }
+    }
+
+    private Execucao executar(UserRole tipo, String prefixo, Boolean ativo) {
+        clearInvocations(entityManager, consulta, contagem);
+        pessoaRepository.buscarDiretorio(tipo, prefixo, ativo, PageRequest.of(0, 20));
+
+        ArgumentCaptor<String> jpqlConsulta = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> jpqlContagem = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpqlConsulta.capture(), eq(PessoaResumoDTO.class));
+        verify(entityManager).createQuery(jpqlContagem.capture(), eq(Long.class));
+
+        return new Execucao(jpqlConsulta.getValue(), jpqlContagem.getValue(),
+                parametros(consulta), parametros(contagem));
+    }
+
+    private static Map<String, Object> parametros(TypedQuery<?> query) {
+        ArgumentCaptor<String> nomes = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> valores = ArgumentCaptor.forClass(Object.class);
+        verify(query, atLeast(0)).setParameter(nomes.capture(), valores.capture());
+
+        Map<String, Object> parametros = new HashMap<>();
+        for (int i = 0; i < nomes.getAllValues().size(); i++) {
+            parametros.put(nomes.getAllValues().get(i), valores.getAllValues().get(i));
+        }
+        return parametros;
+    }
+
+    @Test
+    void testBuscarDiretorio_CadaCombinacaoDeFiltros() {
+        List<Boolean> situacoes = Arrays.asList(null, true, false);
+        List<String> prefixos = Arrays.asList(null, "   ", " Ana ");
+        List<UserRole> tipos = new ArrayList<>(Arrays.asList(UserRole.values()));
+        tipos.add(null);
+
+        for (UserRole tipo : tipos) {
+            for (String prefixo : prefixos) {
+                for (Boolean ativo : situacoes) {
+                    String combinacao = tipo + "/" + prefixo + "/" + ativo;
+                    Execucao execucao = executar(tipo, prefixo, ativo);
+                    String where = execucao.where();
+
+                    Map<String, Object> esperados = new HashMap<>();
+                    if (tipo != null) {
+                        esperados.put("tipoUsuario", tipo);
+                    }
+                    if (prefixo != null && !prefixo.isBlank()) {
+                        esperados.put("prefixoNome", "Ana%");
+                    }
+
+                    assertEquals(tipo != null, where.contains("p.tipoUsuario = :tipoUsuario"), combinacao);
+                    assertEquals(esperados.containsKey("prefixoNome"), where.contains("p.nome like :prefixoNome escape '\\'"), combinacao);
+                    assertEquals(Boolean.TRUE.equals(ativo), where.contains("p.dataExclusao is null"), combinacao);
+                    assertEquals(Boolean.FALSE.equals(ativo), where.contains("p.dataExclusao is not null"), combinacao);
+                    assertEquals(esperados, execucao.parametrosConsulta(), combinacao);
+
+                    // A contagem usa exatamente o mesmo filtro e os mesmos parametros, sem ordenacao
+                    assertEquals("select count(p) from Pessoa p" + where, execucao.contagem(), combinacao);
+                    assertEquals(esperados, execucao.parametrosContagem(), combinacao);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBuscarDiretorio_EscapaCuringasDoPrefixo() {
+        Execucao execucao = executar(null, "50%_a\\b", null);
+
+        assertEquals("50\\%\\_a\\\\b%", execucao.parametrosConsulta().get("prefixoNome"));
+    }
+
+    @Test
+    void testBuscarDiretorio_PaginaComTotalDaContagem() {
+        List<PessoaResumoDTO> pessoas = List.of(
+                new PessoaResumoDTO(21L, "Ana", "000", "ana@x.com", UserRole.USER, null));
+        when(consulta.getResultList()).thenReturn(pessoas);
+        when(contagem.getSingleResult()).thenReturn(41L);
+
+        Page<PessoaResumoDTO> pagina = pessoaRepository.buscarDiretorio(null, null, null, PageRequest.of(2, 10));
+
+        verify(consulta).setFirstResult(20);
+        verify(consulta).setMaxResults(10);
+        assertEquals(pessoas, pagina.getContent());
+        assertEquals(41, pagina.getTotalElements());
+        assertEquals(5, pagina.getTotalPages());
+    }
+}
@@ -0,0 +1,117 @@
+package com.br.farmacia.apiFarmacia.repository;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.PessoaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PessoaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara as listagens de produtos e pessoas montadas a partir de entidades gerenciadas
+ * (findAll + copia para o DTO, como era antes) com as projecoes por construtor usadas hoje.
+ * Mede tempo e bytes alocados pela thread em um banco H2 em memoria.
+ *
+ * Fora da suite padrao: mvn test -Dtest=ProjecaoListagemBenchmarkTest -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProjecaoListagemBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjecaoListagemBenchmarkTest.class);
+
+    private static final int REGISTROS = 20_000;
+    private static final int AQUECIMENTO = 5;
+    private static final int REPETICOES = 10;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PessoaRepository pessoaRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<Produto> produtos = new ArrayList<>(REGISTROS);
+        List<Pessoa> pessoas = new ArrayList<>(REGISTROS);
+        Date validade = new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000);
+        for (int i = 0; i < REGISTROS; i++) {
+            produtos.add(new Produto(new ProdutoRequestDTO("Produto " + i, 10.0 + i % 100,
+                    "Descricao do produto " + i, "imagem-" + i + ".png", validade, "Fabricante " + i % 50)));
+            pessoas.add(new Pessoa(new PessoaRequestDTO("Pessoa " + i, "52998224725", "11999990000",
+                    "pessoa" + i + "@farmacia.com", "senha-" + i, null)));
+        }
+        produtoRepository.saveAll(produtos);
+        pessoaRepository.saveAll(pessoas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        produtoRepository.deleteAllInBatch();
+        pessoaRepository.deleteAllInBatch();
+    }
+
+    private record Medicao(double milissegundos, double megabytes) {
+    }
+
+    private static Medicao medir(Supplier<List<?>> listagem) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < AQUECIMENTO; i++) {
+            assertEquals(REGISTROS, listagem.get().size());
+        }
+
+        long alocadoAntes = threads.getCurrentThreadAllocatedBytes();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < REPETICOES; i++) {
+            assertEquals(REGISTROS, listagem.get().size());
+        }
+        long nanos = System.nanoTime() - inicio;
+        long alocado = threads.getCurrentThreadAllocatedBytes() - alocadoAntes;
+
+        return new Medicao(nanos / 1e6 / REPETICOES, alocado / 1024.0 / 1024.0 / REPETICOES);
+    }
+
+    private static void comparar(String listagem, Medicao entidades, Medicao projecao) {
+        log.info(String.format("%s (%d linhas): entidades %.1f ms / %.1f MB, projecao %.1f ms / %.1f MB",
+                listagem, REGISTROS, entidades.milissegundos(), entidades.megabytes(),
+                projecao.milissegundos(), projecao.megabytes()));
+        assertTrue(projecao.megabytes() < entidades.megabytes(), listagem);
+    }
+
+    @Test
+    void benchmarkListagemDeProdutos() {
+        Medicao entidades = medir(() -> produtoRepository.findAll().stream().map(ProdutoResponseDTO::new).toList());
+        Medicao projecao = medir(produtoRepository::listarTodos);
+
+        comparar("produtos", entidades, projecao);
+    }
+
+    @Test
+    void benchmarkListagemDePessoas() {
+        Medicao entidades = medir(() -> pessoaRepository.findAll().stream().map(PessoaResponseDTO::new).toList());
+        Medicao projecao = medir(pessoaRepository::listarTodas);
+
+        comparar("pessoas", entidades, projecao);
+    }
+}
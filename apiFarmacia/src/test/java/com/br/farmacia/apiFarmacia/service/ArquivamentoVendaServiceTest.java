@@ -0,0 +1,150 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaArquivamentoProjection;
+import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ArquivamentoVendaServiceTest {
+
+    @Mock
+    private VendaRepository vendaRepository;
+
+    @Mock
+    private ItensVendaRepository itensVendaRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ArquivamentoVendaService arquivamentoVendaService;
+
+    @TempDir
+    Path diretorio;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mocks = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(arquivamentoVendaService, "diretorio", diretorio);
+        ReflectionTestUtils.setField(arquivamentoVendaService, "retencao", Period.ofYears(5));
+        ReflectionTestUtils.setField(arquivamentoVendaService, "carenciaExcluidas", Period.ofDays(30));
+        ReflectionTestUtils.setField(arquivamentoVendaService, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(arquivamentoVendaService, "maxLotesPorExecucao", 10);
+        arquivamentoVendaService.carregarIndice();
+
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(true);
+        when(vendaRepository.listarIdsParaArquivar(any(), any(), any())).thenReturn(List.of(1L, 2L)).thenReturn(List.of());
+        when(vendaRepository.listarParaArquivar(anyCollection())).thenReturn(List.of(
+                new VendaArquivamentoProjection(1L, 3L, LocalDate.of(2019, 1, 10), null, 0L),
+                new VendaArquivamentoProjection(2L, 4L, LocalDate.of(2019, 1, 11), null, 2L)));
+        when(itensVendaRepository.listarParaArquivar(anyCollection())).thenReturn(List.of(
+                new ItemArquivamentoProjection(1L, 11L, 7L, 2, 5.0)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transacaoQueFalhaNoCommit() {
+        doAnswer(inv -> {
+            ((TransactionCallback<Integer>) inv.getArgument(0)).doInTransaction(null);
+            throw new TransactionSystemException("Conexao perdida durante o commit");
+        }).when(transactionTemplate).execute(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transacaoNormal() {
+        doAnswer(inv -> ((TransactionCallback<Integer>) inv.getArgument(0)).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+    }
+
+    private List<Path> arquivosGravados() throws Exception {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.toString().endsWith(".fva")).toList();
+        }
+    }
+
+    @Test
+    void testArquivar_GravaOLoteERemoveDoBanco() throws Exception {
+        transacaoNormal();
+
+        assertEquals(2, arquivamentoVendaService.arquivar());
+
+        verify(itensVendaRepository).removerArquivados(List.of(1L, 2L));
+        verify(vendaRepository).removerArquivadas(List.of(1L, 2L));
+        assertEquals(1, arquivosGravados().size());
+        assertEquals(1, arquivamentoVendaService.buscarPorId(1L).itens().size());
+        assertEquals(2L, arquivamentoVendaService.buscarPorId(2L).versao());
+    }
+
+    @Test
+    void testArquivar_FalhaAntesDoCommitApagaOArquivo() throws Exception {
+        transacaoNormal();
+        when(vendaRepository.removerArquivadas(anyCollection())).thenThrow(new DataAccessResourceFailureException("queda"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> arquivamentoVendaService.arquivar());
+
+        // O banco desfez a remocao: as vendas continuam so no banco
+        assertTrue(arquivosGravados().isEmpty());
+        assertThrows(EntityNotFoundException.class, () -> arquivamentoVendaService.buscarPorId(1L));
+    }
+
+    @Test
+    void testArquivar_CommitComResultadoDesconhecidoMantemOArquivo() throws Exception {
+        transacaoQueFalhaNoCommit();
+
+        assertThrows(TransactionSystemException.class, () -> arquivamentoVendaService.arquivar());
+
+        // As remocoes podem ter sido gravadas: o arquivo pode ser a unica copia das vendas
+        verify(vendaRepository).removerArquivadas(List.of(1L, 2L));
+        assertEquals(1, arquivosGravados().size());
+        assertEquals(1L, arquivamentoVendaService.buscarPorId(1L).idVenda());
+        assertEquals(2, arquivamentoVendaService.buscarPorPeriodo(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31)).size());
+    }
+
+    @Test
+    void testArquivar_RegravarOLoteAposCommitDesconhecidoNaoDuplica() throws Exception {
+        transacaoQueFalhaNoCommit();
+        assertThrows(TransactionSystemException.class, () -> arquivamentoVendaService.arquivar());
+
+        // O commit nao valeu: a proxima execucao encontra as mesmas vendas e regrava o mesmo arquivo
+        transacaoNormal();
+        when(vendaRepository.listarIdsParaArquivar(any(), any(), any())).thenReturn(List.of(1L, 2L)).thenReturn(List.of());
+        assertEquals(2, arquivamentoVendaService.arquivar());
+
+        assertEquals(1, arquivosGravados().size());
+        assertEquals(2, arquivamentoVendaService.buscarPorPeriodo(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31)).size());
+    }
+}
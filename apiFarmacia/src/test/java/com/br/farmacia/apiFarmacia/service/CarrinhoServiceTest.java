@@ -0,0 +1,124 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.ItemCarrinhoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.CarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.Carrinho;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import com.br.farmacia.apiFarmacia.repository.CarrinhoRepository;
+import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CarrinhoServiceTest {
+
+    @Mock
+    private CarrinhoRepository carrinhoRepository;
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private CarrinhoService carrinhoService;
+
+    private Carrinho carrinho;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(carrinhoService, "tentativasConflito", 3);
+
+        Pessoa pessoa = new Pessoa();
+        pessoa.setIdPessoa(1L);
+        pessoa.setNome("Cliente");
+
+        Produto produto = new Produto();
+        produto.setIdProduto(5L);
+        produto.setPreco(10.0);
+
+        carrinho = new Carrinho();
+        carrinho.setIdCarrinho(7L);
+        carrinho.setUsuario(pessoa);
+        carrinho.setDataCriacao(LocalDate.now());
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+        when(pessoaRepository.findById(1L)).thenReturn(Optional.of(pessoa));
+        when(produtoRepository.findById(5L)).thenReturn(Optional.of(produto));
+        when(carrinhoRepository.obterOuCriarPorUsuario(1L)).thenReturn(Optional.of(carrinho));
+        when(carrinhoRepository.save(any(Carrinho.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testGetCarrinho_CriadoPorRequisicaoConcorrente() {
+        when(carrinhoRepository.obterOuCriarPorUsuario(1L)).thenReturn(Optional.empty());
+        when(carrinhoRepository.findByUsuario(any(Pessoa.class))).thenReturn(Optional.of(carrinho));
+
+        CarrinhoResponseDTO response = carrinhoService.getCarrinhoByUsuario(1L);
+
+        assertEquals(7L, response.idCarrinho());
+        verify(carrinhoRepository, never()).save(any(Carrinho.class));
+    }
+
+    @Test
+    void testAdicionarItem_RefazAposConflitoDeVersao() {
+        doThrow(new ObjectOptimisticLockingFailureException(Carrinho.class, 7L))
+                .doNothing()
+                .when(carrinhoRepository).incrementarVersao(carrinho);
+
+        CarrinhoResponseDTO response = carrinhoService.adicionarItem(1L, new ItemCarrinhoRequestDTO(5L, 2));
+
+        verify(transactionTemplate, times(2)).execute(any());
+        assertNotNull(response);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAdicionarItem_VersaoDaRespostaDepoisDoCommit() {
+        carrinho.setVersao(1L);
+        // Commit: o incremento agendado por incrementarVersao so acontece aqui
+        doAnswer(invocation -> {
+            Object resultado = ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class));
+            carrinho.setVersao(carrinho.getVersao() + 1);
+            return resultado;
+        }).when(transactionTemplate).execute(any());
+
+        CarrinhoResponseDTO response = carrinhoService.adicionarItem(1L, new ItemCarrinhoRequestDTO(5L, 2));
+
+        verify(carrinhoRepository).incrementarVersao(carrinho);
+        assertEquals(2L, response.versao());
+    }
+
+    @Test
+    void testAdicionarItem_DesisteAposTentativas() {
+        doThrow(new ObjectOptimisticLockingFailureException(Carrinho.class, 7L))
+                .when(carrinhoRepository).incrementarVersao(carrinho);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> carrinhoService.adicionarItem(1L, new ItemCarrinhoRequestDTO(5L, 2)));
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+}
@@ -0,0 +1,109 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.CatalogoFacetadoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ContagemFacetaDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogoFacetasServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @InjectMocks
+    private CatalogoFacetasService catalogoFacetasService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(catalogoFacetasService, "faixasPreco", new double[]{10, 25.5});
+        ReflectionTestUtils.setField(catalogoFacetasService, "janelasValidade", new int[]{30, 90});
+        catalogoFacetasService.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    private static ProdutoResponseDTO produto(long id, String fabricante, double preco, Integer diasValidade, boolean excluido) {
+        Date validade = diasValidade == null ? null
+                : ProdutoValidadeService.inicioDoDia(LocalDate.now().plusDays(diasValidade));
+        return new ProdutoResponseDTO(id, "Produto " + id, preco, null, null, validade, fabricante,
+                excluido ? LocalDate.now() : null, 0L);
+    }
+
+    private static List<String> valores(CatalogoFacetadoDTO catalogo, String faceta) {
+        return catalogo.facetas().get(faceta).stream().map(ContagemFacetaDTO::valor).toList();
+    }
+
+    @Test
+    void testConsultar_ClassificaEOrdenaAsFacetas() {
+        when(produtoRepository.listarTodos()).thenReturn(List.of(
+                produto(1, "Medley", 5.0, 10, false),
+                produto(2, " EMS ", 12.0, 60, false),
+                produto(3, "EMS", 30.0, -1, false),
+                produto(4, null, 25.5, null, true),
+                produto(5, "EMS", 9.99, 200, false)));
+
+        CatalogoFacetadoDTO catalogo = catalogoFacetasService.consultar(List.of("EMS"), null, null, List.of("disponivel"), 0, 10);
+
+        assertEquals(List.of(2L, 5L), catalogo.produtos().conteudo().stream().map(ProdutoResponseDTO::idProduto).toList());
+        assertEquals(2, catalogo.produtos().totalElementos());
+        assertEquals(List.of("EMS", "Medley"), valores(catalogo, CatalogoFacetasService.FABRICANTE));
+        assertEquals(List.of("0-10", "10-25.5"), valores(catalogo, CatalogoFacetasService.PRECO));
+        assertEquals(List.of("31-90-dias", "acima-de-90-dias"), valores(catalogo, CatalogoFacetasService.VALIDADE));
+        // Contagem de disponibilidade considera so o filtro de fabricante
+        assertEquals(List.of(new ContagemFacetaDTO("disponivel", 2, true), new ContagemFacetaDTO("vencido", 1, false)),
+                catalogo.facetas().get(CatalogoFacetasService.DISPONIBILIDADE));
+    }
+
+    @Test
+    void testConsultar_ValidadeNaoDependeDoFusoDaJvm() {
+        TimeZone fusoOriginal = TimeZone.getDefault();
+        // A oeste de UTC a meia-noite UTC de hoje ainda e ontem no fuso local
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+        try {
+            when(produtoRepository.listarTodos()).thenReturn(List.of(produto(1, "EMS", 5.0, 0, false)));
+
+            CatalogoFacetadoDTO catalogo = catalogoFacetasService.consultar(null, null, null, null, 0, 10);
+
+            assertEquals(List.of(new ContagemFacetaDTO("disponivel", 1, false)),
+                    catalogo.facetas().get(CatalogoFacetasService.DISPONIBILIDADE));
+        } finally {
+            TimeZone.setDefault(fusoOriginal);
+        }
+    }
+
+    @Test
+    void testOnCatalogoAlterado_AtualizaSoOsProdutosGravados() {
+        when(produtoRepository.listarTodos()).thenReturn(List.of(produto(1, "EMS", 5.0, 10, false), produto(2, "EMS", 5.0, 10, false)));
+        catalogoFacetasService.recalcularIndice();
+        when(produtoRepository.listarPorIds(List.of(2L))).thenReturn(List.of(produto(2, "Medley", 50.0, 10, true)));
+
+        catalogoFacetasService.onCatalogoAlterado(ProdutoCatalogoAlteradoEvent.produto(2L));
+        CatalogoFacetadoDTO catalogo = catalogoFacetasService.consultar(null, List.of("25.5+"), null, null, 0, 10);
+
+        assertEquals(List.of(2L), catalogo.produtos().conteudo().stream().map(ProdutoResponseDTO::idProduto).toList());
+        assertEquals(List.of(new ContagemFacetaDTO("excluido", 1, false)), catalogo.facetas().get(CatalogoFacetasService.DISPONIBILIDADE));
+        verify(produtoRepository, times(1)).listarTodos();
+    }
+}
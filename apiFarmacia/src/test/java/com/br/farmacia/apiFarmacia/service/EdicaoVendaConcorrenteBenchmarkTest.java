@@ -0,0 +1,164 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.ItensVendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.PessoaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.VendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoPublisher;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Varias threads editando a mesma venda com If-Match, como caixas disputando o mesmo registro: quem
+ * perde o conflito de versao rele a venda e tenta de novo. Mede a vazao e a taxa de conflitos num H2
+ * em memoria e confere que nenhuma edicao se perdeu (cada sucesso devolve uma versao diferente e a
+ * versao final e a inicial mais o numero de sucessos).
+ *
+ * Fora da suite padrao: mvn test -Dtest=EdicaoVendaConcorrenteBenchmarkTest -Dbenchmark=true
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@Import(VendaService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EdicaoVendaConcorrenteBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EdicaoVendaConcorrenteBenchmarkTest.class);
+
+    private static final int THREADS = 8;
+    private static final int EDICOES_POR_THREAD = 50;
+    private static final int PRODUTOS = 5;
+
+    @Autowired
+    private VendaService vendaService;
+
+    @Autowired
+    private VendaRepository vendaRepository;
+
+    @Autowired
+    private ItensVendaRepository itensVendaRepository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private PessoaRepository pessoaRepository;
+
+    @MockitoBean
+    private VendaEventoPublisher vendaEventoPublisher;
+
+    private Long idUsuario;
+    private List<Long> idsProdutos;
+
+    @BeforeEach
+    void setUp() {
+        idUsuario = pessoaRepository.save(new Pessoa(new PessoaRequestDTO("Cliente", "52998224725", "11999990000",
+                "cliente@farmacia.com", "senha", null))).getIdPessoa();
+
+        Date validade = new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000);
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < PRODUTOS; i++) {
+            produtos.add(new Produto(new ProdutoRequestDTO("Produto " + i, 10.0 + i, "Descricao " + i,
+                    "imagem-" + i + ".png", validade, "Fabricante")));
+        }
+        idsProdutos = produtoRepository.saveAll(produtos).stream().map(Produto::getIdProduto).toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        itensVendaRepository.deleteAllInBatch();
+        vendaRepository.deleteAllInBatch();
+        produtoRepository.deleteAllInBatch();
+        pessoaRepository.deleteAllInBatch();
+    }
+
+    // Cada edicao muda a quantidade de um item; a venda em si nao fica suja, so a versao forcada a incrementa
+    private VendaRequestDTO edicao(int thread, int edicao) {
+        List<ItensVendaRequestDTO> itens = new ArrayList<>();
+        for (int i = 0; i < PRODUTOS; i++) {
+            int quantidade = i == thread % PRODUTOS ? 1 + edicao % 7 : 1;
+            itens.add(new ItensVendaRequestDTO(idsProdutos.get(i), quantidade));
+        }
+        return new VendaRequestDTO(idUsuario, itens);
+    }
+
+    @Test
+    void benchmarkEdicoesConcorrentesDaMesmaVenda() throws Exception {
+        Long idVenda = vendaService.createVenda(edicao(0, 0)).idVenda();
+        long versaoInicial = vendaService.getVendaById(idVenda).versao();
+
+        Set<Long> versoesDevolvidas = ConcurrentHashMap.newKeySet();
+        AtomicInteger conflitos = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> threads = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads.add(executor.submit(() -> {
+                    largada.await();
+                    for (int e = 0; e < EDICOES_POR_THREAD; e++) {
+                        while (true) {
+                            long versaoLida = vendaService.getVendaById(idVenda).versao();
+                            try {
+                                versoesDevolvidas.add(vendaService.updateVenda(idVenda, edicao(thread, e), versaoLida).versao());
+                                break;
+                            } catch (ObjectOptimisticLockingFailureException conflito) {
+                                conflitos.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> thread : threads) {
+                thread.get(5, TimeUnit.MINUTES);
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+
+            int sucessos = THREADS * EDICOES_POR_THREAD;
+            log.info(String.format("%d threads, %d edicoes da mesma venda: %.0f edicoes/s, %d conflitos (%.1f por edicao gravada)",
+                    THREADS, sucessos, sucessos / segundos, conflitos.get(), conflitos.get() / (double) sucessos));
+
+            assertEquals(sucessos, versoesDevolvidas.size());
+            assertEquals(versaoInicial + sucessos, vendaService.getVendaById(idVenda).versao());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
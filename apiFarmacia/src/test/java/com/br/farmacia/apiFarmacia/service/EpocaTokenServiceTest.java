@@ -0,0 +1,73 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.EpocaTokenProjection;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EpocaTokenServiceTest {
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @InjectMocks
+    private EpocaTokenService epocaTokenService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testValidar_RecusaTokenDeEpocaAnteriorAposRevogacao() {
+        Pessoa pessoa = new Pessoa();
+        pessoa.setIdPessoa(7L);
+        Jwt tokenAntigo = token(7L, 0);
+
+        assertFalse(epocaTokenService.validar(tokenAntigo).hasErrors());
+
+        epocaTokenService.revogarTokens(pessoa);
+
+        assertEquals(1, pessoa.getEpocaToken());
+        assertTrue(epocaTokenService.validar(tokenAntigo).hasErrors());
+        assertFalse(epocaTokenService.validar(token(7L, 1)).hasErrors());
+        assertFalse(epocaTokenService.validar(token(8L, 0)).hasErrors());
+    }
+
+    @Test
+    void testSincronizar_NaoRetrocedeEpoca() {
+        epocaTokenService.registrar(3L, 5);
+        when(pessoaRepository.listarEpocasToken()).thenReturn(List.of(
+                new EpocaTokenProjection(3L, 2), new EpocaTokenProjection(4L, 1)));
+
+        epocaTokenService.sincronizar();
+
+        assertEquals(5, epocaTokenService.epocaAtual(3L));
+        assertEquals(1, epocaTokenService.epocaAtual(4L));
+    }
+
+    @Test
+    void testValidar_RecusaTokenSemEpoca() {
+        Jwt jwt = Jwt.withTokenValue("t").header("alg", "RS256").subject("a@b.com").build();
+
+        assertTrue(epocaTokenService.validar(jwt).hasErrors());
+    }
+
+    private static Jwt token(long idPessoa, int epoca) {
+        return Jwt.withTokenValue("t")
+                .header("alg", "RS256")
+                .claim(EpocaTokenService.CLAIM_USUARIO, idPessoa)
+                .claim(EpocaTokenService.CLAIM_EPOCA, epoca)
+                .build();
+    }
+}
@@ -0,0 +1,161 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemVendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.RequisicaoIdempotente;
+import com.br.farmacia.apiFarmacia.exceptions.general.IdempotenciaConflitoException;
+import com.br.farmacia.apiFarmacia.repository.RequisicaoIdempotenteRepository;
+import com.br.farmacia.apiFarmacia.service.IdempotenciaService.RespostaIdempotente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IdempotenciaServiceTest {
+
+    @Mock
+    private RequisicaoIdempotenteRepository requisicaoIdempotenteRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotenciaService idempotenciaService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(idempotenciaService, "validade", Duration.ofHours(1));
+        ReflectionTestUtils.setField(idempotenciaService, "capacidadeCache", 100);
+        ReflectionTestUtils.setField(idempotenciaService, "esperaMaxima", Duration.ofSeconds(5));
+        idempotenciaService.criarCache();
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+        when(requisicaoIdempotenteRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(requisicaoIdempotenteRepository.inserirSeAusente(anyString(), anyString(), anyShort(), anyString(), any(), any()))
+                .thenReturn(1);
+    }
+
+    @Test
+    void testExecutar_RepeteRespostaSemReexecutar() {
+        AtomicInteger execucoes = new AtomicInteger();
+        Map<String, Integer> requisicao = Map.of("idUsuario", 1);
+
+        RespostaIdempotente primeira = idempotenciaService.executar("cliente@email.com", "abc", requisicao,
+                HttpStatus.CREATED, Map.class, () -> Map.of("idVenda", execucoes.incrementAndGet()));
+        RespostaIdempotente segunda = idempotenciaService.executar("cliente@email.com", "abc", requisicao,
+                HttpStatus.CREATED, Map.class, () -> Map.of("idVenda", execucoes.incrementAndGet()));
+
+        assertEquals(1, execucoes.get());
+        assertFalse(primeira.repetida());
+        assertTrue(segunda.repetida());
+        assertEquals(201, segunda.status());
+        assertEquals(primeira.corpo(), segunda.corpo());
+    }
+
+    @Test
+    void testExecutar_RepeticaoDevolveOObjetoParaOsConversores() {
+        ItemVendaResponseDTO item = new ItemVendaResponseDTO(1L, "Dipirona", 2, 10.0, 20.0);
+
+        RespostaIdempotente<ItemVendaResponseDTO> primeira = idempotenciaService.executar("cliente@email.com", "abc",
+                Map.of("idUsuario", 1), HttpStatus.CREATED, ItemVendaResponseDTO.class, () -> item);
+        RespostaIdempotente<ItemVendaResponseDTO> segunda = idempotenciaService.executar("cliente@email.com", "abc",
+                Map.of("idUsuario", 1), HttpStatus.CREATED, ItemVendaResponseDTO.class, () -> null);
+
+        assertSame(item, primeira.corpo());
+        assertEquals(item, segunda.corpo());
+    }
+
+    @Test
+    void testExecutar_MesmaChaveComOutraRequisicao() {
+        idempotenciaService.executar("cliente@email.com", "abc", Map.of("idUsuario", 1),
+                HttpStatus.CREATED, Map.class, () -> Map.of("idVenda", 1));
+
+        assertThrows(IdempotenciaConflitoException.class, () -> idempotenciaService.executar("cliente@email.com", "abc",
+                Map.of("idUsuario", 2), HttpStatus.CREATED, Map.class, () -> Map.of("idVenda", 2)));
+    }
+
+    @Test
+    void testExecutar_RequisicoesSimultaneasAguardamAPrimeira() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Map<String, Integer> requisicao = Map.of("idUsuario", 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<RespostaIdempotente> primeira = executor.submit(() -> idempotenciaService.executar(
+                    "cliente@email.com", "abc", requisicao, HttpStatus.CREATED, Map.class, () -> {
+                        emExecucao.countDown();
+                        await(liberar);
+                        return Map.of("idVenda", execucoes.incrementAndGet());
+                    }));
+            emExecucao.await();
+
+            Future<RespostaIdempotente> segunda = executor.submit(() -> idempotenciaService.executar(
+                    "cliente@email.com", "abc", requisicao, HttpStatus.CREATED, Map.class,
+                    () -> Map.of("idVenda", execucoes.incrementAndGet())));
+            liberar.countDown();
+
+            assertFalse(primeira.get(5, TimeUnit.SECONDS).repetida());
+            assertTrue(segunda.get(5, TimeUnit.SECONDS).repetida());
+            assertEquals(1, execucoes.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecutar_ChaveExpiradaAindaNaoRemovidaExecutaDeNovo() {
+        RequisicaoIdempotente expirada = new RequisicaoIdempotente();
+        expirada.setChave("cliente@email.com:abc");
+        expirada.setHashRequisicao("hash-de-outra-requisicao");
+        expirada.setStatus((short) 201);
+        expirada.setCorpo("{\"idVenda\":1}");
+        expirada.setExpiraEm(Instant.now().minusSeconds(60));
+        when(requisicaoIdempotenteRepository.findById("cliente@email.com:abc")).thenReturn(Optional.of(expirada));
+
+        RespostaIdempotente resposta = idempotenciaService.executar("cliente@email.com", "abc", Map.of("idUsuario", 2),
+                HttpStatus.CREATED, Map.class, () -> Map.of("idVenda", 2));
+
+        // O upsert substitui a linha expirada: a comparacao usa o mesmo instante que a busca considerou expirado
+        ArgumentCaptor<Instant> agora = ArgumentCaptor.forClass(Instant.class);
+        verify(requisicaoIdempotenteRepository).inserirSeAusente(eq("cliente@email.com:abc"), anyString(), eq((short) 201),
+                eq("{\"idVenda\":2}"), any(), agora.capture());
+        assertTrue(expirada.getExpiraEm().isBefore(agora.getValue()));
+        assertFalse(resposta.repetida());
+        assertEquals(Map.of("idVenda", 2), resposta.corpo());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ImagemProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.exceptions.general.MiniaturaEmPreparoException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImagemProdutoServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ImagemProdutoService imagemProdutoService;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(imagemProdutoService, "diretorio", diretorio);
+        ReflectionTestUtils.setField(imagemProdutoService, "tamanhoMaximo", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(imagemProdutoService, "maxPixels", 1_000_000L);
+        ReflectionTestUtils.setField(imagemProdutoService, "larguras", new int[]{40, 160});
+        ReflectionTestUtils.setField(imagemProdutoService, "threads", 1);
+        ReflectionTestUtils.setField(imagemProdutoService, "esperaMiniatura", Duration.ofSeconds(10));
+        imagemProdutoService.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        // Espera as miniaturas em segundo plano antes de o @TempDir ser apagado
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(imagemProdutoService, "executor");
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static byte[] png(int largura, int altura) throws Exception {
+        BufferedImage imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D grafico = imagem.createGraphics();
+        grafico.setColor(Color.RED);
+        grafico.fillRect(0, 0, largura / 2, altura);
+        grafico.dispose();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(imagem, "png", saida);
+        return saida.toByteArray();
+    }
+
+    private static Produto produto() {
+        Produto produto = new Produto();
+        produto.setIdProduto(1L);
+        return produto;
+    }
+
+    @Test
+    void testSalvarImagem_GuardaPeloHashEAtualizaOProduto() throws Exception {
+        Produto produto = produto();
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
+        byte[] conteudo = png(400, 200);
+
+        ImagemProdutoResponseDTO resposta = imagemProdutoService.salvarImagem(1L,
+                new MockMultipartFile("arquivo", "foto.bin", "application/octet-stream", conteudo));
+        // O mesmo conteudo enviado de novo cai no mesmo arquivo
+        ImagemProdutoResponseDTO repetida = imagemProdutoService.salvarImagem(1L,
+                new MockMultipartFile("arquivo", "outra.png", "image/png", conteudo));
+
+        assertTrue(resposta.linkImagem().matches("/imagens/[0-9a-f]{64}\\.png"));
+        assertEquals(resposta.linkImagem(), repetida.linkImagem());
+        assertEquals(resposta.linkImagem(), produto.getLinkImagem());
+        verify(eventPublisher, times(2)).publishEvent(ProdutoCatalogoAlteradoEvent.produto(1L));
+
+        String nome = resposta.linkImagem().substring("/imagens/".length());
+        Path original = imagemProdutoService.localizar(nome);
+        assertArrayEquals(conteudo, Files.readAllBytes(original));
+        // So o temporario do upload: as miniaturas em segundo plano podem estar com o delas aberto agora
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            assertTrue(arquivos.noneMatch(arquivo -> arquivo.getFileName().toString().startsWith("upload-")));
+        }
+
+        // Miniatura pedida direto: espera a geracao em segundo plano se ela ainda nao terminou
+        String miniatura = resposta.miniaturas().get(160).substring("/imagens/".length());
+        BufferedImage imagem = ImageIO.read(imagemProdutoService.localizar(miniatura).toFile());
+        assertEquals(160, imagem.getWidth());
+        assertEquals(80, imagem.getHeight());
+    }
+
+    @Test
+    void testSalvarImagem_RecusaArquivoQueNaoEImagem() {
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto()));
+
+        assertThrows(InvalidRequestException.class, () -> imagemProdutoService.salvarImagem(1L,
+                new MockMultipartFile("arquivo", "foto.png", "image/png", "nao sou uma imagem".getBytes())));
+        verify(produtoRepository, never()).save(any());
+    }
+
+    @Test
+    void testSalvarImagem_RecusaImagemComPixelsDemais() throws Exception {
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto()));
+
+        assertThrows(InvalidRequestException.class, () -> imagemProdutoService.salvarImagem(1L,
+                new MockMultipartFile("arquivo", "foto.png", "image/png", png(2000, 1000))));
+    }
+
+    // Envia a imagem, espera as miniaturas do upload e apaga a de 160px, como num reinicio que a perdeu
+    private String miniaturaPerdida() throws Exception {
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto()));
+        ImagemProdutoResponseDTO resposta = imagemProdutoService.salvarImagem(1L,
+                new MockMultipartFile("arquivo", "foto.png", "image/png", png(400, 200)));
+        String miniatura = resposta.miniaturas().get(160).substring("/imagens/".length());
+        Files.delete(imagemProdutoService.localizar(miniatura));
+        return miniatura;
+    }
+
+    private CountDownLatch ocuparPoolDeImagens() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(imagemProdutoService, "executor");
+        executor.execute(() -> {
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return liberar;
+    }
+
+    @Test
+    void testLocalizar_MiniaturaFaltandoGeradaUmaVezNoPool() throws Exception {
+        String miniatura = miniaturaPerdida();
+        CountDownLatch liberarPool = ocuparPoolDeImagens();
+
+        ExecutorService clientes = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> pedidos = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                pedidos.add(clientes.submit(() -> imagemProdutoService.localizar(miniatura)));
+            }
+            Thread.sleep(200);
+
+            // Com o pool ocupado nenhuma requisicao decodifica por conta propria: todas esperam o mesmo futuro
+            Map<?, ?> emPreparo = (Map<?, ?>) ReflectionTestUtils.getField(imagemProdutoService, "emPreparo");
+            assertEquals(1, emPreparo.size());
+            assertTrue(pedidos.stream().noneMatch(Future::isDone));
+
+            liberarPool.countDown();
+            Path gerada = pedidos.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Path> pedido : pedidos) {
+                assertEquals(gerada, pedido.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(160, ImageIO.read(gerada.toFile()).getWidth());
+            // A entrada sai do mapa logo depois de o futuro completar, na thread que o completou
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!emPreparo.isEmpty() && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            assertTrue(emPreparo.isEmpty());
+        } finally {
+            clientes.shutdownNow();
+        }
+    }
+
+    @Test
+    void testLocalizar_MiniaturaQueNaoFicaProntaNoPrazo() throws Exception {
+        String miniatura = miniaturaPerdida();
+        ReflectionTestUtils.setField(imagemProdutoService, "esperaMiniatura", Duration.ofMillis(50));
+        CountDownLatch liberarPool = ocuparPoolDeImagens();
+
+        assertThrows(MiniaturaEmPreparoException.class, () -> imagemProdutoService.localizar(miniatura));
+
+        liberarPool.countDown();
+    }
+
+    @Test
+    void testLocalizar_NomeInvalidoOuLarguraNaoConfigurada() {
+        String hash = "a".repeat(64);
+        assertNull(imagemProdutoService.localizar("../segredo.png"));
+        assertNull(imagemProdutoService.localizar(hash + ".png"));
+        assertNull(imagemProdutoService.localizar(hash + "-999.png"));
+    }
+}
@@ -0,0 +1,195 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.request.SubRequisicaoDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.SubRespostaDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.lote.RequisicaoLote;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LoteRequisicaoServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DispatcherServlet dispatcherServlet = mock(DispatcherServlet.class);
+    private final LoteRequisicaoService loteRequisicaoService = new LoteRequisicaoService();
+
+    private final List<String> executadas = new CopyOnWriteArrayList<>();
+    private final CountDownLatch leiturasSimultaneas = new CountDownLatch(2);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Cadeia de seguranca de teste: exige o contexto do lote nos atributos da sub-requisicao
+        Filter filtroSeguranca = (request, response, chain) -> {
+            var contexto = new RequestAttributeSecurityContextRepository()
+                    .loadDeferredContext((HttpServletRequest) request).get();
+            if (contexto.getAuthentication() == null) {
+                ((HttpServletResponse) response).setStatus(401);
+                return;
+            }
+            chain.doFilter(request, response);
+        };
+        doAnswer(invocation -> {
+            HttpServletRequest request = invocation.getArgument(0);
+            HttpServletResponse response = invocation.getArgument(1);
+            atender(request, response);
+            return null;
+        }).when(dispatcherServlet).service(any(ServletRequest.class), any(ServletResponse.class));
+
+        ReflectionTestUtils.setField(loteRequisicaoService, "filtroSeguranca", filtroSeguranca);
+        ReflectionTestUtils.setField(loteRequisicaoService, "dispatcherServlet", dispatcherServlet);
+        ReflectionTestUtils.setField(loteRequisicaoService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(loteRequisicaoService, "maxRequisicoes", 5);
+        ReflectionTestUtils.setField(loteRequisicaoService, "threads", 4);
+        ReflectionTestUtils.setField(loteRequisicaoService, "timeout", Duration.ofSeconds(10));
+        loteRequisicaoService.iniciar();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin@farmacia.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loteRequisicaoService.encerrar();
+        SecurityContextHolder.clearContext();
+    }
+
+    private void atender(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        String caminho = request.getRequestURI();
+        if (caminho.equals("/inexistente")) {
+            response.sendError(404);
+            return;
+        }
+        if (request.getMethod().equals("GET")) {
+            // As duas leituras precisam estar rodando juntas para passar daqui
+            leiturasSimultaneas.countDown();
+            assertTrue(leiturasSimultaneas.await(5, TimeUnit.SECONDS));
+        }
+        executadas.add(request.getMethod() + " " + caminho);
+
+        ObjectNode corpo = objectMapper.createObjectNode()
+                .put("metodo", request.getMethod())
+                .put("caminho", request.getServletPath())
+                .put("nome", request.getParameter("nome"))
+                .put("ifMatch", request.getHeader("If-Match"))
+                .put("autorizacao", Collections.list(request.getHeaderNames()).contains("Authorization"));
+        if (request.getContentLength() > 0) {
+            corpo.set("recebido", objectMapper.readTree(request.getInputStream()));
+        }
+        response.setStatus(request.getMethod().equals("GET") ? 200 : 201);
+        response.setHeader("ETag", "\"3\"");
+        response.setContentType("application/json");
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(corpo));
+    }
+
+    private List<SubRespostaDTO> executar(List<SubRequisicaoDTO> requisicoes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/batch");
+        request.addHeader("Authorization", "Bearer token");
+        return loteRequisicaoService.executar(requisicoes, request);
+    }
+
+    @Test
+    void testExecutar_LeiturasEmParaleloEEscritaDepoisDelas() throws Exception {
+        List<SubRespostaDTO> respostas = executar(List.of(
+                new SubRequisicaoDTO("pessoa", "GET", "/pessoa/1", null, null),
+                new SubRequisicaoDTO("busca", "get", "/pessoa?nome=Jo%C3%A3o+Silva", null, null),
+                new SubRequisicaoDTO("editar", "PUT", "/pessoa/update/1", Map.of("If-Match", "\"2\""),
+                        objectMapper.readTree("{\"nome\":\"João\"}"))));
+
+        assertEquals(List.of("pessoa", "busca", "editar"), respostas.stream().map(SubRespostaDTO::id).toList());
+        assertEquals("PUT /pessoa/update/1", executadas.get(2));
+
+        SubRespostaDTO busca = respostas.get(1);
+        assertEquals(200, busca.status());
+        assertEquals("/pessoa", busca.corpo().get("caminho").asText());
+        assertEquals("João Silva", busca.corpo().get("nome").asText());
+        // A autenticacao vem do contexto do lote, nao do token repassado
+        assertFalse(busca.corpo().get("autorizacao").asBoolean());
+
+        SubRespostaDTO edicao = respostas.get(2);
+        assertEquals(201, edicao.status());
+        assertEquals("\"3\"", edicao.cabecalhos().get("ETag"));
+        assertEquals("\"2\"", edicao.corpo().get("ifMatch").asText());
+        assertEquals("João", edicao.corpo().get("recebido").get("nome").asText());
+    }
+
+    @Test
+    void testExecutar_SendErrorViraCorpoDeErro() {
+        leiturasSimultaneas.countDown();
+        leiturasSimultaneas.countDown();
+
+        SubRespostaDTO resposta = executar(List.of(new SubRequisicaoDTO(null, "GET", "/inexistente", null, null))).get(0);
+
+        assertEquals(404, resposta.status());
+        assertEquals("NOT_FOUND", resposta.corpo().get("status").asText());
+    }
+
+    @Test
+    void testExecutar_SemAutenticacaoNoLote() {
+        SecurityContextHolder.clearContext();
+
+        SubRespostaDTO resposta = executar(List.of(new SubRequisicaoDTO(null, "DELETE", "/venda/delete/1", null, null))).get(0);
+
+        assertEquals(401, resposta.status());
+        assertTrue(executadas.isEmpty());
+    }
+
+    @Test
+    void testRequisicaoLote_CopiaOsDadosDaConexaoDoLote() {
+        MockHttpServletRequest lote = new MockHttpServletRequest("POST", "/batch");
+        lote.setScheme("https");
+        lote.setServerName("api.farmacia.com");
+        lote.setServerPort(443);
+        lote.setRemoteAddr("10.0.0.5");
+        lote.setContextPath("/api");
+
+        RequisicaoLote requisicao = new RequisicaoLote(lote, "GET", "/produto/1?x=1", null, null);
+        // O container recicla a requisicao do lote quando ela termina, mesmo com sub-requisicoes atrasadas
+        lote.setScheme("http");
+        lote.setServerName("reciclada");
+        lote.setRemoteAddr("0.0.0.0");
+        lote.setContextPath("");
+
+        assertEquals("10.0.0.5", requisicao.getRemoteAddr());
+        assertEquals("/api/produto/1", requisicao.getRequestURI());
+        assertEquals("https://api.farmacia.com/api/produto/1", requisicao.getRequestURL().toString());
+        assertEquals("https", requisicao.getScheme());
+        assertEquals(Boolean.TRUE, requisicao.getAttribute(RequisicaoLote.ATRIBUTO_SUB_REQUISICAO));
+    }
+
+    @Test
+    void testExecutar_RejeitaLoteAninhadoEExcessoDeRequisicoes() {
+        for (String url : List.of("/batch/", "/b%61tch", "/batch;x=1", "//batch", "/produto/../batch", "/venda/eventos/%73tream")) {
+            assertThrows(InvalidRequestException.class,
+                    () -> executar(List.of(new SubRequisicaoDTO(null, "POST", url, null, null))), url);
+        }
+        assertThrows(InvalidRequestException.class,
+                () -> executar(Collections.nCopies(6, new SubRequisicaoDTO(null, "GET", "/produto/all", null, null))));
+        assertTrue(executadas.isEmpty());
+    }
+}
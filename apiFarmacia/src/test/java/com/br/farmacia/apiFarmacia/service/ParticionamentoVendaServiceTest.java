@@ -0,0 +1,24 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParticionamentoVendaServiceTest {
+
+    @Test
+    void testComandos_CriaMesAtualEProximosAtravessandoOAno() {
+        List<String> comandos = ParticionamentoVendaService.comandos(YearMonth.of(2025, 11), 2);
+
+        assertEquals(6, comandos.size());
+        assertEquals("create table if not exists venda_2025_11 partition of venda "
+                + "for values from ('2025-11-01') to ('2025-12-01')", comandos.get(0));
+        assertEquals("create table if not exists itens_venda_2025_11 partition of itens_venda "
+                + "for values from ('2025-11-01') to ('2025-12-01')", comandos.get(1));
+        assertEquals("create table if not exists itens_venda_2026_01 partition of itens_venda "
+                + "for values from ('2026-01-01') to ('2026-02-01')", comandos.get(5));
+    }
+}
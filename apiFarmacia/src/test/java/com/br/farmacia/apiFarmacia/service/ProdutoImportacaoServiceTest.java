@@ -0,0 +1,194 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ImportacaoProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProdutoImportacaoServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ProdutoImportacaoService produtoImportacaoService;
+
+    private AutoCloseable mocks;
+    private ValidatorFactory validatorFactory;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        ReflectionTestUtils.setField(produtoImportacaoService, "validator", validatorFactory.getValidator());
+        ReflectionTestUtils.setField(produtoImportacaoService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(produtoImportacaoService, "tamanhoLote", 2);
+        ReflectionTestUtils.setField(produtoImportacaoService, "maxErrosRelatados", 10);
+
+        doAnswer(inv -> {
+            ((Consumer<TransactionStatus>) inv.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        validatorFactory.close();
+        mocks.close();
+    }
+
+    private static MockMultipartFile arquivo(String nome, String conteudo) {
+        return new MockMultipartFile("arquivo", nome, null, conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> lotesGravados(String sqlContendo) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeast(0)).batchUpdate(contains(sqlContendo), captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void testDividirLinha_RespeitaAspasESeparadores() {
+        assertEquals(List.of("a", "b", ""), ProdutoImportacaoService.dividirLinha("a,b,", ','));
+        assertEquals(List.of("Dipirona; 500mg", "12,50"),
+                ProdutoImportacaoService.dividirLinha("\"Dipirona; 500mg\";12,50", ';'));
+        assertEquals(List.of("Comprimido \"revestido\"", "x"),
+                ProdutoImportacaoService.dividirLinha("\"Comprimido \"\"revestido\"\"\",x", ','));
+        assertEquals(List.of(""), ProdutoImportacaoService.dividirLinha("", ','));
+    }
+
+    @Test
+    void testImportarCsv_ValidaLinhasEGravaEmLotes() {
+        String csv = "\uFEFF" + """
+                codigoFornecedor;nome;preco;descricao;dataValidade;fabricante
+                F1;Dipirona;12,50;"Analgesico; 500mg";2099-01-01;EMS
+                F2;Paracetamol;-1;Analgesico;2099-01-01;EMS
+
+                F3;Ibuprofeno;abc;Anti-inflamatorio;2099-01-01;EMS
+                ;Vitamina C;8.90;Suplemento;2099-01-01;Medley
+                F4;Omeprazol;20;Antiacido;2099-01-01;EMS
+                """;
+
+        ImportacaoProdutoResponseDTO resultado = produtoImportacaoService.importar(arquivo("produtos.csv", csv), false);
+
+        assertEquals(5, resultado.linhasLidas());
+        assertEquals(3, resultado.gravadas());
+        assertEquals(2, resultado.comErro());
+        assertEquals(List.of(3L, 5L), resultado.erros().stream().map(e -> e.linha()).toList());
+        assertEquals("F2", resultado.erros().get(0).codigoFornecedor());
+
+        // Lote de 2: [F1, sem codigo] e depois [F4]; as linhas sem codigo sao INSERT simples
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        List<List<Object[]>> upserts = lotesGravados("ON CONFLICT");
+        assertEquals(2, upserts.size());
+        assertEquals("F1", upserts.get(0).get(0)[6]);
+        assertEquals("Analgesico; 500mg", upserts.get(0).get(0)[2]);
+        assertEquals(12.5, upserts.get(0).get(0)[1]);
+        assertEquals("F4", upserts.get(1).get(0)[6]);
+        verify(eventPublisher).publishEvent(any(ProdutoCatalogoAlteradoEvent.class));
+    }
+
+    @Test
+    void testImportarCsv_CodigoRepetidoFechaOLoteAntes() {
+        ReflectionTestUtils.setField(produtoImportacaoService, "tamanhoLote", 10);
+        String csv = """
+                codigoFornecedor,nome,preco,descricao,dataValidade,fabricante
+                F1,Dipirona,10,Analgesico,2099-01-01,EMS
+                F1,Dipirona,11,Analgesico,2099-01-01,EMS
+                """;
+
+        ImportacaoProdutoResponseDTO resultado = produtoImportacaoService.importar(arquivo("produtos.csv", csv), false);
+
+        assertEquals(2, resultado.gravadas());
+        List<List<Object[]>> upserts = lotesGravados("ON CONFLICT");
+        assertEquals(2, upserts.size());
+        assertEquals(10.0, upserts.get(0).get(0)[1]);
+        assertEquals(11.0, upserts.get(1).get(0)[1]);
+    }
+
+    @Test
+    void testImportarCsv_ReativarExcluidosSoQuandoPedido() {
+        String csv = """
+                codigoFornecedor,nome,preco,descricao,dataValidade,fabricante
+                F1,Dipirona,10,Analgesico,2099-01-01,EMS
+                """;
+
+        // Reimportar o arquivo do fornecedor nao desfaz a exclusao feita por um administrador
+        produtoImportacaoService.importar(arquivo("produtos.csv", csv), false);
+        assertEquals(1, lotesGravados("ON CONFLICT").size());
+        assertTrue(lotesGravados("data_exclusao").isEmpty());
+
+        clearInvocations(jdbcTemplate);
+        produtoImportacaoService.importar(arquivo("produtos.csv", csv), true);
+        assertEquals(1, lotesGravados("data_exclusao = NULL").size());
+    }
+
+    @Test
+    void testImportarCsv_FalhaNoLoteViraErroPorLinha() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataIntegrityViolationException("duplicado"));
+        String csv = """
+                codigoFornecedor,nome,preco,descricao,dataValidade,fabricante
+                F1,Dipirona,10,Analgesico,2099-01-01,EMS
+                F2,Paracetamol,10,Analgesico,2099-01-01,EMS
+                """;
+
+        ImportacaoProdutoResponseDTO resultado = produtoImportacaoService.importar(arquivo("produtos.csv", csv), false);
+
+        assertEquals(0, resultado.gravadas());
+        assertEquals(2, resultado.comErro());
+        assertTrue(resultado.erros().get(0).mensagens().get(0).startsWith("Falha ao gravar o lote"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testImportarJson_RegistroInvalidoNaoInterrompeOArquivo() {
+        String json = """
+                [
+                  {"codigoFornecedor": "F1", "nome": "Dipirona", "preco": 10, "descricao": "Analgesico",
+                   "dataValidade": "2099-01-01", "fabricante": "EMS"},
+                  {"codigoFornecedor": "F2", "nome": "Paracetamol", "preco": "caro", "descricao": "Analgesico",
+                   "dataValidade": "2099-01-01", "fabricante": "EMS"},
+                  {"codigoFornecedor": "F3", "nome": "", "preco": 10, "descricao": "Analgesico",
+                   "dataValidade": "2099-01-01", "fabricante": "EMS"}
+                ]
+                """;
+
+        ImportacaoProdutoResponseDTO resultado = produtoImportacaoService.importar(arquivo("produtos.json", json), false);
+
+        assertEquals(3, resultado.linhasLidas());
+        assertEquals(1, resultado.gravadas());
+        assertEquals(List.of("F2", "F3"), resultado.erros().stream().map(e -> e.codigoFornecedor()).toList());
+        assertEquals(1, lotesGravados("ON CONFLICT").size());
+    }
+}
@@ -1,15 +1,22 @@
 package com.br.farmacia.apiFarmacia.service;
 
+import com.br.farmacia.apiFarmacia.data.dto.request.AjustePrecoRequestDTO;
 import com.br.farmacia.apiFarmacia.data.dto.request.ProdutoRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.TipoAjustePreco;
+import com.br.farmacia.apiFarmacia.data.dto.response.AjustePrecoResponseDTO;
 import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
 import com.br.farmacia.apiFarmacia.data.entity.Produto;
 import com.br.farmacia.apiFarmacia.exceptions.general.EntityNotFoundException;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
 import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.util.*;
 
@@ -22,6 +29,9 @@ class ProdutoServiceTest {
     @Mock
     private ProdutoRepository produtoRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProdutoService produtoService;
 
@@ -80,13 +90,22 @@ class ProdutoServiceTest {
         when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
         when(produtoRepository.save(any(Produto.class))).thenReturn(produto);
 
-        ProdutoResponseDTO response = produtoService.updateProduto(1L, requestDTO);
+        ProdutoResponseDTO response = produtoService.updateProduto(1L, requestDTO, null);
 
         assertNotNull(response);
         assertEquals("Dipirona", response.nome());
         verify(produtoRepository, times(1)).save(produto);
     }
 
+    @Test
+    void testUpdateProduto_VersaoDesatualizada() {
+        produto.setVersao(3L);
+        when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> produtoService.updateProduto(1L, requestDTO, 2L));
+        verify(produtoRepository, never()).save(any(Produto.class));
+    }
+
     @Test
     void testDeleteProduto() {
         when(produtoRepository.findById(1L)).thenReturn(Optional.of(produto));
@@ -100,12 +119,32 @@ class ProdutoServiceTest {
 
     @Test
     void testGetAllProdutos() {
-        when(produtoRepository.findAll()).thenReturn(List.of(produto));
+        when(produtoRepository.listarTodos()).thenReturn(List.of(new ProdutoResponseDTO(produto)));
 
         List<ProdutoResponseDTO> lista = produtoService.getAllProdutos();
 
         assertEquals(1, lista.size());
         assertEquals("Dipirona", lista.get(0).nome());
-        verify(produtoRepository, times(1)).findAll();
+        verify(produtoRepository, times(1)).listarTodos();
+        verify(produtoRepository, never()).findAll();
+    }
+
+    @Test
+    void testAjustarPrecos() {
+        AjustePrecoRequestDTO ajuste = new AjustePrecoRequestDTO(TipoAjustePreco.PERCENTUAL, 10.0, "Neo Química", null, null);
+        when(produtoRepository.ajustarPrecos(ajuste)).thenReturn(42);
+
+        AjustePrecoResponseDTO response = produtoService.ajustarPrecos(ajuste);
+
+        assertEquals(42, response.produtosAfetados());
+        verify(eventPublisher, times(1)).publishEvent(ProdutoCatalogoAlteradoEvent.catalogoInteiro());
+    }
+
+    @Test
+    void testAjustarPrecos_SemFiltro() {
+        AjustePrecoRequestDTO ajuste = new AjustePrecoRequestDTO(TipoAjustePreco.ABSOLUTO, 1.0, null, " ", List.of());
+
+        assertThrows(InvalidRequestException.class, () -> produtoService.ajustarPrecos(ajuste));
+        verify(produtoRepository, never()).ajustarPrecos(any());
     }
 }
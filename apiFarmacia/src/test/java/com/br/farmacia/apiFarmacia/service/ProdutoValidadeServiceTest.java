@@ -0,0 +1,121 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutosVencendoDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.ProdutoCatalogoAlteradoEvent;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProdutoValidadeServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @InjectMocks
+    private ProdutoValidadeService produtoValidadeService;
+
+    private AutoCloseable mocks;
+    private TimeZone fusoOriginal;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(produtoValidadeService, "diasVencimento", 30);
+        when(produtoRepository.listarPorValidade(any(), any())).thenReturn(List.of());
+
+        // Fuso diferente de UTC para garantir que os limites nao dependem do fuso da JVM
+        fusoOriginal = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/Sao_Paulo"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TimeZone.setDefault(fusoOriginal);
+        mocks.close();
+    }
+
+    private static Date meiaNoiteUtc(LocalDate data) {
+        return Date.from(Instant.parse(data + "T00:00:00Z"));
+    }
+
+    @Test
+    void testInicioDoDia_UsaMeiaNoiteUtc() {
+        LocalDate data = LocalDate.of(2030, 5, 10);
+
+        assertEquals(meiaNoiteUtc(data), ProdutoValidadeService.inicioDoDia(data));
+        assertEquals(data, ProdutoValidadeService.diaDaValidade(meiaNoiteUtc(data)));
+    }
+
+    @Test
+    void testBuscarPorValidade_IntervaloFechadoNasDatasInformadas() {
+        Page<ProdutoResponseDTO> vazia = new PageImpl<>(List.of());
+        when(produtoRepository.buscarPorValidade(any(), any(), any(Pageable.class))).thenReturn(vazia);
+
+        produtoValidadeService.buscarPorValidade(LocalDate.of(2030, 5, 1), LocalDate.of(2030, 5, 31), 0, 500);
+
+        verify(produtoRepository).buscarPorValidade(eq(meiaNoiteUtc(LocalDate.of(2030, 5, 1))),
+                eq(meiaNoiteUtc(LocalDate.of(2030, 6, 1))), eq(Pageable.ofSize(200)));
+    }
+
+    @Test
+    void testBuscarPorValidade_RejeitaFimAntesDoInicio() {
+        assertThrows(InvalidRequestException.class, () ->
+                produtoValidadeService.buscarPorValidade(LocalDate.of(2030, 5, 2), LocalDate.of(2030, 5, 1), 0, 10));
+    }
+
+    @Test
+    void testSnapshot_JanelaDeHojeAteODiaLimite() {
+        LocalDate hoje = LocalDate.now();
+
+        ProdutosVencendoDTO vencendo = produtoValidadeService.getProdutosVencendo();
+
+        assertEquals(hoje.plusDays(30), vencendo.ate());
+        verify(produtoRepository).listarPorValidade(meiaNoiteUtc(hoje), meiaNoiteUtc(hoje.plusDays(31)));
+    }
+
+    @Test
+    void testSnapshot_ReaproveitadoAteOCatalogoMudar() {
+        ProdutosVencendoDTO primeiro = produtoValidadeService.getProdutosVencendo();
+        assertSame(primeiro, produtoValidadeService.getProdutosVencendo());
+        verify(produtoRepository, times(1)).listarPorValidade(any(), any());
+
+        produtoValidadeService.onCatalogoAlterado(ProdutoCatalogoAlteradoEvent.catalogoInteiro());
+
+        assertNotSame(primeiro, produtoValidadeService.getProdutosVencendo());
+        verify(produtoRepository, times(2)).listarPorValidade(any(), any());
+    }
+
+    @Test
+    void testSnapshot_RefeitoQuandoODiaVira() {
+        ReflectionTestUtils.setField(produtoValidadeService, "desatualizado", false);
+        ReflectionTestUtils.setField(produtoValidadeService, "snapshot", new ProdutosVencendoDTO(
+                LocalDateTime.now().minusDays(1), 30, LocalDate.now().plusDays(29), List.of()));
+
+        ProdutosVencendoDTO vencendo = produtoValidadeService.getProdutosVencendo();
+
+        assertEquals(LocalDate.now(), vencendo.geradoEm().toLocalDate());
+        verify(produtoRepository, times(1)).listarPorValidade(any(), any());
+    }
+}
@@ -0,0 +1,146 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemCestaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.response.CarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ItemCarrinhoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.ProdutoResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RecomendacaoResponseDTO;
+import com.br.farmacia.apiFarmacia.infra.evento.TipoEventoVenda;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEvento;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RecomendacaoServiceTest {
+
+    @Mock
+    private ItensVendaRepository itensVendaRepository;
+
+    @Mock
+    private VendaRepository vendaRepository;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private CarrinhoService carrinhoService;
+
+    @InjectMocks
+    private RecomendacaoService recomendacaoService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(recomendacaoService, "vizinhos", 3);
+        ReflectionTestUtils.setField(recomendacaoService, "maxItensPorVenda", 50);
+        ReflectionTestUtils.setField(recomendacaoService, "capacidadePares", 16);
+        ReflectionTestUtils.setField(recomendacaoService, "tamanhoLote", 2);
+        recomendacaoService.iniciar();
+
+        // Devolve so os ativos: o 4 foi excluido
+        when(produtoRepository.listarAtivosPorIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 4L).map(RecomendacaoServiceTest::produto).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        recomendacaoService.encerrar();
+        mocks.close();
+    }
+
+    private static ProdutoResponseDTO produto(long id) {
+        return new ProdutoResponseDTO(id, "Produto " + id, 10.0, null, null, null, null, null, 0L);
+    }
+
+    private static ItemCestaProjection item(long idVenda, long idItem, long idProduto) {
+        return new ItemCestaProjection(idVenda, idItem, idProduto);
+    }
+
+    @Test
+    void testReconstruir_LeHistoricoEmPaginasERecomendaAtivos() {
+        when(vendaRepository.maiorId()).thenReturn(3L);
+        // Pagina de 2 itens: a venda 2 fica dividida entre a segunda e a terceira pagina
+        when(itensVendaRepository.listarCestas(eq(0L), eq(0L), eq(3L), any(Limit.class)))
+                .thenReturn(List.of(item(1, 1, 1), item(1, 2, 2)));
+        when(itensVendaRepository.listarCestas(eq(1L), eq(2L), eq(3L), any(Limit.class)))
+                .thenReturn(List.of(item(2, 3, 1), item(2, 4, 2)));
+        when(itensVendaRepository.listarCestas(eq(2L), eq(4L), eq(3L), any(Limit.class)))
+                .thenReturn(List.of(item(2, 5, 4), item(3, 6, 1)));
+        when(itensVendaRepository.listarCestas(eq(3L), eq(6L), eq(3L), any(Limit.class)))
+                .thenReturn(List.of(item(3, 7, 3)));
+        when(produtoRepository.existsById(1L)).thenReturn(true);
+
+        recomendacaoService.reconstruir();
+        List<RecomendacaoResponseDTO> recomendacoes = recomendacaoService.recomendarParaProduto(1L);
+
+        assertEquals(List.of(2L, 3L), recomendacoes.stream().map(RecomendacaoResponseDTO::idProduto).toList());
+        assertEquals(2, recomendacoes.get(0).compradosJuntos());
+    }
+
+    @Test
+    void testReconstruir_VendaCriadaEnquantoOCorteELidoNaoSePerde() {
+        // A venda 4 e criada logo depois de o corte (3) ser lido: nao vem na leitura, precisa vir da lista
+        when(vendaRepository.maiorId()).thenAnswer(invocation -> {
+            venderNaVenda(4, 1, 3);
+            return 3L;
+        });
+        when(itensVendaRepository.listarCestas(anyLong(), anyLong(), anyLong(), any(Limit.class))).thenReturn(List.of());
+        when(produtoRepository.existsById(1L)).thenReturn(true);
+
+        recomendacaoService.reconstruir();
+
+        assertEquals(List.of(3L), recomendacaoService.recomendarParaProduto(1L).stream()
+                .map(RecomendacaoResponseDTO::idProduto).toList());
+    }
+
+    @Test
+    void testOnEvento_CarrinhoSomaVizinhosSemRepetirItens() {
+        vender(1, 2, 5);
+        vender(2, 5);
+        vender(1, 3);
+        vender(2, 4);
+        recomendacaoService.recalcularTop();
+        when(carrinhoService.getCarrinhoByUsuario(7L)).thenReturn(new CarrinhoResponseDTO(1L, 7L, "Ana", LocalDate.now(), 20.0,
+                List.of(new ItemCarrinhoResponseDTO(1L, 1L, "Produto 1", 1, 10.0, 10.0),
+                        new ItemCarrinhoResponseDTO(2L, 2L, "Produto 2", 1, 10.0, 10.0)), 0L));
+
+        List<RecomendacaoResponseDTO> recomendacoes = recomendacaoService.recomendarParaCarrinho(7L);
+
+        // 5 soma 1 (com o 1) + 2 (com o 2); o 4 foi excluido do catalogo
+        assertEquals(List.of(5L, 3L), recomendacoes.stream().map(RecomendacaoResponseDTO::idProduto).toList());
+        assertEquals(3, recomendacoes.get(0).compradosJuntos());
+    }
+
+    private void vender(long... idsProdutos) {
+        venderNaVenda(0, idsProdutos);
+    }
+
+    private void venderNaVenda(long idVenda, long... idsProdutos) {
+        VendaEvento evento = mock(VendaEvento.class);
+        when(evento.getTipo()).thenReturn(TipoEventoVenda.CRIADA);
+        when(evento.getIdVenda()).thenReturn(idVenda);
+        when(evento.getQuantidadeItens()).thenReturn(idsProdutos.length);
+        when(evento.getIdProduto(anyInt())).thenAnswer(invocation -> idsProdutos[(int) invocation.getArgument(0)]);
+        recomendacaoService.onEvento(evento, 0, true);
+    }
+}
@@ -0,0 +1,138 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.LinhaRelatorioProjection;
+import com.br.farmacia.apiFarmacia.data.dto.request.AgrupamentoRelatorio;
+import com.br.farmacia.apiFarmacia.data.dto.request.FormatoRelatorio;
+import com.br.farmacia.apiFarmacia.data.dto.request.RelatorioVendasRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.RelatorioJobResponseDTO;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.service.RelatorioVendasService.ArquivoRelatorio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RelatorioVendasServiceTest {
+
+    @Mock
+    private ItensVendaRepository itensVendaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RelatorioVendasService relatorioVendasService;
+
+    @TempDir
+    Path diretorio;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(relatorioVendasService, "diretorio", diretorio);
+        ReflectionTestUtils.setField(relatorioVendasService, "jobsSimultaneos", 1);
+        ReflectionTestUtils.setField(relatorioVendasService, "paralelismo", 2);
+        ReflectionTestUtils.setField(relatorioVendasService, "diasPorParte", 7);
+        ReflectionTestUtils.setField(relatorioVendasService, "retencao", Duration.ofDays(1));
+        relatorioVendasService.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() {
+        relatorioVendasService.encerrar();
+    }
+
+    @Test
+    void testSubmeter_SomaAsPartesDoMesEmCsv() throws Exception {
+        // Cada semana devolve a mesma venda do produto 1; o produto 2 so aparece na primeira semana
+        when(itensVendaRepository.totalizarPorProduto(any(), any())).thenAnswer(invocation -> {
+            LocalDate inicio = invocation.getArgument(0);
+            LinhaRelatorioProjection dipirona = new LinhaRelatorioProjection("1", "Dipirona, 500mg", 1L, 2L, 10.0);
+            return inicio.getDayOfMonth() == 1
+                    ? List.of(dipirona, new LinhaRelatorioProjection("2", "Soro", 1L, 1L, 3.5))
+                    : List.of(dipirona);
+        });
+
+        RelatorioJobResponseDTO job = relatorioVendasService.submeter(
+                new RelatorioVendasRequestDTO(AgrupamentoRelatorio.PRODUTO, 2025, 2, null, null));
+        assertEquals(LocalDate.of(2025, 2, 1), job.inicio());
+        assertEquals(LocalDate.of(2025, 2, 28), job.fim());
+        assertEquals(4, job.partesTotais());
+
+        RelatorioJobResponseDTO concluido = aguardar(job.idRelatorio());
+        assertEquals("CONCLUIDO", concluido.status());
+        assertEquals(4, concluido.partesConcluidas());
+        verify(itensVendaRepository).totalizarPorProduto(LocalDate.of(2025, 2, 22), LocalDate.of(2025, 2, 28));
+
+        ArquivoRelatorio arquivo = relatorioVendasService.getArquivo(job.idRelatorio());
+        assertEquals("vendas-por-produto-2025-02.csv", arquivo.nome());
+        String csv = Files.readString(arquivo.caminho(), StandardCharsets.UTF_8);
+        assertEquals("\uFEFFId produto,Produto,Vendas,Quantidade,Receita\r\n"
+                + "1,\"Dipirona, 500mg\",4,8,40.00\r\n"
+                + "2,Soro,1,1,3.50\r\n", csv);
+    }
+
+    @Test
+    void testSubmeter_TrimestreEmXlsx() throws Exception {
+        when(itensVendaRepository.totalizarPorFabricante(any(), any()))
+                .thenReturn(List.of(new LinhaRelatorioProjection("EMS & Cia", "EMS & Cia", 1L, 1L, 1.0)));
+
+        RelatorioJobResponseDTO job = relatorioVendasService.submeter(
+                new RelatorioVendasRequestDTO(AgrupamentoRelatorio.FABRICANTE, 2025, null, 2, FormatoRelatorio.XLSX));
+        assertEquals(LocalDate.of(2025, 4, 1), job.inicio());
+        assertEquals(LocalDate.of(2025, 6, 30), job.fim());
+        assertEquals("CONCLUIDO", aguardar(job.idRelatorio()).status());
+
+        String planilha = null;
+        try (InputStream in = Files.newInputStream(relatorioVendasService.getArquivo(job.idRelatorio()).caminho());
+             ZipInputStream zip = new ZipInputStream(in)) {
+            for (ZipEntry entrada = zip.getNextEntry(); entrada != null; entrada = zip.getNextEntry()) {
+                if (entrada.getName().equals("xl/worksheets/sheet1.xml")) {
+                    planilha = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertNotNull(planilha);
+        assertTrue(planilha.contains("<t xml:space=\"preserve\">EMS &amp; Cia</t>"));
+        assertTrue(planilha.contains("<c><v>13</v></c>"));
+    }
+
+    @Test
+    void testSubmeter_ExigeMesOuTrimestre() {
+        assertThrows(InvalidRequestException.class, () -> relatorioVendasService.submeter(
+                new RelatorioVendasRequestDTO(AgrupamentoRelatorio.CLIENTE, 2025, 1, 1, null)));
+    }
+
+    private RelatorioJobResponseDTO aguardar(Long idRelatorio) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            RelatorioJobResponseDTO job = relatorioVendasService.consultar(idRelatorio);
+            // status e gravado por ultimo; concluidoEm pode aparecer antes dele
+            if (job.status().equals("CONCLUIDO") || job.status().equals("FALHOU")) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("O relatorio nao terminou");
+        return null;
+    }
+}
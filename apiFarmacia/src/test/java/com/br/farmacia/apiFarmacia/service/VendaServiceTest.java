@@ -0,0 +1,344 @@
+package com.br.farmacia.apiFarmacia.service;
+
+import com.br.farmacia.apiFarmacia.data.dto.projection.CompraProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.ItemVendaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.projection.VendaProjection;
+import com.br.farmacia.apiFarmacia.data.dto.request.ItensVendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.request.VendaRequestDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.CompraResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.PaginaCursorDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendaResponseDTO;
+import com.br.farmacia.apiFarmacia.data.dto.response.VendasNormalizadasDTO;
+import com.br.farmacia.apiFarmacia.data.entity.ItensVenda;
+import com.br.farmacia.apiFarmacia.data.entity.Pessoa;
+import com.br.farmacia.apiFarmacia.data.entity.Produto;
+import com.br.farmacia.apiFarmacia.data.entity.UserRole;
+import com.br.farmacia.apiFarmacia.data.entity.Venda;
+import com.br.farmacia.apiFarmacia.exceptions.general.InvalidRequestException;
+import com.br.farmacia.apiFarmacia.infra.evento.VendaEventoPublisher;
+import com.br.farmacia.apiFarmacia.repository.ItensVendaRepository;
+import com.br.farmacia.apiFarmacia.repository.PessoaRepository;
+import com.br.farmacia.apiFarmacia.repository.ProdutoRepository;
+import com.br.farmacia.apiFarmacia.repository.VendaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class VendaServiceTest {
+
+    @Mock
+    private VendaRepository vendaRepository;
+
+    @Mock
+    private PessoaRepository pessoaRepository;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ItensVendaRepository itensVendaRepository;
+
+    @Mock
+    private VendaEventoPublisher vendaEventoPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private VendaService vendaService;
+
+    private Venda venda;
+    private ItensVenda itemA;
+    private ItensVenda itemB;
+    private ItensVenda itemC;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class)));
+
+        Pessoa pessoa = new Pessoa();
+        pessoa.setIdPessoa(1L);
+
+        venda = new Venda();
+        venda.setIdVenda(10L);
+        venda.setIdUsuario(pessoa);
+        venda.setDataCompra(LocalDate.now());
+
+        itemA = item(produto(1L), 2);
+        itemB = item(produto(2L), 1);
+        itemC = item(produto(3L), 5);
+        venda.setItens(new ArrayList<>(List.of(itemA, itemB, itemC)));
+
+        when(vendaRepository.findById(10L)).thenReturn(Optional.of(venda));
+        when(vendaRepository.save(any(Venda.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateVenda_AlteraSomenteOQueMudou() {
+        Produto produtoD = produto(4L);
+        when(produtoRepository.findAllById(List.of(4L))).thenReturn(List.of(produtoD));
+        // Reajuste depois da venda: o item ja vendido mantem o preco praticado, o novo usa o atual
+        itemA.getProduto().setPreco(12.0);
+        produtoD.setPreco(7.5);
+
+        VendaRequestDTO dto = new VendaRequestDTO(1L, List.of(
+                new ItensVendaRequestDTO(1L, 2),
+                new ItensVendaRequestDTO(2L, 3),
+                new ItensVendaRequestDTO(4L, 1)
+        ));
+
+        VendaResponseDTO response = vendaService.updateVenda(10L, dto, null);
+
+        assertEquals(2, itemA.getQuantidade());
+        assertEquals(3, itemB.getQuantidade());
+        verify(itensVendaRepository, times(1)).deleteAllInBatch(List.of(itemC));
+
+        ArgumentCaptor<List<ItensVenda>> novos = ArgumentCaptor.forClass(List.class);
+        verify(itensVendaRepository, times(1)).saveAll(novos.capture());
+        assertEquals(1, novos.getValue().size());
+        assertEquals(4L, novos.getValue().get(0).getProduto().getIdProduto());
+
+        assertEquals(7.5, novos.getValue().get(0).getPrecoUnitario());
+
+        verify(produtoRepository, never()).findById(any());
+        assertEquals(3, response.itens().size());
+        assertEquals(10.0, response.itens().get(0).precoUnitario());
+        assertEquals(20.0, response.itens().get(0).subTotal());
+    }
+
+    @Test
+    void testUpdateVenda_SemMudancasNaoGravaItens() {
+        VendaRequestDTO dto = new VendaRequestDTO(1L, List.of(
+                new ItensVendaRequestDTO(1L, 2),
+                new ItensVendaRequestDTO(2L, 1),
+                new ItensVendaRequestDTO(3L, 5)
+        ));
+
+        vendaService.updateVenda(10L, dto, null);
+
+        verify(itensVendaRepository, never()).deleteAllInBatch(any());
+        verify(itensVendaRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdateVenda_EtagComAVersaoDepoisDoCommit() {
+        venda.setVersao(3L);
+        // Commit: comprador trocado deixa a venda suja (o flush incrementa) e o incremento forcado vem em seguida
+        doAnswer(invocation -> {
+            Object resultado = ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(mock(TransactionStatus.class));
+            venda.setVersao(venda.getVersao() + 2);
+            return resultado;
+        }).when(transactionTemplate).execute(any());
+        Pessoa outra = new Pessoa();
+        outra.setIdPessoa(2L);
+        when(pessoaRepository.findById(2L)).thenReturn(Optional.of(outra));
+
+        VendaResponseDTO response = vendaService.updateVenda(10L, new VendaRequestDTO(2L, List.of(
+                new ItensVendaRequestDTO(1L, 2), new ItensVendaRequestDTO(2L, 1), new ItensVendaRequestDTO(3L, 5))), 3L);
+
+        verify(vendaRepository).incrementarVersao(venda);
+        assertEquals(5L, response.versao());
+    }
+
+    @Test
+    void testUpdateVenda_EdicoesConcorrentesComOMesmoIfMatch() throws Exception {
+        // "Banco" com a versao atual; cada edicao carrega a sua propria copia da venda
+        AtomicLong versaoNoBanco = new AtomicLong(3L);
+        when(vendaRepository.findById(10L)).thenAnswer(inv -> {
+            Venda copia = new Venda();
+            copia.setIdVenda(10L);
+            copia.setIdUsuario(venda.getIdUsuario());
+            copia.setDataCompra(venda.getDataCompra());
+            copia.setItens(new ArrayList<>(venda.getItens()));
+            copia.setVersao(versaoNoBanco.get());
+            return Optional.of(copia);
+        });
+
+        // As duas edicoes passam pela conferencia do If-Match antes de qualquer uma gravar
+        CyclicBarrier ambasConferiram = new CyclicBarrier(2);
+        when(vendaRepository.save(any(Venda.class))).thenAnswer(inv -> {
+            ambasConferiram.await(5, TimeUnit.SECONDS);
+            return inv.getArgument(0);
+        });
+        // UPDATE venda SET versao = versao + 1 WHERE id = ? AND versao = ?
+        doAnswer(inv -> {
+            Venda copia = inv.getArgument(0);
+            if (!versaoNoBanco.compareAndSet(copia.getVersao(), copia.getVersao() + 1)) {
+                throw new ObjectOptimisticLockingFailureException(Venda.class, 10L);
+            }
+            copia.setVersao(copia.getVersao() + 1);
+            return null;
+        }).when(vendaRepository).incrementarVersao(any(Venda.class));
+
+        VendaRequestDTO dto = new VendaRequestDTO(1L, List.of(
+                new ItensVendaRequestDTO(1L, 2), new ItensVendaRequestDTO(2L, 1), new ItensVendaRequestDTO(3L, 5)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<VendaResponseDTO>> edicoes = List.of(
+                    executor.submit(() -> vendaService.updateVenda(10L, dto, 3L)),
+                    executor.submit(() -> vendaService.updateVenda(10L, dto, 3L)));
+
+            List<Long> versoes = new ArrayList<>();
+            int conflitos = 0;
+            for (Future<VendaResponseDTO> edicao : edicoes) {
+                try {
+                    versoes.add(edicao.get(5, TimeUnit.SECONDS).versao());
+                } catch (ExecutionException e) {
+                    assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+                    conflitos++;
+                }
+            }
+
+            assertEquals(List.of(4L), versoes);
+            assertEquals(1, conflitos);
+            assertEquals(4L, versaoNoBanco.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Quem ainda tem o ETag antigo e recusado ja na conferencia, sem gravar nada
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> vendaService.updateVenda(10L, dto, 3L));
+    }
+
+    @Test
+    void testGetAllVendasNormalizadas_CompradorEProdutoUmaVezSo() {
+        when(vendaRepository.listarTodas()).thenReturn(List.of(
+                new VendaProjection(10L, 1L, "Ana", "123", "9999", "ana@x.com", UserRole.USER, null, LocalDate.now(), null, 0L),
+                new VendaProjection(11L, 1L, "Ana", "123", "9999", "ana@x.com", UserRole.USER, null, LocalDate.now(), null, 0L)));
+        when(itensVendaRepository.listarTodos()).thenReturn(List.of(
+                new ItemVendaProjection(10L, 1L, "Produto 1", 2, 10.0),
+                new ItemVendaProjection(11L, 1L, "Produto 1", 1, 10.0),
+                new ItemVendaProjection(11L, 2L, "Produto 2", 3, 5.0)));
+
+        VendasNormalizadasDTO resposta = vendaService.getAllVendasNormalizadas();
+
+        assertEquals(2, resposta.vendas().size());
+        assertEquals(1L, resposta.vendas().get(1).idUsuario());
+        assertEquals(15.0, resposta.vendas().get(1).itens().get(1).subTotal());
+        assertEquals(Set.of(1L), resposta.included().pessoas().keySet());
+        assertNull(resposta.included().pessoas().get(1L).senha());
+        assertEquals(List.of(1L, 2L), List.copyOf(resposta.included().produtos().keySet()));
+    }
+
+    // Simula a consulta keyset do repositorio sobre uma lista fixa, ordenada por data desc e id desc
+    private void simularCompras(List<CompraProjection> compras) {
+        Comparator<CompraProjection> ordem = Comparator.comparing(CompraProjection::dataCompra)
+                .thenComparing(CompraProjection::idVenda).reversed();
+        List<CompraProjection> ordenadas = compras.stream().sorted(ordem).toList();
+
+        when(vendaRepository.listarComprasDoUsuario(eq(1L), any(Limit.class))).thenAnswer(inv ->
+                ordenadas.stream().limit(inv.<Limit>getArgument(1).max()).toList());
+        when(vendaRepository.listarComprasDoUsuarioAntesDe(eq(1L), any(), any(), any(Limit.class))).thenAnswer(inv -> {
+            CompraProjection cursor = new CompraProjection(inv.getArgument(2), inv.getArgument(1));
+            return ordenadas.stream()
+                    .filter(c -> ordem.compare(c, cursor) > 0)
+                    .limit(inv.<Limit>getArgument(3).max())
+                    .toList();
+        });
+        when(itensVendaRepository.listarPorVendas(any(), any(), any())).thenAnswer(inv -> {
+            Collection<Long> ids = inv.getArgument(0);
+            return ids.stream().map(id -> new ItemVendaProjection(id, 1L, "Produto 1", 1, 10.0)).toList();
+        });
+    }
+
+    @Test
+    void testGetComprasDoUsuario_PercorreTodasAsPaginasComEmpateNaData() {
+        LocalDate hoje = LocalDate.of(2030, 3, 10);
+        // Cinco compras no mesmo dia: o cursor precisa desempatar pelo id
+        simularCompras(List.of(
+                new CompraProjection(1L, hoje.minusDays(2)),
+                new CompraProjection(2L, hoje),
+                new CompraProjection(3L, hoje),
+                new CompraProjection(4L, hoje.minusDays(1)),
+                new CompraProjection(5L, hoje),
+                new CompraProjection(6L, hoje),
+                new CompraProjection(7L, hoje)));
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> tamanhos = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaCursorDTO<CompraResponseDTO> pagina = vendaService.getComprasDoUsuario(1L, cursor, 3);
+            pagina.conteudo().forEach(compra -> ids.add(compra.idVenda()));
+            tamanhos.add(pagina.conteudo().size());
+            cursor = pagina.proximoCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(7L, 6L, 5L, 3L, 2L, 4L, 1L), ids);
+        assertEquals(List.of(3, 3, 1), tamanhos);
+        verify(itensVendaRepository).listarPorVendas(List.of(7L, 6L, 5L), hoje, hoje);
+        verify(itensVendaRepository).listarPorVendas(List.of(3L, 2L, 4L), hoje.minusDays(1), hoje);
+    }
+
+    @Test
+    void testGetComprasDoUsuario_UltimaPaginaCheiaNaoTemCursor() {
+        LocalDate hoje = LocalDate.of(2030, 3, 10);
+        simularCompras(List.of(new CompraProjection(1L, hoje), new CompraProjection(2L, hoje)));
+
+        PaginaCursorDTO<CompraResponseDTO> pagina = vendaService.getComprasDoUsuario(1L, null, 2);
+
+        assertEquals(2, pagina.conteudo().size());
+        assertEquals(10.0, pagina.conteudo().get(0).valorTotal());
+        assertNull(pagina.proximoCursor());
+    }
+
+    @Test
+    void testGetComprasDoUsuario_SemComprasDevolvePaginaVazia() {
+        simularCompras(List.of());
+
+        PaginaCursorDTO<CompraResponseDTO> pagina = vendaService.getComprasDoUsuario(1L, "", 20);
+
+        assertTrue(pagina.conteudo().isEmpty());
+        assertNull(pagina.proximoCursor());
+        verify(itensVendaRepository, never()).listarPorVendas(any(), any(), any());
+    }
+
+    @Test
+    void testGetComprasDoUsuario_CursorInvalido() {
+        simularCompras(List.of());
+
+        assertThrows(InvalidRequestException.class, () -> vendaService.getComprasDoUsuario(1L, "nao-e-um-cursor", 20));
+        String semSeparador = Base64.getUrlEncoder().withoutPadding().encodeToString("2030-03-10".getBytes());
+        assertThrows(InvalidRequestException.class, () -> vendaService.getComprasDoUsuario(1L, semSeparador, 20));
+    }
+
+    private static Produto produto(Long id) {
+        Produto produto = new Produto();
+        produto.setIdProduto(id);
+        produto.setNome("Produto " + id);
+        produto.setPreco(10.0);
+        return produto;
+    }
+
+    private ItensVenda item(Produto produto, int quantidade) {
+        ItensVenda item = new ItensVenda();
+        item.setVenda(venda);
+        item.setProduto(produto);
+        item.setPrecoUnitario(produto.getPreco());
+        item.setQuantidade(quantidade);
+        return item;
+    }
+}